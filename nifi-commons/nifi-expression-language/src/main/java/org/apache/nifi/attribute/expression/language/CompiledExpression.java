@@ -18,6 +18,7 @@
 package org.apache.nifi.attribute.expression.language;
 
 import org.antlr.runtime.tree.Tree;
+import org.apache.nifi.attribute.expression.language.compile.ClosureCompiler.CompiledFunction;
 import org.apache.nifi.attribute.expression.language.evaluation.Evaluator;
 import org.apache.nifi.expression.AttributeValueDecorator;
 
@@ -28,12 +29,22 @@ public class CompiledExpression implements Expression {
     private final Tree tree;
     private final String expression;
     private final Set<Evaluator<?>> allEvaluators;
+    private final CompiledFunction compiledFunction;
 
     public CompiledExpression(final String expression, final Evaluator<?> rootEvaluator, final Tree tree, final Set<Evaluator<?>> allEvaluators) {
+        this(expression, rootEvaluator, tree, allEvaluators, null);
+    }
+
+    /**
+     * @param compiledFunction a compiled form of the Evaluator tree to use in place of the interpreter, or <code>null</code> to interpret the Evaluator tree
+     */
+    public CompiledExpression(final String expression, final Evaluator<?> rootEvaluator, final Tree tree, final Set<Evaluator<?>> allEvaluators,
+                              final CompiledFunction compiledFunction) {
         this.rootEvaluator = rootEvaluator;
         this.tree = tree;
         this.expression = expression;
         this.allEvaluators = allEvaluators;
+        this.compiledFunction = compiledFunction;
     }
 
     public Evaluator<?> getRootEvaluator() {
@@ -53,8 +64,21 @@ public class CompiledExpression implements Expression {
         return allEvaluators;
     }
 
+    public boolean isCompiled() {
+        return compiledFunction != null;
+    }
+
     @Override
     public String evaluate(final EvaluationContext evaluationContext, final AttributeValueDecorator decorator) {
+        if (compiledFunction != null) {
+            final String value = compiledFunction.evaluate(evaluationContext);
+            if (value == null) {
+                return null;
+            }
+
+            return decorator == null ? value : decorator.decorate(value);
+        }
+
         return Query.evaluateExpression(tree, rootEvaluator, expression, evaluationContext, decorator);
     }
 }
@@ -0,0 +1,544 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.attribute.expression.language.compile;
+
+import org.apache.nifi.attribute.expression.language.EvaluationContext;
+import org.apache.nifi.attribute.expression.language.StandardEvaluationContext;
+import org.apache.nifi.attribute.expression.language.evaluation.Evaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.cast.NumberCastEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.AndEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.AppendEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ContainsEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.EndsWithEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.EqualsEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.EqualsIgnoreCaseEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.GreaterThanEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.GreaterThanOrEqualEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.IsEmptyEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.IsNullEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.LessThanEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.LessThanOrEqualEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.NotEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.NotNullEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.OrEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.PrependEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.StartsWithEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ToLowerEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ToUpperEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.TrimEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.BooleanLiteralEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.DecimalLiteralEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.StringLiteralEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.WholeNumberLiteralEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.selection.AttributeEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.util.NumberParsing;
+import org.apache.nifi.expression.AttributeExpression.ResultType;
+
+import java.util.Collections;
+import java.util.Date;
+
+/**
+ * <p>
+ * Compiles a tree of {@link Evaluator}s into a tree of specialized closures. The interpreter wraps the result of every Evaluator
+ * in a {@link org.apache.nifi.attribute.expression.language.evaluation.QueryResult}, so evaluating an expression such as
+ * <code>${filename:toUpper():endsWith('.TXT'):and(${fileSize:gt(1024)})}</code> allocates a result for every node of the tree.
+ * The closures produced here instead pass intermediate values directly, with boolean predicates and numeric comparisons using
+ * primitive values, and with literals folded into constants when the expression is compiled.
+ * </p>
+ *
+ * <p>
+ * Only the functions that are most commonly used for routing and attribute updates are compiled. Any other Evaluator is
+ * invoked through the interpreter, so an expression that uses an unsupported function is still compiled everywhere else.
+ * If the root of the expression cannot be compiled, no function is returned and the expression is interpreted as a whole.
+ * </p>
+ *
+ * <p>
+ * Compilation is disabled by default and is enabled by setting the <code>nifi.expression.language.compilation.enabled</code>
+ * system property to <code>true</code>, for example through a <code>java.arg</code> entry in bootstrap.conf.
+ * </p>
+ */
+public class ClosureCompiler {
+    public static final String COMPILATION_ENABLED_PROPERTY = "nifi.expression.language.compilation.enabled";
+
+    private static final boolean COMPILATION_ENABLED = Boolean.getBoolean(COMPILATION_ENABLED_PROPERTY);
+
+    /**
+     * A compiled expression
+     */
+    @FunctionalInterface
+    public interface CompiledFunction {
+        /**
+         * @param evaluationContext the context to evaluate against
+         * @return the String form of the expression's result, or <code>null</code> if the expression evaluates to <code>null</code>
+         */
+        String evaluate(EvaluationContext evaluationContext);
+    }
+
+    @FunctionalInterface
+    private interface BooleanFunction {
+        boolean evaluate(EvaluationContext evaluationContext);
+    }
+
+    @FunctionalInterface
+    private interface StringFunction {
+        String evaluate(EvaluationContext evaluationContext);
+    }
+
+    @FunctionalInterface
+    private interface ObjectFunction {
+        Object evaluate(EvaluationContext evaluationContext);
+    }
+
+    private enum Comparison {
+        GREATER_THAN,
+        GREATER_THAN_OR_EQUAL,
+        LESS_THAN,
+        LESS_THAN_OR_EQUAL;
+
+        boolean test(final long a, final long b) {
+            switch (this) {
+                case GREATER_THAN:
+                    return a > b;
+                case GREATER_THAN_OR_EQUAL:
+                    return a >= b;
+                case LESS_THAN:
+                    return a < b;
+                default:
+                    return a <= b;
+            }
+        }
+
+        boolean test(final double a, final double b) {
+            switch (this) {
+                case GREATER_THAN:
+                    return a > b;
+                case GREATER_THAN_OR_EQUAL:
+                    return a >= b;
+                case LESS_THAN:
+                    return a < b;
+                default:
+                    return a <= b;
+            }
+        }
+    }
+
+    private ClosureCompiler() {
+    }
+
+    /**
+     * @return <code>true</code> if Expression Language compilation has been enabled via the {@link #COMPILATION_ENABLED_PROPERTY} system property
+     */
+    public static boolean isEnabled() {
+        return COMPILATION_ENABLED;
+    }
+
+    /**
+     * Compiles the given Evaluator tree
+     *
+     * @param rootEvaluator the root of the Evaluator tree
+     * @return the compiled function, or <code>null</code> if the root Evaluator is not supported, in which case the expression should be interpreted
+     */
+    public static CompiledFunction compile(final Evaluator<?> rootEvaluator) {
+        switch (rootEvaluator.getResultType()) {
+            case BOOLEAN: {
+                final BooleanFunction function = compileBoolean(rootEvaluator);
+                if (function == null) {
+                    return null;
+                }
+                return context -> function.evaluate(context) ? "true" : "false";
+            }
+            case STRING: {
+                final StringFunction function = compileString(rootEvaluator);
+                if (function == null) {
+                    return null;
+                }
+                return function::evaluate;
+            }
+            default:
+                return null;
+        }
+    }
+
+    private static BooleanFunction compileBoolean(final Evaluator<?> evaluator) {
+        if (evaluator instanceof BooleanLiteralEvaluator) {
+            final boolean value = Boolean.TRUE.equals(evaluateConstant(evaluator));
+            return context -> value;
+        }
+
+        if (evaluator instanceof AndEvaluator andEvaluator) {
+            final BooleanFunction subject = compileBoolean(andEvaluator.getSubjectEvaluator());
+            final BooleanFunction rhs = compileBoolean(andEvaluator.getRhsEvaluator());
+            if (subject == null || rhs == null) {
+                return null;
+            }
+            return context -> subject.evaluate(context) && rhs.evaluate(context);
+        }
+
+        if (evaluator instanceof OrEvaluator orEvaluator) {
+            final BooleanFunction subject = compileBoolean(orEvaluator.getSubjectEvaluator());
+            final BooleanFunction rhs = compileBoolean(orEvaluator.getRhsEvaluator());
+            if (subject == null || rhs == null) {
+                return null;
+            }
+            return context -> subject.evaluate(context) || rhs.evaluate(context);
+        }
+
+        if (evaluator instanceof NotEvaluator) {
+            final BooleanFunction subject = compileBoolean(evaluator.getSubjectEvaluator());
+            if (subject == null) {
+                return null;
+            }
+            return context -> !subject.evaluate(context);
+        }
+
+        if (evaluator instanceof EqualsEvaluator equalsEvaluator) {
+            return compileEquals(equalsEvaluator.getSubjectEvaluator(), equalsEvaluator.getCompareToEvaluator());
+        }
+
+        if (evaluator instanceof EqualsIgnoreCaseEvaluator equalsEvaluator) {
+            final ObjectFunction subject = compileObject(equalsEvaluator.getSubjectEvaluator());
+            final ObjectFunction compareTo = compileObject(equalsEvaluator.getCompareToEvaluator());
+            return context -> {
+                final Object a = subject.evaluate(context);
+                if (a == null) {
+                    return false;
+                }
+
+                final Object b = compareTo.evaluate(context);
+                if (b == null) {
+                    return false;
+                }
+
+                if (a instanceof String && b instanceof String) {
+                    return ((String) a).equalsIgnoreCase((String) b);
+                }
+                return a.equals(b);
+            };
+        }
+
+        if (evaluator instanceof ContainsEvaluator containsEvaluator) {
+            final StringFunction subject = compileStringOrInterpret(containsEvaluator.getSubjectEvaluator());
+            final StringFunction search = compileStringOrInterpret(containsEvaluator.getSearchEvaluator());
+            return context -> {
+                final String subjectValue = subject.evaluate(context);
+                if (subjectValue == null) {
+                    return false;
+                }
+                final String searchValue = search.evaluate(context);
+                return searchValue != null && subjectValue.contains(searchValue);
+            };
+        }
+
+        if (evaluator instanceof StartsWithEvaluator startsWithEvaluator) {
+            final StringFunction subject = compileStringOrInterpret(startsWithEvaluator.getSubjectEvaluator());
+            final StringFunction search = compileStringOrInterpret(startsWithEvaluator.getSearchEvaluator());
+            return context -> {
+                final String subjectValue = subject.evaluate(context);
+                if (subjectValue == null) {
+                    return false;
+                }
+                final String searchValue = search.evaluate(context);
+                return searchValue != null && subjectValue.startsWith(searchValue);
+            };
+        }
+
+        if (evaluator instanceof EndsWithEvaluator endsWithEvaluator) {
+            final StringFunction subject = compileStringOrInterpret(endsWithEvaluator.getSubjectEvaluator());
+            final StringFunction search = compileStringOrInterpret(endsWithEvaluator.getSearchEvaluator());
+            return context -> {
+                final String subjectValue = subject.evaluate(context);
+                if (subjectValue == null) {
+                    return false;
+                }
+                final String searchValue = search.evaluate(context);
+                return searchValue != null && subjectValue.endsWith(searchValue);
+            };
+        }
+
+        if (evaluator instanceof IsEmptyEvaluator) {
+            final ObjectFunction subject = compileObject(evaluator.getSubjectEvaluator());
+            return context -> {
+                final Object subjectValue = subject.evaluate(context);
+                return subjectValue == null || subjectValue.toString().trim().isEmpty();
+            };
+        }
+
+        if (evaluator instanceof IsNullEvaluator) {
+            final ObjectFunction subject = compileObject(evaluator.getSubjectEvaluator());
+            return context -> subject.evaluate(context) == null;
+        }
+
+        if (evaluator instanceof NotNullEvaluator) {
+            final ObjectFunction subject = compileObject(evaluator.getSubjectEvaluator());
+            return context -> subject.evaluate(context) != null;
+        }
+
+        if (evaluator instanceof GreaterThanEvaluator comparisonEvaluator) {
+            return compileComparison(comparisonEvaluator.getSubjectEvaluator(), comparisonEvaluator.getComparisonEvaluator(), Comparison.GREATER_THAN);
+        }
+
+        if (evaluator instanceof GreaterThanOrEqualEvaluator comparisonEvaluator) {
+            return compileComparison(comparisonEvaluator.getSubjectEvaluator(), comparisonEvaluator.getComparisonEvaluator(), Comparison.GREATER_THAN_OR_EQUAL);
+        }
+
+        if (evaluator instanceof LessThanEvaluator comparisonEvaluator) {
+            return compileComparison(comparisonEvaluator.getSubjectEvaluator(), comparisonEvaluator.getComparisonEvaluator(), Comparison.LESS_THAN);
+        }
+
+        if (evaluator instanceof LessThanOrEqualEvaluator comparisonEvaluator) {
+            return compileComparison(comparisonEvaluator.getSubjectEvaluator(), comparisonEvaluator.getComparisonEvaluator(), Comparison.LESS_THAN_OR_EQUAL);
+        }
+
+        return null;
+    }
+
+    private static BooleanFunction compileEquals(final Evaluator<?> subjectEvaluator, final Evaluator<?> compareToEvaluator) {
+        final ResultType subjectType = subjectEvaluator.getResultType();
+        final ResultType compareToType = compareToEvaluator.getResultType();
+
+        if (subjectType == ResultType.STRING && compareToType == ResultType.STRING) {
+            final StringFunction subject = compileStringOrInterpret(subjectEvaluator);
+            if (isConstant(compareToEvaluator)) {
+                final Object compareTo = evaluateConstant(compareToEvaluator);
+                if (compareTo == null) {
+                    return context -> false;
+                }
+                return context -> compareTo.equals(subject.evaluate(context));
+            }
+
+            final StringFunction compareTo = compileStringOrInterpret(compareToEvaluator);
+            return context -> {
+                final String a = subject.evaluate(context);
+                if (a == null) {
+                    return false;
+                }
+                final String b = compareTo.evaluate(context);
+                return b != null && a.equals(b);
+            };
+        }
+
+        final ObjectFunction subject = compileObject(subjectEvaluator);
+        final ObjectFunction compareTo = compileObject(compareToEvaluator);
+        final boolean sameType = subjectType == compareToType;
+        return context -> {
+            final Object a = subject.evaluate(context);
+            if (a == null) {
+                return false;
+            }
+
+            final Object b = compareTo.evaluate(context);
+            if (b == null) {
+                return false;
+            }
+
+            if (sameType) {
+                return a.equals(b);
+            }
+
+            return normalizeValue(subjectType, a).equals(normalizeValue(compareToType, b));
+        };
+    }
+
+    private static String normalizeValue(final ResultType type, final Object value) {
+        switch (type) {
+            case STRING:
+                return (String) value;
+            case DATE:
+                return String.valueOf(((Date) value).getTime());
+            default:
+                return String.valueOf(value);
+        }
+    }
+
+    private static BooleanFunction compileComparison(final Evaluator<?> subjectEvaluator, final Evaluator<?> comparisonEvaluator, final Comparison comparison) {
+        // Comparisons against a literal, such as ${fileSize:gt(1024)}, are the common case. The literal is parsed once, and if the subject
+        // is a String that is cast to a Number, it is parsed directly into a primitive rather than into a boxed Number.
+        if (!isConstant(comparisonEvaluator)) {
+            return context -> {
+                final Number subjectValue = (Number) subjectEvaluator.evaluate(context).getValue();
+                if (subjectValue == null) {
+                    return false;
+                }
+
+                final Number dynamicValue = (Number) comparisonEvaluator.evaluate(context).getValue();
+                if (dynamicValue == null) {
+                    return false;
+                }
+
+                if (subjectValue instanceof Double || dynamicValue instanceof Double) {
+                    return comparison.test(subjectValue.doubleValue(), dynamicValue.doubleValue());
+                }
+                return comparison.test(subjectValue.longValue(), dynamicValue.longValue());
+            };
+        }
+
+        final Number comparisonValue = (Number) evaluateConstant(comparisonEvaluator);
+        if (comparisonValue == null) {
+            return context -> false;
+        }
+
+        final boolean comparisonDecimal = comparisonValue instanceof Double;
+        final long comparisonLong = comparisonValue.longValue();
+        final double comparisonDouble = comparisonValue.doubleValue();
+
+        if (subjectEvaluator instanceof NumberCastEvaluator && subjectEvaluator.getSubjectEvaluator().getResultType() == ResultType.STRING) {
+            final StringFunction subject = compileStringOrInterpret(subjectEvaluator.getSubjectEvaluator());
+            return context -> {
+                final String subjectValue = subject.evaluate(context);
+                if (subjectValue == null) {
+                    return false;
+                }
+
+                final String trimmed = subjectValue.trim();
+                switch (NumberParsing.parse(trimmed)) {
+                    case WHOLE_NUMBER: {
+                        final long parsed = parseWholeNumber(trimmed);
+                        return comparisonDecimal ? comparison.test((double) parsed, comparisonDouble) : comparison.test(parsed, comparisonLong);
+                    }
+                    case DECIMAL:
+                        return comparison.test(Double.parseDouble(trimmed), comparisonDouble);
+                    case NOT_NUMBER:
+                    default:
+                        return false;
+                }
+            };
+        }
+
+        return context -> {
+            final Number subjectValue = (Number) subjectEvaluator.evaluate(context).getValue();
+            if (subjectValue == null) {
+                return false;
+            }
+
+            if (comparisonDecimal || subjectValue instanceof Double) {
+                return comparison.test(subjectValue.doubleValue(), comparisonDouble);
+            }
+            return comparison.test(subjectValue.longValue(), comparisonLong);
+        };
+    }
+
+    private static long parseWholeNumber(final String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (final NumberFormatException e) {
+            // Will only occur if the value is a hex number
+            return Long.decode(value);
+        }
+    }
+
+    private static StringFunction compileString(final Evaluator<?> evaluator) {
+        if (evaluator instanceof StringLiteralEvaluator) {
+            final String value = (String) evaluateConstant(evaluator);
+            return context -> value;
+        }
+
+        if (evaluator instanceof AttributeEvaluator attributeEvaluator) {
+            final Evaluator<String> nameEvaluator = attributeEvaluator.getNameEvaluator();
+            if (nameEvaluator instanceof StringLiteralEvaluator) {
+                final String attributeName = (String) evaluateConstant(nameEvaluator);
+                return context -> context.getExpressionValue(attributeName);
+            }
+
+            final StringFunction name = compileStringOrInterpret(nameEvaluator);
+            return context -> context.getExpressionValue(name.evaluate(context));
+        }
+
+        if (evaluator instanceof ToUpperEvaluator) {
+            final StringFunction subject = compileStringOrInterpret(evaluator.getSubjectEvaluator());
+            return context -> {
+                final String subjectValue = subject.evaluate(context);
+                return subjectValue == null ? null : subjectValue.toUpperCase();
+            };
+        }
+
+        if (evaluator instanceof ToLowerEvaluator) {
+            final StringFunction subject = compileStringOrInterpret(evaluator.getSubjectEvaluator());
+            return context -> {
+                final String subjectValue = subject.evaluate(context);
+                return subjectValue == null ? null : subjectValue.toLowerCase();
+            };
+        }
+
+        if (evaluator instanceof TrimEvaluator) {
+            final StringFunction subject = compileStringOrInterpret(evaluator.getSubjectEvaluator());
+            return context -> {
+                final String subjectValue = subject.evaluate(context);
+                return subjectValue == null ? null : subjectValue.trim();
+            };
+        }
+
+        if (evaluator instanceof AppendEvaluator appendEvaluator) {
+            final StringFunction subject = compileStringOrInterpret(appendEvaluator.getSubjectEvaluator());
+            final StringFunction append = compileStringOrInterpret(appendEvaluator.getAppendEvaluator());
+            return context -> {
+                final String subjectValue = subject.evaluate(context);
+                final String appendValue = append.evaluate(context);
+                return (subjectValue == null ? "" : subjectValue) + (appendValue == null ? "" : appendValue);
+            };
+        }
+
+        if (evaluator instanceof PrependEvaluator prependEvaluator) {
+            final StringFunction subject = compileStringOrInterpret(prependEvaluator.getSubjectEvaluator());
+            final StringFunction prepend = compileStringOrInterpret(prependEvaluator.getPrependEvaluator());
+            return context -> {
+                final String subjectValue = subject.evaluate(context);
+                final String prependValue = prepend.evaluate(context);
+                return (prependValue == null ? "" : prependValue) + (subjectValue == null ? "" : subjectValue);
+            };
+        }
+
+        return null;
+    }
+
+    private static StringFunction compileStringOrInterpret(final Evaluator<?> evaluator) {
+        final StringFunction compiled = compileString(evaluator);
+        if (compiled != null) {
+            return compiled;
+        }
+
+        return context -> (String) evaluator.evaluate(context).getValue();
+    }
+
+    private static ObjectFunction compileObject(final Evaluator<?> evaluator) {
+        if (evaluator.getResultType() == ResultType.BOOLEAN) {
+            final BooleanFunction compiled = compileBoolean(evaluator);
+            if (compiled != null) {
+                return context -> compiled.evaluate(context);
+            }
+        } else if (evaluator.getResultType() == ResultType.STRING) {
+            final StringFunction compiled = compileString(evaluator);
+            if (compiled != null) {
+                return compiled::evaluate;
+            }
+        }
+
+        return context -> evaluator.evaluate(context).getValue();
+    }
+
+    private static boolean isConstant(final Evaluator<?> evaluator) {
+        if (evaluator instanceof StringLiteralEvaluator || evaluator instanceof BooleanLiteralEvaluator
+                || evaluator instanceof WholeNumberLiteralEvaluator || evaluator instanceof DecimalLiteralEvaluator) {
+            return true;
+        }
+
+        return evaluator instanceof NumberCastEvaluator && isConstant(evaluator.getSubjectEvaluator());
+    }
+
+    private static Object evaluateConstant(final Evaluator<?> evaluator) {
+        return evaluator.evaluate(new StandardEvaluationContext(Collections.emptyMap())).getValue();
+    }
+}
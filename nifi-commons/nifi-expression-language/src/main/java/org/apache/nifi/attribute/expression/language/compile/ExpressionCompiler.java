@@ -287,7 +287,8 @@ public class ExpressionCompiler {
             final Set<Evaluator<?>> allEvaluators = new HashSet<>(evaluators);
             this.evaluators.clear();
 
-            return new CompiledExpression(expression, evaluator, tree, allEvaluators);
+            final ClosureCompiler.CompiledFunction compiledFunction = ClosureCompiler.isEnabled() ? ClosureCompiler.compile(evaluator) : null;
+            return new CompiledExpression(expression, evaluator, tree, allEvaluators, compiledFunction);
         } catch (final AttributeExpressionLanguageParsingException e) {
             throw e;
         } catch (final Exception e) {
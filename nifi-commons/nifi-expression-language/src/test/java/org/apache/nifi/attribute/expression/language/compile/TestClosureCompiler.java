@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.attribute.expression.language.compile;
+
+import org.apache.nifi.attribute.expression.language.CompiledExpression;
+import org.apache.nifi.attribute.expression.language.StandardEvaluationContext;
+import org.apache.nifi.attribute.expression.language.compile.ClosureCompiler.CompiledFunction;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestClosureCompiler {
+
+    private static final List<String> EXPRESSIONS = Arrays.asList(
+        "${filename}",
+        "${filename:toUpper()}",
+        "${filename:toLower():trim():append('.bak')}",
+        "${filename:prepend(${path})}",
+        "${missing:append('x')}",
+        "${filename:equals('abc.txt')}",
+        "${filename:equals(${other})}",
+        "${fileSize:equals(1024)}",
+        "${filename:equalsIgnoreCase('ABC.TXT')}",
+        "${filename:contains('bc')}",
+        "${filename:startsWith('ab'):and(${filename:endsWith('.txt')})}",
+        "${filename:startsWith('x'):or(${missing:isNull()})}",
+        "${filename:endsWith('.txt'):not()}",
+        "${missing:isEmpty()}",
+        "${blank:isEmpty()}",
+        "${filename:notNull()}",
+        "${fileSize:gt(1000)}",
+        "${fileSize:ge(1024)}",
+        "${fileSize:lt(1024.5)}",
+        "${fileSize:le(1023)}",
+        "${decimal:gt(1)}",
+        "${hex:gt(15)}",
+        "${filename:gt(1)}",
+        "${missing:lt(1)}",
+        "${fileSize:gt(${threshold})}",
+        "${filename:length():gt(3)}",
+        "${filename:substring(0, 3):equals('abc')}",
+        "${filename:replace('abc', 'x'):toUpper()}",
+        "${${name}}"
+    );
+
+    @Test
+    public void testCompiledMatchesInterpreted() {
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("filename", "abc.txt");
+        attributes.put("path", "/tmp/");
+        attributes.put("other", "abc.txt");
+        attributes.put("fileSize", "1024");
+        attributes.put("decimal", "1.5");
+        attributes.put("hex", "0x10");
+        attributes.put("blank", "  ");
+        attributes.put("threshold", "2048");
+        attributes.put("name", "path");
+
+        final Map<String, String> otherAttributes = new HashMap<>();
+        otherAttributes.put("filename", "XYZ.csv ");
+        otherAttributes.put("fileSize", "not a number");
+        otherAttributes.put("missing", "present");
+
+        for (final String expression : EXPRESSIONS) {
+            final CompiledExpression compiledExpression = new ExpressionCompiler().compile(expression);
+            final CompiledFunction function = ClosureCompiler.compile(compiledExpression.getRootEvaluator());
+            assertNotNull(function, "Expected expression to be compiled: " + expression);
+
+            for (final Map<String, String> attrs : Arrays.asList(attributes, otherAttributes)) {
+                final String interpreted = compiledExpression.evaluate(new StandardEvaluationContext(attrs), null);
+                final String compiled = function.evaluate(new StandardEvaluationContext(attrs));
+                assertEquals(interpreted, compiled, "Unexpected result for " + expression + " with attributes " + attrs);
+            }
+        }
+    }
+
+    @Test
+    public void testUnsupportedRootIsInterpreted() {
+        final CompiledExpression compiledExpression = new ExpressionCompiler().compile("${fileSize:plus(1)}");
+        assertNull(ClosureCompiler.compile(compiledExpression.getRootEvaluator()));
+
+        final CompiledExpression multiAttribute = new ExpressionCompiler().compile("${anyAttribute('a', 'b'):equals('x')}");
+        assertNull(ClosureCompiler.compile(multiAttribute.getRootEvaluator()));
+    }
+
+    @Test
+    public void testCompiledExpressionUsesCompiledFunction() {
+        final CompiledExpression interpreted = new ExpressionCompiler().compile("${filename:toUpper()}");
+        final CompiledExpression compiled = new CompiledExpression(interpreted.getExpression(), interpreted.getRootEvaluator(), interpreted.getTree(),
+            interpreted.getAllEvaluators(), ClosureCompiler.compile(interpreted.getRootEvaluator()));
+
+        final Map<String, String> attributes = Map.of("filename", "abc");
+        assertEquals("ABC", compiled.evaluate(new StandardEvaluationContext(attributes), null));
+        assertEquals("[ABC]", compiled.evaluate(new StandardEvaluationContext(attributes), value -> "[" + value + "]"));
+        assertTrue(compiled.isCompiled());
+    }
+}
@@ -66,6 +66,9 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String WRITE_DELAY_INTERVAL = "nifi.flowservice.writedelay.interval";
     public static final String AUTO_RESUME_STATE = "nifi.flowcontroller.autoResumeState";
     public static final String FLOW_CONTROLLER_GRACEFUL_SHUTDOWN_PERIOD = "nifi.flowcontroller.graceful.shutdown.period";
+    public static final String VIRTUAL_THREAD_COMPONENT_TYPES = "nifi.flowcontroller.virtual.thread.component.types";
+    public static final String VIRTUAL_THREAD_PROCESS_GROUPS = "nifi.flowcontroller.virtual.thread.process.groups";
+    public static final String VIRTUAL_THREAD_MAX_CONCURRENT_TASKS = "nifi.flowcontroller.virtual.thread.max.concurrent.tasks";
     public static final String NAR_LIBRARY_DIRECTORY = "nifi.nar.library.directory";
     public static final String NAR_LIBRARY_DIRECTORY_PREFIX = "nifi.nar.library.directory.";
     public static final String NAR_LIBRARY_AUTOLOAD_DIRECTORY = "nifi.nar.library.autoload.directory";
@@ -82,6 +85,8 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String REMOTE_CONTENTS_CACHE_EXPIRATION = "nifi.remote.contents.cache.expiration";
     public static final String ADMINISTRATIVE_YIELD_DURATION = "nifi.administrative.yield.duration";
     public static final String BORED_YIELD_DURATION = "nifi.bored.yield.duration";
+    public static final String QUEUE_NOTIFICATION_SCHEDULING_ENABLED = "nifi.queue.notification.scheduling.enabled";
+    public static final String QUEUE_NOTIFICATION_SCHEDULING_MAX_WAIT = "nifi.queue.notification.scheduling.max.wait";
     public static final String PROCESSOR_SCHEDULING_TIMEOUT = "nifi.processor.scheduling.timeout";
     public static final String BACKPRESSURE_COUNT = "nifi.queue.backpressure.count";
     public static final String BACKPRESSURE_SIZE = "nifi.queue.backpressure.size";
@@ -102,6 +107,7 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String CONTENT_ARCHIVE_MAX_USAGE_PERCENTAGE = "nifi.content.repository.archive.max.usage.percentage";
     public static final String CONTENT_ARCHIVE_BACK_PRESSURE_PERCENTAGE = "nifi.content.repository.archive.backpressure.percentage";
     public static final String CONTENT_ARCHIVE_ENABLED = "nifi.content.repository.archive.enabled";
+    public static final String CONTENT_REPOSITORY_MAPPED_CLAIM_CACHE_SIZE = "nifi.content.repository.mapped.claim.cache.size";
     public static final String CONTENT_ARCHIVE_CLEANUP_FREQUENCY = "nifi.content.repository.archive.cleanup.frequency";
     public static final String CONTENT_VIEWER_URL = "nifi.content.viewer.url";
 
@@ -109,10 +115,15 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String FLOWFILE_REPOSITORY_IMPLEMENTATION = "nifi.flowfile.repository.implementation";
     public static final String FLOWFILE_REPOSITORY_WAL_IMPLEMENTATION = "nifi.flowfile.repository.wal.implementation";
     public static final String FLOWFILE_REPOSITORY_ALWAYS_SYNC = "nifi.flowfile.repository.always.sync";
+    public static final String FLOWFILE_REPOSITORY_GROUP_COMMIT_WINDOW = "nifi.flowfile.repository.group.commit.window";
+    public static final String FLOWFILE_REPOSITORY_MAX_INCREMENTAL_CHECKPOINTS = "nifi.flowfile.repository.max.incremental.checkpoints";
+    public static final String FLOWFILE_REPOSITORY_PARALLEL_RECOVERY_ENABLED = "nifi.flowfile.repository.parallel.recovery.enabled";
     public static final String FLOWFILE_REPOSITORY_DIRECTORY = "nifi.flowfile.repository.directory";
     public static final String FLOWFILE_REPOSITORY_CHECKPOINT_INTERVAL = "nifi.flowfile.repository.checkpoint.interval";
     public static final String FLOWFILE_SWAP_MANAGER_IMPLEMENTATION = "nifi.swap.manager.implementation";
     public static final String QUEUE_SWAP_THRESHOLD = "nifi.queue.swap.threshold";
+    public static final String QUEUE_CONCURRENT_FIFO_ENABLED = "nifi.queue.concurrent.fifo.enabled";
+    public static final String QUEUE_SWAP_COLUMNAR_ENABLED = "nifi.queue.swap.columnar.enabled";
 
     // provenance properties
     public static final String PROVENANCE_REPO_IMPLEMENTATION_CLASS = "nifi.provenance.repository.implementation";
@@ -134,6 +145,7 @@ public class NiFiProperties extends ApplicationProperties {
     // status repository properties
     public static final String COMPONENT_STATUS_REPOSITORY_IMPLEMENTATION = "nifi.components.status.repository.implementation";
     public static final String COMPONENT_STATUS_SNAPSHOT_FREQUENCY = "nifi.components.status.snapshot.frequency";
+    public static final String COMPONENT_STATUS_CACHE_MAX_AGE = "nifi.components.status.cache.max.age";
 
     // questdb status storage properties
     public static final String STATUS_REPOSITORY_QUESTDB_PERSIST_NODE_DAYS = "nifi.status.repository.questdb.persist.node.days";
@@ -247,6 +259,8 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String LOAD_BALANCE_CONNECTIONS_PER_NODE = "nifi.cluster.load.balance.connections.per.node";
     public static final String LOAD_BALANCE_MAX_THREAD_COUNT = "nifi.cluster.load.balance.max.thread.count";
     public static final String LOAD_BALANCE_COMMS_TIMEOUT = "nifi.cluster.load.balance.comms.timeout";
+    public static final String LOAD_BALANCE_COMPRESSION_CODEC = "nifi.cluster.load.balance.compression.codec";
+    public static final String LOAD_BALANCE_VIRTUAL_THREADS_ENABLED = "nifi.cluster.load.balance.virtual.threads.enabled";
 
     // zookeeper properties
     public static final String ZOOKEEPER_CONNECT_STRING = "nifi.zookeeper.connect.string";
@@ -350,12 +364,19 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String DEFAULT_NAR_LIBRARY_AUTOLOAD_DIR = "./extensions";
     public static final String DEFAULT_FLOWFILE_CHECKPOINT_INTERVAL = "20 secs";
     public static final String DEFAULT_MAX_APPENDABLE_CLAIM_SIZE = "1 MB";
+    public static final int DEFAULT_CONTENT_REPOSITORY_MAPPED_CLAIM_CACHE_SIZE = 0;
     public static final int DEFAULT_QUEUE_SWAP_THRESHOLD = 20000;
+    public static final boolean DEFAULT_QUEUE_CONCURRENT_FIFO_ENABLED = false;
+    public static final boolean DEFAULT_QUEUE_SWAP_COLUMNAR_ENABLED = false;
     public static final long DEFAULT_BACKPRESSURE_COUNT = 10_000L;
     public static final String DEFAULT_BACKPRESSURE_SIZE = "1 GB";
     public static final String DEFAULT_ADMINISTRATIVE_YIELD_DURATION = "30 sec";
     public static final String DEFAULT_COMPONENT_STATUS_SNAPSHOT_FREQUENCY = "5 mins";
+    public static final String DEFAULT_COMPONENT_STATUS_CACHE_MAX_AGE = "5 secs";
     public static final String DEFAULT_BORED_YIELD_DURATION = "10 millis";
+    public static final boolean DEFAULT_QUEUE_NOTIFICATION_SCHEDULING_ENABLED = false;
+    public static final String DEFAULT_QUEUE_NOTIFICATION_SCHEDULING_MAX_WAIT = "1 sec";
+    public static final int DEFAULT_VIRTUAL_THREAD_MAX_CONCURRENT_TASKS = 1000;
     public static final String DEFAULT_ZOOKEEPER_CONNECT_TIMEOUT = "3 secs";
     public static final String DEFAULT_ZOOKEEPER_SESSION_TIMEOUT = "3 secs";
     public static final String DEFAULT_ZOOKEEPER_ROOT_NODE = "/nifi";
@@ -409,6 +430,8 @@ public class NiFiProperties extends ApplicationProperties {
     public static final int DEFAULT_LOAD_BALANCE_CONNECTIONS_PER_NODE = 4;
     public static final int DEFAULT_LOAD_BALANCE_MAX_THREAD_COUNT = 8;
     public static final String DEFAULT_LOAD_BALANCE_COMMS_TIMEOUT = "30 sec";
+    public static final String DEFAULT_LOAD_BALANCE_COMPRESSION_CODEC = "GZIP";
+    public static final boolean DEFAULT_LOAD_BALANCE_VIRTUAL_THREADS_ENABLED = true;
 
 
     // state management defaults
@@ -490,6 +513,36 @@ public class NiFiProperties extends ApplicationProperties {
         }
     }
 
+    /**
+     * Returns whether or not connections without prioritizers should offer and poll FlowFiles without obtaining the queue's lock,
+     * in approximately first-in-first-out order, while nothing is swapped out.
+     *
+     * @return true if concurrent FIFO queuing is enabled, false otherwise
+     */
+    public boolean isQueueConcurrentFifoEnabled() {
+        final String value = getProperty(QUEUE_CONCURRENT_FIFO_ENABLED);
+        if (value == null || value.isBlank()) {
+            return DEFAULT_QUEUE_CONCURRENT_FIFO_ENABLED;
+        }
+
+        return Boolean.parseBoolean(value.trim());
+    }
+
+    /**
+     * Returns whether or not FlowFiles that are swapped out should be written to swap files using the columnar, compressed format
+     * rather than the record-oriented schema format. Swap files written in either format can always be swapped back in.
+     *
+     * @return true if the columnar swap file format is enabled, false otherwise
+     */
+    public boolean isQueueSwapColumnarEnabled() {
+        final String value = getProperty(QUEUE_SWAP_COLUMNAR_ENABLED);
+        if (value == null || value.isBlank()) {
+            return DEFAULT_QUEUE_SWAP_COLUMNAR_ENABLED;
+        }
+
+        return Boolean.parseBoolean(value.trim());
+    }
+
     public Integer getIntegerProperty(final String propertyName, final Integer defaultValue) {
         final String value = getProperty(propertyName);
         if (value == null || value.trim().isEmpty()) {
@@ -1420,6 +1473,55 @@ public class NiFiProperties extends ApplicationProperties {
         return getProperty(BORED_YIELD_DURATION, DEFAULT_BORED_YIELD_DURATION);
     }
 
+    /**
+     * Returns whether or not a processor that has no work to do because its incoming connections are empty should wait to be notified
+     * that a FlowFile has been queued, rather than checking again for work after the bored yield duration.
+     *
+     * @return true if queue notification scheduling is enabled, false otherwise
+     */
+    public boolean isQueueNotificationSchedulingEnabled() {
+        final String value = getProperty(QUEUE_NOTIFICATION_SCHEDULING_ENABLED);
+        if (value == null || value.isBlank()) {
+            return DEFAULT_QUEUE_NOTIFICATION_SCHEDULING_ENABLED;
+        }
+
+        return Boolean.parseBoolean(value.trim());
+    }
+
+    public String getQueueNotificationSchedulingMaxWait() {
+        return getProperty(QUEUE_NOTIFICATION_SCHEDULING_MAX_WAIT, DEFAULT_QUEUE_NOTIFICATION_SCHEDULING_MAX_WAIT);
+    }
+
+    /**
+     * @return the processor types, given as either simple or fully qualified class names, whose tasks should run on virtual threads
+     */
+    public Set<String> getVirtualThreadComponentTypes() {
+        return getCommaSeparatedValues(VIRTUAL_THREAD_COMPONENT_TYPES);
+    }
+
+    /**
+     * @return the identifiers of the Process Groups whose processors, including those of any descendant groups, should run on virtual threads
+     */
+    public Set<String> getVirtualThreadProcessGroups() {
+        return getCommaSeparatedValues(VIRTUAL_THREAD_PROCESS_GROUPS);
+    }
+
+    public int getVirtualThreadMaxConcurrentTasks() {
+        return getIntegerProperty(VIRTUAL_THREAD_MAX_CONCURRENT_TASKS, DEFAULT_VIRTUAL_THREAD_MAX_CONCURRENT_TASKS);
+    }
+
+    private Set<String> getCommaSeparatedValues(final String propertyName) {
+        final String value = getProperty(propertyName);
+        if (value == null || value.isBlank()) {
+            return Collections.emptySet();
+        }
+
+        return Arrays.stream(value.split(","))
+            .map(String::trim)
+            .filter(trimmed -> !trimmed.isEmpty())
+            .collect(Collectors.toSet());
+    }
+
     public File getStateManagementConfigFile() {
         return new File(getProperty(STATE_MANAGEMENT_CONFIG_FILE, DEFAULT_STATE_MANAGEMENT_CONFIG_FILE));
     }
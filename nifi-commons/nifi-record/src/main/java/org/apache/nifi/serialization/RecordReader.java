@@ -20,6 +20,8 @@ package org.apache.nifi.serialization;
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordSchema;
 import org.apache.nifi.serialization.record.RecordSet;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
+import org.apache.nifi.serialization.record.batch.RecordBatchBuilder;
 
 import java.io.Closeable;
 import java.io.IOException;
@@ -76,6 +78,31 @@ public interface RecordReader extends Closeable {
      */
     RecordSchema getSchema() throws MalformedRecordException;
 
+    /**
+     * Reads up to the given number of records from the underlying stream into a columnar {@link RecordBatch} whose schema is the schema
+     * returned by {@link #getSchema()}. Types are coerced according to the schema and any fields that are not in the schema are dropped.
+     * The default implementation reads each record by calling {@link #nextRecord()}; implementations that can populate the columns directly,
+     * without creating an intermediate Record for each row, should override this method.
+     *
+     * @param maxRecords the maximum number of records to include in the batch
+     * @return a batch of up to <code>maxRecords</code> rows, or <code>null</code> if no more records are available
+     * @throws IOException if unable to read from the underlying data
+     * @throws MalformedRecordException if an unrecoverable failure occurs when trying to parse a record
+     */
+    default RecordBatch nextBatch(final int maxRecords) throws IOException, MalformedRecordException {
+        final RecordBatchBuilder builder = new RecordBatchBuilder(getSchema(), maxRecords);
+        while (!builder.isFull()) {
+            final Record record = nextRecord();
+            if (record == null) {
+                break;
+            }
+
+            builder.addRecord(record);
+        }
+
+        return builder.getRowCount() == 0 ? null : builder.build();
+    }
+
     /**
      * @return a RecordSet that returns the records in this Record Reader in a streaming fashion
      */
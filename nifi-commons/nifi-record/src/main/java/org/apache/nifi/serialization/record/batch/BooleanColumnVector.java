@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record.batch;
+
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.util.DataTypeUtils;
+
+import java.util.BitSet;
+
+/**
+ * A ColumnVector for BOOLEAN fields
+ */
+public class BooleanColumnVector extends ColumnVector {
+    private final BitSet values;
+    private final BitSet present;
+
+    public BooleanColumnVector(final RecordField field, final int capacity) {
+        super(field);
+        this.values = new BitSet(capacity);
+        this.present = new BitSet(capacity);
+    }
+
+    @Override
+    public boolean isNull(final int row) {
+        return !present.get(row);
+    }
+
+    @Override
+    public boolean getBoolean(final int row) {
+        return values.get(row);
+    }
+
+    @Override
+    public Object getObject(final int row) {
+        if (!present.get(row)) {
+            return null;
+        }
+
+        return values.get(row);
+    }
+
+    @Override
+    public void setBoolean(final int row, final boolean value) {
+        values.set(row, value);
+        present.set(row);
+    }
+
+    @Override
+    public void setObject(final int row, final Object value) {
+        if (value == null) {
+            setNull(row);
+        } else if (value instanceof Boolean booleanValue) {
+            setBoolean(row, booleanValue);
+        } else {
+            setBoolean(row, DataTypeUtils.toBoolean(value, getField().getFieldName()));
+        }
+    }
+
+    @Override
+    public void setNull(final int row) {
+        values.clear(row);
+        present.clear(row);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record.batch;
+
+import org.apache.nifi.serialization.record.RecordField;
+
+/**
+ * <p>
+ * The values of a single field for every row of a {@link RecordBatch}. Whole numbers, floating-point numbers, and booleans
+ * are held in primitive arrays, so that they can be read and written without boxing by way of the typed accessors, such as
+ * {@link #getLong(int)}. Values of any other type are held as Objects. {@link #getObject(int)} is supported by every
+ * ColumnVector and returns the value in the same form that a {@link org.apache.nifi.serialization.record.Record} would.
+ * </p>
+ *
+ * <p>
+ * Every row is <code>null</code> until a value is set for it.
+ * </p>
+ */
+public abstract class ColumnVector {
+    private final RecordField field;
+
+    protected ColumnVector(final RecordField field) {
+        this.field = field;
+    }
+
+    /**
+     * Creates a ColumnVector that is appropriate for the type of the given field
+     *
+     * @param field the field whose values the vector will hold
+     * @param capacity the maximum number of rows that the vector will hold
+     * @return a ColumnVector for the given field
+     */
+    public static ColumnVector create(final RecordField field, final int capacity) {
+        switch (field.getDataType().getFieldType()) {
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+                return new LongColumnVector(field, capacity);
+            case FLOAT:
+            case DOUBLE:
+                return new DoubleColumnVector(field, capacity);
+            case BOOLEAN:
+                return new BooleanColumnVector(field, capacity);
+            default:
+                return new ObjectColumnVector(field, capacity);
+        }
+    }
+
+    public RecordField getField() {
+        return field;
+    }
+
+    public abstract boolean isNull(int row);
+
+    /**
+     * @param row the row index
+     * @return the value of the given row, boxed if the vector holds primitive values, or <code>null</code> if the row is null
+     */
+    public abstract Object getObject(int row);
+
+    /**
+     * Sets the value of the given row, converting it to the vector's type if necessary
+     *
+     * @param row the row index
+     * @param value the value, or <code>null</code> to set the row to null
+     */
+    public abstract void setObject(int row, Object value);
+
+    public abstract void setNull(int row);
+
+    public long getLong(final int row) {
+        throw new UnsupportedOperationException("Field " + field.getFieldName() + " of type " + field.getDataType() + " cannot be read as a long");
+    }
+
+    public double getDouble(final int row) {
+        throw new UnsupportedOperationException("Field " + field.getFieldName() + " of type " + field.getDataType() + " cannot be read as a double");
+    }
+
+    public boolean getBoolean(final int row) {
+        throw new UnsupportedOperationException("Field " + field.getFieldName() + " of type " + field.getDataType() + " cannot be read as a boolean");
+    }
+
+    public void setLong(final int row, final long value) {
+        throw new UnsupportedOperationException("Field " + field.getFieldName() + " of type " + field.getDataType() + " cannot be written as a long");
+    }
+
+    public void setDouble(final int row, final double value) {
+        throw new UnsupportedOperationException("Field " + field.getFieldName() + " of type " + field.getDataType() + " cannot be written as a double");
+    }
+
+    public void setBoolean(final int row, final boolean value) {
+        throw new UnsupportedOperationException("Field " + field.getFieldName() + " of type " + field.getDataType() + " cannot be written as a boolean");
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record.batch;
+
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordFieldType;
+import org.apache.nifi.serialization.record.util.DataTypeUtils;
+
+import java.util.BitSet;
+
+/**
+ * A ColumnVector for BYTE, SHORT, INT, and LONG fields
+ */
+public class LongColumnVector extends ColumnVector {
+    private final RecordFieldType fieldType;
+    private final long[] values;
+    private final BitSet present;
+
+    public LongColumnVector(final RecordField field, final int capacity) {
+        super(field);
+        this.fieldType = field.getDataType().getFieldType();
+        this.values = new long[capacity];
+        this.present = new BitSet(capacity);
+    }
+
+    @Override
+    public boolean isNull(final int row) {
+        return !present.get(row);
+    }
+
+    @Override
+    public long getLong(final int row) {
+        return values[row];
+    }
+
+    @Override
+    public double getDouble(final int row) {
+        return values[row];
+    }
+
+    @Override
+    public Object getObject(final int row) {
+        if (!present.get(row)) {
+            return null;
+        }
+
+        final long value = values[row];
+        switch (fieldType) {
+            case BYTE:
+                return (byte) value;
+            case SHORT:
+                return (short) value;
+            case INT:
+                return (int) value;
+            default:
+                return value;
+        }
+    }
+
+    @Override
+    public void setLong(final int row, final long value) {
+        values[row] = value;
+        present.set(row);
+    }
+
+    @Override
+    public void setObject(final int row, final Object value) {
+        if (value == null) {
+            setNull(row);
+        } else if (value instanceof Number number) {
+            setLong(row, number.longValue());
+        } else {
+            setLong(row, DataTypeUtils.toLong(value, getField().getFieldName()));
+        }
+    }
+
+    @Override
+    public void setNull(final int row) {
+        values[row] = 0L;
+        present.clear(row);
+    }
+}
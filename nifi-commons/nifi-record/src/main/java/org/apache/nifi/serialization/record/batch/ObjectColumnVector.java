@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record.batch;
+
+import org.apache.nifi.serialization.record.RecordField;
+
+/**
+ * A ColumnVector for fields whose values are not held as primitives, such as Strings, Timestamps, Arrays, and Records
+ */
+public class ObjectColumnVector extends ColumnVector {
+    private final Object[] values;
+
+    public ObjectColumnVector(final RecordField field, final int capacity) {
+        super(field);
+        this.values = new Object[capacity];
+    }
+
+    @Override
+    public boolean isNull(final int row) {
+        return values[row] == null;
+    }
+
+    @Override
+    public Object getObject(final int row) {
+        return values[row];
+    }
+
+    @Override
+    public void setObject(final int row, final Object value) {
+        values[row] = value;
+    }
+
+    @Override
+    public void setNull(final int row) {
+        values[row] = null;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record.batch;
+
+import org.apache.nifi.serialization.record.MapRecord;
+import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.RecordSet;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * <p>
+ * A batch of rows held in columnar form: one {@link ColumnVector} for each field of the batch's {@link RecordSchema}, in the order
+ * of the schema's fields. Fields that are not part of the schema are not retained.
+ * </p>
+ *
+ * <p>
+ * PLEASE NOTE: This interface is still considered 'unstable' and may change in a non-backward-compatible
+ * manner between minor or incremental releases of NiFi.
+ * </p>
+ */
+public interface RecordBatch {
+
+    /**
+     * @return the schema of the rows in the batch
+     */
+    RecordSchema getSchema();
+
+    /**
+     * @return the number of rows in the batch
+     */
+    int getRowCount();
+
+    /**
+     * @param index the index of the field in the batch's schema
+     * @return the ColumnVector for the field at the given index
+     */
+    ColumnVector getColumn(int index);
+
+    /**
+     * @param fieldName the name of the field
+     * @return the ColumnVector for the field with the given name, or an empty Optional if the schema has no such field
+     */
+    Optional<ColumnVector> getColumn(String fieldName);
+
+    /**
+     * Creates a row-oriented view of the given row, for use with components that operate on a record at a time
+     *
+     * @param row the row index
+     * @return a Record containing the values of the given row
+     */
+    default Record getRecord(final int row) {
+        final RecordSchema schema = getSchema();
+        final List<RecordField> fields = schema.getFields();
+        final Map<String, Object> values = new LinkedHashMap<>(fields.size() * 2);
+        for (int i = 0; i < fields.size(); i++) {
+            values.put(fields.get(i).getFieldName(), getColumn(i).getObject(row));
+        }
+
+        return new MapRecord(schema, values);
+    }
+
+    /**
+     * @return a RecordSet that returns each row of the batch as a Record
+     */
+    default RecordSet toRecordSet() {
+        return new RecordSet() {
+            private int row = 0;
+
+            @Override
+            public RecordSchema getSchema() {
+                return RecordBatch.this.getSchema();
+            }
+
+            @Override
+            public Record next() {
+                if (row >= getRowCount()) {
+                    return null;
+                }
+
+                return getRecord(row++);
+            }
+        };
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record.batch;
+
+import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordSchema;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * Builds a {@link RecordBatch} one row at a time. A row may be added either from a {@link Record}, by calling {@link #addRecord(Record)},
+ * or by setting the row's values directly in each of the ColumnVectors, at the index given by {@link #getRowCount()}, and then
+ * calling {@link #completeRow()}. Any column that is not set for a row is <code>null</code> for that row.
+ * </p>
+ */
+public class RecordBatchBuilder {
+    private final RecordSchema schema;
+    private final List<RecordField> fields;
+    private final ColumnVector[] columns;
+    private final int capacity;
+    private int rowCount = 0;
+
+    public RecordBatchBuilder(final RecordSchema schema, final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Batch capacity must be positive but was " + capacity);
+        }
+
+        this.schema = schema;
+        this.fields = schema.getFields();
+        this.capacity = capacity;
+        this.columns = new ColumnVector[fields.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = ColumnVector.create(fields.get(i), capacity);
+        }
+    }
+
+    public RecordSchema getSchema() {
+        return schema;
+    }
+
+    public ColumnVector getColumn(final int index) {
+        return columns[index];
+    }
+
+    /**
+     * @return the number of rows that have been completed, which is also the index of the row that is currently being populated
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public boolean isFull() {
+        return rowCount >= capacity;
+    }
+
+    /**
+     * Completes the current row, after its values have been set in the ColumnVectors
+     */
+    public void completeRow() {
+        if (isFull()) {
+            throw new IllegalStateException("Batch is full; cannot add more than " + capacity + " rows");
+        }
+
+        rowCount++;
+    }
+
+    /**
+     * Adds a row whose values are taken from the given Record. Any field of the Record that is not in this builder's schema is dropped.
+     *
+     * @param record the record to add
+     */
+    public void addRecord(final Record record) {
+        if (isFull()) {
+            throw new IllegalStateException("Batch is full; cannot add more than " + capacity + " rows");
+        }
+
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].setObject(rowCount, record.getValue(fields.get(i)));
+        }
+
+        rowCount++;
+    }
+
+    public RecordBatch build() {
+        return new StandardRecordBatch(schema, Arrays.asList(columns), rowCount);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record.batch;
+
+import org.apache.nifi.serialization.record.RecordSchema;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class StandardRecordBatch implements RecordBatch {
+    private final RecordSchema schema;
+    private final List<ColumnVector> columns;
+    private final Map<String, ColumnVector> columnsByName;
+    private final int rowCount;
+
+    public StandardRecordBatch(final RecordSchema schema, final List<ColumnVector> columns, final int rowCount) {
+        if (columns.size() != schema.getFieldCount()) {
+            throw new IllegalArgumentException("Schema has " + schema.getFieldCount() + " fields but " + columns.size() + " columns were provided");
+        }
+
+        this.schema = schema;
+        this.columns = columns;
+        this.rowCount = rowCount;
+
+        this.columnsByName = new HashMap<>(columns.size() * 2);
+        for (int i = 0; i < columns.size(); i++) {
+            columnsByName.put(schema.getField(i).getFieldName(), columns.get(i));
+        }
+    }
+
+    @Override
+    public RecordSchema getSchema() {
+        return schema;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public ColumnVector getColumn(final int index) {
+        return columns.get(index);
+    }
+
+    @Override
+    public Optional<ColumnVector> getColumn(final String fieldName) {
+        return schema.getField(fieldName).map(field -> columnsByName.get(field.getFieldName()));
+    }
+
+    @Override
+    public String toString() {
+        return "StandardRecordBatch[rows=" + rowCount + ", schema=" + schema + "]";
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record.batch;
+
+import org.apache.nifi.serialization.MalformedRecordException;
+import org.apache.nifi.serialization.RecordReader;
+import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.MapRecord;
+import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordFieldType;
+import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.RecordSet;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestRecordBatchBuilder {
+
+    private static final RecordSchema SCHEMA = new SimpleRecordSchema(List.of(
+        new RecordField("id", RecordFieldType.INT.getDataType()),
+        new RecordField("count", RecordFieldType.LONG.getDataType()),
+        new RecordField("score", RecordFieldType.FLOAT.getDataType()),
+        new RecordField("active", RecordFieldType.BOOLEAN.getDataType()),
+        new RecordField("name", RecordFieldType.STRING.getDataType())
+    ));
+
+    @Test
+    void testAddRecords() {
+        final RecordBatchBuilder builder = new RecordBatchBuilder(SCHEMA, 4);
+        builder.addRecord(createRecord(1, 10L, 1.5F, true, "a"));
+        builder.addRecord(createRecord(2, null, null, null, null));
+
+        final RecordBatch batch = builder.build();
+        assertEquals(2, batch.getRowCount());
+
+        final ColumnVector id = batch.getColumn(0);
+        assertTrue(id instanceof LongColumnVector);
+        assertEquals(1L, id.getLong(0));
+        assertEquals(Integer.valueOf(2), id.getObject(1));
+
+        final ColumnVector count = batch.getColumn("count").orElseThrow();
+        assertEquals(10L, count.getLong(0));
+        assertTrue(count.isNull(1));
+        assertNull(count.getObject(1));
+
+        final ColumnVector score = batch.getColumn("score").orElseThrow();
+        assertTrue(score instanceof DoubleColumnVector);
+        assertEquals(1.5D, score.getDouble(0));
+        assertEquals(Float.valueOf(1.5F), score.getObject(0));
+
+        final ColumnVector active = batch.getColumn("active").orElseThrow();
+        assertTrue(active.getBoolean(0));
+        assertTrue(active.isNull(1));
+
+        assertEquals("a", batch.getColumn("name").orElseThrow().getObject(0));
+        assertFalse(batch.getColumn("other").isPresent());
+        assertThrows(UnsupportedOperationException.class, () -> batch.getColumn("name").orElseThrow().getLong(0));
+    }
+
+    @Test
+    void testPopulateColumnsDirectly() {
+        final RecordBatchBuilder builder = new RecordBatchBuilder(SCHEMA, 2);
+        builder.getColumn(0).setLong(builder.getRowCount(), 7L);
+        builder.getColumn(4).setObject(builder.getRowCount(), "seven");
+        builder.completeRow();
+        builder.getColumn(0).setLong(builder.getRowCount(), 8L);
+        builder.completeRow();
+
+        assertTrue(builder.isFull());
+        assertThrows(IllegalStateException.class, builder::completeRow);
+
+        final RecordBatch batch = builder.build();
+        final Record first = batch.getRecord(0);
+        assertEquals(7, first.getValue("id"));
+        assertEquals("seven", first.getValue("name"));
+        assertNull(first.getValue("count"));
+        assertNull(batch.getRecord(1).getValue("name"));
+    }
+
+    @Test
+    void testDefaultNextBatch() throws IOException, MalformedRecordException {
+        final List<Record> records = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            records.add(createRecord(i, (long) i * 10, (float) i, i % 2 == 0, "name-" + i));
+        }
+
+        final RecordReader reader = new IteratorRecordReader(records.iterator());
+
+        final RecordBatch first = reader.nextBatch(3);
+        assertEquals(3, first.getRowCount());
+        final RecordBatch second = reader.nextBatch(3);
+        assertEquals(2, second.getRowCount());
+        assertNull(reader.nextBatch(3));
+
+        final RecordSet recordSet = second.toRecordSet();
+        assertEquals("name-3", recordSet.next().getValue("name"));
+        assertEquals(40L, recordSet.next().getValue("count"));
+        assertNull(recordSet.next());
+    }
+
+    private static Record createRecord(final Integer id, final Long count, final Float score, final Boolean active, final String name) {
+        final Map<String, Object> values = new LinkedHashMap<>();
+        values.put("id", id);
+        values.put("count", count);
+        values.put("score", score);
+        values.put("active", active);
+        values.put("name", name);
+        values.put("unknown", "dropped");
+        return new MapRecord(SCHEMA, values);
+    }
+
+    private static class IteratorRecordReader implements RecordReader {
+        private final Iterator<Record> records;
+
+        private IteratorRecordReader(final Iterator<Record> records) {
+            this.records = records;
+        }
+
+        @Override
+        public Record nextRecord(final boolean coerceTypes, final boolean dropUnknownFields) {
+            return records.hasNext() ? records.next() : null;
+        }
+
+        @Override
+        public RecordSchema getSchema() {
+            return SCHEMA;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
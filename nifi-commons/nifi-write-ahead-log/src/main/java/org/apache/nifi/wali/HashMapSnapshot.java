@@ -25,6 +25,8 @@ import org.wali.UpdateType;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.EOFException;
@@ -32,29 +34,104 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>
+ * A {@link WriteAheadSnapshot} that keeps all active records in a HashMap and writes them to a single 'checkpoint' file.
+ * </p>
+ *
+ * <p>
+ * If configured to allow incremental snapshots, a checkpoint may instead write an 'incremental snapshot' file that contains only the records that
+ * have been updated since the previous checkpoint, along with the update that removed each record that is no longer active. Incremental snapshots
+ * are written relative to the most recent full snapshot and are applied in order upon recovery. A full snapshot is written, and the incremental
+ * snapshots discarded, once the configured number of incremental snapshots has been written, once the incremental snapshots are collectively larger
+ * than the full snapshot, or once half of the records have been updated since the previous checkpoint.
+ * </p>
+ *
+ * <p>
+ * Both versions of the snapshot encoding can be recovered. A full snapshot is written using version 1, which earlier versions can also recover, unless
+ * blocked records are enabled, in which case it is written using version 2 so that its records can be deserialized concurrently upon recovery.
+ * Incremental snapshots are always written using version 2.
+ * </p>
+ */
 public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T> {
     private static final Logger logger = LoggerFactory.getLogger(HashMapSnapshot.class);
-    private static final int ENCODING_VERSION = 1;
+    private static final int ENCODING_VERSION = 2;
+
+    // Version 1 writes records one after another, and is the version written by default so that the snapshot can be recovered by earlier versions.
+    // As of version 2, records are written in length-delimited blocks so that the blocks can be deserialized concurrently upon recovery.
+    private static final int SEQUENTIAL_RECORDS_VERSION = 1;
+    private static final int BLOCKED_RECORDS_VERSION = 2;
+    private static final int MAX_RECORDS_PER_BLOCK = 10_000;
+    private static final int MAX_BYTES_PER_BLOCK = 1024 * 1024;
+    private static final int RECOVERY_THREAD_COUNT = Math.max(1, Runtime.getRuntime().availableProcessors());
+    private static final Pattern INCREMENTAL_SNAPSHOT_FILENAME_PATTERN = Pattern.compile("checkpoint\\.increment\\.(\\d+)");
 
     private final ConcurrentMap<Object, T> recordMap = new ConcurrentHashMap<>();
     private final SerDeFactory<T> serdeFactory;
     private final Set<String> swapLocations = Collections.synchronizedSet(new HashSet<>());
     private final File storageDirectory;
+    private final int maxIncrementalSnapshots;
+    private final boolean blockedRecords;
+
+    // The most recent update for each record that has been updated since the last checkpoint. Populated only if incremental snapshots are allowed.
+    private final ConcurrentMap<Object, T> updatedRecords = new ConcurrentHashMap<>();
+
+    // A full snapshot is always written first after recovery, because records that are recovered from the journals are not known to be updated.
+    // This is also set while an incremental snapshot is being written, so that a failure to write it results in a full snapshot next time.
+    private volatile boolean fullSnapshotRequired = true;
+    private volatile long fullSnapshotTransactionId = -1L;
+    private volatile long fullSnapshotBytes = 0L;
+    private volatile int incrementalSnapshotCount = 0;
+    private volatile long incrementalSnapshotBytes = 0L;
 
     public HashMapSnapshot(final File storageDirectory, final SerDeFactory<T> serdeFactory) {
+        this(storageDirectory, serdeFactory, 0);
+    }
+
+    /**
+     * @param storageDirectory the directory in which to store the snapshot
+     * @param serdeFactory the factory for the SerDe that is used to serialize records
+     * @param maxIncrementalSnapshots the maximum number of incremental snapshots to write before writing a full snapshot, or 0 to always write full snapshots
+     */
+    public HashMapSnapshot(final File storageDirectory, final SerDeFactory<T> serdeFactory, final int maxIncrementalSnapshots) {
+        this(storageDirectory, serdeFactory, maxIncrementalSnapshots, false);
+    }
+
+    /**
+     * @param storageDirectory the directory in which to store the snapshot
+     * @param serdeFactory the factory for the SerDe that is used to serialize records
+     * @param maxIncrementalSnapshots the maximum number of incremental snapshots to write before writing a full snapshot, or 0 to always write full snapshots
+     * @param blockedRecords whether to write the records of a full snapshot in blocks that are deserialized concurrently upon recovery. A snapshot that is
+     *                       written in blocks cannot be recovered by versions that only read version 1 of the encoding.
+     */
+    public HashMapSnapshot(final File storageDirectory, final SerDeFactory<T> serdeFactory, final int maxIncrementalSnapshots, final boolean blockedRecords) {
         this.serdeFactory = serdeFactory;
         this.storageDirectory = storageDirectory;
+        this.maxIncrementalSnapshots = Math.max(0, maxIncrementalSnapshots);
+        this.blockedRecords = blockedRecords;
     }
 
     private SnapshotHeader validateHeader(final DataInputStream dataIn) throws IOException {
@@ -84,10 +161,31 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
         final int numRecords = dataIn.readInt();
         logger.debug("Number of Records for Snapshot at {} is {}", storageDirectory, numRecords);
 
-        final SerDe<T> serde = serdeFactory.createSerDe(serdeEncoding);
-        serde.readHeader(dataIn);
+        if (snapshotVersion < BLOCKED_RECORDS_VERSION) {
+            final SerDe<T> serde = serdeFactory.createSerDe(serdeEncoding);
+            serde.readHeader(dataIn);
+            return new SnapshotHeader(serde, serdeEncoding, null, serdeVersion, snapshotVersion, maxTransactionId, numRecords);
+        }
+
+        // The SerDe header is retained so that a separate SerDe can be created for each block of records that is recovered
+        final int serdeHeaderLength = dataIn.readInt();
+        if (serdeHeaderLength < 0) {
+            throw new IOException("Write-Ahead Log Snapshot located at " + storageDirectory + " indicates a SerDe header length of " + serdeHeaderLength + "; Snapshot may be corrupt");
+        }
+
+        final byte[] serdeHeader = new byte[serdeHeaderLength];
+        dataIn.readFully(serdeHeader);
+
+        return new SnapshotHeader(null, serdeEncoding, serdeHeader, serdeVersion, snapshotVersion, maxTransactionId, numRecords);
+    }
+
+    private SerDe<T> createSerDe(final SnapshotHeader header) throws IOException {
+        final SerDe<T> serde = serdeFactory.createSerDe(header.getSerDeEncoding());
+        try (final DataInputStream headerIn = new DataInputStream(new ByteArrayInputStream(header.getSerDeHeader()))) {
+            serde.readHeader(headerIn);
+        }
 
-        return new SnapshotHeader(serde, serdeVersion, maxTransactionId, numRecords);
+        return serde;
     }
 
     @Override
@@ -125,39 +223,166 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
             // Ensure that the header contains the information that we expect and retrieve the relevant information from the header.
             final SnapshotHeader header = validateHeader(dataIn);
 
-            final SerDe<T> serde = header.getSerDe();
-            final int serdeVersion = header.getSerDeVersion();
             final int numRecords = header.getNumRecords();
-            final long maxTransactionId = header.getMaxTransactionId();
+            final long snapshotTransactionId = header.getMaxTransactionId();
 
             // Read all of the records that we expect to receive.
-            for (int i = 0; i < numRecords; i++) {
-                final T record = serde.deserializeRecord(dataIn, serdeVersion);
-                if (record == null) {
-                    throw new EOFException();
+            if (header.getSnapshotVersion() < BLOCKED_RECORDS_VERSION) {
+                recoverRecords(header.getSerDe(), dataIn, numRecords, header.getSerDeVersion(), false);
+            } else {
+                recoverRecordBlocks(dataIn, header, false);
+            }
+
+            // Determine the location of any swap files.
+            final Set<String> swapLocations = readSwapLocations(dataIn);
+
+            logger.info("{} restored {} Records and {} Swap Files from Snapshot, ending with Transaction ID {}", this, numRecords, swapLocations.size(), snapshotTransactionId);
+
+            final long maxTransactionId = recoverIncrementalSnapshots(snapshotTransactionId, swapLocations);
+            this.swapLocations.addAll(swapLocations);
+
+            return new StandardSnapshotRecovery<>(recordMap, swapLocations, snapshotFile, maxTransactionId);
+        }
+    }
+
+    /**
+     * Applies, in order, each incremental snapshot that was written relative to the full snapshot with the given Transaction ID.
+     *
+     * @param snapshotTransactionId the max Transaction ID of the full snapshot that was recovered
+     * @param swapLocations the swap locations recovered from the full snapshot, which are replaced by those of each incremental snapshot that is applied
+     * @return the max Transaction ID of the last snapshot that was applied
+     */
+    private long recoverIncrementalSnapshots(final long snapshotTransactionId, final Set<String> swapLocations) throws IOException {
+        final File incrementalPartialFile = getIncrementalPartialFile();
+        if (incrementalPartialFile.exists()) {
+            Files.delete(incrementalPartialFile.toPath());
+        }
+
+        long maxTransactionId = snapshotTransactionId;
+        int expectedIncrement = 1;
+        for (final File incrementalFile : getIncrementalSnapshotFiles()) {
+            // An incremental snapshot that is out of sequence or that was written relative to a different full snapshot is left over from before
+            // the most recent full snapshot was written. Its updates, and those of any later incremental snapshot, are already in the full snapshot.
+            final int increment = getIncrement(incrementalFile);
+            if (increment != expectedIncrement) {
+                logger.info("{} found Incremental Snapshot {} but expected Incremental Snapshot {}; will not recover it or any later Incremental Snapshot", this, incrementalFile, expectedIncrement);
+                break;
+            }
+
+            try (final DataInputStream dataIn = new DataInputStream(new BufferedInputStream(new FileInputStream(incrementalFile)))) {
+                final SnapshotHeader header = validateHeader(dataIn);
+                final long baseTransactionId = dataIn.readLong();
+                if (baseTransactionId != snapshotTransactionId) {
+                    logger.info("{} found Incremental Snapshot {} for the Snapshot with Transaction ID {} but the recovered Snapshot has Transaction ID {}; "
+                        + "will not recover it or any later Incremental Snapshot", this, incrementalFile, baseTransactionId, snapshotTransactionId);
+                    break;
                 }
 
-                final UpdateType updateType = serde.getUpdateType(record);
-                if (updateType == UpdateType.DELETE) {
-                    logger.warn("While recovering from snapshot, found record with type 'DELETE'; this record will not be restored");
-                    continue;
+                recoverRecordBlocks(dataIn, header, true);
+
+                swapLocations.clear();
+                swapLocations.addAll(readSwapLocations(dataIn));
+                maxTransactionId = header.getMaxTransactionId();
+
+                logger.info("{} applied {} updated Records from Incremental Snapshot {}, ending with Transaction ID {}", this, header.getNumRecords(), incrementalFile, maxTransactionId);
+            }
+
+            expectedIncrement++;
+        }
+
+        return maxTransactionId;
+    }
+
+    private Set<String> readSwapLocations(final DataInputStream dataIn) throws IOException {
+        final int numSwapRecords = dataIn.readInt();
+        final Set<String> swapLocations = new HashSet<>();
+        for (int i = 0; i < numSwapRecords; i++) {
+            swapLocations.add(dataIn.readUTF());
+        }
+
+        return swapLocations;
+    }
+
+    /**
+     * Reads each block of records from the given stream and deserializes the blocks in parallel. Because the snapshot contains at most one
+     * record for any given Record Identifier, the order in which the blocks are deserialized does not affect the records that are recovered.
+     */
+    private void recoverRecordBlocks(final DataInputStream dataIn, final SnapshotHeader header, final boolean incremental) throws IOException {
+        final int numRecords = header.getNumRecords();
+
+        // Limit the number of blocks that have been read but not yet deserialized, so that reading does not outpace deserialization and exhaust the heap
+        final Semaphore pendingBlocks = new Semaphore(RECOVERY_THREAD_COUNT * 2);
+        final ExecutorService executor = Executors.newFixedThreadPool(RECOVERY_THREAD_COUNT, Thread.ofPlatform().name("Snapshot Recovery-", 1).daemon().factory());
+        final List<Future<Void>> futures = new ArrayList<>();
+
+        try {
+            int recordsRead = 0;
+            while (recordsRead < numRecords) {
+                final int blockRecordCount = dataIn.readInt();
+                final int blockLength = dataIn.readInt();
+                if (blockRecordCount < 1 || blockRecordCount > numRecords - recordsRead || blockLength < 0) {
+                    throw new IOException("Write-Ahead Log Snapshot located at " + storageDirectory + " contains a block of " + blockRecordCount + " records and "
+                        + blockLength + " bytes after " + recordsRead + " of " + numRecords + " records were read; Snapshot may be corrupt");
                 }
 
-                logger.trace("Recovered from snapshot: {}", record);
-                recordMap.put(serde.getRecordIdentifier(record), record);
+                final byte[] block = new byte[blockLength];
+                dataIn.readFully(block);
+                recordsRead += blockRecordCount;
+
+                pendingBlocks.acquire();
+                futures.add(executor.submit(() -> {
+                    try (final DataInputStream blockIn = new DataInputStream(new ByteArrayInputStream(block))) {
+                        recoverRecords(createSerDe(header), blockIn, blockRecordCount, header.getSerDeVersion(), incremental);
+                        return null;
+                    } finally {
+                        pendingBlocks.release();
+                    }
+                }));
             }
 
-            // Determine the location of any swap files.
-            final int numSwapRecords = dataIn.readInt();
-            final Set<String> swapLocations = new HashSet<>();
-            for (int i = 0; i < numSwapRecords; i++) {
-                swapLocations.add(dataIn.readUTF());
+            for (final Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while recovering Write-Ahead Log Snapshot located at " + storageDirectory);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException ioe) {
+                throw ioe;
+            }
+            if (cause instanceof Error error) {
+                throw error;
             }
-            this.swapLocations.addAll(swapLocations);
 
-            logger.info("{} restored {} Records and {} Swap Files from Snapshot, ending with Transaction ID {}", this, numRecords, swapLocations.size(), maxTransactionId);
+            throw new IOException("Failed to recover Write-Ahead Log Snapshot located at " + storageDirectory, cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-            return new StandardSnapshotRecovery<>(recordMap, swapLocations, snapshotFile, maxTransactionId);
+    private void recoverRecords(final SerDe<T> serde, final DataInputStream in, final int numRecords, final int serdeVersion, final boolean incremental) throws IOException {
+        for (int i = 0; i < numRecords; i++) {
+            final T record = serde.deserializeRecord(in, serdeVersion);
+            if (record == null) {
+                throw new EOFException();
+            }
+
+            final UpdateType updateType = serde.getUpdateType(record);
+            if (incremental && (updateType == UpdateType.DELETE || updateType == UpdateType.SWAP_OUT)) {
+                // An incremental snapshot contains the update that removed each record that is no longer active
+                logger.trace("Removed by incremental snapshot: {}", record);
+                recordMap.remove(serde.getRecordIdentifier(record));
+                continue;
+            }
+
+            if (updateType == UpdateType.DELETE) {
+                logger.warn("While recovering from snapshot, found record with type 'DELETE'; this record will not be restored");
+                continue;
+            }
+
+            logger.trace("Recovered from snapshot: {}", record);
+            recordMap.put(serde.getRecordIdentifier(record), record);
         }
     }
 
@@ -171,6 +396,9 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
         for (final T record : records) {
             final Object recordId = serdeFactory.getRecordIdentifier(record);
             final UpdateType updateType = serdeFactory.getUpdateType(record);
+            if (maxIncrementalSnapshots > 0) {
+                updatedRecords.put(recordId, record);
+            }
 
             switch (updateType) {
                 case DELETE:
@@ -225,6 +453,37 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
         return new Snapshot(new HashMap<>(recordMap), new HashSet<>(swapFileLocations), maxTransactionId);
     }
 
+    @Override
+    public SnapshotCapture<T> prepareCheckpoint(final long maxTransactionId, final Set<String> swapFileLocations) {
+        final Set<String> checkpointSwapLocations = swapFileLocations == null ? this.swapLocations : swapFileLocations;
+
+        final boolean incremental = isIncrementalSnapshotAllowed();
+        fullSnapshotRequired = true;
+        if (!incremental) {
+            updatedRecords.clear();
+            return prepareSnapshot(maxTransactionId, checkpointSwapLocations);
+        }
+
+        // For each updated record, capture the active record or, if the record is no longer active, the update that removed it
+        final Map<Object, T> records = new HashMap<>(updatedRecords.size());
+        for (final Map.Entry<Object, T> entry : updatedRecords.entrySet()) {
+            final T activeRecord = recordMap.get(entry.getKey());
+            records.put(entry.getKey(), activeRecord == null ? entry.getValue() : activeRecord);
+        }
+        updatedRecords.clear();
+
+        return new IncrementalSnapshot(records, new HashSet<>(checkpointSwapLocations), maxTransactionId, fullSnapshotTransactionId);
+    }
+
+    private boolean isIncrementalSnapshotAllowed() {
+        if (maxIncrementalSnapshots < 1 || fullSnapshotRequired || incrementalSnapshotCount >= maxIncrementalSnapshots) {
+            return false;
+        }
+
+        // Once enough has changed, recovering from the incremental snapshots would read more than a full snapshot would
+        return updatedRecords.size() <= recordMap.size() / 2 && incrementalSnapshotBytes < fullSnapshotBytes;
+    }
+
     private int getVersion() {
         return ENCODING_VERSION;
     }
@@ -237,10 +496,62 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
         return new File(storageDirectory, "checkpoint");
     }
 
+    private File getIncrementalPartialFile() {
+        return new File(storageDirectory, "checkpoint.increment.partial");
+    }
+
+    private File getIncrementalSnapshotFile(final int increment) {
+        return new File(storageDirectory, "checkpoint.increment." + increment);
+    }
+
+    private List<File> getIncrementalSnapshotFiles() {
+        final File[] files = storageDirectory.listFiles(file -> INCREMENTAL_SNAPSHOT_FILENAME_PATTERN.matcher(file.getName()).matches());
+        if (files == null) {
+            return Collections.emptyList();
+        }
+
+        final List<File> incrementalFiles = new ArrayList<>(List.of(files));
+        incrementalFiles.sort(Comparator.comparingInt(this::getIncrement));
+        return incrementalFiles;
+    }
+
+    private int getIncrement(final File incrementalFile) {
+        final Matcher matcher = INCREMENTAL_SNAPSHOT_FILENAME_PATTERN.matcher(incrementalFile.getName());
+        return matcher.matches() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
     @Override
     public synchronized void writeSnapshot(final SnapshotCapture<T> snapshot) throws IOException {
-        final SerDe<T> serde = serdeFactory.createSerDe(null);
+        if (snapshot instanceof IncrementalSnapshot incrementalSnapshot) {
+            writeIncrementalSnapshot(incrementalSnapshot);
+        } else {
+            writeFullSnapshot(snapshot);
+        }
+    }
+
+    private void writeIncrementalSnapshot(final IncrementalSnapshot snapshot) throws IOException {
+        final int increment = incrementalSnapshotCount + 1;
+        final File partialFile = getIncrementalPartialFile();
+        final File incrementalFile = getIncrementalSnapshotFile(increment);
+
+        try (final FileOutputStream fileOut = new FileOutputStream(partialFile);
+             final DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            writeSnapshotContents(snapshot, snapshot.getBaseTransactionId(), true, dataOut);
+
+            dataOut.flush();
+            fileOut.getChannel().force(false);
+        }
+
+        // Any file with the same name is left over from before the current full snapshot was written, so it can be replaced
+        Files.move(partialFile.toPath(), incrementalFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
 
+        incrementalSnapshotCount = increment;
+        incrementalSnapshotBytes += incrementalFile.length();
+        fullSnapshotRequired = false;
+        logger.debug("{} wrote {} updated Records to Incremental Snapshot {}", this, snapshot.getRecords().size(), incrementalFile);
+    }
+
+    private void writeFullSnapshot(final SnapshotCapture<T> snapshot) throws IOException {
         final File snapshotFile = getSnapshotFile();
         final File partialFile = getPartialFile();
 
@@ -267,26 +578,7 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
             final OutputStream bufferedOut = new BufferedOutputStream(fileOut);
             final DataOutputStream dataOut = new DataOutputStream(bufferedOut)) {
 
-            // Write out the header
-            dataOut.writeUTF(HashMapSnapshot.class.getName());
-            dataOut.writeInt(getVersion());
-            dataOut.writeUTF(serde.getClass().getName());
-            dataOut.writeInt(serde.getVersion());
-            dataOut.writeLong(snapshot.getMaxTransactionId());
-            dataOut.writeInt(snapshot.getRecords().size());
-            serde.writeHeader(dataOut);
-
-            // Serialize each record
-            for (final T record : snapshot.getRecords().values()) {
-                logger.trace("Checkpointing {}", record);
-                serde.serializeRecord(record, dataOut);
-            }
-
-            // Write out the number of swap locations, followed by the swap locations themselves.
-            dataOut.writeInt(snapshot.getSwapLocations().size());
-            for (final String swapLocation : snapshot.getSwapLocations()) {
-                dataOut.writeUTF(swapLocation);
-            }
+            writeSnapshotContents(snapshot, null, blockedRecords, dataOut);
 
             // Ensure that we flush the Buffered Output Stream and then perform an fsync().
             // This ensures that the data is fully written to disk before we delete the existing snapshot.
@@ -306,8 +598,91 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
         if (!rename) {
             throw new IOException("Failed to rename partial snapshot file " + partialFile + " to " + snapshotFile);
         }
+
+        // The full snapshot encapsulates all incremental snapshots. If any cannot be deleted, a full snapshot will be written again at the next checkpoint,
+        // and recovery ignores any incremental snapshot that was not written relative to the recovered snapshot.
+        for (final File incrementalFile : getIncrementalSnapshotFiles()) {
+            Files.delete(incrementalFile.toPath());
+        }
+
+        fullSnapshotTransactionId = snapshot.getMaxTransactionId();
+        fullSnapshotBytes = snapshotFile.length();
+        incrementalSnapshotCount = 0;
+        incrementalSnapshotBytes = 0L;
+        fullSnapshotRequired = false;
+    }
+
+    /**
+     * Writes the header, each of the given snapshot's records, and the snapshot's swap locations. If blocked, the records are written in length-delimited
+     * blocks using version 2 of the encoding; otherwise, they are written one after another using version 1. For an incremental snapshot, which is always
+     * blocked, the Transaction ID of the full snapshot that it was written relative to follows the header.
+     */
+    private void writeSnapshotContents(final SnapshotCapture<T> snapshot, final Long baseTransactionId, final boolean blocked, final DataOutputStream dataOut) throws IOException {
+        final SerDe<T> serde = serdeFactory.createSerDe(null);
+
+        // Write out the header
+        dataOut.writeUTF(HashMapSnapshot.class.getName());
+        dataOut.writeInt(blocked ? BLOCKED_RECORDS_VERSION : SEQUENTIAL_RECORDS_VERSION);
+        dataOut.writeUTF(serde.getClass().getName());
+        dataOut.writeInt(serde.getVersion());
+        dataOut.writeLong(snapshot.getMaxTransactionId());
+        dataOut.writeInt(snapshot.getRecords().size());
+
+        if (!blocked) {
+            serde.writeHeader(dataOut);
+
+            for (final T record : snapshot.getRecords().values()) {
+                logger.trace("Checkpointing {}", record);
+                serde.serializeRecord(record, dataOut);
+            }
+
+            writeSwapLocations(snapshot, dataOut);
+            return;
+        }
+
+        final ByteArrayDataOutputStream serdeHeaderOut = new ByteArrayDataOutputStream(1024);
+        serde.writeHeader(serdeHeaderOut.getDataOutputStream());
+        dataOut.writeInt(serdeHeaderOut.getByteArrayOutputStream().size());
+        serdeHeaderOut.getByteArrayOutputStream().writeTo(dataOut);
+
+        if (baseTransactionId != null) {
+            dataOut.writeLong(baseTransactionId);
+        }
+
+        // Serialize each record, grouping the records into blocks that are each preceded by the number of records and bytes that they contain
+        final ByteArrayDataOutputStream blockOut = new ByteArrayDataOutputStream(MAX_BYTES_PER_BLOCK);
+        int blockRecordCount = 0;
+        for (final T record : snapshot.getRecords().values()) {
+            logger.trace("Checkpointing {}", record);
+            serde.serializeRecord(record, blockOut.getDataOutputStream());
+
+            if (++blockRecordCount >= MAX_RECORDS_PER_BLOCK || blockOut.getByteArrayOutputStream().size() >= MAX_BYTES_PER_BLOCK) {
+                writeBlock(blockRecordCount, blockOut.getByteArrayOutputStream(), dataOut);
+                blockRecordCount = 0;
+            }
+        }
+
+        if (blockRecordCount > 0) {
+            writeBlock(blockRecordCount, blockOut.getByteArrayOutputStream(), dataOut);
+        }
+
+        writeSwapLocations(snapshot, dataOut);
     }
 
+    private void writeSwapLocations(final SnapshotCapture<T> snapshot, final DataOutputStream dataOut) throws IOException {
+        // Write out the number of swap locations, followed by the swap locations themselves.
+        dataOut.writeInt(snapshot.getSwapLocations().size());
+        for (final String swapLocation : snapshot.getSwapLocations()) {
+            dataOut.writeUTF(swapLocation);
+        }
+    }
+
+    private void writeBlock(final int recordCount, final ByteArrayOutputStream block, final DataOutputStream dataOut) throws IOException {
+        dataOut.writeInt(recordCount);
+        dataOut.writeInt(block.size());
+        block.writeTo(dataOut);
+        block.reset();
+    }
 
     public class Snapshot implements SnapshotCapture<T> {
         private final Map<Object, T> records;
@@ -336,15 +711,39 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
         }
     }
 
+    /**
+     * A capture of the records that have been updated since the previous checkpoint. Records that are no longer active are represented by
+     * the update that removed them.
+     */
+    private class IncrementalSnapshot extends Snapshot {
+        private final long baseTransactionId;
+
+        IncrementalSnapshot(final Map<Object, T> records, final Set<String> swapLocations, final long maxTransactionId, final long baseTransactionId) {
+            super(records, swapLocations, maxTransactionId);
+            this.baseTransactionId = baseTransactionId;
+        }
+
+        long getBaseTransactionId() {
+            return baseTransactionId;
+        }
+    }
+
     private class SnapshotHeader {
         private final SerDe<T> serde;
+        private final String serdeEncoding;
+        private final byte[] serdeHeader;
         private final int serdeVersion;
+        private final int snapshotVersion;
         private final int numRecords;
         private final long maxTransactionId;
 
-        public SnapshotHeader(final SerDe<T> serde, final int serdeVersion, final long maxTransactionId, final int numRecords) {
+        public SnapshotHeader(final SerDe<T> serde, final String serdeEncoding, final byte[] serdeHeader, final int serdeVersion, final int snapshotVersion,
+                              final long maxTransactionId, final int numRecords) {
             this.serde = serde;
+            this.serdeEncoding = serdeEncoding;
+            this.serdeHeader = serdeHeader;
             this.serdeVersion = serdeVersion;
+            this.snapshotVersion = snapshotVersion;
             this.maxTransactionId = maxTransactionId;
             this.numRecords = numRecords;
         }
@@ -353,6 +752,18 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
             return serde;
         }
 
+        public String getSerDeEncoding() {
+            return serdeEncoding;
+        }
+
+        public byte[] getSerDeHeader() {
+            return serdeHeader;
+        }
+
+        public int getSnapshotVersion() {
+            return snapshotVersion;
+        }
+
         public int getSerDeVersion() {
             return serdeVersion;
         }
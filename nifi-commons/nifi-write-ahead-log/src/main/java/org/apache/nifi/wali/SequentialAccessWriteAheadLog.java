@@ -28,7 +28,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.regex.Pattern;
@@ -53,6 +55,13 @@ import org.wali.WriteAheadRepository;
  * that records are recovered correctly if two threads simultaneously update the write-ahead log
  * with updates for the same record.
  * </p>
+ *
+ * <p>
+ * If a group commit window is provided, updates that request a sync are not synced individually. Instead, the first such update
+ * waits for the configured window so that other threads are able to write their updates to the journal, and then issues a single
+ * sync on behalf of all updates that have been written. Each caller is released once a sync that covers its own update has completed.
+ * Updates that are written while a sync is in progress are covered by the next sync.
+ * </p>
  */
 public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T> {
     private static final int PARTITION_INDEX = 0;
@@ -61,6 +70,11 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
     private static final int MAX_BUFFERS = 64;
     private static final int BUFFER_SIZE = 256 * 1024;
 
+    /**
+     * Value for the group commit window indicating that each update that requests a sync should be synced individually
+     */
+    public static final long GROUP_COMMIT_DISABLED = -1L;
+
     private final File storageDirectory;
     private final File journalsDirectory;
     protected final SerDeFactory<T> serdeFactory;
@@ -83,11 +97,72 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
     private WriteAheadJournal<T> journal;
     private volatile long nextTransactionId = 0L;
 
+    private final long groupCommitWindowNanos;
+    private final AtomicLong writtenUpdateCount = new AtomicLong(0L);
+    private final Object groupCommitMonitor = new Object();
+    private long syncedUpdateCount = 0L; // guarded by groupCommitMonitor
+    private boolean groupSyncInProgress = false; // guarded by groupCommitMonitor
+
     public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory) throws IOException {
         this(storageDirectory, serdeFactory, SyncListener.NOP_SYNC_LISTENER);
     }
 
     public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory, final SyncListener syncListener) throws IOException {
+        this(storageDirectory, serdeFactory, syncListener, GROUP_COMMIT_DISABLED, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a Write-Ahead Log that coalesces the syncs of concurrent updates
+     *
+     * @param storageDirectory the directory in which to store the snapshot and journals
+     * @param serdeFactory the factory for the SerDe that is used to serialize records
+     * @param syncListener the listener to notify when the journal is synced to disk
+     * @param groupCommitWindow how long to wait for other updates before performing a sync on behalf of all of them, or {@link #GROUP_COMMIT_DISABLED}
+     *                          to sync each update individually. A value of 0 performs the sync immediately, covering all updates that were written
+     *                          while the previous sync was in progress.
+     * @param timeUnit the unit of the group commit window
+     * @throws IOException if unable to create the storage directories
+     */
+    public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory, final SyncListener syncListener,
+                                         final long groupCommitWindow, final TimeUnit timeUnit) throws IOException {
+        this(storageDirectory, serdeFactory, syncListener, groupCommitWindow, timeUnit, 0);
+    }
+
+    /**
+     * Creates a Write-Ahead Log that coalesces the syncs of concurrent updates and that may checkpoint by writing only the records that have been
+     * updated since the previous checkpoint
+     *
+     * @param storageDirectory the directory in which to store the snapshot and journals
+     * @param serdeFactory the factory for the SerDe that is used to serialize records
+     * @param syncListener the listener to notify when the journal is synced to disk
+     * @param groupCommitWindow how long to wait for other updates before performing a sync on behalf of all of them, or {@link #GROUP_COMMIT_DISABLED}
+     *                          to sync each update individually
+     * @param timeUnit the unit of the group commit window
+     * @param maxIncrementalSnapshots the maximum number of incremental snapshots to write between full snapshots, or 0 to write a full snapshot at every checkpoint
+     * @throws IOException if unable to create the storage directories
+     */
+    public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory, final SyncListener syncListener,
+                                         final long groupCommitWindow, final TimeUnit timeUnit, final int maxIncrementalSnapshots) throws IOException {
+        this(storageDirectory, serdeFactory, syncListener, groupCommitWindow, timeUnit, maxIncrementalSnapshots, false);
+    }
+
+    /**
+     * Creates a Write-Ahead Log that coalesces the syncs of concurrent updates, that may checkpoint by writing only the records that have been
+     * updated since the previous checkpoint, and that may write the records of each full snapshot in blocks that are recovered concurrently
+     *
+     * @param storageDirectory the directory in which to store the snapshot and journals
+     * @param serdeFactory the factory for the SerDe that is used to serialize records
+     * @param syncListener the listener to notify when the journal is synced to disk
+     * @param groupCommitWindow how long to wait for other updates before performing a sync on behalf of all of them, or {@link #GROUP_COMMIT_DISABLED}
+     *                          to sync each update individually
+     * @param timeUnit the unit of the group commit window
+     * @param maxIncrementalSnapshots the maximum number of incremental snapshots to write between full snapshots, or 0 to write a full snapshot at every checkpoint
+     * @param blockedSnapshotRecords whether to write the records of each full snapshot in blocks, which earlier versions cannot recover
+     * @throws IOException if unable to create the storage directories
+     */
+    public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory, final SyncListener syncListener,
+                                         final long groupCommitWindow, final TimeUnit timeUnit, final int maxIncrementalSnapshots,
+                                         final boolean blockedSnapshotRecords) throws IOException {
         if (!storageDirectory.exists() && !storageDirectory.mkdirs()) {
             throw new IOException("Directory " + storageDirectory + " does not exist and cannot be created");
         }
@@ -95,7 +170,7 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
             throw new IOException("File " + storageDirectory + " is a regular file and not a directory");
         }
 
-        final HashMapSnapshot<T> hashMapSnapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory);
+        final HashMapSnapshot<T> hashMapSnapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory, maxIncrementalSnapshots, blockedSnapshotRecords);
         this.snapshot = hashMapSnapshot;
         this.recordLookup = hashMapSnapshot;
 
@@ -109,6 +184,7 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
 
         this.serdeFactory = serdeFactory;
         this.syncListener = (syncListener == null) ? SyncListener.NOP_SYNC_LISTENER : syncListener;
+        this.groupCommitWindowNanos = groupCommitWindow < 0 ? GROUP_COMMIT_DISABLED : timeUnit.toNanos(groupCommitWindow);
     }
 
     @Override
@@ -122,8 +198,12 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
             journal.update(records, recordLookup);
 
             if (forceSync) {
-                journal.fsync();
-                syncListener.onSync(PARTITION_INDEX);
+                if (groupCommitWindowNanos == GROUP_COMMIT_DISABLED) {
+                    journal.fsync();
+                    syncListener.onSync(PARTITION_INDEX);
+                } else {
+                    awaitGroupSync(writtenUpdateCount.incrementAndGet());
+                }
             }
 
             snapshot.update(records);
@@ -134,6 +214,59 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
         return PARTITION_INDEX;
     }
 
+    /**
+     * Waits until the journal has been synced to disk after the update with the given sequence number was written, performing
+     * the sync if no other thread is already doing so. This method MUST be called while holding the journal read lock, so that
+     * the journal cannot be rolled over before the sync completes.
+     *
+     * @param updateSequence the sequence number of the update, which is assigned after the update has been written to the journal
+     * @throws IOException if unable to sync the journal
+     */
+    private void awaitGroupSync(final long updateSequence) throws IOException {
+        synchronized (groupCommitMonitor) {
+            while (syncedUpdateCount < updateSequence) {
+                if (!groupSyncInProgress) {
+                    groupSyncInProgress = true;
+                    break;
+                }
+
+                try {
+                    groupCommitMonitor.wait();
+                } catch (final InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for Write-Ahead Log to be synced to disk", ie);
+                }
+            }
+
+            if (syncedUpdateCount >= updateSequence) {
+                return;
+            }
+        }
+
+        // This thread is responsible for syncing the journal on behalf of all updates that have been written.
+        long syncedThrough = -1L;
+        try {
+            if (groupCommitWindowNanos > 0) {
+                LockSupport.parkNanos(groupCommitWindowNanos);
+            }
+
+            // Any update whose sequence number has been assigned at this point has been fully written to the journal.
+            final long writtenThrough = writtenUpdateCount.get();
+            journal.fsync();
+            syncListener.onSync(PARTITION_INDEX);
+            syncedThrough = writtenThrough;
+        } finally {
+            synchronized (groupCommitMonitor) {
+                if (syncedThrough > syncedUpdateCount) {
+                    syncedUpdateCount = syncedThrough;
+                }
+
+                groupSyncInProgress = false;
+                groupCommitMonitor.notifyAll();
+            }
+        }
+    }
+
     @Override
     public synchronized Collection<T> recoverRecords() throws IOException {
         if (recovered) {
@@ -256,6 +389,7 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
 
     private int checkpoint(final Set<String> swapLocations) throws IOException {
         final SnapshotCapture<T> snapshotCapture;
+        final int recordCount;
 
         final long startNanos = System.nanoTime();
         final File[] existingJournals;
@@ -288,11 +422,8 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
             final File[] existingFiles = journalsDirectory.listFiles(this::isJournalFile);
             existingJournals = (existingFiles == null) ? new File[0] : existingFiles;
 
-            if (swapLocations == null) {
-                snapshotCapture = snapshot.prepareSnapshot(nextTransactionId - 1);
-            } else {
-                snapshotCapture = snapshot.prepareSnapshot(nextTransactionId - 1, swapLocations);
-            }
+            snapshotCapture = snapshot.prepareCheckpoint(nextTransactionId - 1, swapLocations);
+            recordCount = snapshot.getRecordCount();
 
 
             // Create a new journal. We name the journal file <next transaction id>.journal but it is possible
@@ -323,10 +454,10 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
 
         final long totalNanos = System.nanoTime() - startNanos;
         final long millis = TimeUnit.NANOSECONDS.toMillis(totalNanos);
-        logger.info("Checkpointed Write-Ahead Log with {} Records and {} Swap Files in {} milliseconds (Stop-the-world time = {} milliseconds), max Transaction ID {}",
-                snapshotCapture.getRecords().size(), snapshotCapture.getSwapLocations().size(), millis, stopTheWorldMillis, snapshotCapture.getMaxTransactionId());
+        logger.info("Checkpointed Write-Ahead Log with {} Records ({} written) and {} Swap Files in {} milliseconds (Stop-the-world time = {} milliseconds), max Transaction ID {}",
+                recordCount, snapshotCapture.getRecords().size(), snapshotCapture.getSwapLocations().size(), millis, stopTheWorldMillis, snapshotCapture.getMaxTransactionId());
 
-        return snapshotCapture.getRecords().size();
+        return recordCount;
     }
 
 
@@ -26,6 +26,19 @@ public interface WriteAheadSnapshot<T> {
 
     SnapshotCapture<T> prepareSnapshot(long maxTransactionId, Set<String> swapLocations);
 
+    /**
+     * Prepares the capture that is to be written in order to checkpoint the Write-Ahead Log. Unlike {@link #prepareSnapshot(long, Set)}, the capture
+     * that is returned may contain only the records that have been updated since the previous checkpoint, if the implementation supports doing so. This
+     * method must be called only while no updates are taking place, and the capture that it returns must subsequently be passed to {@link #writeSnapshot(SnapshotCapture)}.
+     *
+     * @param maxTransactionId the max Transaction ID of the updates that are included in the capture
+     * @param swapLocations the swap locations to include in the capture, or <code>null</code> to include the swap locations that are known to the snapshot
+     * @return the capture to write
+     */
+    default SnapshotCapture<T> prepareCheckpoint(long maxTransactionId, Set<String> swapLocations) {
+        return swapLocations == null ? prepareSnapshot(maxTransactionId) : prepareSnapshot(maxTransactionId, swapLocations);
+    }
+
     void writeSnapshot(SnapshotCapture<T> snapshot) throws IOException;
 
     SnapshotRecovery<T> recover() throws IOException;
@@ -25,9 +25,15 @@ import org.wali.SerDeFactory;
 import org.wali.SingletonSerDeFactory;
 import org.wali.UpdateType;
 
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -35,6 +41,7 @@ import java.util.Map;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -115,6 +122,179 @@ public class TestHashMapSnapshot {
         assertEquals(records, recoveredRecords);
     }
 
+    @Test
+    public void testRoundTripWithMultipleBlocks() throws IOException {
+        final HashMapSnapshot<DummyRecord> snapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory, 0, true);
+
+        for (int i = 0; i < 25_000; i++) {
+            final DummyRecord record = new DummyRecord(String.valueOf(i), UpdateType.CREATE);
+            record.setProperties(Collections.singletonMap("key", String.valueOf(i)));
+            snapshot.update(Collections.singleton(record));
+        }
+
+        final DummyRecord swapOutRecord = new DummyRecord("24999", UpdateType.SWAP_OUT);
+        swapOutRecord.setSwapLocation("SwapLocation-1");
+        snapshot.update(Collections.singleton(swapOutRecord));
+
+        final SnapshotCapture<DummyRecord> capture = snapshot.prepareSnapshot(500L);
+        snapshot.writeSnapshot(capture);
+        assertEquals(2, readSnapshotVersion());
+
+        final SnapshotRecovery<DummyRecord> recovery = new HashMapSnapshot<>(storageDirectory, serdeFactory).recover();
+        assertEquals(500L, recovery.getMaxTransactionId());
+        assertEquals(Collections.singleton("SwapLocation-1"), recovery.getRecoveredSwapLocations());
+
+        final Map<Object, DummyRecord> recoveredRecords = recovery.getRecords();
+        assertEquals(24_999, recoveredRecords.size());
+        assertEquals(capture.getRecords(), recoveredRecords);
+        for (final Map.Entry<Object, DummyRecord> entry : recoveredRecords.entrySet()) {
+            assertEquals(entry.getKey(), entry.getValue().getProperties().get("key"));
+        }
+    }
+
+    @Test
+    public void testVersion1SnapshotWrittenByDefault() throws IOException {
+        final HashMapSnapshot<DummyRecord> snapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory);
+        for (int i = 0; i < 3; i++) {
+            snapshot.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.CREATE)));
+        }
+
+        final SnapshotCapture<DummyRecord> capture = snapshot.prepareSnapshot(10L);
+        snapshot.writeSnapshot(capture);
+        assertEquals(1, readSnapshotVersion());
+
+        final SnapshotRecovery<DummyRecord> recovery = new HashMapSnapshot<>(storageDirectory, serdeFactory, 0, true).recover();
+        assertEquals(10L, recovery.getMaxTransactionId());
+        assertEquals(capture.getRecords(), recovery.getRecords());
+    }
+
+    @Test
+    public void testRecoverVersion1Snapshot() throws IOException {
+        try (final DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(new File(storageDirectory, "checkpoint"))))) {
+            dataOut.writeUTF(HashMapSnapshot.class.getName());
+            dataOut.writeInt(1);
+            dataOut.writeUTF(DummyRecordSerde.class.getName());
+            dataOut.writeInt(serde.getVersion());
+            dataOut.writeLong(42L);
+            dataOut.writeInt(3);
+            serde.writeHeader(dataOut);
+
+            for (int i = 0; i < 3; i++) {
+                final DummyRecord record = new DummyRecord(String.valueOf(i), UpdateType.CREATE);
+                record.setProperties(Collections.singletonMap("key", String.valueOf(i)));
+                serde.serializeRecord(record, dataOut);
+            }
+
+            dataOut.writeInt(1);
+            dataOut.writeUTF("SwapLocation-1");
+        }
+
+        final SnapshotRecovery<DummyRecord> recovery = new HashMapSnapshot<>(storageDirectory, serdeFactory).recover();
+        assertEquals(42L, recovery.getMaxTransactionId());
+        assertEquals(Collections.singleton("SwapLocation-1"), recovery.getRecoveredSwapLocations());
+
+        final Map<Object, DummyRecord> recoveredRecords = recovery.getRecords();
+        assertEquals(3, recoveredRecords.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(String.valueOf(i), recoveredRecords.get(String.valueOf(i)).getProperties().get("key"));
+        }
+    }
+
+    @Test
+    public void testIncrementalSnapshots() throws IOException {
+        final HashMapSnapshot<DummyRecord> snapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory, 2);
+        for (int i = 0; i < 100; i++) {
+            snapshot.update(Collections.singleton(createRecord(i, UpdateType.CREATE, "initial")));
+        }
+
+        // The first checkpoint must always be a full snapshot
+        final SnapshotCapture<DummyRecord> fullCapture = snapshot.prepareCheckpoint(10L, null);
+        assertEquals(100, fullCapture.getRecords().size());
+        snapshot.writeSnapshot(fullCapture);
+
+        snapshot.update(Collections.singleton(createRecord(1, UpdateType.UPDATE, "updated")));
+        snapshot.update(Collections.singleton(new DummyRecord("2", UpdateType.DELETE)));
+        final DummyRecord swapOut = new DummyRecord("3", UpdateType.SWAP_OUT);
+        swapOut.setSwapLocation("SwapLocation-1");
+        snapshot.update(Collections.singleton(swapOut));
+
+        final SnapshotCapture<DummyRecord> firstIncrement = snapshot.prepareCheckpoint(20L, null);
+        assertEquals(3, firstIncrement.getRecords().size());
+        snapshot.writeSnapshot(firstIncrement);
+        assertTrue(new File(storageDirectory, "checkpoint.increment.1").exists());
+
+        snapshot.update(Collections.singleton(createRecord(100, UpdateType.CREATE, "created")));
+        snapshot.update(Collections.singleton(createRecord(1, UpdateType.UPDATE, "updated again")));
+        snapshot.writeSnapshot(snapshot.prepareCheckpoint(30L, null));
+        assertTrue(new File(storageDirectory, "checkpoint.increment.2").exists());
+
+        final HashMapSnapshot<DummyRecord> recoveredSnapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory, 2);
+        final SnapshotRecovery<DummyRecord> recovery = recoveredSnapshot.recover();
+        assertEquals(30L, recovery.getMaxTransactionId());
+        assertEquals(Collections.singleton("SwapLocation-1"), recovery.getRecoveredSwapLocations());
+
+        final Map<Object, DummyRecord> recoveredRecords = recovery.getRecords();
+        assertEquals(99, recoveredRecords.size());
+        assertEquals("updated again", recoveredRecords.get("1").getProperties().get("key"));
+        assertFalse(recoveredRecords.containsKey("2"));
+        assertFalse(recoveredRecords.containsKey("3"));
+        assertEquals("created", recoveredRecords.get("100").getProperties().get("key"));
+        assertEquals("initial", recoveredRecords.get("4").getProperties().get("key"));
+
+        // Once the max number of incremental snapshots has been written, a full snapshot is written and the incremental snapshots are discarded
+        snapshot.update(Collections.singleton(createRecord(4, UpdateType.UPDATE, "updated")));
+        final SnapshotCapture<DummyRecord> compactionCapture = snapshot.prepareCheckpoint(40L, null);
+        assertEquals(99, compactionCapture.getRecords().size());
+        snapshot.writeSnapshot(compactionCapture);
+        assertFalse(new File(storageDirectory, "checkpoint.increment.1").exists());
+        assertFalse(new File(storageDirectory, "checkpoint.increment.2").exists());
+
+        final SnapshotRecovery<DummyRecord> compactedRecovery = new HashMapSnapshot<>(storageDirectory, serdeFactory, 2).recover();
+        assertEquals(40L, compactedRecovery.getMaxTransactionId());
+        assertEquals(compactionCapture.getRecords(), compactedRecovery.getRecords());
+    }
+
+    @Test
+    public void testIncrementalSnapshotForPreviousFullSnapshotIgnored() throws IOException {
+        final HashMapSnapshot<DummyRecord> snapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory, 5);
+        for (int i = 0; i < 10; i++) {
+            snapshot.update(Collections.singleton(createRecord(i, UpdateType.CREATE, "initial")));
+        }
+        snapshot.writeSnapshot(snapshot.prepareCheckpoint(10L, null));
+
+        snapshot.update(Collections.singleton(new DummyRecord("1", UpdateType.DELETE)));
+        snapshot.writeSnapshot(snapshot.prepareCheckpoint(20L, null));
+
+        // Simulate a failure to delete the incremental snapshot after the next full snapshot is written
+        final File incrementalFile = new File(storageDirectory, "checkpoint.increment.1");
+        final File retainedFile = new File(storageDirectory, "retained.increment");
+        Files.copy(incrementalFile.toPath(), retainedFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        final HashMapSnapshot<DummyRecord> restartedSnapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory, 5);
+        restartedSnapshot.recover();
+        restartedSnapshot.update(Collections.singleton(createRecord(1, UpdateType.CREATE, "recreated")));
+        restartedSnapshot.writeSnapshot(restartedSnapshot.prepareCheckpoint(30L, null));
+        Files.move(retainedFile.toPath(), incrementalFile.toPath());
+
+        final SnapshotRecovery<DummyRecord> recovery = new HashMapSnapshot<>(storageDirectory, serdeFactory, 5).recover();
+        assertEquals(30L, recovery.getMaxTransactionId());
+        assertEquals(10, recovery.getRecords().size());
+        assertEquals("recreated", recovery.getRecords().get("1").getProperties().get("key"));
+    }
+
+    private int readSnapshotVersion() throws IOException {
+        try (final DataInputStream dataIn = new DataInputStream(new FileInputStream(new File(storageDirectory, "checkpoint")))) {
+            dataIn.readUTF();
+            return dataIn.readInt();
+        }
+    }
+
+    private DummyRecord createRecord(final int id, final UpdateType updateType, final String value) {
+        final DummyRecord record = new DummyRecord(String.valueOf(id), updateType);
+        record.setProperties(Collections.singletonMap("key", value));
+        return record;
+    }
+
     @Test
     public void testOOMEWhenWritingResultsInPreviousSnapshotStillRecoverable() throws IOException {
         final HashMapSnapshot<DummyRecord> snapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory);
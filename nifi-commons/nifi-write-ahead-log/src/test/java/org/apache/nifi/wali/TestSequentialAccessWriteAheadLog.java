@@ -24,6 +24,7 @@ import org.wali.DummyRecord;
 import org.wali.DummyRecordSerde;
 import org.wali.SerDeFactory;
 import org.wali.SingletonSerDeFactory;
+import org.wali.SyncListener;
 import org.wali.UpdateType;
 import org.wali.WriteAheadRepository;
 
@@ -40,6 +41,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -182,6 +184,105 @@ public class TestSequentialAccessWriteAheadLog {
         assertEquals(expected, new HashSet<>(recovered));
     }
 
+    @Test
+    public void testRecoverFromIncrementalCheckpoints(TestInfo testInfo) throws IOException {
+        final File storageDir = new File("target", testInfo.getTestMethod().get().getName());
+        deleteRecursively(storageDir);
+        assertTrue(storageDir.mkdirs());
+
+        final SerDeFactory<DummyRecord> serdeFactory = new SingletonSerDeFactory<>(new DummyRecordSerde());
+        final SequentialAccessWriteAheadLog<DummyRecord> repo = new SequentialAccessWriteAheadLog<>(storageDir, serdeFactory, SyncListener.NOP_SYNC_LISTENER,
+            SequentialAccessWriteAheadLog.GROUP_COMMIT_DISABLED, TimeUnit.NANOSECONDS, 5);
+        assertTrue(repo.recoverRecords().isEmpty());
+
+        final List<DummyRecord> records = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            records.add(new DummyRecord(String.valueOf(i), UpdateType.CREATE));
+        }
+        repo.update(records, false);
+        assertEquals(10, repo.checkpoint());
+
+        final DummyRecord updateRecord = new DummyRecord("4", UpdateType.UPDATE);
+        updateRecord.setProperties(Collections.singletonMap("updated", "true"));
+        repo.update(Collections.singleton(updateRecord), false);
+        repo.update(Collections.singleton(new DummyRecord("5", UpdateType.DELETE)), false);
+        assertEquals(9, repo.checkpoint());
+        assertTrue(new File(storageDir, "checkpoint.increment.1").exists());
+
+        final DummyRecord createRecord = new DummyRecord("10", UpdateType.CREATE);
+        repo.update(Collections.singleton(createRecord), false);
+        repo.shutdown();
+
+        final SequentialAccessWriteAheadLog<DummyRecord> recoveryRepo = new SequentialAccessWriteAheadLog<>(storageDir, serdeFactory, SyncListener.NOP_SYNC_LISTENER,
+            SequentialAccessWriteAheadLog.GROUP_COMMIT_DISABLED, TimeUnit.NANOSECONDS, 5);
+        final Collection<DummyRecord> recovered = recoveryRepo.recoverRecords();
+
+        final Set<DummyRecord> expected = new HashSet<>(records);
+        expected.remove(new DummyRecord("4", UpdateType.CREATE));
+        expected.remove(new DummyRecord("5", UpdateType.CREATE));
+        expected.add(updateRecord);
+        expected.add(createRecord);
+        assertEquals(expected, new HashSet<>(recovered));
+
+        // Recovery is followed by a full checkpoint, which discards the incremental snapshots
+        assertFalse(new File(storageDir, "checkpoint.increment.1").exists());
+    }
+
+    @Test
+    public void testGroupCommitWithConcurrentUpdates(TestInfo testInfo) throws IOException, InterruptedException {
+        final File storageDir = new File(new File("target"), testInfo.getTestMethod().get().getName());
+        deleteRecursively(storageDir);
+        assertTrue(storageDir.mkdirs());
+
+        final AtomicInteger syncCount = new AtomicInteger();
+        final SyncListener syncListener = new SyncListener() {
+            @Override
+            public void onSync(final int partitionIndex) {
+                syncCount.incrementAndGet();
+            }
+
+            @Override
+            public void onGlobalSync() {
+            }
+        };
+
+        final SerDeFactory<DummyRecord> serdeFactory = new SingletonSerDeFactory<>(new DummyRecordSerde());
+        final SequentialAccessWriteAheadLog<DummyRecord> repo = new SequentialAccessWriteAheadLog<>(storageDir, serdeFactory, syncListener, 5, TimeUnit.MILLISECONDS);
+        assertTrue(repo.recoverRecords().isEmpty());
+
+        final int threadCount = 8;
+        final int updatesPerThread = 20;
+        final List<Thread> threads = new ArrayList<>();
+        final List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        for (int t = 0; t < threadCount; t++) {
+            final int threadIndex = t;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < updatesPerThread; i++) {
+                        final DummyRecord record = new DummyRecord(threadIndex + "-" + i, UpdateType.CREATE);
+                        repo.update(Collections.singleton(record), true);
+                    }
+                } catch (final Throwable throwable) {
+                    failures.add(throwable);
+                }
+            }));
+        }
+
+        threads.forEach(Thread::start);
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(failures.isEmpty(), failures::toString);
+        assertTrue(syncCount.get() > 0);
+        assertTrue(syncCount.get() < threadCount * updatesPerThread, "Expected syncs to be coalesced but performed " + syncCount.get() + " syncs");
+        repo.shutdown();
+
+        final SequentialAccessWriteAheadLog<DummyRecord> recoveryRepo = createRecoveryRepo(testInfo);
+        final Collection<DummyRecord> recovered = recoveryRepo.recoverRecords();
+        assertEquals(threadCount * updatesPerThread, recovered.size());
+    }
+
     private SequentialAccessWriteAheadLog<DummyRecord> createRecoveryRepo(TestInfo testInfo) throws IOException {
         final File targetDir = new File("target");
         final File storageDir = new File(targetDir, testInfo.getTestMethod().get().getName());
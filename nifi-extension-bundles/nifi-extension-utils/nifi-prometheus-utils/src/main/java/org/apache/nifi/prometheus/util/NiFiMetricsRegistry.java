@@ -275,5 +275,10 @@ public class NiFiMetricsRegistry extends AbstractMetricsRegistry {
                 .help("Provenance repository free space in bytes")
                 .labelNames("instance", "component_type", "component_name", "component_id", "parent_id", "repo_identifier")
                 .register(registry));
+
+        nameToGaugeMap.put("PROVENANCE_REPO_DISCARDED_EVENTS", Gauge.build().name("nifi_provenance_repo_discarded_events")
+                .help("Running total number of provenance events of the given type that were discarded by sampling instead of being stored")
+                .labelNames("instance", "component_type", "component_name", "component_id", "parent_id", "event_type")
+                .register(registry));
     }
 }
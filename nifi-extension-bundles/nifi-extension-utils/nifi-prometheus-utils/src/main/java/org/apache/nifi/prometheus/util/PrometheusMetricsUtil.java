@@ -32,6 +32,7 @@ import org.apache.nifi.expression.ExpressionLanguageScope;
 import org.apache.nifi.metrics.jvm.JvmMetrics;
 import org.apache.nifi.processor.DataUnit;
 import org.apache.nifi.processor.util.StandardValidators;
+import org.apache.nifi.provenance.ProvenanceEventType;
 import org.apache.nifi.util.StringUtils;
 
 import java.util.Map;
@@ -545,6 +546,17 @@ public class PrometheusMetricsUtil {
         return nifiMetricsRegistry.getRegistry();
     }
 
+    public static CollectorRegistry createDiscardedProvenanceEventMetrics(final NiFiMetricsRegistry nifiMetricsRegistry, final Map<ProvenanceEventType, Long> discardedEventCounts,
+                                                                          final String instanceId, final String componentType, final String componentName,
+                                                                          final String componentId, final String parentId) {
+        for (final Map.Entry<ProvenanceEventType, Long> entry : discardedEventCounts.entrySet()) {
+            nifiMetricsRegistry.setDataPoint(entry.getValue(), "PROVENANCE_REPO_DISCARDED_EVENTS",
+                    instanceId, componentType, componentName, componentId, parentId, entry.getKey().name());
+        }
+
+        return nifiMetricsRegistry.getRegistry();
+    }
+
     private static void addStorageUsageMetric(final NiFiMetricsRegistry nifiMetricsRegistry, final StorageUsage storageUsage, final String instanceId,
                                                                        final String componentType, final String componentName, final String componentId, final String parentId,
                                                                        final String totalSpaceLabel, final String freeSpaceLabel, final String usedSpaceLabel) {
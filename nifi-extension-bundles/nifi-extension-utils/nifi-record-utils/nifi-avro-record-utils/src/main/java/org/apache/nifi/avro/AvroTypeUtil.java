@@ -909,16 +909,27 @@ public class AvroTypeUtil {
     }
 
     private static String getMatchingFieldName(final GenericRecord record, final RecordField field) {
-        final Schema schema = record.getSchema();
-        Field avroField = schema.getField(field.getFieldName());
+        final Field avroField = getMatchingField(record.getSchema(), field);
+        return avroField == null ? null : avroField.name();
+    }
+
+    /**
+     * Returns the field of the given Avro schema that corresponds to the given Record Field, matching either the field's name or one of its aliases
+     *
+     * @param avroSchema the Avro record schema
+     * @param field the Record Field
+     * @return the matching Avro field, or <code>null</code> if the Avro schema has no matching field
+     */
+    public static Field getMatchingField(final Schema avroSchema, final RecordField field) {
+        final Field avroField = avroSchema.getField(field.getFieldName());
         if (avroField != null) {
-            return field.getFieldName();
+            return avroField;
         }
 
         for (final String alias : field.getAliases()) {
-            avroField = schema.getField(alias);
-            if (avroField != null) {
-                return alias;
+            final Field aliasField = avroSchema.getField(alias);
+            if (aliasField != null) {
+                return aliasField;
             }
         }
 
@@ -956,6 +967,22 @@ public class AvroTypeUtil {
         return values;
     }
 
+    /**
+     * Converts the value of a single field of an Avro record into the type of the given Record Field, in the same way as
+     * {@link #convertAvroRecordToMap(GenericRecord, RecordSchema, Charset)} converts each of the record's values
+     *
+     * @param value the value of the Avro field
+     * @param avroField the Avro field
+     * @param recordField the Record Field to convert the value for
+     * @param charset the character set to use when converting byte arrays to Strings
+     * @return the converted value
+     */
+    public static Object convertAvroFieldValue(final Object value, final Field avroField, final RecordField recordField, final Charset charset) {
+        final String fieldName = recordField.getFieldName();
+        final Object rawValue = normalizeValue(value, avroField.schema(), fieldName);
+        return DataTypeUtils.convertType(rawValue, recordField.getDataType(), fieldName, charset);
+    }
+
     /**
      * Convert value of a nullable union field.
      * @param originalValue original value
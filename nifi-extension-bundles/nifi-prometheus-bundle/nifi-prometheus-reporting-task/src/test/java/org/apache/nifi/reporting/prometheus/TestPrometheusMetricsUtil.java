@@ -23,6 +23,7 @@ import org.apache.nifi.prometheus.util.AbstractMetricsRegistry;
 import org.apache.nifi.prometheus.util.ConnectionAnalyticsMetricsRegistry;
 import org.apache.nifi.prometheus.util.NiFiMetricsRegistry;
 import org.apache.nifi.prometheus.util.PrometheusMetricsUtil;
+import org.apache.nifi.provenance.ProvenanceEventType;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
@@ -331,6 +332,19 @@ public class TestPrometheusMetricsUtil {
         assertTrue(result.containsAll(List.of(FLOW_FILE_REPO_IDENTIFIER, CONTENT_REPO_IDENTIFIER_ONE, CONTENT_REPO_IDENTIFIER_TWO, PROVENANCE_REPO_IDENTIFIER)));
     }
 
+    @Test
+    public void testDiscardedProvenanceEventsAddedToNifiMetrics() {
+        final NiFiMetricsRegistry niFiMetricsRegistry = new NiFiMetricsRegistry();
+        final Map<ProvenanceEventType, Long> discardedEventCounts = Map.of(ProvenanceEventType.ROUTE, 10L, ProvenanceEventType.ATTRIBUTES_MODIFIED, 5L);
+
+        PrometheusMetricsUtil.createDiscardedProvenanceEventMetrics(niFiMetricsRegistry, discardedEventCounts, EMPTY, EMPTY, EMPTY, EMPTY, EMPTY);
+        final Map<String, Double> result = Collections.list(niFiMetricsRegistry.getRegistry().filteredMetricFamilySamples(name -> name.equals("nifi_provenance_repo_discarded_events")))
+                .stream().flatMap(f -> f.samples.stream())
+                .collect(Collectors.toMap(s -> s.labelValues.get(s.labelNames.indexOf("event_type")), s -> s.value));
+
+        assertEquals(Map.of(ProvenanceEventType.ROUTE.name(), 10D, ProvenanceEventType.ATTRIBUTES_MODIFIED.name(), 5D), result);
+    }
+
     private static ProcessGroupStatus createSingleProcessGroupStatus(final long queuedBytes, final long bytesThreshold, final int queuedCount, final long objectThreshold) {
         ProcessGroupStatus singleStatus = new ProcessGroupStatus();
         List<ConnectionStatus> connectionStatuses = new ArrayList<>();
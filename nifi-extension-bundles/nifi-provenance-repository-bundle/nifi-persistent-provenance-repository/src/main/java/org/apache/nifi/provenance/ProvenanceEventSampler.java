@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.provenance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Decides which Provenance Events are stored in the repository when sampling is configured via {@link RepositoryConfiguration#getSamplingRates()}.
+ * For an Event Type with a sampling rate of N, the first of every N events of that type is stored and the others are discarded.
+ * </p>
+ *
+ * <p>
+ * Events that create, relate, transfer or terminate FlowFiles are always stored, regardless of configuration, because lineage cannot be computed without them.
+ * For each discarded event, a running total is incremented for the event's type, and a count is incremented for the event's Component ID and Event Type,
+ * so that the volume of discarded events is still known even though the events themselves are not. The running totals are never reset, whereas the
+ * counts per component are removed each time that they are drained, so that components that no longer discard events, or no longer exist, are not retained.
+ * </p>
+ */
+class ProvenanceEventSampler {
+    static final Set<ProvenanceEventType> ALWAYS_RETAINED_EVENT_TYPES = Collections.unmodifiableSet(EnumSet.of(ProvenanceEventType.CREATE, ProvenanceEventType.RECEIVE,
+        ProvenanceEventType.FETCH, ProvenanceEventType.SEND, ProvenanceEventType.REMOTE_INVOCATION, ProvenanceEventType.DROP, ProvenanceEventType.EXPIRE,
+        ProvenanceEventType.FORK, ProvenanceEventType.JOIN, ProvenanceEventType.CLONE, ProvenanceEventType.REPLAY));
+
+    private final Map<ProvenanceEventType, Integer> samplingRates;
+    private final Map<ProvenanceEventType, AtomicLong> eventCounters = new EnumMap<>(ProvenanceEventType.class);
+    private final Map<ProvenanceEventType, AtomicLong> totalDiscardedCounts = new EnumMap<>(ProvenanceEventType.class);
+    private final ConcurrentMap<DiscardedEventKey, Long> discardedCounts = new ConcurrentHashMap<>();
+
+    ProvenanceEventSampler(final Map<ProvenanceEventType, Integer> samplingRates) {
+        this.samplingRates = new EnumMap<>(ProvenanceEventType.class);
+        for (final Map.Entry<ProvenanceEventType, Integer> entry : samplingRates.entrySet()) {
+            if (entry.getValue() > 1 && !ALWAYS_RETAINED_EVENT_TYPES.contains(entry.getKey())) {
+                this.samplingRates.put(entry.getKey(), entry.getValue());
+                eventCounters.put(entry.getKey(), new AtomicLong(0L));
+                totalDiscardedCounts.put(entry.getKey(), new AtomicLong(0L));
+            }
+        }
+    }
+
+    /**
+     * @return <code>true</code> if any Event Type is sampled, <code>false</code> if all events are stored
+     */
+    boolean isEnabled() {
+        return !samplingRates.isEmpty();
+    }
+
+    /**
+     * Returns the events that should be stored, counting any that are discarded
+     *
+     * @param events the events to sample
+     * @return the events that should be stored, in the order in which they were given
+     */
+    List<ProvenanceEventRecord> sample(final Iterable<ProvenanceEventRecord> events) {
+        final List<ProvenanceEventRecord> retained = new ArrayList<>();
+        for (final ProvenanceEventRecord event : events) {
+            if (isRetained(event)) {
+                retained.add(event);
+            } else {
+                totalDiscardedCounts.get(event.getEventType()).incrementAndGet();
+                discardedCounts.merge(new DiscardedEventKey(event.getComponentId(), event.getEventType()), 1L, Long::sum);
+            }
+        }
+
+        return retained;
+    }
+
+    private boolean isRetained(final ProvenanceEventRecord event) {
+        final Integer samplingRate = samplingRates.get(event.getEventType());
+        if (samplingRate == null) {
+            return true;
+        }
+
+        return eventCounters.get(event.getEventType()).getAndIncrement() % samplingRate == 0;
+    }
+
+    /**
+     * @return the number of events of each sampled Event Type that have been discarded since this sampler was created
+     */
+    Map<ProvenanceEventType, Long> getTotalDiscardedCounts() {
+        final Map<ProvenanceEventType, Long> counts = new EnumMap<>(ProvenanceEventType.class);
+        totalDiscardedCounts.forEach((eventType, count) -> counts.put(eventType, count.get()));
+        return counts;
+    }
+
+    /**
+     * Returns the number of events that have been discarded for each Component ID and Event Type since the last time that this method was called,
+     * and removes those counts
+     *
+     * @return a mapping of Component ID to the number of discarded events of each type for that component
+     */
+    Map<String, Map<ProvenanceEventType, Long>> drainDiscardedCounts() {
+        final Map<String, Map<ProvenanceEventType, Long>> counts = new HashMap<>();
+        for (final DiscardedEventKey key : discardedCounts.keySet()) {
+            // events discarded after the key is removed are counted under a new entry, which is drained the next time
+            final Long count = discardedCounts.remove(key);
+            if (count != null) {
+                counts.computeIfAbsent(key.componentId(), id -> new EnumMap<>(ProvenanceEventType.class)).merge(key.eventType(), count, Long::sum);
+            }
+        }
+
+        return counts;
+    }
+
+    private record DiscardedEventKey(String componentId, ProvenanceEventType eventType) {
+    }
+}
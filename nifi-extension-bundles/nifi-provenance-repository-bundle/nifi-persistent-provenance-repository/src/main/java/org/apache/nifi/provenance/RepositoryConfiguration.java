@@ -21,6 +21,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -39,6 +40,11 @@ public class RepositoryConfiguration {
     public static final String CONCURRENT_MERGE_THREADS = "nifi.provenance.repository.concurrent.merge.threads";
     public static final String WARM_CACHE_FREQUENCY = "nifi.provenance.repository.warm.cache.frequency";
     public static final String MAINTENACE_FREQUENCY = "nifi.provenance.repository.maintenance.frequency";
+    public static final String INDEX_IMPLEMENTATION = "nifi.provenance.repository.index.implementation";
+    public static final String LUCENE_INDEX = "lucene";
+    public static final String COLUMNAR_INDEX = "columnar";
+    public static final String SAMPLING_RATE_PREFIX = "nifi.provenance.repository.sampling.rate.";
+    public static final String SAMPLING_REPORT_FREQUENCY = "nifi.provenance.repository.sampling.report.frequency";
 
     private final Map<String, File> storageDirectories = new LinkedHashMap<>();
     private long recordLifeMillis = TimeUnit.MILLISECONDS.convert(24, TimeUnit.HOURS);
@@ -62,6 +68,9 @@ public class RepositoryConfiguration {
     private boolean allowRollover = true;
     private int concurrentMergeThreads = 4;
     private Integer warmCacheFrequencyMinutes = null;
+    private String indexImplementation = LUCENE_INDEX;
+    private Map<ProvenanceEventType, Integer> samplingRates = new EnumMap<>(ProvenanceEventType.class);
+    private long samplingReportFrequencyMillis = TimeUnit.MINUTES.toMillis(5L);
 
     public void setAllowRollover(final boolean allow) {
         this.allowRollover = allow;
@@ -362,6 +371,58 @@ public class RepositoryConfiguration {
         return Optional.ofNullable(warmCacheFrequencyMinutes);
     }
 
+    /**
+     * @return the type of index that is used to search Provenance Events, either {@link #LUCENE_INDEX} or {@link #COLUMNAR_INDEX}
+     */
+    public String getIndexImplementation() {
+        return indexImplementation;
+    }
+
+    public void setIndexImplementation(final String indexImplementation) {
+        this.indexImplementation = indexImplementation;
+    }
+
+    /**
+     * @return a mapping of Event Type to the sampling rate of that type, where a rate of N means that only 1 out of every N events of that type is stored.
+     *         Event Types that are not included in the mapping are always stored.
+     */
+    public Map<ProvenanceEventType, Integer> getSamplingRates() {
+        return Collections.unmodifiableMap(samplingRates);
+    }
+
+    /**
+     * Specifies that only 1 out of every <code>rate</code> events of the given type should be stored
+     *
+     * @param eventType the type of event to sample
+     * @param rate the sampling rate; a value of 1 means that every event is stored
+     */
+    public void setSamplingRate(final ProvenanceEventType eventType, final int rate) {
+        if (ProvenanceEventSampler.ALWAYS_RETAINED_EVENT_TYPES.contains(eventType)) {
+            throw new IllegalArgumentException("Events of type " + eventType + " define the lineage of a FlowFile and cannot be sampled");
+        }
+        if (rate < 1) {
+            throw new IllegalArgumentException("Sampling rate for events of type " + eventType + " must be at least 1 but was " + rate);
+        }
+
+        if (rate == 1) {
+            samplingRates.remove(eventType);
+        } else {
+            samplingRates.put(eventType, rate);
+        }
+    }
+
+    /**
+     * @param timeUnit the desired time unit
+     * @return how often the counts of events that were discarded by sampling are reported
+     */
+    public long getSamplingReportFrequency(final TimeUnit timeUnit) {
+        return timeUnit.convert(samplingReportFrequencyMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void setSamplingReportFrequency(final long period, final TimeUnit timeUnit) {
+        this.samplingReportFrequencyMillis = timeUnit.toMillis(period);
+    }
+
     public int getDebugFrequency() {
         return debugFrequency;
     }
@@ -396,6 +457,8 @@ public class RepositoryConfiguration {
         final int concurrentMergeThreads = nifiProperties.getIntegerProperty(CONCURRENT_MERGE_THREADS, 2);
         final String warmCacheFrequency = nifiProperties.getProperty(WARM_CACHE_FREQUENCY);
         final String maintenanceFrequency = nifiProperties.getProperty(MAINTENACE_FREQUENCY);
+        final String indexImplementation = nifiProperties.getProperty(INDEX_IMPLEMENTATION, LUCENE_INDEX).trim();
+        final String samplingReportFrequency = nifiProperties.getProperty(SAMPLING_REPORT_FREQUENCY);
         final long storageMillis = FormatUtils.getTimeDuration(storageTime, TimeUnit.MILLISECONDS);
         final long maxStorageBytes = DataUnit.parseDataSize(storageSize, DataUnit.B).longValue();
         final long rolloverMillis = FormatUtils.getTimeDuration(rolloverTime, TimeUnit.MILLISECONDS);
@@ -459,6 +522,36 @@ public class RepositoryConfiguration {
             config.setMaintenanceFrequency(millis, TimeUnit.MILLISECONDS);
         }
 
+        if (!LUCENE_INDEX.equalsIgnoreCase(indexImplementation) && !COLUMNAR_INDEX.equalsIgnoreCase(indexImplementation)) {
+            throw new IllegalArgumentException("Invalid value for " + INDEX_IMPLEMENTATION + ": " + indexImplementation + "; must be either " + LUCENE_INDEX + " or " + COLUMNAR_INDEX);
+        }
+        config.setIndexImplementation(indexImplementation.toLowerCase());
+
+        for (final String propertyName : nifiProperties.getPropertyKeys()) {
+            if (!propertyName.startsWith(SAMPLING_RATE_PREFIX)) {
+                continue;
+            }
+
+            final String eventTypeName = propertyName.substring(SAMPLING_RATE_PREFIX.length()).trim().toUpperCase();
+            final ProvenanceEventType eventType;
+            try {
+                eventType = ProvenanceEventType.valueOf(eventTypeName);
+            } catch (final IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid property " + propertyName + ": " + eventTypeName + " is not a valid Provenance Event Type");
+            }
+
+            final String rate = nifiProperties.getProperty(propertyName).trim();
+            try {
+                config.setSamplingRate(eventType, Integer.parseInt(rate));
+            } catch (final NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value for " + propertyName + ": " + rate + "; must be a positive integer");
+            }
+        }
+        if (samplingReportFrequency != null && !samplingReportFrequency.trim().equals("")) {
+            final long millis = FormatUtils.getTimeDuration(samplingReportFrequency.trim(), TimeUnit.MILLISECONDS);
+            config.setSamplingReportFrequency(millis, TimeUnit.MILLISECONDS);
+        }
+
         config.setAlwaysSync(alwaysSync);
 
         config.setDebugFrequency(nifiProperties.getIntegerProperty(NiFiProperties.PROVENANCE_REPO_DEBUG_FREQUENCY, config.getDebugFrequency()));
@@ -25,6 +25,7 @@ import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.provenance.authorization.EventAuthorizer;
 import org.apache.nifi.provenance.authorization.UserEventAuthorizer;
 import org.apache.nifi.provenance.index.EventIndex;
+import org.apache.nifi.provenance.index.columnar.ColumnarEventIndex;
 import org.apache.nifi.provenance.index.lucene.LuceneEventIndex;
 import org.apache.nifi.provenance.lineage.ComputeLineageSubmission;
 import org.apache.nifi.provenance.lucene.IndexManager;
@@ -54,11 +55,14 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
@@ -87,6 +91,11 @@ import java.util.Set;
  * stored on a separate physical partition on disk. As a result, this allows striping of data across multiple partitions in order to achieve linear scalability
  * across disks for far greater performance.
  * </p>
+ *
+ * <p>
+ * The repository may also be configured to sample events of some types, such as ROUTE or ATTRIBUTES_MODIFIED, so that only a fraction of those events are stored.
+ * See {@link ProvenanceEventSampler} for details.
+ * </p>
  */
 public class WriteAheadProvenanceRepository implements ProvenanceRepository {
     private static final Logger logger = LoggerFactory.getLogger(WriteAheadProvenanceRepository.class);
@@ -101,6 +110,8 @@ public class WriteAheadProvenanceRepository implements ProvenanceRepository {
     private EventReporter eventReporter;
     private Authorizer authorizer;
     private ProvenanceAuthorizableFactory resourceFactory;
+    private ProvenanceEventSampler eventSampler;
+    private final AtomicLong nextSamplingReportMillis = new AtomicLong(0L);
 
     /**
      * This constructor exists solely for the use of the Java Service Loader mechanism and should not be used.
@@ -146,12 +157,21 @@ public class WriteAheadProvenanceRepository implements ProvenanceRepository {
 
         eventStore = new PartitionedWriteAheadEventStore(config, recordWriterFactory, recordReaderFactory, eventReporter, fileManager);
 
-        final IndexManager indexManager = new StandardIndexManager(config);
-        eventIndex = new LuceneEventIndex(config, indexManager, eventReporter);
+        if (RepositoryConfiguration.COLUMNAR_INDEX.equals(config.getIndexImplementation())) {
+            eventIndex = new ColumnarEventIndex(config, eventReporter);
+        } else {
+            final IndexManager indexManager = new StandardIndexManager(config);
+            eventIndex = new LuceneEventIndex(config, indexManager, eventReporter);
+        }
 
         this.eventReporter = eventReporter;
         this.authorizer = authorizer;
         this.resourceFactory = resourceFactory;
+        this.eventSampler = new ProvenanceEventSampler(config.getSamplingRates());
+        if (eventSampler.isEnabled()) {
+            logger.info("Provenance Events will be sampled with the following rates per Event Type: {}", config.getSamplingRates());
+            nextSamplingReportMillis.set(System.currentTimeMillis() + config.getSamplingReportFrequency(TimeUnit.MILLISECONDS));
+        }
 
         eventStore.initialize();
         eventIndex.initialize(eventStore);
@@ -180,10 +200,23 @@ public class WriteAheadProvenanceRepository implements ProvenanceRepository {
 
     @Override
     public void registerEvents(final Iterable<ProvenanceEventRecord> events) {
+        final Iterable<ProvenanceEventRecord> eventsToStore;
+        if (eventSampler.isEnabled()) {
+            final List<ProvenanceEventRecord> sampledEvents = eventSampler.sample(events);
+            reportDiscardedEvents();
+            if (sampledEvents.isEmpty()) {
+                return;
+            }
+
+            eventsToStore = sampledEvents;
+        } else {
+            eventsToStore = events;
+        }
+
         final StorageResult storageResult;
 
         try {
-            storageResult = eventStore.addEvents(events);
+            storageResult = eventStore.addEvents(eventsToStore);
         } catch (final IOException e) {
             logger.error("Failed to write events to the Event Store", e);
             eventReporter.reportEvent(Severity.ERROR, EVENT_CATEGORY, "Failed to write Provenance Events to the repository. See logs for more details.");
@@ -196,6 +229,27 @@ public class WriteAheadProvenanceRepository implements ProvenanceRepository {
         }
     }
 
+    private void reportDiscardedEvents() {
+        final long nextReportMillis = nextSamplingReportMillis.get();
+        final long now = System.currentTimeMillis();
+        if (now < nextReportMillis || !nextSamplingReportMillis.compareAndSet(nextReportMillis, now + config.getSamplingReportFrequency(TimeUnit.MILLISECONDS))) {
+            return;
+        }
+
+        final Map<String, Map<ProvenanceEventType, Long>> discardedCounts = eventSampler.drainDiscardedCounts();
+        if (discardedCounts.isEmpty()) {
+            return;
+        }
+
+        final Map<ProvenanceEventType, Long> totalCounts = new EnumMap<>(ProvenanceEventType.class);
+        for (final Map.Entry<String, Map<ProvenanceEventType, Long>> entry : discardedCounts.entrySet()) {
+            logger.debug("Provenance Event sampling discarded the following events for component {}: {}", entry.getKey(), entry.getValue());
+            entry.getValue().forEach((eventType, count) -> totalCounts.merge(eventType, count, Long::sum));
+        }
+
+        logger.info("Provenance Event sampling discarded the following events across {} components since the last report: {}", discardedCounts.size(), totalCounts);
+    }
+
     @Override
     public List<ProvenanceEventRecord> getEvents(final long firstRecordId, final int maxRecords) throws IOException {
         return eventStore.getEvents(firstRecordId, maxRecords);
@@ -354,4 +408,9 @@ public class WriteAheadProvenanceRepository implements ProvenanceRepository {
             throw new IllegalArgumentException("There is no defined container with name " + containerName);
         }
     }
+
+    @Override
+    public Map<ProvenanceEventType, Long> getDiscardedEventCounts() {
+        return eventSampler == null ? Collections.emptyMap() : eventSampler.getTotalDiscardedCounts();
+    }
 }
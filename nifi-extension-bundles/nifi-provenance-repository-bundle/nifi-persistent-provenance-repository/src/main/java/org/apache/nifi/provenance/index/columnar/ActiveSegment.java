@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.provenance.index.columnar;
+
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.SearchableFields;
+import org.apache.nifi.provenance.search.SearchableField;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * The in-memory segment that events are currently being added to. Once the segment is sealed, it is written to disk
+ * and subsequently read as a {@link SealedSegment}.
+ * </p>
+ *
+ * <p>
+ * Events are added one at a time, but searches do not wait for events to be added. Columns are only ever appended to, or replaced by
+ * larger copies, and the row count is published only once every column holds the new row. A search reads the row count once and
+ * ignores any row at or beyond it, so a long search of a full segment does not hold up the session commits that add events.
+ * </p>
+ */
+final class ActiveSegment extends IndexSegment {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final Set<String> NUMERIC_FIELDS = Set.of(SearchableFields.Identifier.getSearchableFieldName(), SearchableFields.EventTime.getSearchableFieldName(),
+        SearchableFields.FileSize.getSearchableFieldName(), SearchableFields.LineageStartDate.getSearchableFieldName());
+
+    private static final Map<String, Function<ProvenanceEventRecord, String>> FIELD_VALUES = Map.of(
+        SearchableFields.Filename.getSearchableFieldName(), event -> event.getAttribute(CoreAttributes.FILENAME.key()),
+        SearchableFields.AlternateIdentifierURI.getSearchableFieldName(), ProvenanceEventRecord::getAlternateIdentifierUri,
+        SearchableFields.Relationship.getSearchableFieldName(), ProvenanceEventRecord::getRelationship,
+        SearchableFields.Details.getSearchableFieldName(), ProvenanceEventRecord::getDetails,
+        SearchableFields.ContentClaimSection.getSearchableFieldName(), ProvenanceEventRecord::getContentClaimSection,
+        SearchableFields.ContentClaimContainer.getSearchableFieldName(), ProvenanceEventRecord::getContentClaimContainer,
+        SearchableFields.ContentClaimIdentifier.getSearchableFieldName(), ProvenanceEventRecord::getContentClaimIdentifier,
+        SearchableFields.SourceQueueIdentifier.getSearchableFieldName(), ProvenanceEventRecord::getSourceQueueIdentifier,
+        SearchableFields.TransitURI.getSearchableFieldName(), ProvenanceEventRecord::getTransitUri);
+
+    private final Map<String, BitmapIndex> bitmapIndexes = new LinkedHashMap<>();
+    private final Map<SearchableField, DictionaryColumn> columns = new LinkedHashMap<>();
+
+    private volatile long[] eventIds = new long[INITIAL_CAPACITY];
+    private volatile long[] eventTimes = new long[INITIAL_CAPACITY];
+    private volatile long[] fileSizes = new long[INITIAL_CAPACITY];
+    private volatile int rowCount = 0;
+
+    private volatile long minEventId = Long.MAX_VALUE;
+    private volatile long maxEventId = Long.MIN_VALUE;
+    private volatile long minEventTime = Long.MAX_VALUE;
+    private volatile long maxEventTime = Long.MIN_VALUE;
+
+    ActiveSegment(final Collection<SearchableField> searchableFields) {
+        for (final String fieldName : BITMAP_INDEXED_FIELDS) {
+            bitmapIndexes.put(fieldName, new BitmapIndex());
+        }
+
+        for (final SearchableField field : searchableFields) {
+            final String fieldName = field.getSearchableFieldName();
+            if (field.isAttribute() || !BITMAP_INDEXED_FIELDS.contains(fieldName) && !NUMERIC_FIELDS.contains(fieldName)) {
+                columns.put(field, new DictionaryColumn(INITIAL_CAPACITY));
+            }
+        }
+    }
+
+    synchronized void add(final ProvenanceEventRecord event, final long eventId) {
+        if (rowCount == eventIds.length) {
+            final int capacity = eventIds.length * 2;
+            eventIds = Arrays.copyOf(eventIds, capacity);
+            eventTimes = Arrays.copyOf(eventTimes, capacity);
+            fileSizes = Arrays.copyOf(fileSizes, capacity);
+        }
+
+        final int row = rowCount;
+        eventIds[row] = eventId;
+        eventTimes[row] = event.getEventTime();
+        fileSizes[row] = event.getFileSize();
+
+        bitmapIndexes.get(COMPONENT_ID_FIELD).add(toLowerCase(event.getComponentId()), row);
+        bitmapIndexes.get(EVENT_TYPE_FIELD).add(toLowerCase(event.getEventType().name()), row);
+        final BitmapIndex flowFileUuidIndex = bitmapIndexes.get(FLOWFILE_UUID_FIELD);
+        for (final String flowFileUuid : getFlowFileUuids(event)) {
+            flowFileUuidIndex.add(toLowerCase(flowFileUuid), row);
+        }
+
+        for (final Map.Entry<SearchableField, DictionaryColumn> entry : columns.entrySet()) {
+            entry.getValue().set(row, toLowerCase(getFieldValue(event, entry.getKey())));
+        }
+
+        minEventId = Math.min(minEventId, eventId);
+        maxEventId = Math.max(maxEventId, eventId);
+        minEventTime = Math.min(minEventTime, event.getEventTime());
+        maxEventTime = Math.max(maxEventTime, event.getEventTime());
+
+        // Publishes the row to searches, which read the row count before any column
+        rowCount = row + 1;
+    }
+
+    private static String toLowerCase(final String value) {
+        return value == null ? null : value.toLowerCase();
+    }
+
+    private static String getFieldValue(final ProvenanceEventRecord event, final SearchableField field) {
+        if (field.isAttribute()) {
+            return event.getAttribute(field.getSearchableFieldName());
+        }
+
+        final Function<ProvenanceEventRecord, String> fieldValue = FIELD_VALUES.get(field.getSearchableFieldName());
+        return fieldValue == null ? null : fieldValue.apply(event);
+    }
+
+    /**
+     * Returns the FlowFile UUIDs that an event should be found by, which includes the children or parents of an event that
+     * creates or merges FlowFiles, in the same way as the Lucene index
+     */
+    private static Set<String> getFlowFileUuids(final ProvenanceEventRecord event) {
+        final Set<String> flowFileUuids = new LinkedHashSet<>();
+        flowFileUuids.add(event.getFlowFileUuid());
+
+        final ProvenanceEventType eventType = event.getEventType();
+        if (eventType == ProvenanceEventType.FORK || eventType == ProvenanceEventType.CLONE || eventType == ProvenanceEventType.REPLAY) {
+            flowFileUuids.addAll(event.getChildUuids());
+        } else if (eventType == ProvenanceEventType.JOIN) {
+            flowFileUuids.addAll(event.getParentUuids());
+        } else if (eventType == ProvenanceEventType.RECEIVE && event.getSourceSystemFlowFileIdentifier() != null) {
+            final String sourceIdentifier = event.getSourceSystemFlowFileIdentifier();
+            final int lastColon = sourceIdentifier.lastIndexOf(":");
+            if (lastColon > -1 && lastColon < sourceIdentifier.length() - 2) {
+                flowFileUuids.add(sourceIdentifier.substring(lastColon + 1));
+            }
+        }
+
+        flowFileUuids.remove(null);
+        return flowFileUuids;
+    }
+
+    @Override
+    int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    long getMinEventId() {
+        return minEventId;
+    }
+
+    @Override
+    long getMaxEventId() {
+        return maxEventId;
+    }
+
+    @Override
+    long getMinEventTime() {
+        return minEventTime;
+    }
+
+    @Override
+    long getMaxEventTime() {
+        return maxEventTime;
+    }
+
+    @Override
+    protected long[] getEventIds() {
+        return eventIds;
+    }
+
+    @Override
+    protected long[] getEventTimes() {
+        return eventTimes;
+    }
+
+    @Override
+    protected long[] getFileSizes() {
+        return fileSizes;
+    }
+
+    @Override
+    protected BitSet findRows(final String fieldName, final String searchValue, final int rowLimit) {
+        final BitmapIndex bitmapIndex = bitmapIndexes.get(fieldName);
+        if (bitmapIndex != null) {
+            return bitmapIndex.findRows(searchValue, rowLimit);
+        }
+
+        for (final Map.Entry<SearchableField, DictionaryColumn> entry : columns.entrySet()) {
+            if (entry.getKey().getSearchableFieldName().equals(fieldName)) {
+                return entry.getValue().findRows(searchValue, rowLimit);
+            }
+        }
+
+        return new BitSet();
+    }
+
+    /**
+     * Writes this segment to the given file in the format that is read by {@link SealedSegment}. The file is written to a temporary file first
+     * and then renamed, so that a partially written segment is never mistaken for a complete one.
+     */
+    synchronized void writeTo(final File file) throws IOException {
+        final Map<String, byte[]> sections = new LinkedHashMap<>();
+        sections.put(SealedSegment.EVENT_IDS_SECTION, toBytes(out -> ColumnEncoding.writeLongColumn(eventIds, rowCount, out)));
+        sections.put(SealedSegment.EVENT_TIMES_SECTION, toBytes(out -> ColumnEncoding.writeLongColumn(eventTimes, rowCount, out)));
+        sections.put(SealedSegment.FILE_SIZES_SECTION, toBytes(out -> ColumnEncoding.writeLongColumn(fileSizes, rowCount, out)));
+
+        for (final Map.Entry<String, BitmapIndex> entry : bitmapIndexes.entrySet()) {
+            final BitmapIndex sortedIndex = entry.getValue().sort();
+            sections.put(SealedSegment.BITMAP_SECTION_PREFIX + entry.getKey(), toBytes(sortedIndex::writeTo));
+        }
+
+        for (final Map.Entry<SearchableField, DictionaryColumn> entry : columns.entrySet()) {
+            final DictionaryColumn sortedColumn = entry.getValue().sort(rowCount);
+            sections.put(SealedSegment.COLUMN_SECTION_PREFIX + entry.getKey().getSearchableFieldName(), toBytes(out -> sortedColumn.writeTo(out, rowCount)));
+        }
+
+        final File partialFile = new File(file.getParentFile(), file.getName() + SealedSegment.PARTIAL_FILE_SUFFIX);
+        try (final FileOutputStream fos = new FileOutputStream(partialFile);
+             final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+            out.writeInt(SealedSegment.ENCODING_VERSION);
+            out.writeInt(rowCount);
+            out.writeLong(minEventId);
+            out.writeLong(maxEventId);
+            out.writeLong(minEventTime);
+            out.writeLong(maxEventTime);
+
+            out.writeInt(sections.size());
+            long offset = 0L;
+            for (final Map.Entry<String, byte[]> entry : sections.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(offset);
+                out.writeInt(entry.getValue().length);
+                offset += entry.getValue().length;
+            }
+
+            for (final byte[] section : sections.values()) {
+                out.write(section);
+            }
+
+            out.flush();
+            fos.getFD().sync();
+        }
+
+        Files.move(partialFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static byte[] toBytes(final SectionWriter writer) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (final DataOutputStream out = new DataOutputStream(baos)) {
+            writer.write(out);
+        }
+        return baos.toByteArray();
+    }
+
+    private interface SectionWriter {
+        void write(DataOutput out) throws IOException;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.provenance.index.columnar;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Indexes a field by keeping, for each distinct value in the field's dictionary, a bitmap of the rows that hold the value.
+ * Unlike a {@link DictionaryColumn}, a row may hold several values of the field. The index may be searched while rows are being added,
+ * in which case the search is limited to the rows that had been added when it started.
+ */
+final class BitmapIndex {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final FieldDictionary dictionary;
+    private volatile RowBitmap[] bitmaps;
+    private volatile int bitmapCount;
+
+    BitmapIndex() {
+        this(new FieldDictionary(), new RowBitmap[INITIAL_CAPACITY], 0);
+    }
+
+    private BitmapIndex(final FieldDictionary dictionary, final RowBitmap[] bitmaps, final int bitmapCount) {
+        this.dictionary = dictionary;
+        this.bitmaps = bitmaps;
+        this.bitmapCount = bitmapCount;
+    }
+
+    void add(final String value, final int row) {
+        final int code = dictionary.encode(value);
+        if (code == FieldDictionary.NO_VALUE) {
+            return;
+        }
+
+        if (code == bitmapCount) {
+            if (code == bitmaps.length) {
+                bitmaps = Arrays.copyOf(bitmaps, bitmaps.length * 2);
+            }
+
+            bitmaps[code] = new RowBitmap();
+            bitmapCount = code + 1;
+        }
+
+        bitmaps[code].add(row);
+    }
+
+    /**
+     * Returns the rows less than <code>rowLimit</code> that hold a value that matches the given search value
+     */
+    BitSet findRows(final String searchValue, final int rowLimit) {
+        final BitSet codes = dictionary.findCodes(searchValue);
+        final int count = bitmapCount;
+        final RowBitmap[] currentBitmaps = bitmaps;
+
+        final BitSet rows = new BitSet();
+        for (int code = codes.nextSetBit(0); code >= 0 && code < count; code = codes.nextSetBit(code + 1)) {
+            currentBitmaps[code].orInto(rows, rowLimit);
+        }
+
+        return rows;
+    }
+
+    BitmapIndex sort() {
+        final int[] codeMapping = new int[dictionary.size()];
+        final FieldDictionary sortedDictionary = dictionary.sort(codeMapping);
+
+        final RowBitmap[] sortedBitmaps = new RowBitmap[codeMapping.length];
+        for (int code = 0; code < codeMapping.length; code++) {
+            sortedBitmaps[codeMapping[code]] = bitmaps[code];
+        }
+
+        return new BitmapIndex(sortedDictionary, sortedBitmaps, sortedBitmaps.length);
+    }
+
+    void writeTo(final DataOutput out) throws IOException {
+        dictionary.writeTo(out);
+        for (int code = 0; code < bitmapCount; code++) {
+            bitmaps[code].writeTo(out);
+        }
+    }
+
+    static BitmapIndex readFrom(final DataInput in) throws IOException {
+        final FieldDictionary dictionary = FieldDictionary.readFrom(in);
+        final RowBitmap[] bitmaps = new RowBitmap[dictionary.size()];
+        for (int i = 0; i < bitmaps.length; i++) {
+            bitmaps[i] = RowBitmap.readFrom(in);
+        }
+
+        return new BitmapIndex(dictionary, bitmaps, bitmaps.length);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.provenance.index.columnar;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Variable-length encoding of the values that make up the columns of an index segment.
+ */
+final class ColumnEncoding {
+
+    private ColumnEncoding() {
+    }
+
+    static void writeVarLong(final long value, final DataOutput out) throws IOException {
+        // Zig-zag encode so that small negative values are also written in few bytes
+        long remaining = (value << 1) ^ (value >> 63);
+        while ((remaining & ~0x7FL) != 0) {
+            out.write((int) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+
+        out.write((int) remaining);
+    }
+
+    static long readVarLong(final DataInput in) throws IOException {
+        long encoded = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = in.readUnsignedByte();
+            encoded |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (encoded >>> 1) ^ -(encoded & 1);
+            }
+        }
+
+        throw new IOException("Index Segment contains an invalid variable-length value");
+    }
+
+    /**
+     * Writes the first <code>count</code> values, each as the difference from the value before it
+     */
+    static void writeLongColumn(final long[] values, final int count, final DataOutput out) throws IOException {
+        long previous = 0L;
+        for (int i = 0; i < count; i++) {
+            writeVarLong(values[i] - previous, out);
+            previous = values[i];
+        }
+    }
+
+    static long[] readLongColumn(final DataInput in, final int count) throws IOException {
+        final long[] values = new long[count];
+        long previous = 0L;
+        for (int i = 0; i < count; i++) {
+            previous += readVarLong(in);
+            values[i] = previous;
+        }
+
+        return values;
+    }
+
+    static void writeString(final String value, final DataOutput out) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length, out);
+        out.write(bytes);
+    }
+
+    static String readString(final DataInput in) throws IOException {
+        final byte[] bytes = new byte[(int) readVarLong(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
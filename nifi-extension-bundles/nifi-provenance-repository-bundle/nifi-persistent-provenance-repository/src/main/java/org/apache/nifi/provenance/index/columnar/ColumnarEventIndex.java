@@ -0,0 +1,512 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.provenance.index.columnar;
+
+import org.apache.nifi.authorization.user.NiFiUser;
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.processor.DataUnit;
+import org.apache.nifi.provenance.AsyncLineageSubmission;
+import org.apache.nifi.provenance.AsyncQuerySubmission;
+import org.apache.nifi.provenance.ProgressiveResult;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.RepositoryConfiguration;
+import org.apache.nifi.provenance.authorization.EventAuthorizer;
+import org.apache.nifi.provenance.authorization.EventTransformer;
+import org.apache.nifi.provenance.index.EventIndex;
+import org.apache.nifi.provenance.index.lucene.CachedQuery;
+import org.apache.nifi.provenance.index.lucene.LatestEventsPerProcessorQuery;
+import org.apache.nifi.provenance.index.lucene.LatestEventsQuery;
+import org.apache.nifi.provenance.lineage.ComputeLineageSubmission;
+import org.apache.nifi.provenance.lineage.LineageComputationType;
+import org.apache.nifi.provenance.search.Query;
+import org.apache.nifi.provenance.search.QuerySubmission;
+import org.apache.nifi.provenance.search.SearchTerm;
+import org.apache.nifi.provenance.search.SearchableField;
+import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.apache.nifi.provenance.store.EventStore;
+import org.apache.nifi.provenance.util.NamedThreadFactory;
+import org.apache.nifi.reporting.Severity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * An {@link EventIndex} that keeps a columnar, time-partitioned index of Provenance Events instead of a Lucene index. Each storage partition of the
+ * Event Store has its own sequence of segments, each of which covers the events that were added over a period of time equal to the event file
+ * rollover time. Within a segment, the Component ID, Event Type and FlowFile UUID of each event are indexed with compressed bitmaps over
+ * dictionary-encoded values, and the other searchable fields and attributes are stored as dictionary-encoded columns.
+ * </p>
+ *
+ * <p>
+ * Adding an event only appends to the in-memory columns of the active segment, so no indexing threads or commits are required. A query skips the
+ * segments whose time range does not overlap the query's and evaluates its search terms against the bitmaps and columns of the remaining segments.
+ * </p>
+ */
+public class ColumnarEventIndex implements EventIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarEventIndex.class);
+    private static final String EVENT_CATEGORY = "Provenance Repository";
+
+    public static final String INDEX_DIRECTORY_NAME = "columnar-index";
+    public static final int MAX_UNDELETED_QUERY_RESULTS = 10;
+    public static final int MAX_LINEAGE_NODES = 1000;
+    public static final int MAX_LINEAGE_UUIDS = 100;
+    public static final int MAX_SEGMENT_EVENTS = 1_000_000;
+
+    // Events are added to the index by many threads, so those that were written to disk last may be interleaved with some that were not.
+    // Upon restart, the events this far before the last one that was written to disk are re-indexed.
+    static final int REINDEX_EVENT_MARGIN = 100_000;
+    private static final int MAX_SEAL_WAIT_SECONDS = 60;
+
+    private final ColumnarEventIndexSubmissions submissions = new ColumnarEventIndexSubmissions(MAX_UNDELETED_QUERY_RESULTS);
+    private final Map<String, ColumnarIndexPartition> partitions = new LinkedHashMap<>();
+    private final ExecutorService queryExecutor;
+    private final ExecutorService sealExecutor;
+    private final EventReporter eventReporter;
+    private volatile boolean closed = false;
+
+    private final List<CachedQuery> cachedQueries = new ArrayList<>();
+    private LatestEventsPerProcessorQuery latestEventsPerProcessorQuery; // effectively final
+
+    private ScheduledExecutorService maintenanceExecutor; // effectively final
+    private EventStore eventStore;
+
+    public ColumnarEventIndex(final RepositoryConfiguration config, final EventReporter eventReporter) {
+        this(config, MAX_SEGMENT_EVENTS, eventReporter);
+    }
+
+    public ColumnarEventIndex(final RepositoryConfiguration config, final int maxSegmentEvents, final EventReporter eventReporter) {
+        this.eventReporter = eventReporter;
+        queryExecutor = Executors.newFixedThreadPool(config.getQueryThreadPoolSize(), new NamedThreadFactory("Provenance Query"));
+        // A single thread writes full segments to disk, so that the segments of each partition are written in the order that they were filled
+        sealExecutor = Executors.newSingleThreadExecutor(new NamedThreadFactory("Seal Provenance Index Segments", true));
+
+        final List<SearchableField> searchableFields = new ArrayList<>(config.getSearchableFields());
+        searchableFields.addAll(config.getSearchableAttributes());
+        final long maxSegmentMillis = config.getMaxEventFileLife(TimeUnit.MILLISECONDS);
+
+        for (final Map.Entry<String, File> entry : config.getStorageDirectories().entrySet()) {
+            final File indexDirectory = new File(entry.getValue(), INDEX_DIRECTORY_NAME);
+            partitions.put(entry.getKey(), new ColumnarIndexPartition(entry.getKey(), indexDirectory, searchableFields, maxSegmentMillis, maxSegmentEvents, sealExecutor));
+        }
+    }
+
+    @Override
+    public void initialize(final EventStore eventStore) {
+        this.eventStore = eventStore;
+
+        for (final ColumnarIndexPartition partition : partitions.values()) {
+            try {
+                partition.initialize();
+            } catch (final IOException e) {
+                logger.error("Failed to initialize Provenance Event Index", e);
+                eventReporter.reportEvent(Severity.ERROR, EVENT_CATEGORY, "Failed to initialize Provenance Event Index. "
+                    + "Some Provenance Events may not be available for querying. See logs for more information.");
+            }
+        }
+
+        maintenanceExecutor = Executors.newScheduledThreadPool(1, new NamedThreadFactory("Provenance Repository Maintenance"));
+        maintenanceExecutor.scheduleWithFixedDelay(this::performMaintenance, 1, 1, TimeUnit.MINUTES);
+        maintenanceExecutor.scheduleWithFixedDelay(submissions::purgeObsoleteQueries, 30, 30, TimeUnit.SECONDS);
+
+        cachedQueries.add(new LatestEventsQuery());
+        latestEventsPerProcessorQuery = new LatestEventsPerProcessorQuery();
+        cachedQueries.add(latestEventsPerProcessorQuery);
+    }
+
+    @Override
+    public void addEvents(final Map<ProvenanceEventRecord, StorageSummary> events) {
+        for (final Map.Entry<ProvenanceEventRecord, StorageSummary> entry : events.entrySet()) {
+            final ProvenanceEventRecord event = entry.getKey();
+            final StorageSummary summary = entry.getValue();
+
+            for (final CachedQuery cachedQuery : cachedQueries) {
+                cachedQuery.update(event, summary);
+            }
+
+            getPartition(summary).add(event, summary.getEventId());
+        }
+    }
+
+    @Override
+    public boolean isReindexNecessary() {
+        final long maxEventId = eventStore.getMaxEventId();
+        if (maxEventId < 0) {
+            return false;
+        }
+
+        // Only the segments that have been sealed are persisted, so events must be re-indexed if any partition may have lost the events of its
+        // active segment. Because Event IDs are interleaved across partitions, this is judged by the partition whose last persisted event is oldest.
+        long minPersistedEventId = Long.MAX_VALUE;
+        for (final ColumnarIndexPartition partition : partitions.values()) {
+            minPersistedEventId = Math.min(minPersistedEventId, partition.getMaxPersistedEventId());
+        }
+
+        return minPersistedEventId < maxEventId;
+    }
+
+    @Override
+    public void reindexEvents(final Map<ProvenanceEventRecord, StorageSummary> events) {
+        for (final Map.Entry<ProvenanceEventRecord, StorageSummary> entry : events.entrySet()) {
+            final ProvenanceEventRecord event = entry.getKey();
+            final StorageSummary summary = entry.getValue();
+
+            for (final CachedQuery cachedQuery : cachedQueries) {
+                cachedQuery.update(event, summary);
+            }
+
+            getPartition(summary).reindex(event, summary.getEventId());
+        }
+    }
+
+    private ColumnarIndexPartition getPartition(final StorageSummary summary) {
+        final ColumnarIndexPartition partition = summary.getPartitionName().map(partitions::get).orElse(null);
+        return partition == null ? partitions.values().iterator().next() : partition;
+    }
+
+    @Override
+    public long getMinimumEventIdToReindex(final String partitionName) {
+        final ColumnarIndexPartition partition = partitions.get(partitionName);
+        if (partition == null) {
+            return 0L;
+        }
+
+        final long maxPersistedEventId = partition.getMaxPersistedEventId();
+        if (maxPersistedEventId < 0) {
+            return 0L;
+        }
+
+        final long minEventIdToReindex = Math.max(0L, maxPersistedEventId + 1 - REINDEX_EVENT_MARGIN);
+        try {
+            partition.prepareReindex(minEventIdToReindex);
+            return minEventIdToReindex;
+        } catch (final IOException e) {
+            logger.warn("Failed to read the most recent Index Segment for partition {}. Will re-index only the events after Event ID {}", partitionName, maxPersistedEventId, e);
+            return maxPersistedEventId + 1;
+        }
+    }
+
+    @Override
+    public void commitChanges(final String partitionName) {
+        final ColumnarIndexPartition partition = partitions.get(partitionName);
+        if (partition != null) {
+            partition.completeReindex();
+        }
+    }
+
+    @Override
+    public long getSize() {
+        long total = 0L;
+        for (final ColumnarIndexPartition partition : partitions.values()) {
+            total += partition.getSize();
+        }
+        return total;
+    }
+
+    @Override
+    public QuerySubmission submitQuery(final Query query, final EventAuthorizer authorizer, final String userId) {
+        validate(query);
+
+        // Check if we have any cached queries first that can give us the answer
+        for (final CachedQuery cachedQuery : cachedQueries) {
+            final Optional<List<Long>> eventIdListOption = cachedQuery.evaluate(query);
+            if (eventIdListOption.isPresent()) {
+                final AsyncQuerySubmission submission = submissions.createQuerySubmission(query, 1, userId);
+
+                final List<Long> eventIds = eventIdListOption.get();
+                logger.debug("Cached Query {} produced {} Event IDs for {}: {}", cachedQuery, eventIds.size(), query, eventIds);
+
+                queryExecutor.submit(() -> retrieveEvents(eventIds, eventIds.size(), submission.getResult(), authorizer, EventTransformer.EMPTY_TRANSFORMER));
+                return ColumnarEventIndexSubmissions.awaitQuickCompletion(submission);
+            }
+        }
+
+        final AsyncQuerySubmission submission = submissions.createQuerySubmission(query, 1, userId);
+
+        queryExecutor.submit(() -> {
+            try {
+                final long startTime = query.getStartDate() == null ? 0L : query.getStartDate().getTime();
+                final long endTime = query.getEndDate() == null ? Long.MAX_VALUE : query.getEndDate().getTime();
+                final long minFileSize = query.getMinFileSize() == null ? 0L : DataUnit.parseDataSize(query.getMinFileSize(), DataUnit.B).longValue();
+                final long maxFileSize = query.getMaxFileSize() == null ? Long.MAX_VALUE : DataUnit.parseDataSize(query.getMaxFileSize(), DataUnit.B).longValue();
+                final List<SearchTerm> searchTerms = query.getSearchTerms();
+                final int maxResults = query.getMaxResults();
+
+                final long startNanos = System.nanoTime();
+                final List<IndexSegment.Hits> segmentHits = new ArrayList<>();
+                final List<IndexSegment> segments = getSegments(startTime, endTime);
+                for (final IndexSegment segment : segments) {
+                    if (submission.isCanceled()) {
+                        return;
+                    }
+
+                    searchSegment(segment, segmentHits, () -> segment.search(searchTerms, startTime, endTime, minFileSize, maxFileSize, maxResults));
+                }
+
+                final IndexSegment.Hits hits = merge(segmentHits, maxResults, true);
+                logger.debug("Searched {} Index Segments for query {} in {} millis, finding {} hits", segments.size(), query,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), hits.totalHits());
+
+                retrieveEvents(toList(hits.eventIds()), hits.totalHits(), submission.getResult(), authorizer, EventTransformer.EMPTY_TRANSFORMER);
+            } catch (final Exception e) {
+                logger.error("Failed to query Provenance Event Index", e);
+                submission.getResult().setError("Failed to complete query due to " + e);
+            }
+        });
+
+        return ColumnarEventIndexSubmissions.awaitQuickCompletion(submission);
+    }
+
+    private void searchSegment(final IndexSegment segment, final List<IndexSegment.Hits> segmentHits, final SegmentSearch search) throws IOException {
+        try {
+            segmentHits.add(search.search());
+        } catch (final FileNotFoundException fnfe) {
+            // The segment was aged off while the query was running, so it no longer contains events that can be retrieved
+            logger.debug("Index Segment {} was removed before it could be searched", segment);
+        }
+    }
+
+    private void retrieveEvents(final List<Long> eventIds, final long totalHits, final ProgressiveResult result, final EventAuthorizer authorizer,
+                                final EventTransformer transformer) {
+        try {
+            final List<ProvenanceEventRecord> events = eventStore.getEvents(eventIds, authorizer, transformer);
+            logger.debug("Retrieved {} of {} Events from Event Store", events.size(), eventIds.size());
+            result.update(events, totalHits);
+        } catch (final Exception e) {
+            result.setError("Failed to retrieve Provenance Events from store; see logs for more details");
+            logger.error("Failed to retrieve Provenance Events from store", e);
+        }
+    }
+
+    private List<IndexSegment> getSegments(final long startTime, final long endTime) {
+        final List<IndexSegment> segments = new ArrayList<>();
+        for (final ColumnarIndexPartition partition : partitions.values()) {
+            for (final IndexSegment segment : partition.getSegments()) {
+                if (segment.overlaps(startTime, endTime)) {
+                    segments.add(segment);
+                }
+            }
+        }
+
+        return segments;
+    }
+
+    private static IndexSegment.Hits merge(final List<IndexSegment.Hits> segmentHits, final int maxResults, final boolean newestFirst) {
+        long totalHits = 0L;
+        int eventIdCount = 0;
+        for (final IndexSegment.Hits hits : segmentHits) {
+            totalHits += hits.totalHits();
+            eventIdCount += hits.eventIds().length;
+        }
+
+        final long[] eventIds = new long[eventIdCount];
+        int index = 0;
+        for (final IndexSegment.Hits hits : segmentHits) {
+            System.arraycopy(hits.eventIds(), 0, eventIds, index, hits.eventIds().length);
+            index += hits.eventIds().length;
+        }
+
+        return new IndexSegment.Hits(IndexSegment.selectEventIds(eventIds, eventIdCount, maxResults, newestFirst), totalHits);
+    }
+
+    private static List<Long> toList(final long[] values) {
+        final List<Long> list = new ArrayList<>(values.length);
+        for (final long value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    @Override
+    public Optional<ProvenanceEventRecord> getLatestCachedEvent(final String componentId) throws IOException {
+        final List<Long> eventIds = latestEventsPerProcessorQuery.getLatestEventIds(componentId);
+        if (eventIds.isEmpty()) {
+            logger.info("There are no recent Provenance Events cached for Component with ID {}", componentId);
+            return Optional.empty();
+        }
+
+        final Long latestEventId = eventIds.get(eventIds.size() - 1);
+        final Optional<ProvenanceEventRecord> latestEvent = eventStore.getEvent(latestEventId);
+        if (latestEvent.isPresent()) {
+            logger.info("Returning {} as the most recent Provenance Events cached for Component with ID {}", latestEvent.get(), componentId);
+        } else {
+            logger.info("There are no recent Provenance Events cached for Component with ID {}", componentId);
+        }
+
+        return latestEvent;
+    }
+
+    @Override
+    public ComputeLineageSubmission submitLineageComputation(final long eventId, final NiFiUser user, final EventAuthorizer eventAuthorizer) {
+        return submissions.submitLineageComputation(eventStore, eventId, user, lineageComputation(user, eventAuthorizer));
+    }
+
+    @Override
+    public ComputeLineageSubmission submitLineageComputation(final String flowFileUuid, final NiFiUser user, final EventAuthorizer eventAuthorizer) {
+        return submitLineageComputation(Collections.singleton(flowFileUuid), user, eventAuthorizer, LineageComputationType.FLOWFILE_LINEAGE, null, 0L, Long.MAX_VALUE);
+    }
+
+    private ColumnarEventIndexSubmissions.LineageComputation lineageComputation(final NiFiUser user, final EventAuthorizer eventAuthorizer) {
+        return (flowFileUuids, computationType, eventId, startTimestamp, endTimestamp) ->
+            submitLineageComputation(flowFileUuids, user, eventAuthorizer, computationType, eventId, startTimestamp, endTimestamp);
+    }
+
+    private ComputeLineageSubmission submitLineageComputation(final Collection<String> flowFileUuids, final NiFiUser user, final EventAuthorizer eventAuthorizer,
+        final LineageComputationType computationType, final Long eventId, final long startTimestamp, final long endTimestamp) {
+
+        if (flowFileUuids.size() > MAX_LINEAGE_UUIDS) {
+            throw new IllegalArgumentException(String.format("Cannot compute lineage for more than %s FlowFiles. This lineage contains %s.", MAX_LINEAGE_UUIDS, flowFileUuids.size()));
+        }
+
+        final AsyncLineageSubmission submission = submissions.createLineageSubmission(computationType, eventId, flowFileUuids, 1, user == null ? null : user.getIdentity());
+
+        queryExecutor.submit(() -> {
+            try {
+                final List<IndexSegment.Hits> segmentHits = new ArrayList<>();
+                for (final IndexSegment segment : getSegments(startTimestamp, endTimestamp)) {
+                    if (submission.isCanceled()) {
+                        return;
+                    }
+
+                    searchSegment(segment, segmentHits, () -> segment.searchLineage(flowFileUuids, startTimestamp, endTimestamp, MAX_LINEAGE_NODES));
+                }
+
+                final IndexSegment.Hits hits = merge(segmentHits, MAX_LINEAGE_NODES, false);
+                retrieveEvents(toList(hits.eventIds()), hits.totalHits(), submission.getResult(), eventAuthorizer, EventTransformer.PLACEHOLDER_TRANSFORMER);
+            } catch (final Exception e) {
+                logger.error("Failed to compute lineage for FlowFiles {}", flowFileUuids, e);
+                submission.getResult().setError("Failed to compute lineage due to " + e);
+            }
+        });
+
+        return ColumnarEventIndexSubmissions.awaitQuickCompletion(submission);
+    }
+
+    @Override
+    public ComputeLineageSubmission submitExpandChildren(final long eventId, final NiFiUser user, final EventAuthorizer authorizer) {
+        return submissions.submitExpandChildren(eventStore, eventId, user, lineageComputation(user, authorizer));
+    }
+
+    @Override
+    public ComputeLineageSubmission submitExpandParents(final long eventId, final NiFiUser user, final EventAuthorizer authorizer) {
+        return submissions.submitExpandParents(eventStore, eventId, user, lineageComputation(user, authorizer));
+    }
+
+    @Override
+    public AsyncLineageSubmission retrieveLineageSubmission(final String lineageIdentifier, final NiFiUser user) {
+        return submissions.retrieveLineageSubmission(lineageIdentifier, user);
+    }
+
+    @Override
+    public QuerySubmission retrieveQuerySubmission(final String queryIdentifier, final NiFiUser user) {
+        return submissions.retrieveQuerySubmission(queryIdentifier, user);
+    }
+
+    private void validate(final Query query) {
+        submissions.validate(query);
+
+        for (final SearchTerm searchTerm : query.getSearchTerms()) {
+            if (searchTerm.getValue() == null) {
+                throw new IllegalArgumentException("Empty search value not allowed (for term '" + searchTerm.getSearchableField().getFriendlyName() + "')");
+            }
+        }
+    }
+
+    void performMaintenance() {
+        try {
+            final List<ProvenanceEventRecord> firstEvents = eventStore.getEvents(0, 1);
+
+            final long earliestEventTime;
+            if (firstEvents.isEmpty()) {
+                earliestEventTime = System.currentTimeMillis();
+                logger.debug("Found no events in the Provenance Repository. In order to perform maintenace of the indices, "
+                    + "will assume that the first event time is now ({})", System.currentTimeMillis());
+            } else {
+                final ProvenanceEventRecord firstEvent = firstEvents.get(0);
+                earliestEventTime = firstEvent.getEventTime();
+                logger.debug("First Event Time is {} ({}) with Event ID {}; will delete any Index Segment that is older than this",
+                    earliestEventTime, new Date(earliestEventTime), firstEvent.getEventId());
+            }
+
+            for (final ColumnarIndexPartition partition : partitions.values()) {
+                final int removed = partition.removeSegmentsBefore(earliestEventTime);
+                if (removed > 0) {
+                    logger.info("Removed {} expired Index Segments", removed);
+                }
+            }
+        } catch (final Exception e) {
+            logger.error("Failed to perform background maintenance procedures", e);
+            eventReporter.reportEvent(Severity.ERROR, EVENT_CATEGORY, "Failed to perform maintenance of Provenance Repository. See logs for more information.");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        queryExecutor.shutdownNow();
+
+        if (maintenanceExecutor != null) {
+            maintenanceExecutor.shutdown();
+        }
+
+        sealExecutor.shutdown();
+        try {
+            if (!sealExecutor.awaitTermination(MAX_SEAL_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("Full Index Segments were not written to disk within {} seconds; their events will be re-indexed upon restart", MAX_SEAL_WAIT_SECONDS);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Write the active segments to disk so that their events need not be re-indexed upon restart
+        for (final ColumnarIndexPartition partition : partitions.values()) {
+            partition.seal();
+        }
+    }
+
+    /**
+     * Waits for all segments that have become full to be written to disk
+     */
+    void awaitSealedSegments() throws InterruptedException, ExecutionException {
+        sealExecutor.submit(() -> { }).get();
+    }
+
+    private interface SegmentSearch {
+        IndexSegment.Hits search() throws IOException;
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import org.apache.nifi.authorization.AccessDeniedException;
+import org.apache.nifi.authorization.user.NiFiUser;
+import org.apache.nifi.provenance.AsyncLineageSubmission;
+import org.apache.nifi.provenance.AsyncQuerySubmission;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.StandardLineageResult;
+import org.apache.nifi.provenance.StandardQueryResult;
+import org.apache.nifi.provenance.lineage.ComputeLineageSubmission;
+import org.apache.nifi.provenance.lineage.LineageComputationType;
+import org.apache.nifi.provenance.search.Query;
+import org.apache.nifi.provenance.search.QuerySubmission;
+import org.apache.nifi.provenance.store.EventStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps track of the query and lineage submissions of the {@link ColumnarEventIndex}, and provides the parts of submitting and retrieving them that do not
+ * depend on how the index is searched.
+ */
+class ColumnarEventIndexSubmissions {
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarEventIndexSubmissions.class);
+
+    // Some queries and lineage computations complete very quickly. In that case, we don't want the client to have to issue a second
+    // request to obtain the result, so we give the submission this long to complete before returning it.
+    private static final long QUICK_COMPLETION_MILLIS = 500L;
+
+    private final ConcurrentMap<String, AsyncQuerySubmission> querySubmissionMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AsyncLineageSubmission> lineageSubmissionMap = new ConcurrentHashMap<>();
+    private final int maxUndeletedQueryResults;
+
+    ColumnarEventIndexSubmissions(final int maxUndeletedQueryResults) {
+        this.maxUndeletedQueryResults = maxUndeletedQueryResults;
+    }
+
+    public AsyncQuerySubmission createQuerySubmission(final Query query, final int numSteps, final String userId) {
+        final AsyncQuerySubmission submission = new AsyncQuerySubmission(query, numSteps, userId);
+        querySubmissionMap.put(query.getIdentifier(), submission);
+        return submission;
+    }
+
+    public AsyncLineageSubmission createLineageSubmission(final LineageComputationType computationType, final Long eventId, final Collection<String> flowFileUuids,
+                                                          final int numSteps, final String userId) {
+        final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, flowFileUuids, numSteps, userId);
+        lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
+        return submission;
+    }
+
+    /**
+     * @return the query submission with the given identifier, or <code>null</code> if there is no such submission
+     * @throws AccessDeniedException if the given user did not submit the query
+     */
+    public QuerySubmission retrieveQuerySubmission(final String queryIdentifier, final NiFiUser user) {
+        final QuerySubmission submission = querySubmissionMap.get(queryIdentifier);
+        if (submission == null) {
+            return null;
+        }
+
+        verifySubmitter(submission.getSubmitterIdentity(), user, "Provenance Query Submission");
+        return submission;
+    }
+
+    /**
+     * @return the lineage submission with the given identifier, or <code>null</code> if there is no such submission
+     * @throws AccessDeniedException if the given user did not submit the lineage computation
+     */
+    public AsyncLineageSubmission retrieveLineageSubmission(final String lineageIdentifier, final NiFiUser user) {
+        final AsyncLineageSubmission submission = lineageSubmissionMap.get(lineageIdentifier);
+        if (submission == null) {
+            return null;
+        }
+
+        verifySubmitter(submission.getSubmitterIdentity(), user, "Provenance Lineage Submission");
+        return submission;
+    }
+
+    private static void verifySubmitter(final String submitterId, final NiFiUser user, final String submissionDescription) {
+        if (user == null && submitterId == null) {
+            return;
+        }
+
+        if (user == null) {
+            throw new AccessDeniedException("Cannot retrieve " + submissionDescription + " because no user id was provided");
+        }
+
+        if (submitterId != null && !submitterId.equals(user.getIdentity())) {
+            throw new AccessDeniedException("Cannot retrieve " + submissionDescription + " because " + user.getIdentity() + " is not the user who submitted the request");
+        }
+    }
+
+    /**
+     * Verifies that the given query can be submitted, first purging any obsolete query results if too many have not been deleted
+     */
+    public void validate(final Query query) {
+        final int numQueries = querySubmissionMap.size();
+        if (numQueries > maxUndeletedQueryResults) {
+            purgeObsoleteQueries();
+            if (querySubmissionMap.size() > maxUndeletedQueryResults) {
+                throw new IllegalStateException("Cannot process query because there are currently " + numQueries + " queries whose results have not "
+                    + "been deleted due to poorly behaving clients not issuing DELETE requests. Please try again later.");
+            }
+        }
+
+        if (query.getEndDate() != null && query.getStartDate() != null && query.getStartDate().getTime() > query.getEndDate().getTime()) {
+            throw new IllegalArgumentException("Query End Time cannot be before Query Start Time");
+        }
+    }
+
+    /**
+     * Removes the query and lineage submissions that have been canceled or whose results have expired
+     */
+    public void purgeObsoleteQueries() {
+        try {
+            final Date now = new Date();
+
+            final Iterator<Map.Entry<String, AsyncQuerySubmission>> queryIterator = querySubmissionMap.entrySet().iterator();
+            while (queryIterator.hasNext()) {
+                final Map.Entry<String, AsyncQuerySubmission> entry = queryIterator.next();
+
+                final StandardQueryResult result = entry.getValue().getResult();
+                if (entry.getValue().isCanceled() || result.isFinished() && result.getExpiration().before(now)) {
+                    queryIterator.remove();
+                }
+            }
+
+            final Iterator<Map.Entry<String, AsyncLineageSubmission>> lineageIterator = lineageSubmissionMap.entrySet().iterator();
+            while (lineageIterator.hasNext()) {
+                final Map.Entry<String, AsyncLineageSubmission> entry = lineageIterator.next();
+
+                final StandardLineageResult result = entry.getValue().getResult();
+                if (entry.getValue().isCanceled() || result.isFinished() && result.getExpiration().before(now)) {
+                    lineageIterator.remove();
+                }
+            }
+        } catch (final Exception e) {
+            logger.error("Failed to expire Provenance Query Results", e);
+        }
+    }
+
+    /**
+     * Submits the computation of the lineage of the FlowFile that the event with the given ID pertains to
+     */
+    public ComputeLineageSubmission submitLineageComputation(final EventStore eventStore, final long eventId, final NiFiUser user, final LineageComputation computation) {
+        final String userId = user == null ? null : user.getIdentity();
+
+        final Optional<ProvenanceEventRecord> eventOption;
+        try {
+            eventOption = eventStore.getEvent(eventId);
+        } catch (final Exception e) {
+            logger.error("Failed to retrieve Provenance Event with ID {} to calculate data lineage", eventId, e);
+            final AsyncLineageSubmission result = new AsyncLineageSubmission(LineageComputationType.FLOWFILE_LINEAGE, eventId, Collections.emptySet(), 1, userId);
+            result.getResult().setError("Failed to retrieve Provenance Event with ID " + eventId + ". See logs for more information.");
+            return result;
+        }
+
+        if (eventOption.isEmpty()) {
+            final AsyncLineageSubmission result = createLineageSubmission(LineageComputationType.FLOWFILE_LINEAGE, eventId, Collections.emptySet(), 1, userId);
+            result.getResult().setError("Could not find Provenance Event with ID " + eventId);
+            return result;
+        }
+
+        final ProvenanceEventRecord event = eventOption.get();
+        return computation.submit(Collections.singleton(event.getFlowFileUuid()), LineageComputationType.FLOWFILE_LINEAGE, eventId, event.getLineageStartDate(), Long.MAX_VALUE);
+    }
+
+    /**
+     * Submits the computation of the lineage of the children of the CLONE, FORK, JOIN or REPLAY event with the given ID
+     */
+    public ComputeLineageSubmission submitExpandChildren(final EventStore eventStore, final long eventId, final NiFiUser user, final LineageComputation computation) {
+        return submitExpand(eventStore, eventId, user, computation, LineageComputationType.EXPAND_CHILDREN);
+    }
+
+    /**
+     * Submits the computation of the lineage of the parents of the CLONE, FORK, JOIN or REPLAY event with the given ID
+     */
+    public ComputeLineageSubmission submitExpandParents(final EventStore eventStore, final long eventId, final NiFiUser user, final LineageComputation computation) {
+        return submitExpand(eventStore, eventId, user, computation, LineageComputationType.EXPAND_PARENTS);
+    }
+
+    private ComputeLineageSubmission submitExpand(final EventStore eventStore, final long eventId, final NiFiUser user, final LineageComputation computation,
+                                                  final LineageComputationType computationType) {
+        final String userId = user == null ? null : user.getIdentity();
+        final boolean expandChildren = computationType == LineageComputationType.EXPAND_CHILDREN;
+        final String relatives = expandChildren ? "children" : "parents";
+
+        try {
+            final Optional<ProvenanceEventRecord> eventOption = eventStore.getEvent(eventId);
+            if (eventOption.isEmpty()) {
+                final AsyncLineageSubmission submission = createLineageSubmission(computationType, eventId, Collections.emptyList(), 1, userId);
+                submission.getResult().update(Collections.emptyList(), 0L);
+                return submission;
+            }
+
+            final ProvenanceEventRecord event = eventOption.get();
+            switch (event.getEventType()) {
+                case CLONE:
+                case FORK:
+                case JOIN:
+                case REPLAY: {
+                    if (expandChildren) {
+                        return computation.submit(event.getChildUuids(), computationType, eventId, event.getEventTime(), Long.MAX_VALUE);
+                    }
+
+                    return computation.submit(event.getParentUuids(), computationType, eventId, event.getLineageStartDate(), event.getEventTime());
+                }
+                default: {
+                    final AsyncLineageSubmission submission = createLineageSubmission(computationType, eventId, Collections.emptyList(), 1, userId);
+                    submission.getResult().setError("Event ID " + eventId + " indicates an event of type " + event.getEventType() + " so its " + relatives + " cannot be expanded");
+                    return submission;
+                }
+            }
+        } catch (final Exception e) {
+            final AsyncLineageSubmission submission = createLineageSubmission(computationType, eventId, Collections.emptyList(), 1, userId);
+            submission.getResult().setError("Failed to expand " + relatives + " for lineage of event with ID " + eventId + " due to: " + e);
+            return submission;
+        }
+    }
+
+    /**
+     * Waits briefly for the given query to complete, so that a query that completes quickly can be answered without a second request
+     */
+    public static <T extends QuerySubmission> T awaitQuickCompletion(final T submission) {
+        try {
+            submission.getResult().awaitCompletion(QUICK_COMPLETION_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return submission;
+    }
+
+    /**
+     * Waits briefly for the given lineage computation to complete, so that a computation that completes quickly can be answered without a second request
+     */
+    public static <T extends ComputeLineageSubmission> T awaitQuickCompletion(final T submission) {
+        try {
+            submission.getResult().awaitCompletion(QUICK_COMPLETION_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return submission;
+    }
+
+    /**
+     * Submits the computation of the lineage of a set of FlowFiles against a specific type of Event Index
+     */
+    @FunctionalInterface
+    public interface LineageComputation {
+        ComputeLineageSubmission submit(Collection<String> flowFileUuids, LineageComputationType computationType, Long eventId, long startTimestamp, long endTimestamp);
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.provenance.index.columnar;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.search.SearchableField;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The segments of the columnar event index that hold the events of a single storage partition of the Event Store. Events are added to a single
+ * {@link ActiveSegment}, which is sealed and written to the partition's index directory once it spans the configured amount of time or holds the
+ * maximum number of events. Sealing happens in the background, so that the threads adding events are not blocked while a segment is written;
+ * until it has been written, the full segment remains searchable from memory.
+ */
+final class ColumnarIndexPartition {
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarIndexPartition.class);
+
+    private final String partitionName;
+    private final File directory;
+    private final Collection<SearchableField> searchableFields;
+    private final long maxSegmentMillis;
+    private final int maxSegmentEvents;
+    private final Executor sealExecutor;
+
+    // Sealed segments, along with any full segment that has not yet been written to disk, or could not be, and so is only searchable from memory
+    private final List<IndexSegment> sealedSegments = new CopyOnWriteArrayList<>();
+    private volatile Set<Long> persistedEventIdsToSkip = Collections.emptySet();
+    private ActiveSegment activeSegment; // guarded by this
+
+    ColumnarIndexPartition(final String partitionName, final File directory, final Collection<SearchableField> searchableFields,
+                           final long maxSegmentMillis, final int maxSegmentEvents, final Executor sealExecutor) {
+        this.partitionName = partitionName;
+        this.directory = directory;
+        this.searchableFields = searchableFields;
+        this.maxSegmentMillis = maxSegmentMillis;
+        this.maxSegmentEvents = maxSegmentEvents;
+        this.sealExecutor = sealExecutor;
+    }
+
+    void initialize() throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Could not create Index Directory " + directory);
+        }
+
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            throw new IOException("Could not list contents of Index Directory " + directory);
+        }
+
+        final List<SealedSegment> segments = new ArrayList<>();
+        for (final File file : files) {
+            final String filename = file.getName();
+            if (filename.endsWith(SealedSegment.PARTIAL_FILE_SUFFIX)) {
+                logger.debug("Removing partially written Index Segment {}", file);
+                if (!file.delete()) {
+                    logger.warn("Failed to remove partially written Index Segment {}; this file should be cleaned up manually", file);
+                }
+            } else if (filename.endsWith(SealedSegment.SEGMENT_FILE_SUFFIX)) {
+                try {
+                    segments.add(SealedSegment.open(file));
+                } catch (final IOException e) {
+                    logger.warn("Failed to read Index Segment {}; the events that it contains will not be searchable", file, e);
+                }
+            }
+        }
+
+        segments.sort(Comparator.comparingLong(SealedSegment::getMinEventId));
+        sealedSegments.addAll(segments);
+        logger.info("Found {} Index Segments for Provenance Repository partition {}", segments.size(), partitionName);
+    }
+
+    synchronized void add(final ProvenanceEventRecord event, final long eventId) {
+        if (activeSegment != null && isFull(activeSegment, event.getEventTime())) {
+            final ActiveSegment fullSegment = detachActiveSegment();
+            try {
+                sealExecutor.execute(() -> write(fullSegment));
+            } catch (final RejectedExecutionException ree) {
+                logger.warn("Could not write Index Segment with {} events in the background; its events will be searchable only until NiFi is restarted", fullSegment.getRowCount());
+            }
+        }
+
+        if (activeSegment == null) {
+            activeSegment = new ActiveSegment(searchableFields);
+        }
+
+        activeSegment.add(event, eventId);
+    }
+
+    void reindex(final ProvenanceEventRecord event, final long eventId) {
+        if (persistedEventIdsToSkip.contains(eventId)) {
+            return;
+        }
+
+        add(event, eventId);
+    }
+
+    private boolean isFull(final ActiveSegment segment, final long eventTime) {
+        return segment.getRowCount() >= maxSegmentEvents || eventTime - segment.getMinEventTime() >= maxSegmentMillis;
+    }
+
+    /**
+     * Writes the active segment to disk, if it holds any events, so that subsequent events are added to a new segment. Unlike the sealing of a
+     * segment that has become full, the segment is written by the calling thread.
+     */
+    void seal() {
+        final ActiveSegment segment;
+        synchronized (this) {
+            segment = detachActiveSegment();
+        }
+
+        if (segment != null) {
+            write(segment);
+        }
+    }
+
+    /**
+     * Replaces the active segment with <code>null</code>, so that the next event is added to a new segment, and keeps the detached segment
+     * searchable until it has been written
+     *
+     * @return the detached segment, or <code>null</code> if there is no active segment or it holds no events
+     */
+    private ActiveSegment detachActiveSegment() {
+        if (activeSegment == null || activeSegment.getRowCount() == 0) {
+            return null;
+        }
+
+        final ActiveSegment segment = activeSegment;
+        activeSegment = null;
+        sealedSegments.add(segment);
+        return segment;
+    }
+
+    private void write(final ActiveSegment segment) {
+        final File file = new File(directory, segment.getMinEventId() + SealedSegment.SEGMENT_FILE_SUFFIX);
+        final SealedSegment sealedSegment;
+        try {
+            segment.writeTo(file);
+            sealedSegment = SealedSegment.open(file);
+        } catch (final IOException e) {
+            logger.error("Failed to write Index Segment {}; the {} events that it contains will be searchable only until NiFi is restarted", file, segment.getRowCount(), e);
+            return;
+        }
+
+        final boolean replaced;
+        synchronized (this) {
+            final int index = sealedSegments.indexOf(segment);
+            replaced = index >= 0;
+            if (replaced) {
+                sealedSegments.set(index, sealedSegment);
+            }
+        }
+
+        if (replaced) {
+            logger.debug("Sealed Index Segment {} with {} events", file, segment.getRowCount());
+        } else if (!file.delete()) {
+            // The segment expired while it was being written
+            logger.warn("Index Segment {} has expired but could not be deleted; this file should be cleaned up manually", file);
+        }
+    }
+
+    synchronized List<IndexSegment> getSegments() {
+        final List<IndexSegment> segments = new ArrayList<>(sealedSegments);
+        if (activeSegment != null) {
+            segments.add(activeSegment);
+        }
+
+        return segments;
+    }
+
+    /**
+     * Returns the largest Event ID that has been written to disk for this partition, or -1 if no segment has been written
+     */
+    long getMaxPersistedEventId() {
+        long maxEventId = -1L;
+        for (final IndexSegment segment : sealedSegments) {
+            if (segment instanceof SealedSegment) {
+                maxEventId = Math.max(maxEventId, segment.getMaxEventId());
+            }
+        }
+
+        return maxEventId;
+    }
+
+    /**
+     * Prepares for the events starting with the given Event ID to be re-indexed. Because events may be added to the index slightly out of order,
+     * some of those events may already have been written to disk, and those must not be indexed a second time.
+     */
+    void prepareReindex(final long minEventId) throws IOException {
+        final Set<Long> persistedEventIds = new HashSet<>();
+        for (final IndexSegment segment : sealedSegments) {
+            if (segment instanceof SealedSegment && segment.getMaxEventId() >= minEventId) {
+                final long[] eventIds = segment.getEventIds();
+                for (int row = 0; row < segment.getRowCount(); row++) {
+                    if (eventIds[row] >= minEventId) {
+                        persistedEventIds.add(eventIds[row]);
+                    }
+                }
+            }
+        }
+
+        persistedEventIdsToSkip = persistedEventIds;
+    }
+
+    void completeReindex() {
+        persistedEventIdsToSkip = Collections.emptySet();
+        seal();
+    }
+
+    /**
+     * Removes all segments whose events are all older than the given time
+     *
+     * @return the number of segments that were removed
+     */
+    int removeSegmentsBefore(final long earliestEventTime) {
+        int removed = 0;
+        for (final IndexSegment segment : sealedSegments) {
+            if (segment.getMaxEventTime() >= earliestEventTime) {
+                continue;
+            }
+
+            synchronized (this) {
+                if (!sealedSegments.remove(segment)) {
+                    continue;
+                }
+            }
+            removed++;
+
+            if (segment instanceof SealedSegment sealedSegment) {
+                final File file = sealedSegment.getFile();
+                if (file.delete()) {
+                    logger.debug("Removed expired Index Segment {}", file);
+                } else {
+                    logger.warn("Index Segment {} has expired and contains no Provenance Events that still exist in the repository, but the file could not be deleted", file);
+                }
+            }
+        }
+
+        return removed;
+    }
+
+    long getSize() {
+        long size = 0L;
+        for (final IndexSegment segment : sealedSegments) {
+            if (segment instanceof SealedSegment sealedSegment) {
+                size += sealedSegment.getFile().length();
+            }
+        }
+
+        return size;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.provenance.index.columnar;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Stores a single-valued field as one dictionary code per row. Searching the field scans the codes, which avoids keeping a bitmap
+ * for each value of fields that are rarely searched, such as the configured searchable attributes. The column may be searched while rows
+ * are being set, in which case the search is limited to the rows that had been set when it started.
+ */
+final class DictionaryColumn {
+    private final FieldDictionary dictionary;
+    private volatile int[] codes;
+
+    DictionaryColumn(final int initialCapacity) {
+        this(new FieldDictionary(), new int[initialCapacity]);
+    }
+
+    private DictionaryColumn(final FieldDictionary dictionary, final int[] codes) {
+        this.dictionary = dictionary;
+        this.codes = codes;
+    }
+
+    void set(final int row, final String value) {
+        final int code = dictionary.encode(value);
+
+        int[] currentCodes = codes;
+        if (row >= currentCodes.length) {
+            currentCodes = Arrays.copyOf(currentCodes, Math.max(row + 1, currentCodes.length * 2));
+            codes = currentCodes;
+        }
+
+        currentCodes[row] = code;
+    }
+
+    BitSet findRows(final String searchValue, final int rowCount) {
+        final BitSet matchingCodes = dictionary.findCodes(searchValue);
+        final BitSet rows = new BitSet(rowCount);
+        if (matchingCodes.isEmpty()) {
+            return rows;
+        }
+
+        final int[] currentCodes = codes;
+        for (int row = 0; row < rowCount; row++) {
+            final int code = currentCodes[row];
+            if (code != FieldDictionary.NO_VALUE && matchingCodes.get(code)) {
+                rows.set(row);
+            }
+        }
+
+        return rows;
+    }
+
+    DictionaryColumn sort(final int rowCount) {
+        final int[] codeMapping = new int[dictionary.size()];
+        final FieldDictionary sortedDictionary = dictionary.sort(codeMapping);
+
+        final int[] sortedCodes = new int[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            final int code = codes[row];
+            sortedCodes[row] = code == FieldDictionary.NO_VALUE ? FieldDictionary.NO_VALUE : codeMapping[code];
+        }
+
+        return new DictionaryColumn(sortedDictionary, sortedCodes);
+    }
+
+    void writeTo(final DataOutput out, final int rowCount) throws IOException {
+        dictionary.writeTo(out);
+        for (int row = 0; row < rowCount; row++) {
+            ColumnEncoding.writeVarLong(codes[row], out);
+        }
+    }
+
+    static DictionaryColumn readFrom(final DataInput in, final int rowCount) throws IOException {
+        final FieldDictionary dictionary = FieldDictionary.readFrom(in);
+        final int[] codes = new int[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            codes[row] = (int) ColumnEncoding.readVarLong(in);
+        }
+
+        return new DictionaryColumn(dictionary, codes);
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.provenance.index.columnar;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * <p>
+ * Assigns each distinct value of a field an integer code, so that the value is stored only once per index segment.
+ * </p>
+ *
+ * <p>
+ * While a segment is being written, codes are assigned in the order that values are encountered. When the segment is sealed, the
+ * dictionary is sorted so that the codes of a persisted segment can be found by binary search without building a hash table.
+ * </p>
+ *
+ * <p>
+ * Values are added by one thread at a time while other threads may search the dictionary. A value is published only after it has
+ * been stored, so a search sees each value either with its code or not at all.
+ * </p>
+ */
+final class FieldDictionary {
+    static final int NO_VALUE = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<String, Integer> codes;
+    private final boolean sorted;
+    private volatile String[] values;
+    private volatile int size;
+
+    FieldDictionary() {
+        this.codes = new ConcurrentHashMap<>();
+        this.values = new String[INITIAL_CAPACITY];
+        this.size = 0;
+        this.sorted = false;
+    }
+
+    private FieldDictionary(final String[] sortedValues) {
+        this.codes = null;
+        this.values = sortedValues;
+        this.size = sortedValues.length;
+        this.sorted = true;
+    }
+
+    /**
+     * Returns the code for the given value, assigning a new code if the value has not been seen before
+     */
+    int encode(final String value) {
+        if (value == null) {
+            return NO_VALUE;
+        }
+        if (sorted) {
+            throw new IllegalStateException("Cannot add values to a sorted dictionary");
+        }
+
+        final Integer existing = codes.get(value);
+        if (existing != null) {
+            return existing;
+        }
+
+        final int code = size;
+        if (code == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+
+        values[code] = value;
+        size = code + 1;
+        codes.put(value, code);
+        return code;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the codes of all values that match the given search value. As with the Lucene index, matching is case-insensitive,
+     * and the search value may contain <code>*</code> and <code>?</code> wildcards.
+     */
+    BitSet findCodes(final String searchValue) {
+        final String value = searchValue.toLowerCase();
+        final BitSet matches = new BitSet();
+
+        if (value.contains("*") || value.contains("?")) {
+            final Pattern pattern = toPattern(value);
+            final int count = size;
+            final String[] currentValues = values;
+            for (int code = 0; code < count; code++) {
+                if (pattern.matcher(currentValues[code]).matches()) {
+                    matches.set(code);
+                }
+            }
+        } else {
+            final int code = lookup(value);
+            if (code != NO_VALUE) {
+                matches.set(code);
+            }
+        }
+
+        return matches;
+    }
+
+    private int lookup(final String value) {
+        if (sorted) {
+            final int index = Arrays.binarySearch(values, 0, size, value);
+            return index < 0 ? NO_VALUE : index;
+        }
+
+        final Integer code = codes.get(value);
+        return code == null ? NO_VALUE : code;
+    }
+
+    private static Pattern toPattern(final String wildcardValue) {
+        final StringBuilder regex = new StringBuilder();
+        final StringBuilder literal = new StringBuilder();
+        for (final char c : wildcardValue.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (!literal.isEmpty()) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+
+        if (!literal.isEmpty()) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    /**
+     * Creates a sorted copy of this dictionary, populating the given array so that <code>codeMapping[oldCode]</code> is the code
+     * of the same value in the sorted dictionary
+     */
+    FieldDictionary sort(final int[] codeMapping) {
+        final String[] currentValues = values;
+        final Integer[] order = new Integer[size];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> currentValues[a].compareTo(currentValues[b]));
+
+        final String[] sortedValues = new String[order.length];
+        for (int newCode = 0; newCode < order.length; newCode++) {
+            sortedValues[newCode] = currentValues[order[newCode]];
+            codeMapping[order[newCode]] = newCode;
+        }
+
+        return new FieldDictionary(sortedValues);
+    }
+
+    void writeTo(final DataOutput out) throws IOException {
+        if (!sorted) {
+            throw new IllegalStateException("Only a sorted dictionary can be persisted");
+        }
+
+        ColumnEncoding.writeVarLong(size, out);
+        for (int code = 0; code < size; code++) {
+            ColumnEncoding.writeString(values[code], out);
+        }
+    }
+
+    static FieldDictionary readFrom(final DataInput in) throws IOException {
+        final int size = (int) ColumnEncoding.readVarLong(in);
+        final String[] values = new String[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = ColumnEncoding.readString(in);
+        }
+
+        return new FieldDictionary(values);
+    }
+}
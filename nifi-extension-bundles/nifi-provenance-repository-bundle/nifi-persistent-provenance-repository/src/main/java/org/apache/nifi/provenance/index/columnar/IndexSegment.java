@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.provenance.index.columnar;
+
+import org.apache.nifi.provenance.SearchableFields;
+import org.apache.nifi.provenance.search.SearchTerm;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <p>
+ * A time partition of the columnar event index. Each row of a segment represents one Provenance Event. The Event ID, Event Time and File Size
+ * of each event are kept as numeric columns. The Component ID, Event Type and FlowFile UUID fields are indexed with a {@link BitmapIndex}, and
+ * all other searchable fields and attributes are kept as a {@link DictionaryColumn}.
+ * </p>
+ *
+ * <p>
+ * A search intersects the rows that match each search term and then scans the Event Time and File Size columns of the remaining rows only,
+ * and only when the query's range does not cover the whole segment.
+ * </p>
+ */
+abstract class IndexSegment {
+    static final String COMPONENT_ID_FIELD = SearchableFields.ComponentID.getSearchableFieldName();
+    static final String EVENT_TYPE_FIELD = SearchableFields.EventType.getSearchableFieldName();
+    static final String FLOWFILE_UUID_FIELD = SearchableFields.FlowFileUUID.getSearchableFieldName();
+    static final List<String> BITMAP_INDEXED_FIELDS = List.of(COMPONENT_ID_FIELD, EVENT_TYPE_FIELD, FLOWFILE_UUID_FIELD);
+
+    private static final Hits NO_HITS = new Hits(new long[0], 0L);
+
+    abstract int getRowCount();
+
+    abstract long getMinEventId();
+
+    abstract long getMaxEventId();
+
+    abstract long getMinEventTime();
+
+    abstract long getMaxEventTime();
+
+    protected abstract long[] getEventIds() throws IOException;
+
+    protected abstract long[] getEventTimes() throws IOException;
+
+    protected abstract long[] getFileSizes() throws IOException;
+
+    /**
+     * Returns the rows less than <code>rowLimit</code> whose value for the given field matches the search value, or an empty set if the field is not indexed
+     */
+    protected abstract BitSet findRows(String fieldName, String searchValue, int rowLimit) throws IOException;
+
+    boolean overlaps(final long startTime, final long endTime) {
+        return getRowCount() > 0 && getMaxEventTime() >= startTime && getMinEventTime() <= endTime;
+    }
+
+    /**
+     * Returns the IDs of the most recent events that match all of the given search terms and fall within the given time and file size ranges
+     */
+    Hits search(final List<SearchTerm> searchTerms, final long startTime, final long endTime, final long minFileSize, final long maxFileSize,
+                final int maxResults) throws IOException {
+        final int rowCount = getRowCount();
+        final BitSet rows = new BitSet(rowCount);
+        rows.set(0, rowCount);
+
+        for (final SearchTerm searchTerm : searchTerms) {
+            final BitSet termRows = findRows(searchTerm.getSearchableField().getSearchableFieldName(), searchTerm.getValue(), rowCount);
+            if (Boolean.TRUE.equals(searchTerm.isInverted())) {
+                rows.andNot(termRows);
+            } else {
+                rows.and(termRows);
+            }
+
+            if (rows.isEmpty()) {
+                return NO_HITS;
+            }
+        }
+
+        return collect(rows, startTime, endTime, minFileSize, maxFileSize, maxResults, true);
+    }
+
+    /**
+     * Returns the IDs of the oldest events within the given time range that reference any of the given FlowFile UUIDs
+     */
+    Hits searchLineage(final Collection<String> flowFileUuids, final long startTime, final long endTime, final int maxResults) throws IOException {
+        final int rowCount = getRowCount();
+        final BitSet rows = new BitSet();
+        for (final String flowFileUuid : flowFileUuids) {
+            rows.or(findRows(FLOWFILE_UUID_FIELD, flowFileUuid, rowCount));
+        }
+
+        if (rows.isEmpty()) {
+            return NO_HITS;
+        }
+
+        return collect(rows, startTime, endTime, 0L, Long.MAX_VALUE, maxResults, false);
+    }
+
+    private Hits collect(final BitSet rows, final long startTime, final long endTime, final long minFileSize, final long maxFileSize,
+                         final int maxResults, final boolean newestFirst) throws IOException {
+        final boolean filterTime = startTime > getMinEventTime() || endTime < getMaxEventTime();
+        final boolean filterSize = minFileSize > 0L || maxFileSize < Long.MAX_VALUE;
+
+        final long[] eventIds = getEventIds();
+        final long[] eventTimes = filterTime ? getEventTimes() : null;
+        final long[] fileSizes = filterSize ? getFileSizes() : null;
+
+        final long[] matches = new long[rows.cardinality()];
+        int matchCount = 0;
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            if (filterTime && (eventTimes[row] < startTime || eventTimes[row] > endTime)) {
+                continue;
+            }
+            if (filterSize && (fileSizes[row] < minFileSize || fileSizes[row] > maxFileSize)) {
+                continue;
+            }
+
+            matches[matchCount++] = eventIds[row];
+        }
+
+        return new Hits(selectEventIds(matches, matchCount, maxResults, newestFirst), matchCount);
+    }
+
+    /**
+     * Sorts the first <code>count</code> Event IDs and returns up to <code>maxResults</code> of the newest or oldest of them
+     */
+    static long[] selectEventIds(final long[] eventIds, final int count, final int maxResults, final boolean newestFirst) {
+        Arrays.sort(eventIds, 0, count);
+
+        final int resultCount = Math.min(count, maxResults);
+        if (!newestFirst) {
+            return Arrays.copyOf(eventIds, resultCount);
+        }
+
+        final long[] selected = new long[resultCount];
+        for (int i = 0; i < resultCount; i++) {
+            selected[i] = eventIds[count - 1 - i];
+        }
+        return selected;
+    }
+
+    /**
+     * The Event IDs that were selected by a search, along with the total number of events that matched
+     */
+    record Hits(long[] eventIds, long totalHits) {
+    }
+}
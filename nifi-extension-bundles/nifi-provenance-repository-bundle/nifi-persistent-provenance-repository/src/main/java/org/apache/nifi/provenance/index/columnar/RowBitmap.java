@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.provenance.index.columnar;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * <p>
+ * The set of rows in an index segment that hold a particular value. Rows must be added in ascending order.
+ * </p>
+ *
+ * <p>
+ * Most values, such as a FlowFile UUID, are found in only a handful of rows, so the rows are kept as a sorted array
+ * until the array would take more space than a bitmap that spans the same rows, at which point the rows are kept as the words of a bitmap instead.
+ * </p>
+ *
+ * <p>
+ * Rows are added by one thread at a time while other threads may read the bitmap. Arrays are replaced only by larger copies and are
+ * published through volatile fields, so a reader that ignores the rows that were added after it started always sees a consistent set of rows.
+ * </p>
+ */
+final class RowBitmap {
+    private static final int INITIAL_CAPACITY = 2;
+
+    private volatile int[] rows;
+    private volatile long[] words;
+    private volatile int cardinality;
+    private int lastRow = -1;
+
+    RowBitmap() {
+        rows = new int[INITIAL_CAPACITY];
+    }
+
+    private RowBitmap(final int[] rows, final long[] words, final int cardinality, final int lastRow) {
+        this.rows = rows;
+        this.words = words;
+        this.cardinality = cardinality;
+        this.lastRow = lastRow;
+    }
+
+    void add(final int row) {
+        // A value may be added for the same row more than once, such as when a FORK event lists the same child twice
+        if (row <= lastRow) {
+            return;
+        }
+
+        lastRow = row;
+        final int count = cardinality;
+
+        if (words != null) {
+            setBit(row);
+            cardinality = count + 1;
+            return;
+        }
+
+        int[] currentRows = rows;
+        if (count == currentRows.length) {
+            if ((long) (count + 1) * Integer.SIZE > row) {
+                final long[] denseWords = new long[row / Long.SIZE + 1];
+                for (int i = 0; i < count; i++) {
+                    denseWords[currentRows[i] / Long.SIZE] |= 1L << currentRows[i];
+                }
+                denseWords[row / Long.SIZE] |= 1L << row;
+
+                // Readers that find no rows array use the words, so the words must be published first
+                words = denseWords;
+                rows = null;
+                cardinality = count + 1;
+                return;
+            }
+
+            currentRows = Arrays.copyOf(currentRows, currentRows.length * 2);
+            rows = currentRows;
+        }
+
+        currentRows[count] = row;
+        cardinality = count + 1;
+    }
+
+    private void setBit(final int row) {
+        final int wordIndex = row / Long.SIZE;
+        long[] currentWords = words;
+        if (wordIndex >= currentWords.length) {
+            currentWords = Arrays.copyOf(currentWords, Math.max(wordIndex + 1, currentWords.length * 2));
+            words = currentWords;
+        }
+
+        currentWords[wordIndex] |= 1L << row;
+    }
+
+    int getCardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Sets the bit of each row in this bitmap that is less than <code>rowLimit</code> on the given {@link BitSet}
+     */
+    void orInto(final BitSet target, final int rowLimit) {
+        final int count = cardinality;
+        final int[] sparseRows = rows;
+        if (sparseRows != null) {
+            final int end = Math.min(count, sparseRows.length);
+            for (int i = 0; i < end && sparseRows[i] < rowLimit; i++) {
+                target.set(sparseRows[i]);
+            }
+            return;
+        }
+
+        final long[] denseWords = words;
+        final int wordCount = Math.min(denseWords.length, (rowLimit + Long.SIZE - 1) / Long.SIZE);
+        final long[] limitedWords = Arrays.copyOf(denseWords, wordCount);
+        if (wordCount > 0 && (long) wordCount * Long.SIZE > rowLimit) {
+            limitedWords[wordCount - 1] &= (1L << (rowLimit % Long.SIZE)) - 1;
+        }
+
+        target.or(BitSet.valueOf(limitedWords));
+    }
+
+    void writeTo(final DataOutput out) throws IOException {
+        ColumnEncoding.writeVarLong(cardinality, out);
+        final long[] denseWords = words;
+        out.writeBoolean(denseWords != null);
+
+        if (denseWords == null) {
+            final int[] sparseRows = rows;
+            int previous = 0;
+            for (int i = 0; i < cardinality; i++) {
+                ColumnEncoding.writeVarLong(sparseRows[i] - previous, out);
+                previous = sparseRows[i];
+            }
+        } else {
+            // Trailing words without any rows are omitted, as they are by BitSet.toLongArray()
+            int wordCount = denseWords.length;
+            while (wordCount > 0 && denseWords[wordCount - 1] == 0L) {
+                wordCount--;
+            }
+
+            ColumnEncoding.writeVarLong(wordCount, out);
+            for (int i = 0; i < wordCount; i++) {
+                out.writeLong(denseWords[i]);
+            }
+        }
+    }
+
+    static RowBitmap readFrom(final DataInput in) throws IOException {
+        final int cardinality = (int) ColumnEncoding.readVarLong(in);
+        final boolean dense = in.readBoolean();
+
+        if (dense) {
+            final long[] words = new long[(int) ColumnEncoding.readVarLong(in)];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = in.readLong();
+            }
+
+            return new RowBitmap(null, words, cardinality, BitSet.valueOf(words).length() - 1);
+        }
+
+        final int[] rows = new int[Math.max(cardinality, 1)];
+        int previous = 0;
+        for (int i = 0; i < cardinality; i++) {
+            previous += (int) ColumnEncoding.readVarLong(in);
+            rows[i] = previous;
+        }
+
+        return new RowBitmap(rows, null, cardinality, cardinality == 0 ? -1 : rows[cardinality - 1]);
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.provenance.index.columnar;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.ref.SoftReference;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>
+ * A segment that has been written to disk by {@link ActiveSegment#writeTo(File)}. The file begins with a header that holds the range of
+ * Event IDs and Event Times in the segment, followed by a table of the offset of each column and index. Only the header is read when the
+ * segment is opened; each column or index is read the first time that a search needs it.
+ * </p>
+ *
+ * <p>
+ * Loaded columns are held by soft references, so that the columns of frequently searched segments stay in memory without
+ * preventing the JVM from reclaiming them when heap is needed.
+ * </p>
+ */
+final class SealedSegment extends IndexSegment {
+    static final int ENCODING_VERSION = 1;
+    static final String SEGMENT_FILE_SUFFIX = ".segment";
+    static final String PARTIAL_FILE_SUFFIX = ".partial";
+
+    static final String EVENT_IDS_SECTION = "eventIds";
+    static final String EVENT_TIMES_SECTION = "eventTimes";
+    static final String FILE_SIZES_SECTION = "fileSizes";
+    static final String BITMAP_SECTION_PREFIX = "bitmap.";
+    static final String COLUMN_SECTION_PREFIX = "column.";
+
+    private final File file;
+    private final int rowCount;
+    private final long minEventId;
+    private final long maxEventId;
+    private final long minEventTime;
+    private final long maxEventTime;
+    private final Map<String, Section> sections;
+    private final long dataOffset;
+    private final ConcurrentMap<String, SoftReference<Object>> loadedSections = new ConcurrentHashMap<>();
+
+    private SealedSegment(final File file, final int rowCount, final long minEventId, final long maxEventId, final long minEventTime, final long maxEventTime,
+                          final Map<String, Section> sections, final long dataOffset) {
+        this.file = file;
+        this.rowCount = rowCount;
+        this.minEventId = minEventId;
+        this.maxEventId = maxEventId;
+        this.minEventTime = minEventTime;
+        this.maxEventTime = maxEventTime;
+        this.sections = sections;
+        this.dataOffset = dataOffset;
+    }
+
+    static SealedSegment open(final File file) throws IOException {
+        try (final RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            final int encodingVersion = raf.readInt();
+            if (encodingVersion != ENCODING_VERSION) {
+                throw new IOException("Cannot read Index Segment " + file + " because it was written with encoding version " + encodingVersion
+                    + " but only version " + ENCODING_VERSION + " is supported");
+            }
+
+            final int rowCount = raf.readInt();
+            final long minEventId = raf.readLong();
+            final long maxEventId = raf.readLong();
+            final long minEventTime = raf.readLong();
+            final long maxEventTime = raf.readLong();
+
+            final int sectionCount = raf.readInt();
+            final Map<String, Section> sections = new HashMap<>();
+            for (int i = 0; i < sectionCount; i++) {
+                final String name = raf.readUTF();
+                final long offset = raf.readLong();
+                final int length = raf.readInt();
+                sections.put(name, new Section(offset, length));
+            }
+
+            return new SealedSegment(file, rowCount, minEventId, maxEventId, minEventTime, maxEventTime, sections, raf.getFilePointer());
+        }
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    @Override
+    int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    long getMinEventId() {
+        return minEventId;
+    }
+
+    @Override
+    long getMaxEventId() {
+        return maxEventId;
+    }
+
+    @Override
+    long getMinEventTime() {
+        return minEventTime;
+    }
+
+    @Override
+    long getMaxEventTime() {
+        return maxEventTime;
+    }
+
+    @Override
+    protected long[] getEventIds() throws IOException {
+        return getSection(EVENT_IDS_SECTION, in -> ColumnEncoding.readLongColumn(in, rowCount));
+    }
+
+    @Override
+    protected long[] getEventTimes() throws IOException {
+        return getSection(EVENT_TIMES_SECTION, in -> ColumnEncoding.readLongColumn(in, rowCount));
+    }
+
+    @Override
+    protected long[] getFileSizes() throws IOException {
+        return getSection(FILE_SIZES_SECTION, in -> ColumnEncoding.readLongColumn(in, rowCount));
+    }
+
+    @Override
+    protected BitSet findRows(final String fieldName, final String searchValue, final int rowLimit) throws IOException {
+        final BitmapIndex bitmapIndex = getSection(BITMAP_SECTION_PREFIX + fieldName, BitmapIndex::readFrom);
+        if (bitmapIndex != null) {
+            return bitmapIndex.findRows(searchValue, rowLimit);
+        }
+
+        final DictionaryColumn column = getSection(COLUMN_SECTION_PREFIX + fieldName, in -> DictionaryColumn.readFrom(in, rowCount));
+        if (column != null) {
+            return column.findRows(searchValue, rowLimit);
+        }
+
+        return new BitSet();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T getSection(final String name, final SectionReader<T> reader) throws IOException {
+        final Section section = sections.get(name);
+        if (section == null) {
+            return null;
+        }
+
+        final SoftReference<Object> reference = loadedSections.get(name);
+        final Object loaded = reference == null ? null : reference.get();
+        if (loaded != null) {
+            return (T) loaded;
+        }
+
+        final byte[] bytes = new byte[section.length()];
+        try (final RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(dataOffset + section.offset());
+            raf.readFully(bytes);
+        }
+
+        final T value = reader.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+        loadedSections.put(name, new SoftReference<>(value));
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "SealedSegment[file=" + file + ", events=" + rowCount + ", minEventId=" + minEventId + ", maxEventId=" + maxEventId + "]";
+    }
+
+    private interface SectionReader<T> {
+        T read(DataInput in) throws IOException;
+    }
+
+    private record Section(long offset, int length) {
+    }
+}
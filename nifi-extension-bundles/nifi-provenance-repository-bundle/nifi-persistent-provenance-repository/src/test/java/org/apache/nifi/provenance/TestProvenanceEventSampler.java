@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.provenance;
+
+import org.apache.nifi.util.NiFiProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestProvenanceEventSampler {
+
+    @Test
+    public void testSampledEventTypesAreDiscarded() {
+        final ProvenanceEventSampler sampler = new ProvenanceEventSampler(Map.of(ProvenanceEventType.ROUTE, 4));
+        assertTrue(sampler.isEnabled());
+
+        final List<ProvenanceEventRecord> events = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            events.add(createEvent(ProvenanceEventType.ROUTE, "component-" + (i % 2)));
+            events.add(createEvent(ProvenanceEventType.CONTENT_MODIFIED, "component-1"));
+        }
+
+        final List<ProvenanceEventRecord> retained = sampler.sample(events);
+        assertEquals(3, retained.stream().filter(event -> event.getEventType() == ProvenanceEventType.ROUTE).count());
+        assertEquals(10, retained.stream().filter(event -> event.getEventType() == ProvenanceEventType.CONTENT_MODIFIED).count());
+
+        final Map<String, Map<ProvenanceEventType, Long>> discardedCounts = sampler.drainDiscardedCounts();
+        final long discardedRouteEvents = discardedCounts.values().stream().mapToLong(counts -> counts.getOrDefault(ProvenanceEventType.ROUTE, 0L)).sum();
+        assertEquals(7L, discardedRouteEvents);
+        assertFalse(discardedCounts.values().stream().anyMatch(counts -> counts.containsKey(ProvenanceEventType.CONTENT_MODIFIED)));
+
+        // Counts are reset once they have been drained
+        assertTrue(sampler.drainDiscardedCounts().isEmpty());
+
+        // The running totals are not reset by draining
+        assertEquals(Map.of(ProvenanceEventType.ROUTE, 7L), sampler.getTotalDiscardedCounts());
+    }
+
+    @Test
+    public void testDiscardedCountsAfterDrain() {
+        final ProvenanceEventSampler sampler = new ProvenanceEventSampler(Map.of(ProvenanceEventType.ROUTE, 2));
+
+        sampler.sample(List.of(createEvent(ProvenanceEventType.ROUTE, "component-1"), createEvent(ProvenanceEventType.ROUTE, "component-1")));
+        assertEquals(Map.of("component-1", Map.of(ProvenanceEventType.ROUTE, 1L)), sampler.drainDiscardedCounts());
+
+        // Only components that discarded events since the last drain are reported
+        sampler.sample(List.of(createEvent(ProvenanceEventType.ROUTE, "component-2"), createEvent(ProvenanceEventType.ROUTE, "component-2")));
+        assertEquals(Map.of("component-2", Map.of(ProvenanceEventType.ROUTE, 1L)), sampler.drainDiscardedCounts());
+
+        assertEquals(Map.of(ProvenanceEventType.ROUTE, 2L), sampler.getTotalDiscardedCounts());
+    }
+
+    @Test
+    public void testLineageEventTypesAreNeverSampled() {
+        final ProvenanceEventSampler sampler = new ProvenanceEventSampler(Map.of(ProvenanceEventType.DROP, 10, ProvenanceEventType.ATTRIBUTES_MODIFIED, 1));
+        assertFalse(sampler.isEnabled());
+
+        final RepositoryConfiguration config = new RepositoryConfiguration();
+        assertThrows(IllegalArgumentException.class, () -> config.setSamplingRate(ProvenanceEventType.SEND, 10));
+        assertThrows(IllegalArgumentException.class, () -> config.setSamplingRate(ProvenanceEventType.ROUTE, 0));
+    }
+
+    @Test
+    public void testSamplingRatesFromProperties() {
+        final NiFiProperties properties = NiFiProperties.createBasicNiFiProperties(null, Map.of(
+            RepositoryConfiguration.SAMPLING_RATE_PREFIX + "ROUTE", "10",
+            RepositoryConfiguration.SAMPLING_RATE_PREFIX + "attributes_modified", "5",
+            RepositoryConfiguration.SAMPLING_RATE_PREFIX + "CONTENT_MODIFIED", "1"));
+
+        final RepositoryConfiguration config = RepositoryConfiguration.create(properties);
+        assertEquals(Map.of(ProvenanceEventType.ROUTE, 10, ProvenanceEventType.ATTRIBUTES_MODIFIED, 5), config.getSamplingRates());
+
+        final NiFiProperties invalidProperties = NiFiProperties.createBasicNiFiProperties(null, Map.of(RepositoryConfiguration.SAMPLING_RATE_PREFIX + "ROUTED", "10"));
+        assertThrows(IllegalArgumentException.class, () -> RepositoryConfiguration.create(invalidProperties));
+    }
+
+    private ProvenanceEventRecord createEvent(final ProvenanceEventType eventType, final String componentId) {
+        final String uuid = UUID.randomUUID().toString();
+        final StandardProvenanceEventRecord.Builder builder = new StandardProvenanceEventRecord.Builder()
+            .setEventType(eventType)
+            .setAttributes(Map.of("uuid", uuid), Map.of())
+            .setComponentId(componentId)
+            .setComponentType("unit test")
+            .setEventTime(System.currentTimeMillis())
+            .setFlowFileEntryDate(System.currentTimeMillis())
+            .setFlowFileUUID(uuid)
+            .setLineageStartDate(System.currentTimeMillis())
+            .setCurrentContentClaim("container", "section", "unit-test-id", 0L, 1024L);
+
+        if (eventType == ProvenanceEventType.ROUTE) {
+            builder.setRelationship("success");
+        }
+
+        return builder.build();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.SearchableFields;
+import org.apache.nifi.provenance.StandardProvenanceEventRecord;
+import org.apache.nifi.provenance.search.SearchTerm;
+import org.apache.nifi.provenance.search.SearchTerms;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(value = 60)
+public class TestActiveSegment {
+    private static final long START_TIME = 1_700_000_000_000L;
+
+    @Test
+    public void testSearchDoesNotWaitForAdd() throws Exception {
+        final ActiveSegment segment = new ActiveSegment(List.of(SearchableFields.ComponentID, SearchableFields.TransitURI));
+        segment.add(createEvent(0L, "component-1"), 0L);
+
+        final List<SearchTerm> searchTerms = List.of(SearchTerms.newSearchTerm(SearchableFields.ComponentID, "component-1", null));
+
+        // Holding the monitor that add() holds simulates a session commit that is adding an event
+        synchronized (segment) {
+            final IndexSegment.Hits hits = CompletableFuture.supplyAsync(() -> search(segment, searchTerms)).get(15, TimeUnit.SECONDS);
+            assertEquals(1L, hits.totalHits());
+        }
+    }
+
+    @Test
+    public void testSearchSeesOnlyAddedEvents() throws Exception {
+        final ActiveSegment segment = new ActiveSegment(List.of(SearchableFields.ComponentID, SearchableFields.TransitURI));
+        final int eventCount = 50_000;
+
+        final CompletableFuture<Void> added = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < eventCount; i++) {
+                segment.add(createEvent(i, "component-" + (i % 2)), i);
+            }
+        });
+
+        final List<SearchTerm> componentTerms = List.of(SearchTerms.newSearchTerm(SearchableFields.ComponentID, "component-0", null));
+        final List<SearchTerm> transitUriTerms = List.of(SearchTerms.newSearchTerm(SearchableFields.TransitURI, "nifi://host/component-0", null));
+
+        long previousHits = 0L;
+        while (!added.isDone()) {
+            // Both component-0 searches must find a consistent set of rows, each of which is a fully added event
+            for (final List<SearchTerm> searchTerms : List.of(componentTerms, transitUriTerms)) {
+                final IndexSegment.Hits hits = search(segment, searchTerms);
+                assertTrue(hits.totalHits() >= previousHits);
+                if (hits.totalHits() > 0) {
+                    assertEquals(2 * (hits.totalHits() - 1), hits.eventIds()[0]);
+                }
+                previousHits = hits.totalHits();
+            }
+        }
+
+        added.get();
+        assertEquals(eventCount / 2, search(segment, componentTerms).totalHits());
+        assertEquals(eventCount / 2, search(segment, transitUriTerms).totalHits());
+    }
+
+    private static IndexSegment.Hits search(final ActiveSegment segment, final List<SearchTerm> searchTerms) {
+        try {
+            return segment.search(searchTerms, 0L, Long.MAX_VALUE, 0L, Long.MAX_VALUE, 1);
+        } catch (final Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static ProvenanceEventRecord createEvent(final long offset, final String componentId) {
+        final String uuid = UUID.randomUUID().toString();
+        return new StandardProvenanceEventRecord.Builder()
+            .setEventType(ProvenanceEventType.SEND)
+            .setAttributes(Map.of("uuid", uuid), Map.of())
+            .setComponentId(componentId)
+            .setComponentType("unit test")
+            .setEventTime(START_TIME + offset)
+            .setFlowFileEntryDate(START_TIME)
+            .setFlowFileUUID(uuid)
+            .setLineageStartDate(START_TIME)
+            .setTransitUri("nifi://host/" + componentId)
+            .setCurrentContentClaim("container", "section", "unit-test-id", 0L, 1024L)
+            .build();
+    }
+}
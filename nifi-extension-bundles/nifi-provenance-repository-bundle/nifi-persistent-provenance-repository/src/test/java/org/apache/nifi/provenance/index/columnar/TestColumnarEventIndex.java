@@ -0,0 +1,354 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.provenance.index.columnar;
+
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.RepositoryConfiguration;
+import org.apache.nifi.provenance.SearchableFields;
+import org.apache.nifi.provenance.StandardProvenanceEventRecord;
+import org.apache.nifi.provenance.authorization.EventAuthorizer;
+import org.apache.nifi.provenance.lineage.ComputeLineageSubmission;
+import org.apache.nifi.provenance.lineage.LineageNode;
+import org.apache.nifi.provenance.lineage.LineageNodeType;
+import org.apache.nifi.provenance.lineage.ProvenanceEventLineageNode;
+import org.apache.nifi.provenance.search.Query;
+import org.apache.nifi.provenance.search.QueryResult;
+import org.apache.nifi.provenance.search.SearchTerms;
+import org.apache.nifi.provenance.search.SearchableField;
+import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.apache.nifi.provenance.store.ArrayListEventStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(value = 60)
+public class TestColumnarEventIndex {
+    private static final long START_TIME = 1_700_000_000_000L;
+
+    private final AtomicLong idGenerator = new AtomicLong(0L);
+    private RepositoryConfiguration config;
+    private ArrayListEventStore eventStore;
+
+    @BeforeEach
+    public void setup() {
+        idGenerator.set(0L);
+        eventStore = new ArrayListEventStore();
+
+        config = new RepositoryConfiguration();
+        config.addStorageDirectory("1", new File("target/storage/" + getClass().getSimpleName() + "/" + UUID.randomUUID()));
+        config.setSearchableFields(List.of(SearchableFields.FlowFileUUID, SearchableFields.ComponentID, SearchableFields.EventType, SearchableFields.TransitURI));
+        config.setSearchableAttributes(List.of(SearchableFields.newSearchableAttribute("updated")));
+        config.setMaxEventFileLife(1, TimeUnit.HOURS);
+    }
+
+    @Test
+    public void testQueryByComponentAndTimeRange() throws IOException, InterruptedException, ExecutionException {
+        final ColumnarEventIndex index = new ColumnarEventIndex(config, 10, EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        for (int i = 0; i < 35; i++) {
+            addEvent(index, createEvent(START_TIME + i * 1000L, UUID.randomUUID().toString(), "component-" + (i % 3), ProvenanceEventType.CONTENT_MODIFIED));
+        }
+
+        // Events are spread across three sealed segments and the active segment
+        index.awaitSealedSegments();
+        assertEquals(3, getSegmentFiles().length);
+
+        final Query query = new Query(UUID.randomUUID().toString());
+        query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.ComponentID, "COMPONENT-1", null));
+        query.setStartDate(new Date(START_TIME + 5_000L));
+        query.setEndDate(new Date(START_TIME + 25_000L));
+        query.setMaxResults(100);
+
+        final List<ProvenanceEventRecord> events = submitQuery(index, query);
+        final List<Long> eventTimes = events.stream().map(ProvenanceEventRecord::getEventTime).sorted().collect(Collectors.toList());
+        final List<Long> expectedTimes = List.of(7_000L, 10_000L, 13_000L, 16_000L, 19_000L, 22_000L, 25_000L).stream()
+            .map(offset -> START_TIME + offset)
+            .collect(Collectors.toList());
+        assertEquals(expectedTimes, eventTimes);
+
+        index.close();
+    }
+
+    @Test
+    public void testQueryReturnsMostRecentEvents() throws IOException, InterruptedException {
+        final ColumnarEventIndex index = new ColumnarEventIndex(config, 10, EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        for (int i = 0; i < 35; i++) {
+            addEvent(index, createEvent(START_TIME + i, UUID.randomUUID().toString(), "component-1", ProvenanceEventType.CONTENT_MODIFIED));
+        }
+
+        final Query query = new Query(UUID.randomUUID().toString());
+        query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.ComponentID, "component-1", null));
+        // A start date prevents the query from being answered by the cached latest events of the component
+        query.setStartDate(new Date(START_TIME));
+        query.setMaxResults(5);
+
+        final QueryResult result = index.submitQuery(query, EventAuthorizer.GRANT_ALL, "unit test user").getResult();
+        assertTrue(result.awaitCompletion(15, TimeUnit.SECONDS));
+        assertNull(result.getError());
+        assertEquals(5, result.getMatchingEvents().size());
+
+        final List<Long> eventIds = result.getMatchingEvents().stream().map(ProvenanceEventRecord::getEventId).sorted().collect(Collectors.toList());
+        assertEquals(List.of(30L, 31L, 32L, 33L, 34L), eventIds);
+
+        index.close();
+    }
+
+    @Test
+    public void testQueryWithWildcardsAndInvertedTerms() throws IOException, InterruptedException {
+        final ColumnarEventIndex index = new ColumnarEventIndex(config, 4, EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        final ProvenanceEventRecord receive = createEvent(START_TIME, "11111111-1111-1111-1111-111111111111", "component-1", ProvenanceEventType.RECEIVE);
+        final ProvenanceEventRecord send = createEvent(START_TIME + 1, "22222222-2222-2222-2222-222222222222", "component-2", ProvenanceEventType.SEND);
+        final ProvenanceEventRecord drop = createEvent(START_TIME + 2, "33333333-3333-3333-3333-333333333333", "component-2", ProvenanceEventType.DROP);
+        for (final ProvenanceEventRecord event : List.of(receive, send, drop)) {
+            addEvent(index, event);
+        }
+        for (int i = 0; i < 10; i++) {
+            addEvent(index, createEvent(START_TIME + 3 + i, UUID.randomUUID().toString(), "other", ProvenanceEventType.ATTRIBUTES_MODIFIED));
+        }
+
+        final Query wildcardQuery = new Query(UUID.randomUUID().toString());
+        wildcardQuery.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.TransitURI, "nifi://host/component-?", null));
+        assertEquals(3, submitQuery(index, wildcardQuery).size());
+
+        final Query invertedQuery = new Query(UUID.randomUUID().toString());
+        invertedQuery.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.ComponentID, "component-2", null));
+        invertedQuery.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.EventType, "DROP", Boolean.TRUE));
+        assertEquals(List.of(send), submitQuery(index, invertedQuery));
+
+        final Query attributeQuery = new Query(UUID.randomUUID().toString());
+        attributeQuery.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.newSearchableAttribute("updated"), "true", null));
+        attributeQuery.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.FlowFileUUID, receive.getFlowFileUuid(), null));
+        assertEquals(List.of(receive), submitQuery(index, attributeQuery));
+
+        final Query unindexedQuery = new Query(UUID.randomUUID().toString());
+        unindexedQuery.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.Details, "*", null));
+        assertTrue(submitQuery(index, unindexedQuery).isEmpty());
+
+        index.close();
+    }
+
+    @Test
+    public void testLineageIncludesChildEvents() throws IOException, InterruptedException {
+        final ColumnarEventIndex index = new ColumnarEventIndex(config, 2, EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        final String parentUuid = UUID.randomUUID().toString();
+        final String childUuid = UUID.randomUUID().toString();
+        addEvent(index, createEvent(START_TIME, parentUuid, "component-1", ProvenanceEventType.CREATE));
+
+        final ProvenanceEventRecord fork = new StandardProvenanceEventRecord.Builder()
+            .setEventType(ProvenanceEventType.FORK)
+            .setAttributes(Map.of("uuid", parentUuid), Map.of())
+            .addParentUuid(parentUuid)
+            .addChildFlowFile(childUuid)
+            .setComponentId("component-1")
+            .setComponentType("unit test")
+            .setEventId(idGenerator.getAndIncrement())
+            .setEventTime(START_TIME + 1)
+            .setFlowFileEntryDate(START_TIME)
+            .setFlowFileUUID(parentUuid)
+            .setLineageStartDate(START_TIME)
+            .setCurrentContentClaim("container", "section", "unit-test-id", 0L, 1024L)
+            .build();
+        addEvent(index, fork);
+
+        addEvent(index, createEvent(START_TIME + 2, childUuid, "component-2", ProvenanceEventType.CONTENT_MODIFIED));
+        addEvent(index, createEvent(START_TIME + 3, UUID.randomUUID().toString(), "component-2", ProvenanceEventType.CONTENT_MODIFIED));
+
+        final ComputeLineageSubmission submission = index.submitLineageComputation(childUuid, null, EventAuthorizer.DENY_ALL);
+        assertTrue(submission.getResult().awaitCompletion(15, TimeUnit.SECONDS));
+        assertNull(submission.getResult().getError());
+
+        final List<LineageNode> eventNodes = submission.getResult().getNodes().stream()
+            .filter(node -> node.getNodeType() == LineageNodeType.PROVENANCE_EVENT_NODE)
+            .collect(Collectors.toList());
+        assertEquals(2, eventNodes.size());
+
+        // Unauthorized events are returned as placeholders
+        for (final LineageNode node : eventNodes) {
+            assertEquals(ProvenanceEventType.UNKNOWN, ((ProvenanceEventLineageNode) node).getEventType());
+        }
+
+        index.close();
+    }
+
+    @Test
+    public void testReindexAfterRestartSkipsPersistedEvents() throws IOException, InterruptedException, ExecutionException {
+        final ColumnarEventIndex index = new ColumnarEventIndex(config, 10, EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        final Map<ProvenanceEventRecord, StorageSummary> allEvents = new LinkedHashMap<>();
+        for (int i = 0; i < 25; i++) {
+            allEvents.putAll(addEvent(index, createEvent(START_TIME + i, UUID.randomUUID().toString(), "component-1", ProvenanceEventType.CONTENT_MODIFIED)));
+        }
+
+        index.awaitSealedSegments();
+
+        // Simulate a restart without the index being closed, so that the events in the active segment are lost
+        final ColumnarEventIndex restartedIndex = new ColumnarEventIndex(config, 10, EventReporter.NO_OP);
+        restartedIndex.initialize(eventStore);
+        assertEquals(0L, restartedIndex.getMinimumEventIdToReindex("1"));
+
+        restartedIndex.reindexEvents(allEvents);
+        restartedIndex.commitChanges("1");
+        restartedIndex.awaitSealedSegments();
+        assertEquals(3, getSegmentFiles().length);
+
+        final Query query = new Query(UUID.randomUUID().toString());
+        query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.ComponentID, "component-1", null));
+        query.setMaxResults(100);
+        final List<ProvenanceEventRecord> events = submitQuery(restartedIndex, query);
+        assertEquals(25, events.size());
+        assertEquals(25, events.stream().map(ProvenanceEventRecord::getEventId).distinct().count());
+
+        restartedIndex.close();
+        index.close();
+    }
+
+    @Test
+    public void testReindexNecessaryOnlyWhenEventsNotPersisted() throws IOException, InterruptedException, ExecutionException {
+        final ColumnarEventIndex index = new ColumnarEventIndex(config, 10, EventReporter.NO_OP);
+        index.initialize(eventStore);
+        assertFalse(index.isReindexNecessary());
+
+        for (int i = 0; i < 25; i++) {
+            addEvent(index, createEvent(START_TIME + i, UUID.randomUUID().toString(), "component-1", ProvenanceEventType.CONTENT_MODIFIED));
+        }
+        index.awaitSealedSegments();
+
+        // The events of the active segment were not written to disk
+        final ColumnarEventIndex crashedIndex = new ColumnarEventIndex(config, 10, EventReporter.NO_OP);
+        crashedIndex.initialize(eventStore);
+        assertTrue(crashedIndex.isReindexNecessary());
+        crashedIndex.close();
+
+        // Closing the index writes the active segment, so every event in the store is persisted
+        index.close();
+        final ColumnarEventIndex restartedIndex = new ColumnarEventIndex(config, 10, EventReporter.NO_OP);
+        restartedIndex.initialize(eventStore);
+        assertFalse(restartedIndex.isReindexNecessary());
+        restartedIndex.close();
+    }
+
+    @Test
+    public void testRetrieveUnknownSubmission() throws IOException {
+        final ColumnarEventIndex index = new ColumnarEventIndex(config, 10, EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        assertNull(index.retrieveQuerySubmission(UUID.randomUUID().toString(), null));
+        assertNull(index.retrieveLineageSubmission(UUID.randomUUID().toString(), null));
+        index.close();
+    }
+
+    @Test
+    public void testExpiredSegmentsRemoved() throws IOException {
+        final ColumnarEventIndex index = new ColumnarEventIndex(config, 10, EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        for (int i = 0; i < 20; i++) {
+            addEvent(index, createEvent(START_TIME + i, UUID.randomUUID().toString(), "component-1", ProvenanceEventType.CONTENT_MODIFIED));
+        }
+        index.close();
+        assertEquals(2, getSegmentFiles().length);
+        final long sizeBeforeMaintenance = index.getSize();
+        assertTrue(sizeBeforeMaintenance > 0);
+
+        // Age off the events of the first segment from the store
+        final ArrayListEventStore agedOffStore = new ArrayListEventStore();
+        for (int i = 0; i < 10; i++) {
+            agedOffStore.addEvent(createEvent(START_TIME + 10 + i, UUID.randomUUID().toString(), "component-1", ProvenanceEventType.CONTENT_MODIFIED));
+        }
+
+        final ColumnarEventIndex restartedIndex = new ColumnarEventIndex(config, 10, EventReporter.NO_OP);
+        restartedIndex.initialize(agedOffStore);
+        restartedIndex.performMaintenance();
+
+        assertEquals(1, getSegmentFiles().length);
+        assertTrue(restartedIndex.getSize() < sizeBeforeMaintenance);
+        restartedIndex.close();
+    }
+
+    private Map<ProvenanceEventRecord, StorageSummary> addEvent(final ColumnarEventIndex index, final ProvenanceEventRecord event) {
+        final Map<ProvenanceEventRecord, StorageSummary> storageLocations = eventStore.addEvent(event).getStorageLocations();
+        index.addEvents(storageLocations);
+        return storageLocations;
+    }
+
+    private List<ProvenanceEventRecord> submitQuery(final ColumnarEventIndex index, final Query query) throws InterruptedException {
+        final QueryResult result = index.submitQuery(query, EventAuthorizer.GRANT_ALL, "unit test user").getResult();
+        assertTrue(result.awaitCompletion(15, TimeUnit.SECONDS));
+        assertNull(result.getError());
+        return new ArrayList<>(result.getMatchingEvents());
+    }
+
+    private File[] getSegmentFiles() {
+        final File indexDirectory = new File(config.getStorageDirectories().get("1"), ColumnarEventIndex.INDEX_DIRECTORY_NAME);
+        return indexDirectory.listFiles((dir, name) -> name.endsWith(SealedSegment.SEGMENT_FILE_SUFFIX));
+    }
+
+    private ProvenanceEventRecord createEvent(final long timestamp, final String uuid, final String componentId, final ProvenanceEventType eventType) {
+        final Map<String, String> previousAttributes = new HashMap<>();
+        previousAttributes.put("uuid", uuid);
+        final Map<String, String> updatedAttributes = new HashMap<>();
+        updatedAttributes.put("updated", "true");
+
+        final StandardProvenanceEventRecord.Builder builder = new StandardProvenanceEventRecord.Builder()
+            .setEventType(eventType)
+            .setAttributes(previousAttributes, updatedAttributes)
+            .setComponentId(componentId)
+            .setComponentType("unit test")
+            .setEventId(idGenerator.getAndIncrement())
+            .setEventTime(timestamp)
+            .setFlowFileEntryDate(timestamp)
+            .setFlowFileUUID(uuid)
+            .setLineageStartDate(timestamp)
+            .setCurrentContentClaim("container", "section", "unit-test-id", 0L, 1024L);
+
+        if (eventType == ProvenanceEventType.RECEIVE || eventType == ProvenanceEventType.SEND || eventType == ProvenanceEventType.DROP) {
+            builder.setTransitUri("nifi://host/" + componentId);
+        }
+
+        return builder.build();
+    }
+}
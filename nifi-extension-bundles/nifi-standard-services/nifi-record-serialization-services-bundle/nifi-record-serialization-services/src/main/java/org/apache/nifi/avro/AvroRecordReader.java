@@ -17,17 +17,27 @@
 
 package org.apache.nifi.avro;
 
+import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.nifi.serialization.MalformedRecordException;
 import org.apache.nifi.serialization.RecordReader;
 import org.apache.nifi.serialization.record.MapRecord;
 import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.batch.ColumnVector;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
+import org.apache.nifi.serialization.record.batch.RecordBatchBuilder;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 
 public abstract class AvroRecordReader implements RecordReader {
+    private Schema batchAvroSchema;
+    private Schema.Field[] batchAvroFields;
 
     protected abstract GenericRecord nextAvroRecord() throws IOException;
 
@@ -50,4 +60,74 @@ public abstract class AvroRecordReader implements RecordReader {
             throw new MalformedRecordException("Error while getting next record", e);
         }
     }
+
+    /**
+     * Populates the batch's columns directly from each Avro record, rather than creating a Map and a Record for each row.
+     * Whole numbers, floating-point numbers, and booleans whose Avro type matches the field's type are written to the columns
+     * as primitives; all other values are converted in the same way as by {@link #nextRecord(boolean, boolean)}.
+     */
+    @Override
+    public RecordBatch nextBatch(final int maxRecords) throws IOException, MalformedRecordException {
+        try {
+            final RecordSchema schema = getSchema();
+            final List<RecordField> fields = schema.getFields();
+            final RecordBatchBuilder builder = new RecordBatchBuilder(schema, maxRecords);
+
+            while (!builder.isFull()) {
+                final GenericRecord record = nextAvroRecord();
+                if (record == null) {
+                    break;
+                }
+
+                final Schema.Field[] avroFields = getBatchAvroFields(record.getSchema(), fields);
+                final int row = builder.getRowCount();
+                for (int i = 0; i < avroFields.length; i++) {
+                    final Schema.Field avroField = avroFields[i];
+                    final Object value = avroField == null ? null : record.get(avroField.pos());
+                    final ColumnVector column = builder.getColumn(i);
+                    if (value == null) {
+                        column.setNull(row);
+                        continue;
+                    }
+
+                    final RecordField field = fields.get(i);
+                    final RecordFieldType fieldType = field.getDataType().getFieldType();
+                    if ((fieldType == RecordFieldType.LONG || fieldType == RecordFieldType.INT) && (value instanceof Long || value instanceof Integer)) {
+                        column.setLong(row, ((Number) value).longValue());
+                    } else if ((fieldType == RecordFieldType.DOUBLE || fieldType == RecordFieldType.FLOAT) && (value instanceof Double || value instanceof Float)) {
+                        column.setDouble(row, ((Number) value).doubleValue());
+                    } else if (fieldType == RecordFieldType.BOOLEAN && value instanceof Boolean) {
+                        column.setBoolean(row, (Boolean) value);
+                    } else {
+                        column.setObject(row, AvroTypeUtil.convertAvroFieldValue(value, avroField, field, StandardCharsets.UTF_8));
+                    }
+                }
+
+                builder.completeRow();
+            }
+
+            return builder.getRowCount() == 0 ? null : builder.build();
+        } catch (IOException e) {
+            throw e;
+        } catch (MalformedRecordException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new MalformedRecordException("Error while getting next batch of records", e);
+        }
+    }
+
+    private Schema.Field[] getBatchAvroFields(final Schema avroSchema, final List<RecordField> fields) {
+        // Records generally share a single Avro Schema, so the mapping of fields is resolved only when the Avro Schema changes
+        if (avroSchema != batchAvroSchema) {
+            final Schema.Field[] avroFields = new Schema.Field[fields.size()];
+            for (int i = 0; i < avroFields.length; i++) {
+                avroFields[i] = AvroTypeUtil.getMatchingField(avroSchema, fields.get(i));
+            }
+
+            batchAvroFields = avroFields;
+            batchAvroSchema = avroSchema;
+        }
+
+        return batchAvroFields;
+    }
 }
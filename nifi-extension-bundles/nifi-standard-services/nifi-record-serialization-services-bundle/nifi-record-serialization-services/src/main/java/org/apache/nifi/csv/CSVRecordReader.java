@@ -22,6 +22,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -40,11 +41,15 @@ import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.batch.ColumnVector;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
+import org.apache.nifi.serialization.record.batch.RecordBatchBuilder;
 
 public class CSVRecordReader extends AbstractCSVRecordReader {
     private final CSVParser csvParser;
 
     private List<RecordField> recordFields;
+    private int[] batchColumnIndices;
 
     public CSVRecordReader(final InputStream in, final ComponentLog logger, final RecordSchema schema, final CSVFormat csvFormat, final boolean hasHeader, final boolean ignoreHeader,
                            final String dateFormat, final String timeFormat, final String timestampFormat, final String encoding, final boolean trimDoubleQuote) throws IOException {
@@ -124,6 +129,92 @@ public class CSVRecordReader extends AbstractCSVRecordReader {
         return null;
     }
 
+    /**
+     * Populates the batch's columns directly from each CSV record, rather than creating a Map and a Record for each row. INT, LONG,
+     * FLOAT, and DOUBLE values are parsed directly into primitives; all other values, and any value that cannot be parsed directly,
+     * are converted in the same way as by {@link #nextRecord(boolean, boolean)}.
+     */
+    @Override
+    public RecordBatch nextBatch(final int maxRecords) throws IOException, MalformedRecordException {
+        try {
+            final RecordSchema schema = getSchema();
+            final List<RecordField> recordFields = getRecordFields();
+            final int[] columnIndices = getBatchColumnIndices(schema, recordFields);
+            final RecordBatchBuilder builder = new RecordBatchBuilder(schema, maxRecords);
+            final Iterator<CSVRecord> csvRecords = csvParser.iterator();
+
+            while (!builder.isFull() && csvRecords.hasNext()) {
+                final CSVRecord csvRecord = csvRecords.next();
+                final int row = builder.getRowCount();
+                final int valueCount = Math.min(csvRecord.size(), columnIndices.length);
+                for (int i = 0; i < valueCount; i++) {
+                    final int columnIndex = columnIndices[i];
+                    if (columnIndex < 0) {
+                        continue;
+                    }
+
+                    final RecordField recordField = recordFields.get(i);
+                    setColumnValue(builder.getColumn(columnIndex), row, csvRecord.get(i), recordField);
+                }
+
+                builder.completeRow();
+            }
+
+            return builder.getRowCount() == 0 ? null : builder.build();
+        } catch (Exception e) {
+            throw new MalformedRecordException("Error while getting next batch of records", e);
+        }
+    }
+
+    private void setColumnValue(final ColumnVector column, final int row, final String rawValue, final RecordField recordField) {
+        if (rawValue == null) {
+            column.setNull(row);
+            return;
+        }
+
+        final RecordFieldType fieldType = recordField.getDataType().getFieldType();
+        if (fieldType == RecordFieldType.INT || fieldType == RecordFieldType.LONG || fieldType == RecordFieldType.FLOAT || fieldType == RecordFieldType.DOUBLE) {
+            final String trimmed = trim(rawValue);
+            if (trimmed.isEmpty()) {
+                column.setNull(row);
+                return;
+            }
+
+            try {
+                switch (fieldType) {
+                    case INT:
+                        column.setLong(row, Integer.parseInt(trimmed));
+                        return;
+                    case LONG:
+                        column.setLong(row, Long.parseLong(trimmed));
+                        return;
+                    default:
+                        column.setDouble(row, Double.parseDouble(trimmed));
+                        return;
+                }
+            } catch (final NumberFormatException nfe) {
+                // Fall through to the standard conversion, which either handles the format or reports the failure
+            }
+        }
+
+        column.setObject(row, convert(rawValue, recordField.getDataType(), recordField.getFieldName()));
+    }
+
+    private int[] getBatchColumnIndices(final RecordSchema schema, final List<RecordField> recordFields) {
+        if (batchColumnIndices != null) {
+            return batchColumnIndices;
+        }
+
+        // Maps each column of the CSV data to the index of the corresponding field in the schema, or -1 if the schema has no such field
+        final List<String> schemaFieldNames = schema.getFieldNames();
+        final int[] indices = new int[recordFields.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = schemaFieldNames.indexOf(recordFields.get(i).getFieldName());
+        }
+
+        batchColumnIndices = indices;
+        return indices;
+    }
 
     private List<RecordField> getRecordFields() {
         if (this.recordFields != null) {
@@ -17,9 +17,11 @@
 
 package org.apache.nifi.avro;
 
+import org.apache.avro.LogicalTypes;
 import org.apache.avro.Schema;
 import org.apache.avro.Schema.Field;
 import org.apache.avro.Schema.Type;
+import org.apache.avro.SchemaBuilder;
 import org.apache.avro.file.DataFileWriter;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericDatumWriter;
@@ -32,6 +34,7 @@ import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
@@ -52,6 +55,7 @@ import java.util.Map;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestAvroReaderWithEmbeddedSchema {
 
@@ -337,4 +341,66 @@ public class TestAvroReaderWithEmbeddedSchema {
     public enum Status {
         GOOD, BAD
     }
+
+    @Test
+    public void testNextBatch() throws IOException, MalformedRecordException {
+        final Schema schema = SchemaBuilder.record("batch").fields()
+            .requiredInt("id")
+            .requiredLong("count")
+            .requiredDouble("score")
+            .requiredFloat("ratio")
+            .requiredBoolean("active")
+            .requiredString("name")
+            .optionalLong("optional")
+            .name("timestamp").type(LogicalTypes.timestampMillis().addToSchema(Schema.create(Type.LONG))).noDefault()
+            .endRecord();
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final DatumWriter<GenericRecord> datumWriter = new GenericDatumWriter<>(schema);
+        try (final DataFileWriter<GenericRecord> dataFileWriter = new DataFileWriter<>(datumWriter);
+             final DataFileWriter<GenericRecord> writer = dataFileWriter.create(schema, baos)) {
+            for (int i = 0; i < 5; i++) {
+                final GenericRecord record = new GenericData.Record(schema);
+                record.put("id", i);
+                record.put("count", i * 100L);
+                record.put("score", i * 1.5D);
+                record.put("ratio", i * 0.5F);
+                record.put("active", i % 2 == 0);
+                record.put("name", "name-" + i);
+                record.put("optional", i % 2 == 0 ? null : (long) i);
+                record.put("timestamp", 1491316173000L + i);
+                writer.append(record);
+            }
+        }
+
+        final byte[] serialized = baos.toByteArray();
+        final List<Record> expected = new ArrayList<>();
+        try (final InputStream in = new ByteArrayInputStream(serialized)) {
+            final AvroRecordReader reader = new AvroReaderWithEmbeddedSchema(in);
+            Record record;
+            while ((record = reader.nextRecord()) != null) {
+                expected.add(record);
+            }
+        }
+
+        try (final InputStream in = new ByteArrayInputStream(serialized)) {
+            final AvroRecordReader reader = new AvroReaderWithEmbeddedSchema(in);
+            final RecordBatch first = reader.nextBatch(3);
+            final RecordBatch second = reader.nextBatch(3);
+            assertNull(reader.nextBatch(3));
+
+            assertEquals(3, first.getRowCount());
+            assertEquals(2, second.getRowCount());
+            assertEquals(200L, first.getColumn("count").orElseThrow().getLong(2));
+            assertTrue(first.getColumn("optional").orElseThrow().isNull(0));
+
+            for (int i = 0; i < expected.size(); i++) {
+                final RecordBatch batch = i < 3 ? first : second;
+                final Record actual = batch.getRecord(i < 3 ? i : i - 3);
+                for (final String fieldName : batch.getSchema().getFieldNames()) {
+                    assertEquals(expected.get(i).getValue(fieldName), actual.getValue(fieldName), "Unexpected value for field " + fieldName);
+                }
+            }
+        }
+    }
 }
@@ -40,6 +40,7 @@ import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
@@ -988,4 +989,49 @@ public class TestCSVRecordReader {
             assertEquals("\"\"\"", name);
         }
     }
+
+    @Test
+    public void testNextBatch() throws IOException, MalformedRecordException {
+        final String text = "id,name,balance,active,extra\n1,John Doe,4750.89,true,x\n2,Jane Doe,,false,y\n3,\"\"\"Quoted\"\"\",12,,z";
+
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("id", RecordFieldType.INT.getDataType()));
+        fields.add(new RecordField("name", RecordFieldType.STRING.getDataType()));
+        fields.add(new RecordField("balance", doubleDataType));
+        fields.add(new RecordField("active", RecordFieldType.BOOLEAN.getDataType()));
+        final RecordSchema schema = new SimpleRecordSchema(fields);
+
+        final List<Record> expected = new ArrayList<>();
+        try (final InputStream bais = new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+             final CSVRecordReader reader = createReader(bais, schema, format)) {
+            Record record;
+            while ((record = reader.nextRecord()) != null) {
+                expected.add(record);
+            }
+        }
+
+        try (final InputStream bais = new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+             final CSVRecordReader reader = createReader(bais, schema, format)) {
+            final RecordBatch first = reader.nextBatch(2);
+            assertEquals(2, first.getRowCount());
+            assertEquals(1L, first.getColumn("id").orElseThrow().getLong(0));
+            assertEquals(4750.89D, first.getColumn("balance").orElseThrow().getDouble(0));
+            assertTrue(first.getColumn("balance").orElseThrow().isNull(1));
+
+            final RecordBatch second = reader.nextBatch(2);
+            assertEquals(1, second.getRowCount());
+            assertNull(reader.nextBatch(2));
+
+            for (int row = 0; row < 2; row++) {
+                assertBatchRowEquals(expected.get(row), first, row);
+            }
+            assertBatchRowEquals(expected.get(2), second, 0);
+        }
+    }
+
+    private void assertBatchRowEquals(final Record expected, final RecordBatch batch, final int row) {
+        for (final String fieldName : batch.getSchema().getFieldNames()) {
+            assertEquals(expected.getValue(fieldName), batch.getRecord(row).getValue(fieldName), "Unexpected value for field " + fieldName);
+        }
+    }
 }
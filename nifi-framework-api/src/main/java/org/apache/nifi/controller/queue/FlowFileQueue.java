@@ -122,6 +122,25 @@ public interface FlowFileQueue {
      */
     boolean isActiveQueueEmpty();
 
+    /**
+     * Registers a callback to be run once, the next time that FlowFiles are added to this queue. If the queue's active queue is
+     * not empty, the callback is run immediately. Registering the same callback more than once has no additional effect.
+     * The callback is run by the thread that adds the FlowFiles, so it must return quickly. A queue that does not support notifications
+     * never runs the callback, so callers must not rely on it as the only means of learning that FlowFiles are available.
+     *
+     * @param callback the callback to run when FlowFiles become available
+     */
+    default void notifyWhenDataAvailable(Runnable callback) {
+    }
+
+    /**
+     * Removes a callback that was registered via {@link #notifyWhenDataAvailable(Runnable)} and has not yet been run
+     *
+     * @param callback the callback to remove
+     */
+    default void removeDataAvailableCallback(Runnable callback) {
+    }
+
     void acknowledge(FlowFileRecord flowFile);
 
     void acknowledge(Collection<FlowFileRecord> flowFiles);
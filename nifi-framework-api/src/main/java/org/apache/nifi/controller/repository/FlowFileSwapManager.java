@@ -80,6 +80,25 @@ public interface FlowFileSwapManager {
      */
     SwapContents swapIn(String swapLocation, FlowFileQueue flowFileQueue) throws IncompleteSwapFileException, IOException;
 
+    /**
+     * Swaps in the FlowFiles from the swap file that lives at the given location, using contents that were previously obtained
+     * by calling {@link #peek(String, FlowFileQueue)} for that location, so that the swap file need not be read again. As with
+     * {@link #swapIn(String, FlowFileQueue)}, the FlowFile Repository is then updated and the swap file is permanently removed
+     * from the external storage. The default implementation ignores the given contents and calls {@link #swapIn(String, FlowFileQueue)}.
+     *
+     * @param swapLocation the location of the swap file
+     * @param flowFileQueue the queue to which the FlowFiles belong
+     * @param peekedContents the contents that were obtained by peeking at the given swap location
+     *
+     * @return a SwapContents that includes FlowFiles that are stored in the given location
+     *
+     * @throws IOException if unable to recover the FlowFiles from the given location or update the
+     *             FlowFileRepository
+     */
+    default SwapContents swapIn(String swapLocation, FlowFileQueue flowFileQueue, SwapContents peekedContents) throws IncompleteSwapFileException, IOException {
+        return swapIn(swapLocation, flowFileQueue);
+    }
+
     /**
      * Determines swap files that exist for the given FlowFileQueue
      *
@@ -25,7 +25,9 @@ import org.apache.nifi.provenance.search.QuerySubmission;
 import org.apache.nifi.provenance.search.SearchableField;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -249,4 +251,15 @@ public interface ProvenanceRepository extends ProvenanceEventRepository {
      * name
      */
     long getContainerUsableSpace(String containerName) throws IOException;
+
+    /**
+     * Returns the number of Provenance Events of each type that the repository has discarded rather than stored,
+     * such as when the repository is configured to store only a sample of the events of some types
+     *
+     * @return the number of events of each type that have been discarded since the repository was initialized,
+     * or an empty map if the repository stores all events
+     */
+    default Map<ProvenanceEventType, Long> getDiscardedEventCounts() {
+        return Collections.emptyMap();
+    }
 }
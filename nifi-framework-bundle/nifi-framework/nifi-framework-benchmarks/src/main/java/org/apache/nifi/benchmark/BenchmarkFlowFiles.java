@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmark;
+
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.StandardFlowFileRecord;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
+import org.apache.nifi.util.file.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Utility methods for creating FlowFiles and scratch directories that resemble those seen in a typical flow.
+ */
+final class BenchmarkFlowFiles {
+    private static final AtomicLong idGenerator = new AtomicLong(0L);
+
+    private BenchmarkFlowFiles() {
+    }
+
+    /**
+     * Creates a FlowFile with the core attributes plus a handful of additional attributes, similar to what
+     * would be seen after a FlowFile has passed through a few processors.
+     *
+     * @param size the size of the FlowFile's content
+     * @param claim the content claim, or <code>null</code> if there is no content
+     * @return the FlowFile
+     */
+    static FlowFileRecord createFlowFile(final long size, final ContentClaim claim) {
+        final long id = idGenerator.getAndIncrement();
+        final long now = System.currentTimeMillis();
+
+        return new StandardFlowFileRecord.Builder()
+            .id(id)
+            .entryDate(now)
+            .lineageStart(now, id)
+            .lastQueued(now, id)
+            .size(size)
+            .contentClaim(claim)
+            .addAttributes(createAttributes(id))
+            .build();
+    }
+
+    static Map<String, String> createAttributes(final long id) {
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put(CoreAttributes.UUID.key(), UUID.randomUUID().toString());
+        attributes.put(CoreAttributes.FILENAME.key(), "benchmark-" + id + ".json");
+        attributes.put(CoreAttributes.PATH.key(), "./");
+        attributes.put(CoreAttributes.MIME_TYPE.key(), "application/json");
+        attributes.put("priority", String.valueOf(id % 10));
+        attributes.put("record.count", "100");
+        attributes.put("kafka.topic", "benchmark-events");
+        attributes.put("kafka.partition", String.valueOf(id % 32));
+        attributes.put("kafka.offset", String.valueOf(id));
+        return attributes;
+    }
+
+    static File createScratchDirectory(final String name) throws IOException {
+        final Path directory = Files.createTempDirectory("nifi-benchmark-" + name);
+        return directory.toFile();
+    }
+
+    static void deleteScratchDirectory(final File directory) throws IOException {
+        if (directory != null && directory.exists()) {
+            FileUtils.deleteFile(directory, true);
+        }
+    }
+}
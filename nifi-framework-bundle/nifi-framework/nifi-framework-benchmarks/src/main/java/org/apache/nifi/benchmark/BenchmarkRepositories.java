@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmark;
+
+import org.apache.nifi.controller.repository.FileSystemRepository;
+import org.apache.nifi.controller.repository.StandardContentRepositoryContext;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.util.NiFiProperties;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Utility methods for creating repositories that are backed by a scratch directory.
+ */
+final class BenchmarkRepositories {
+
+    private BenchmarkRepositories() {
+    }
+
+    /**
+     * Creates NiFi Properties that point the Content Repository at the given directory, with archiving disabled so that
+     * destroyed claims are removed from disk rather than accumulating over the course of a benchmark.
+     *
+     * @param contentRepositoryDirectory the directory to use for the default content repository container
+     * @return the properties
+     */
+    static NiFiProperties createProperties(final File contentRepositoryDirectory) {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put(NiFiProperties.REPOSITORY_CONTENT_PREFIX + "default", contentRepositoryDirectory.getAbsolutePath());
+        properties.put(NiFiProperties.CONTENT_ARCHIVE_ENABLED, "false");
+        properties.put(NiFiProperties.MAX_APPENDABLE_CLAIM_SIZE, NiFiProperties.DEFAULT_MAX_APPENDABLE_CLAIM_SIZE);
+        return NiFiProperties.createBasicNiFiProperties("", properties);
+    }
+
+    static FileSystemRepository createContentRepository(final File directory, final ResourceClaimManager claimManager) throws IOException {
+        final FileSystemRepository repository = new FileSystemRepository(createProperties(directory));
+        repository.initialize(new StandardContentRepositoryContext(claimManager, EventReporter.NO_OP));
+        repository.purge();
+        return repository;
+    }
+}
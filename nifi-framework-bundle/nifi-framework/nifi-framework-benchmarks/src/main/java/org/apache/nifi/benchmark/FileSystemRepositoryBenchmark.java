@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmark;
+
+import org.apache.nifi.controller.repository.FileSystemRepository;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing content to and reading content from the {@link FileSystemRepository}. Reads are performed against a fixed set of
+ * Content Claims that are written during setup, so that many claims share each Resource Claim in the same way that they do in a
+ * running flow. Claims written by the write benchmark are released immediately so that the repository is able to clean them up.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileSystemRepositoryBenchmark {
+    private static final int READ_CLAIM_COUNT = 1000;
+
+    @Param({"256", "4096", "65536", "1048576"})
+    private int contentSize;
+
+    private File directory;
+    private ResourceClaimManager claimManager;
+    private FileSystemRepository repository;
+    private byte[] content;
+    private byte[] readBuffer;
+    private ContentClaim[] readClaims;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = BenchmarkFlowFiles.createScratchDirectory("content-repository");
+        claimManager = new StandardResourceClaimManager();
+        repository = BenchmarkRepositories.createContentRepository(directory, claimManager);
+
+        content = new byte[contentSize];
+        ThreadLocalRandom.current().nextBytes(content);
+        readBuffer = new byte[8192];
+
+        readClaims = new ContentClaim[READ_CLAIM_COUNT];
+        for (int i = 0; i < readClaims.length; i++) {
+            readClaims[i] = writeClaim();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() throws IOException {
+        repository.shutdown();
+        BenchmarkFlowFiles.deleteScratchDirectory(directory);
+    }
+
+    @Benchmark
+    public ContentClaim write() throws IOException {
+        final ContentClaim claim = writeClaim();
+        repository.decrementClaimantCount(claim);
+        claimManager.markDestructable(claim.getResourceClaim());
+        return claim;
+    }
+
+    @Benchmark
+    public long read() throws IOException {
+        final ContentClaim claim = readClaims[ThreadLocalRandom.current().nextInt(readClaims.length)];
+
+        long total = 0L;
+        try (final InputStream in = repository.read(claim)) {
+            int len;
+            while ((len = in.read(readBuffer)) > 0) {
+                total += len;
+            }
+        }
+
+        return total;
+    }
+
+    private ContentClaim writeClaim() throws IOException {
+        final ContentClaim claim = repository.create(false);
+        try (final OutputStream out = repository.write(claim)) {
+            out.write(content);
+        }
+
+        return claim;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point for running the framework benchmarks. Results are written as JSON so that they can be compared across releases,
+ * for example with the JMH Visualizer or by diffing the primary metric of each benchmark.
+ * <p>
+ * Usage: <code>FrameworkBenchmarkRunner [result file] [benchmark regex]</code>. The result file defaults to <code>jmh-result.json</code>
+ * in the working directory and the regex defaults to all benchmarks in this package.
+ * </p>
+ */
+public class FrameworkBenchmarkRunner {
+    private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+    private static final String DEFAULT_INCLUDE = FrameworkBenchmarkRunner.class.getPackageName() + ".*";
+
+    public static void main(final String[] args) throws RunnerException {
+        final String resultFile = args.length > 0 ? args[0] : DEFAULT_RESULT_FILE;
+        final String include = args.length > 1 ? args[1] : DEFAULT_INCLUDE;
+
+        final Options options = new OptionsBuilder()
+            .include(include)
+            .resultFormat(ResultFormatType.JSON)
+            .result(resultFile)
+            .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmark;
+
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.repository.CaffeineFieldCache;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.LiveSerializedRepositoryRecord;
+import org.apache.nifi.controller.repository.SerializedRepositoryRecord;
+import org.apache.nifi.controller.repository.StandardRepositoryRecord;
+import org.apache.nifi.controller.repository.StandardRepositoryRecordSerdeFactory;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.repository.claim.StandardContentClaim;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.wali.SequentialAccessWriteAheadLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures {@link SequentialAccessWriteAheadLog#update(java.util.Collection, boolean)} using the same serialization that the
+ * FlowFile Repository uses, with batch sizes that mirror small and large Process Session commits. The same set of FlowFiles
+ * is updated repeatedly and the log is checkpointed between iterations so that journal size stays bounded.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class SequentialAccessWriteAheadLogBenchmark {
+    private static final int BATCH_COUNT = 64;
+
+    @Param({"1", "100"})
+    private int batchSize;
+
+    @Param({"false", "true"})
+    private boolean forceSync;
+
+    private File directory;
+    private SequentialAccessWriteAheadLog<SerializedRepositoryRecord> writeAheadLog;
+    private List<List<SerializedRepositoryRecord>> batches;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = BenchmarkFlowFiles.createScratchDirectory("flowfile-repository");
+
+        final ResourceClaimManager claimManager = new StandardResourceClaimManager();
+        final StandardRepositoryRecordSerdeFactory serdeFactory = new StandardRepositoryRecordSerdeFactory(claimManager, new CaffeineFieldCache(10_000_000L));
+        writeAheadLog = new SequentialAccessWriteAheadLog<>(directory, serdeFactory);
+        writeAheadLog.recoverRecords();
+
+        final FlowFileQueue queue = mock(FlowFileQueue.class);
+        when(queue.getIdentifier()).thenReturn("benchmark-queue");
+
+        final ResourceClaim resourceClaim = claimManager.newResourceClaim("default", "1", "benchmark", false, false);
+
+        batches = new ArrayList<>(BATCH_COUNT);
+        for (int i = 0; i < BATCH_COUNT; i++) {
+            final List<SerializedRepositoryRecord> batch = new ArrayList<>(batchSize);
+            for (int j = 0; j < batchSize; j++) {
+                final ContentClaim contentClaim = new StandardContentClaim(resourceClaim, (long) j * 1024L);
+                final FlowFileRecord flowFile = BenchmarkFlowFiles.createFlowFile(1024L, contentClaim);
+
+                final StandardRepositoryRecord record = new StandardRepositoryRecord(queue, flowFile);
+                record.setWorking(flowFile, false);
+                record.setDestination(queue);
+                batch.add(new LiveSerializedRepositoryRecord(record));
+            }
+
+            batches.add(batch);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkpoint() throws IOException {
+        writeAheadLog.checkpoint();
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() throws IOException {
+        writeAheadLog.shutdown();
+        BenchmarkFlowFiles.deleteScratchDirectory(directory);
+    }
+
+    @Benchmark
+    public int update(final BatchPosition position) throws IOException {
+        return writeAheadLog.update(batches.get(position.next()), forceSync);
+    }
+
+    @State(Scope.Thread)
+    public static class BatchPosition {
+        private int index;
+
+        int next() {
+            index = (index + 1) % BATCH_COUNT;
+            return index;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmark;
+
+import org.apache.nifi.components.state.StateManager;
+import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.connectable.ConnectableType;
+import org.apache.nifi.connectable.Connection;
+import org.apache.nifi.controller.BackoffMechanism;
+import org.apache.nifi.controller.ProcessScheduler;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.queue.StandardFlowFileQueue;
+import org.apache.nifi.controller.repository.FileSystemRepository;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.FlowFileSwapManager;
+import org.apache.nifi.controller.repository.StandardCounterRepository;
+import org.apache.nifi.controller.repository.StandardProcessSession;
+import org.apache.nifi.controller.repository.StandardRepositoryContext;
+import org.apache.nifi.controller.repository.VolatileFlowFileRepository;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.controller.repository.metrics.NopPerformanceTracker;
+import org.apache.nifi.controller.repository.metrics.RingBufferEventRepository;
+import org.apache.nifi.flowfile.FlowFile;
+import org.apache.nifi.groups.ProcessGroup;
+import org.apache.nifi.processor.Relationship;
+import org.apache.nifi.provenance.ProvenanceEventRepository;
+import org.apache.nifi.provenance.StandardProvenanceEventRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the create, write, transfer and commit lifecycle of a {@link StandardProcessSession} against a {@link FileSystemRepository}
+ * and a {@link StandardFlowFileQueue}. The component's single incoming Connection is also the destination of its 'success' Relationship,
+ * so FlowFiles loop back to the same queue and the queue depth remains constant for the duration of the benchmark.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StandardProcessSessionBenchmark {
+    private static final Relationship REL_SUCCESS = new Relationship.Builder().name("success").build();
+    private static final int QUEUE_DEPTH = 1000;
+
+    @Param({"256", "4096", "65536"})
+    private int contentSize;
+
+    private File directory;
+    private FileSystemRepository contentRepository;
+    private FlowFileQueue flowFileQueue;
+    private StandardRepositoryContext context;
+    private byte[] content;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = BenchmarkFlowFiles.createScratchDirectory("session");
+
+        final ResourceClaimManager claimManager = new StandardResourceClaimManager();
+        contentRepository = BenchmarkRepositories.createContentRepository(directory, claimManager);
+
+        final VolatileFlowFileRepository flowFileRepository = new VolatileFlowFileRepository();
+        flowFileRepository.initialize(claimManager);
+
+        final ProvenanceEventRepository provenanceRepository = mock(ProvenanceEventRepository.class);
+        when(provenanceRepository.eventBuilder()).thenAnswer(invocation -> new StandardProvenanceEventRecord.Builder());
+
+        flowFileQueue = new StandardFlowFileQueue("benchmark-queue", flowFileRepository, provenanceRepository, claimManager, mock(ProcessScheduler.class),
+            mock(FlowFileSwapManager.class), null, 20_000, "0 sec", 0L, "0 B");
+
+        final Connectable connectable = mock(Connectable.class);
+        final Connection connection = createConnection(connectable);
+        final List<Connection> connections = Collections.singletonList(connection);
+
+        final ProcessGroup processGroup = mock(ProcessGroup.class);
+        when(processGroup.getIdentifier()).thenReturn("benchmark-group");
+
+        when(connectable.hasIncomingConnection()).thenReturn(true);
+        when(connectable.getIncomingConnections()).thenReturn(connections);
+        when(connectable.getConnections()).thenReturn(Set.of(connection));
+        when(connectable.getConnections(any(Relationship.class))).thenReturn(Set.of(connection));
+        when(connectable.getProcessGroup()).thenReturn(processGroup);
+        when(connectable.getIdentifier()).thenReturn("benchmark-component");
+        when(connectable.getConnectableType()).thenReturn(ConnectableType.INPUT_PORT);
+        when(connectable.getComponentType()).thenReturn("Benchmark Processor");
+        when(connectable.getBackoffMechanism()).thenReturn(BackoffMechanism.PENALIZE_FLOWFILE);
+        when(connectable.getMaxBackoffPeriod()).thenReturn("1 sec");
+
+        context = new StandardRepositoryContext(connectable, new AtomicLong(0L), contentRepository, flowFileRepository, new RingBufferEventRepository(1),
+            new StandardCounterRepository(), provenanceRepository, mock(StateManager.class));
+
+        content = new byte[contentSize];
+        ThreadLocalRandom.current().nextBytes(content);
+
+        for (int i = 0; i < QUEUE_DEPTH; i++) {
+            final StandardProcessSession session = createSession();
+            final FlowFile flowFile = session.write(session.create(), out -> out.write(content));
+            session.transfer(flowFile, REL_SUCCESS);
+            session.commit();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() throws IOException {
+        contentRepository.shutdown();
+        BenchmarkFlowFiles.deleteScratchDirectory(directory);
+    }
+
+    /**
+     * Pulls the oldest FlowFile from the queue and removes it, then creates a replacement FlowFile, writes its content,
+     * and transfers it, all within a single session commit.
+     */
+    @Benchmark
+    public FlowFile createWriteTransferCommit() {
+        final StandardProcessSession session = createSession();
+
+        final FlowFile original = session.get();
+        if (original != null) {
+            session.remove(original);
+        }
+
+        FlowFile flowFile = session.create();
+        flowFile = session.write(flowFile, out -> out.write(content));
+        flowFile = session.putAttribute(flowFile, "benchmark.iteration", "true");
+        session.transfer(flowFile, REL_SUCCESS);
+        session.commit();
+        return flowFile;
+    }
+
+    /**
+     * Pulls a FlowFile from the queue, updates an attribute and transfers it back, without touching content.
+     */
+    @Benchmark
+    public FlowFile getUpdateAttributeTransferCommit() {
+        final StandardProcessSession session = createSession();
+
+        FlowFile flowFile = session.get();
+        if (flowFile == null) {
+            return null;
+        }
+
+        flowFile = session.putAttribute(flowFile, "benchmark.iteration", "true");
+        session.transfer(flowFile, REL_SUCCESS);
+        session.commit();
+        return flowFile;
+    }
+
+    private StandardProcessSession createSession() {
+        return new StandardProcessSession(context, () -> false, new NopPerformanceTracker());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Connection createConnection(final Connectable connectable) {
+        final Connection connection = mock(Connection.class);
+        when(connection.getIdentifier()).thenReturn("benchmark-connection");
+        when(connection.getFlowFileQueue()).thenReturn(flowFileQueue);
+        when(connection.getSource()).thenReturn(connectable);
+        when(connection.getDestination()).thenReturn(connectable);
+        when(connection.poll(any(Set.class))).thenAnswer(invocation -> flowFileQueue.poll((Set<FlowFileRecord>) invocation.getArgument(0)));
+        return connection;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmark;
+
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.queue.SwappablePriorityQueue;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.FlowFileSwapManager;
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.flowfile.FlowFilePrioritizer;
+import org.apache.nifi.prioritizer.OldestFlowFileFirstPrioritizer;
+import org.apache.nifi.prioritizer.PriorityAttributePrioritizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the cost of offering FlowFiles to and polling FlowFiles from a {@link SwappablePriorityQueue}, both from a single thread
+ * and with producers and consumers contending for the queue's lock. The queue is kept below its swap threshold so that swapping
+ * does not influence the results.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Group)
+public class SwappablePriorityQueueBenchmark {
+    private static final int SWAP_THRESHOLD = 20_000;
+    private static final int PREALLOCATED_FLOWFILES = 4096;
+
+    @Param({"none", "priority-attribute", "oldest-first"})
+    private String prioritizer;
+
+    @Param({"1000", "10000"})
+    private int queueDepth;
+
+    private SwappablePriorityQueue queue;
+    private FlowFileRecord[] flowFiles;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final FlowFileQueue flowFileQueue = mock(FlowFileQueue.class);
+        when(flowFileQueue.getIdentifier()).thenReturn("benchmark-queue");
+
+        queue = new SwappablePriorityQueue(mock(FlowFileSwapManager.class), SWAP_THRESHOLD, EventReporter.NO_OP, flowFileQueue, null, "benchmark");
+        queue.setPriorities(createPrioritizers(prioritizer));
+
+        flowFiles = new FlowFileRecord[PREALLOCATED_FLOWFILES];
+        for (int i = 0; i < flowFiles.length; i++) {
+            flowFiles[i] = BenchmarkFlowFiles.createFlowFile(1024L, null);
+        }
+
+        for (int i = 0; i < queueDepth; i++) {
+            queue.put(BenchmarkFlowFiles.createFlowFile(1024L, null));
+        }
+    }
+
+    @Benchmark
+    @Group("uncontended")
+    public FlowFileRecord offerThenPoll(final ThreadPosition position) {
+        queue.put(flowFiles[position.next()]);
+        return pollAndAcknowledge();
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(4)
+    public void offer(final ThreadPosition position) {
+        // Do not allow producers to push the queue into swap mode
+        if (queue.getFlowFileQueueSize().getActiveCount() < SWAP_THRESHOLD - PREALLOCATED_FLOWFILES) {
+            queue.put(flowFiles[position.next()]);
+        }
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(4)
+    public FlowFileRecord poll() {
+        return pollAndAcknowledge();
+    }
+
+    private FlowFileRecord pollAndAcknowledge() {
+        final Set<FlowFileRecord> expired = new HashSet<>();
+        final FlowFileRecord flowFile = queue.poll(expired, 0L);
+        if (flowFile != null) {
+            queue.acknowledge(flowFile);
+        }
+
+        return flowFile;
+    }
+
+    private static List<FlowFilePrioritizer> createPrioritizers(final String name) {
+        return switch (name) {
+            case "priority-attribute" -> List.of(new PriorityAttributePrioritizer());
+            case "oldest-first" -> List.of(new OldestFlowFileFirstPrioritizer());
+            default -> Collections.emptyList();
+        };
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadPosition {
+        private int index;
+
+        int next() {
+            index = (index + 1) % PREALLOCATED_FLOWFILES;
+            return index;
+        }
+    }
+}
@@ -61,4 +61,16 @@ public interface NodeHeartbeat {
      * @return the number of updates that have occurred to the Revision Manager
      */
     long getRevisionUpdateCount();
+
+    /**
+     * @return the number of threads that are active in the components of the flow on the node, as reported in the controller status,
+     *         or <code>null</code> if the node did not report its controller status
+     */
+    Integer getComponentActiveThreadCount();
+
+    /**
+     * @return the number of threads that have been terminated in the components of the flow on the node, or <code>null</code> if the node
+     *         did not report its controller status
+     */
+    Integer getTerminatedThreadCount();
 }
@@ -17,6 +17,7 @@
 
 package org.apache.nifi.cluster.protocol;
 
+import org.apache.nifi.cluster.protocol.binary.BinaryProtocolContext;
 import org.apache.nifi.cluster.protocol.message.ClusterWorkloadRequestMessage;
 import org.apache.nifi.cluster.protocol.message.ClusterWorkloadResponseMessage;
 import org.apache.nifi.cluster.protocol.message.CommsTimingDetails;
@@ -39,6 +40,8 @@ import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class AbstractNodeProtocolSender implements NodeProtocolSender {
     private static final Logger logger = LoggerFactory.getLogger(AbstractNodeProtocolSender.class);
@@ -46,6 +49,10 @@ public abstract class AbstractNodeProtocolSender implements NodeProtocolSender {
     private final ProtocolContext<ProtocolMessage> protocolContext;
     private final ProtocolMessageMarshaller<ProtocolMessage> marshaller;
     private final ProtocolMessageUnmarshaller<ProtocolMessage> unmarshaller;
+    private final ProtocolMessageMarshaller<ProtocolMessage> binaryMarshaller;
+
+    // Addresses of Cluster Coordinators that have advertised support for the binary protocol
+    private final Set<String> binaryProtocolAddresses = ConcurrentHashMap.newKeySet();
 
     public AbstractNodeProtocolSender(final SocketConfiguration socketConfiguration, final ProtocolContext<ProtocolMessage> protocolContext) {
         this.socketConfiguration = socketConfiguration;
@@ -53,6 +60,12 @@ public abstract class AbstractNodeProtocolSender implements NodeProtocolSender {
 
         marshaller = protocolContext.createMarshaller();
         unmarshaller = protocolContext.createUnmarshaller();
+
+        if (protocolContext instanceof BinaryProtocolContext binaryProtocolContext) {
+            binaryMarshaller = binaryProtocolContext.createMarshaller(BinaryProtocolContext.MessageFormat.BINARY);
+        } else {
+            binaryMarshaller = null;
+        }
     }
 
     @Override
@@ -127,17 +140,46 @@ public abstract class AbstractNodeProtocolSender implements NodeProtocolSender {
         final String hostname = parts[0];
         final int port = Integer.parseInt(parts[1]);
 
-        final ProtocolMessage responseMessage = sendProtocolMessage(msg, hostname, port, timingDetails);
+        // Heartbeats are sent in the binary format only once the Cluster Coordinator at the address has advertised that it is able to read it
+        final boolean sendBinary = binaryMarshaller != null && binaryProtocolAddresses.contains(address);
+        ProtocolMessage responseMessage;
+        try {
+            responseMessage = sendProtocolMessage(msg, hostname, port, timingDetails, sendBinary ? binaryMarshaller : marshaller);
+        } catch (final ProtocolException pe) {
+            if (!sendBinary) {
+                throw pe;
+            }
+
+            // The address may now belong to a Cluster Coordinator that does not support the binary protocol, so fall back until it advertises support
+            binaryProtocolAddresses.remove(address);
+            logger.warn("Failed to send heartbeat to {} in the binary format; sending it in the compatibility format instead", address, pe);
+            responseMessage = sendProtocolMessage(msg, hostname, port, timingDetails, marshaller);
+        }
 
         if (MessageType.HEARTBEAT_RESPONSE == responseMessage.getType()) {
             final HeartbeatResponseMessage heartbeatResponseMessage = (HeartbeatResponseMessage) responseMessage;
             heartbeatResponseMessage.setCommsTimingDetails(timingDetails);
+            updateBinaryProtocolSupport(address, heartbeatResponseMessage);
             return heartbeatResponseMessage;
         }
 
         throw new ProtocolException("Expected message type '" + MessageType.HEARTBEAT_RESPONSE + "' but found '" + responseMessage.getType() + "'");
     }
 
+    private void updateBinaryProtocolSupport(final String address, final HeartbeatResponseMessage responseMessage) {
+        if (binaryMarshaller == null) {
+            return;
+        }
+
+        final Integer binaryProtocolVersion = responseMessage.getBinaryProtocolVersion();
+        if (binaryProtocolVersion != null && binaryProtocolVersion >= BinaryProtocolContext.getSchemaVersion()) {
+            if (binaryProtocolAddresses.add(address)) {
+                logger.info("Cluster Coordinator at {} supports the binary protocol; heartbeats will be sent in the binary format", address);
+            }
+        } else if (binaryProtocolAddresses.remove(address)) {
+            logger.info("Cluster Coordinator at {} no longer supports the binary protocol; heartbeats will be sent in the compatibility format", address);
+        }
+    }
 
     @Override
     public ClusterWorkloadResponseMessage clusterWorkload(final ClusterWorkloadRequestMessage msg) throws ProtocolException {
@@ -148,7 +190,7 @@ public abstract class AbstractNodeProtocolSender implements NodeProtocolSender {
             throw new ProtocolException("Failed to getServiceAddress due to " + e, e);
         }
 
-        final ProtocolMessage responseMessage = sendProtocolMessage(msg, serviceAddress.getHostName(), serviceAddress.getPort(), new CommsTimingDetails());
+        final ProtocolMessage responseMessage = sendProtocolMessage(msg, serviceAddress.getHostName(), serviceAddress.getPort(), new CommsTimingDetails(), marshaller);
         if (MessageType.CLUSTER_WORKLOAD_RESPONSE == responseMessage.getType()) {
             return (ClusterWorkloadResponseMessage) responseMessage;
         }
@@ -173,7 +215,8 @@ public abstract class AbstractNodeProtocolSender implements NodeProtocolSender {
         return socketConfiguration;
     }
 
-    private ProtocolMessage sendProtocolMessage(final ProtocolMessage msg, final String hostname, final int port, final CommsTimingDetails timingDetails) {
+    private ProtocolMessage sendProtocolMessage(final ProtocolMessage msg, final String hostname, final int port, final CommsTimingDetails timingDetails,
+                                                final ProtocolMessageMarshaller<ProtocolMessage> messageMarshaller) {
         final long dnsLookupStart = System.currentTimeMillis();
         final InetSocketAddress socketAddress = new InetSocketAddress(hostname, port);
 
@@ -185,7 +228,7 @@ public abstract class AbstractNodeProtocolSender implements NodeProtocolSender {
             final long sendStart = System.currentTimeMillis();
             try {
                 // marshal message to output stream
-                marshaller.marshal(msg, out);
+                messageMarshaller.marshal(msg, out);
             } catch (final IOException ioe) {
                 throw new ProtocolException("Failed marshalling '" + msg.getType() + "' protocol message", ioe);
             }
@@ -21,7 +21,11 @@ import org.apache.nifi.cluster.protocol.jaxb.message.ConnectionRequestAdapter;
 
 /**
  * A node's request to connect to the cluster. The request contains a proposed
- * identifier.
+ * identifier. The request may carry the node's full flow, optionally along with
+ * the hash of the flow, or, if created via
+ * {@link #createFlowHashRequest(NodeIdentifier, DataFlow, String)}, only the hash of the
+ * node's flow, in which case the flow is transferred in either direction only
+ * if it is needed.
  *
  */
 @XmlJavaTypeAdapter(ConnectionRequestAdapter.class)
@@ -29,14 +33,34 @@ public class ConnectionRequest {
 
     private final NodeIdentifier proposedNodeIdentifier;
     private final DataFlow dataFlow;
+    private final String flowHash;
 
     public ConnectionRequest(final NodeIdentifier proposedNodeIdentifier, final DataFlow dataFlow) {
+        this(proposedNodeIdentifier, dataFlow, null);
+    }
+
+    public ConnectionRequest(final NodeIdentifier proposedNodeIdentifier, final DataFlow dataFlow, final String flowHash) {
         if (proposedNodeIdentifier == null) {
             throw new IllegalArgumentException("Proposed node identifier may not be null.");
         }
 
         this.proposedNodeIdentifier = proposedNodeIdentifier;
         this.dataFlow = dataFlow;
+        this.flowHash = flowHash;
+    }
+
+    /**
+     * Creates a request that carries the hash of the given flow in place of the flow itself. The snippets, authorizer fingerprint and
+     * missing components of the flow are retained.
+     *
+     * @param proposedNodeIdentifier the proposed identifier of the node
+     * @param dataFlow the node's flow
+     * @param flowHash the hash of the node's flow
+     * @return a connection request whose data flow has an empty flow
+     */
+    public static ConnectionRequest createFlowHashRequest(final NodeIdentifier proposedNodeIdentifier, final DataFlow dataFlow, final String flowHash) {
+        final DataFlow withoutFlow = new StandardDataFlow(new byte[0], dataFlow.getSnippets(), dataFlow.getAuthorizerFingerprint(), dataFlow.getMissingComponents());
+        return new ConnectionRequest(proposedNodeIdentifier, withoutFlow, flowHash);
     }
 
     public NodeIdentifier getProposedNodeIdentifier() {
@@ -46,4 +70,22 @@ public class ConnectionRequest {
     public DataFlow getDataFlow() {
         return dataFlow;
     }
+
+    /**
+     * @return the hash of the node's flow, or <code>null</code> if the node did not provide one
+     */
+    public String getFlowHash() {
+        return flowHash;
+    }
+
+    /**
+     * @return <code>true</code> if this request carries only the hash of the node's flow and not the flow itself
+     */
+    public boolean isFlowOmitted() {
+        if (flowHash == null) {
+            return false;
+        }
+
+        return dataFlow == null || dataFlow.getFlow() == null || dataFlow.getFlow().length == 0;
+    }
 }
@@ -42,10 +42,23 @@ public class ConnectionResponse {
     private final String instanceId;
     private final List<NodeConnectionStatus> nodeStatuses;
     private final ComponentRevisionSnapshot revisionSnapshot;
+    private final boolean flowRequired;
+    private final boolean flowUnchanged;
 
 
     public ConnectionResponse(final NodeIdentifier nodeIdentifier, final DataFlow dataFlow,
         final String instanceId, final List<NodeConnectionStatus> nodeStatuses, final ComponentRevisionSnapshot revisionSnapshot) {
+        this(nodeIdentifier, dataFlow, instanceId, nodeStatuses, revisionSnapshot, false);
+    }
+
+    /**
+     * Creates a successful response
+     *
+     * @param flowUnchanged <code>true</code> if the flow of the given data flow was omitted because the cluster's flow has the same hash as the flow
+     * of the node that requested the connection, in which case the node should use its own flow
+     */
+    public ConnectionResponse(final NodeIdentifier nodeIdentifier, final DataFlow dataFlow, final String instanceId, final List<NodeConnectionStatus> nodeStatuses,
+        final ComponentRevisionSnapshot revisionSnapshot, final boolean flowUnchanged) {
 
         if (nodeIdentifier == null) {
             throw new IllegalArgumentException("Node identifier may not be empty or null.");
@@ -58,6 +71,8 @@ public class ConnectionResponse {
         this.instanceId = instanceId;
         this.nodeStatuses = Collections.unmodifiableList(new ArrayList<>(nodeStatuses));
         this.revisionSnapshot = revisionSnapshot;
+        this.flowRequired = false;
+        this.flowUnchanged = flowUnchanged;
     }
 
     public ConnectionResponse(final int tryLaterSeconds, final String explanation) {
@@ -71,9 +86,11 @@ public class ConnectionResponse {
         this.instanceId = null;
         this.nodeStatuses = null;
         this.revisionSnapshot = null;
+        this.flowRequired = false;
+        this.flowUnchanged = false;
     }
 
-    private ConnectionResponse(final String rejectionReason) {
+    private ConnectionResponse(final String rejectionReason, final boolean flowRequired) {
         this.dataFlow = null;
         this.nodeIdentifier = null;
         this.tryLaterSeconds = 0;
@@ -81,24 +98,42 @@ public class ConnectionResponse {
         this.instanceId = null;
         this.nodeStatuses = null;
         this.revisionSnapshot = null;
+        this.flowRequired = flowRequired;
+        this.flowUnchanged = false;
     }
 
     public static ConnectionResponse createBlockedByFirewallResponse() {
-        return new ConnectionResponse("Blocked by Firewall");
+        return new ConnectionResponse("Blocked by Firewall", false);
     }
 
     public static ConnectionResponse createConflictingNodeIdResponse(final String otherNode) {
-        return new ConnectionResponse("The Node Identifier provided already belongs to node " + otherNode);
+        return new ConnectionResponse("The Node Identifier provided already belongs to node " + otherNode, false);
     }
 
     public static ConnectionResponse createRejectionResponse(final String explanation) {
-        return new ConnectionResponse(explanation);
+        return new ConnectionResponse(explanation, false);
+    }
+
+    /**
+     * Creates a response to a request that carried only the hash of the node's flow, indicating that the node should immediately
+     * send the request again with its full flow, such as when the cluster is electing its flow
+     */
+    public static ConnectionResponse createFlowRequiredResponse(final String explanation) {
+        return new ConnectionResponse(explanation, true);
     }
 
     public boolean shouldTryLater() {
         return tryLaterSeconds > 0;
     }
 
+    public boolean isFlowRequired() {
+        return flowRequired;
+    }
+
+    public boolean isFlowUnchanged() {
+        return flowUnchanged;
+    }
+
     public String getRejectionReason() {
         return rejectionReason;
     }
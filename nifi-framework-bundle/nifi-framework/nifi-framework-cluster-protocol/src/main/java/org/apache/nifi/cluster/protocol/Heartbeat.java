@@ -34,15 +34,28 @@ public class Heartbeat {
     private final NodeIdentifier nodeIdentifier;
     private final NodeConnectionStatus connectionStatus;
     private final long createdTimestamp;
-    private final byte[] payload;
+    private byte[] payload;
+    private HeartbeatPayload heartbeatPayload;
 
     public Heartbeat(final NodeIdentifier nodeIdentifier, final NodeConnectionStatus connectionStatus, final byte[] payload) {
+        this(nodeIdentifier, connectionStatus, payload, null);
+    }
+
+    /**
+     * Creates a heartbeat whose payload is marshalled only if the heartbeat is sent in a format that carries the payload as XML
+     */
+    public Heartbeat(final NodeIdentifier nodeIdentifier, final NodeConnectionStatus connectionStatus, final HeartbeatPayload heartbeatPayload) {
+        this(nodeIdentifier, connectionStatus, null, heartbeatPayload);
+    }
+
+    private Heartbeat(final NodeIdentifier nodeIdentifier, final NodeConnectionStatus connectionStatus, final byte[] payload, final HeartbeatPayload heartbeatPayload) {
         if (nodeIdentifier == null) {
             throw new IllegalArgumentException("Node Identifier may not be null.");
         }
         this.nodeIdentifier = nodeIdentifier;
         this.connectionStatus = connectionStatus;
         this.payload = payload;
+        this.heartbeatPayload = heartbeatPayload;
         this.createdTimestamp = new Date().getTime();
     }
 
@@ -50,10 +63,28 @@ public class Heartbeat {
         return nodeIdentifier;
     }
 
-    public byte[] getPayload() {
+    /**
+     * @return the payload of the heartbeat, marshalled as XML
+     */
+    public synchronized byte[] getPayload() {
+        if (payload == null && heartbeatPayload != null) {
+            payload = heartbeatPayload.marshal();
+        }
         return payload;
     }
 
+    /**
+     * @return the payload of the heartbeat, which is unmarshalled if the heartbeat was received with its payload marshalled as XML,
+     *         or <code>null</code> if the heartbeat has no payload
+     */
+    @XmlTransient
+    public synchronized HeartbeatPayload getHeartbeatPayload() {
+        if (heartbeatPayload == null && payload != null) {
+            heartbeatPayload = HeartbeatPayload.unmarshal(payload);
+        }
+        return heartbeatPayload;
+    }
+
     public NodeConnectionStatus getConnectionStatus() {
         return connectionStatus;
     }
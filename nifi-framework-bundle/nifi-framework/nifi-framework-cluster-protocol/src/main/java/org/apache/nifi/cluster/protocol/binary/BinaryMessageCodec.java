@@ -0,0 +1,367 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.protocol.binary;
+
+import org.apache.nifi.cluster.coordination.node.DisconnectionCode;
+import org.apache.nifi.cluster.coordination.node.NodeConnectionState;
+import org.apache.nifi.cluster.coordination.node.NodeConnectionStatus;
+import org.apache.nifi.cluster.coordination.node.OffloadCode;
+import org.apache.nifi.cluster.protocol.Heartbeat;
+import org.apache.nifi.cluster.protocol.HeartbeatPayload;
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.cluster.protocol.message.HeartbeatMessage;
+import org.apache.nifi.cluster.protocol.message.HeartbeatResponseMessage;
+import org.apache.nifi.cluster.protocol.message.ProtocolMessage;
+import org.apache.nifi.cluster.protocol.message.ProtocolMessage.MessageType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>
+ * Encodes and decodes protocol messages using a compact binary format rather than XML. Each message is written as
+ * </p>
+ *
+ * <pre>
+ * sentinel (1 byte) | schema version (2 bytes) | body length (4 bytes) | body
+ * </pre>
+ *
+ * <p>
+ * The body begins with the name of the message type, followed by the fields of the message in a fixed order. Later versions of the
+ * schema may only append fields to the end of a body, and readers ignore any bytes of a body that follow the fields that they know of,
+ * so a message written with a newer schema version can still be read by an older reader.
+ * </p>
+ */
+class BinaryMessageCodec {
+
+    /*
+     * Distinct from the sentinel that is used by the JAXB protocol context so that the format of a message can be determined from its first byte.
+     */
+    static final byte MESSAGE_PROTOCOL_START_SENTINEL = 0x5B;
+
+    static final int SCHEMA_VERSION = 1;
+
+    static final Set<MessageType> SUPPORTED_MESSAGE_TYPES = EnumSet.of(MessageType.HEARTBEAT, MessageType.HEARTBEAT_RESPONSE);
+
+    private static final int NULL_LENGTH = -1;
+
+    static boolean isSupported(final ProtocolMessage message) {
+        return SUPPORTED_MESSAGE_TYPES.contains(message.getType());
+    }
+
+    static void encode(final ProtocolMessage message, final OutputStream out) throws IOException {
+        final ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+        final DataOutputStream body = new DataOutputStream(bodyBytes);
+        writeString(message.getType().name(), body);
+
+        switch (message.getType()) {
+            case HEARTBEAT -> writeHeartbeat(((HeartbeatMessage) message).getHeartbeat(), body);
+            case HEARTBEAT_RESPONSE -> writeHeartbeatResponse((HeartbeatResponseMessage) message, body);
+            default -> throw new IOException("Message type " + message.getType() + " is not supported by the binary protocol");
+        }
+        body.flush();
+
+        final DataOutputStream dos = new DataOutputStream(out);
+        dos.write(MESSAGE_PROTOCOL_START_SENTINEL);
+        dos.writeShort(SCHEMA_VERSION);
+        dos.writeInt(bodyBytes.size());
+        bodyBytes.writeTo(dos);
+        dos.flush();
+    }
+
+    /**
+     * Decodes a message whose sentinel has already been consumed from the given stream
+     */
+    static ProtocolMessage decode(final InputStream in) throws IOException {
+        final DataInputStream dis = new DataInputStream(in);
+        final int schemaVersion = dis.readUnsignedShort();
+        if (schemaVersion < 1) {
+            throw new IOException("Failed reading protocol message due to invalid schema version " + schemaVersion);
+        }
+
+        final int bodyLength = dis.readInt();
+        if (bodyLength < 0) {
+            throw new IOException("Failed reading protocol message due to malformed header");
+        }
+
+        final byte[] bodyBytes = new byte[bodyLength];
+        dis.readFully(bodyBytes);
+
+        final DataInputStream body = new DataInputStream(new ByteArrayInputStream(bodyBytes));
+        final String typeName = readString(body);
+        final MessageType type;
+        try {
+            type = MessageType.valueOf(typeName);
+        } catch (final IllegalArgumentException e) {
+            throw new IOException("Failed reading protocol message due to unknown message type " + typeName, e);
+        }
+
+        try {
+            return switch (type) {
+                case HEARTBEAT -> readHeartbeatMessage(body);
+                case HEARTBEAT_RESPONSE -> readHeartbeatResponse(body, schemaVersion);
+                default -> throw new IOException("Message type " + type + " is not supported by the binary protocol");
+            };
+        } catch (final EOFException e) {
+            throw new IOException("Failed reading " + type + " protocol message because its body was truncated", e);
+        }
+    }
+
+    private static void writeHeartbeat(final Heartbeat heartbeat, final DataOutputStream out) throws IOException {
+        writeNodeIdentifier(heartbeat.getNodeIdentifier(), out);
+        writeNodeConnectionStatus(heartbeat.getConnectionStatus(), out);
+        writeHeartbeatPayload(heartbeat.getHeartbeatPayload(), out);
+    }
+
+    private static HeartbeatMessage readHeartbeatMessage(final DataInputStream in) throws IOException {
+        final NodeIdentifier nodeIdentifier = readNodeIdentifier(in);
+        final NodeConnectionStatus connectionStatus = readNodeConnectionStatus(in);
+        final HeartbeatPayload payload = readHeartbeatPayload(in);
+
+        final HeartbeatMessage message = new HeartbeatMessage();
+        message.setHeartbeat(new Heartbeat(nodeIdentifier, connectionStatus, payload));
+        return message;
+    }
+
+    // The fields of the payload are written directly, so that neither side marshals the payload as XML
+    private static void writeHeartbeatPayload(final HeartbeatPayload payload, final DataOutputStream out) throws IOException {
+        out.writeBoolean(payload != null);
+        if (payload == null) {
+            return;
+        }
+
+        out.writeInt(payload.getActiveThreadCount());
+        out.writeLong(payload.getTotalFlowFileCount());
+        out.writeLong(payload.getTotalFlowFileBytes());
+        out.writeLong(payload.getSystemStartTime());
+        out.writeLong(payload.getRevisionUpdateCount());
+        writeInteger(payload.getComponentActiveThreadCount(), out);
+        writeInteger(payload.getTerminatedThreadCount(), out);
+        writeNodeConnectionStatuses(payload.getClusterStatus(), out);
+    }
+
+    private static HeartbeatPayload readHeartbeatPayload(final DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+
+        final HeartbeatPayload payload = new HeartbeatPayload();
+        payload.setActiveThreadCount(in.readInt());
+        payload.setTotalFlowFileCount(in.readLong());
+        payload.setTotalFlowFileBytes(in.readLong());
+        payload.setSystemStartTime(in.readLong());
+        payload.setRevisionUpdateCount(in.readLong());
+        payload.setComponentActiveThreadCount(readInteger(in));
+        payload.setTerminatedThreadCount(readInteger(in));
+        payload.setClusterStatus(readNodeConnectionStatuses(in));
+        return payload;
+    }
+
+    private static void writeHeartbeatResponse(final HeartbeatResponseMessage message, final DataOutputStream out) throws IOException {
+        final List<NodeConnectionStatus> statuses = message.getUpdatedNodeStatuses();
+        writeNodeConnectionStatuses(statuses == null ? List.of() : statuses, out);
+        writeString(message.getFlowElectionMessage(), out);
+    }
+
+    private static HeartbeatResponseMessage readHeartbeatResponse(final DataInputStream in, final int schemaVersion) throws IOException {
+        final List<NodeConnectionStatus> statuses = readNodeConnectionStatuses(in);
+
+        final HeartbeatResponseMessage message = new HeartbeatResponseMessage();
+        message.setUpdatedNodeStatuses(statuses == null ? new ArrayList<>() : statuses);
+        message.setFlowElectionMessage(readString(in));
+
+        // A coordinator that responds in the binary format supports at least the version of the schema that it wrote
+        message.setBinaryProtocolVersion(schemaVersion);
+        return message;
+    }
+
+    private static void writeNodeIdentifier(final NodeIdentifier nodeId, final DataOutputStream out) throws IOException {
+        out.writeBoolean(nodeId != null);
+        if (nodeId == null) {
+            return;
+        }
+
+        writeString(nodeId.getId(), out);
+        writeString(nodeId.getApiAddress(), out);
+        out.writeInt(nodeId.getApiPort());
+        writeString(nodeId.getSocketAddress(), out);
+        out.writeInt(nodeId.getSocketPort());
+        writeString(nodeId.getLoadBalanceAddress(), out);
+        out.writeInt(nodeId.getLoadBalancePort());
+        writeString(nodeId.getSiteToSiteAddress(), out);
+        writeInteger(nodeId.getSiteToSitePort(), out);
+        writeInteger(nodeId.getSiteToSiteHttpApiPort(), out);
+        out.writeBoolean(nodeId.isSiteToSiteSecure());
+    }
+
+    private static NodeIdentifier readNodeIdentifier(final DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+
+        final String id = readString(in);
+        final String apiAddress = readString(in);
+        final int apiPort = in.readInt();
+        final String socketAddress = readString(in);
+        final int socketPort = in.readInt();
+        final String loadBalanceAddress = readString(in);
+        final int loadBalancePort = in.readInt();
+        final String siteToSiteAddress = readString(in);
+        final Integer siteToSitePort = readInteger(in);
+        final Integer siteToSiteHttpApiPort = readInteger(in);
+        final boolean siteToSiteSecure = in.readBoolean();
+
+        try {
+            return new NodeIdentifier(id, apiAddress, apiPort, socketAddress, socketPort, loadBalanceAddress, loadBalancePort,
+                siteToSiteAddress, siteToSitePort, siteToSiteHttpApiPort, siteToSiteSecure);
+        } catch (final IllegalArgumentException e) {
+            throw new IOException("Failed reading Node Identifier due to: " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeNodeConnectionStatus(final NodeConnectionStatus status, final DataOutputStream out) throws IOException {
+        out.writeBoolean(status != null);
+        if (status == null) {
+            return;
+        }
+
+        out.writeLong(status.getUpdateIdentifier());
+        writeNodeIdentifier(status.getNodeIdentifier(), out);
+        writeString(status.getState() == null ? null : status.getState().name(), out);
+        writeString(status.getOffloadCode() == null ? null : status.getOffloadCode().name(), out);
+        writeString(status.getDisconnectCode() == null ? null : status.getDisconnectCode().name(), out);
+        writeString(status.getReason(), out);
+
+        final Long connectionRequestTime = status.getConnectionRequestTime();
+        out.writeBoolean(connectionRequestTime != null);
+        if (connectionRequestTime != null) {
+            out.writeLong(connectionRequestTime);
+        }
+    }
+
+    private static NodeConnectionStatus readNodeConnectionStatus(final DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+
+        final long updateId = in.readLong();
+        final NodeIdentifier nodeId = readNodeIdentifier(in);
+        final NodeConnectionState state = readEnum(in, NodeConnectionState.class);
+        final OffloadCode offloadCode = readEnum(in, OffloadCode.class);
+        final DisconnectionCode disconnectCode = readEnum(in, DisconnectionCode.class);
+        final String reason = readString(in);
+        final Long connectionRequestTime = in.readBoolean() ? in.readLong() : null;
+
+        return new NodeConnectionStatus(updateId, nodeId, state, offloadCode, disconnectCode, reason, connectionRequestTime);
+    }
+
+    private static void writeNodeConnectionStatuses(final List<NodeConnectionStatus> statuses, final DataOutputStream out) throws IOException {
+        if (statuses == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+
+        out.writeInt(statuses.size());
+        for (final NodeConnectionStatus status : statuses) {
+            writeNodeConnectionStatus(status, out);
+        }
+    }
+
+    private static List<NodeConnectionStatus> readNodeConnectionStatuses(final DataInputStream in) throws IOException {
+        final int statusCount = in.readInt();
+        if (statusCount == NULL_LENGTH) {
+            return null;
+        }
+        if (statusCount < 0) {
+            throw new IOException("Failed reading protocol message due to invalid number of Node Connection Statuses " + statusCount);
+        }
+
+        final List<NodeConnectionStatus> statuses = new ArrayList<>();
+        for (int i = 0; i < statusCount; i++) {
+            statuses.add(readNodeConnectionStatus(in));
+        }
+        return statuses;
+    }
+
+    private static <E extends Enum<E>> E readEnum(final DataInputStream in, final Class<E> enumType) throws IOException {
+        final String name = readString(in);
+        if (name == null) {
+            return null;
+        }
+
+        try {
+            return Enum.valueOf(enumType, name);
+        } catch (final IllegalArgumentException e) {
+            throw new IOException("Failed reading protocol message due to unknown " + enumType.getSimpleName() + " " + name, e);
+        }
+    }
+
+    // Strings are written as length-prefixed UTF-8 rather than with writeUTF, which is limited to 64 KB
+    private static void writeString(final String value, final DataOutputStream out) throws IOException {
+        writeBytes(value == null ? null : value.getBytes(StandardCharsets.UTF_8), out);
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        final byte[] bytes = readBytes(in);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInteger(final Integer value, final DataOutputStream out) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readInteger(final DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeBytes(final byte[] value, final DataOutputStream out) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+        } else {
+            out.writeInt(value.length);
+            out.write(value);
+        }
+    }
+
+    private static byte[] readBytes(final DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (length < 0) {
+            throw new IOException("Failed reading protocol message due to invalid length " + length);
+        }
+
+        final byte[] value = new byte[length];
+        in.readFully(value);
+        return value;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.protocol.binary;
+
+import org.apache.nifi.cluster.protocol.ProtocolContext;
+import org.apache.nifi.cluster.protocol.ProtocolMessageMarshaller;
+import org.apache.nifi.cluster.protocol.ProtocolMessageUnmarshaller;
+import org.apache.nifi.cluster.protocol.message.HeartbeatResponseMessage;
+import org.apache.nifi.cluster.protocol.message.ProtocolMessage;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+
+/**
+ * <p>
+ * A protocol context that is able to read messages written either in the binary format of {@link BinaryMessageCodec} or by a compatibility
+ * context, such as the JAXB protocol context, that older nodes use. The format of each message is determined from its first byte.
+ * </p>
+ *
+ * <p>
+ * The binary format is used only where both sides are known to support it: {@link #createMarshaller()} always writes the compatibility format,
+ * whereas {@link #createMarshaller(MessageFormat)} writes message types that the binary format supports in that format and all others in the
+ * compatibility format. Heartbeat responses that are written by this context advertise the binary schema version that it supports, so that a
+ * node can switch to the binary format once its Cluster Coordinator is known to read it.
+ * </p>
+ */
+public class BinaryProtocolContext implements ProtocolContext<ProtocolMessage> {
+
+    public enum MessageFormat {
+        COMPATIBILITY,
+        BINARY
+    }
+
+    private final ProtocolContext<ProtocolMessage> compatibilityContext;
+
+    public BinaryProtocolContext(final ProtocolContext<ProtocolMessage> compatibilityContext) {
+        if (compatibilityContext == null) {
+            throw new IllegalArgumentException("Compatibility Protocol Context may not be null.");
+        }
+
+        this.compatibilityContext = compatibilityContext;
+    }
+
+    /**
+     * @return the version of the binary schema that this context writes and the newest version that it reads
+     */
+    public static int getSchemaVersion() {
+        return BinaryMessageCodec.SCHEMA_VERSION;
+    }
+
+    @Override
+    public ProtocolMessageMarshaller<ProtocolMessage> createMarshaller() {
+        return createMarshaller(MessageFormat.COMPATIBILITY);
+    }
+
+    public ProtocolMessageMarshaller<ProtocolMessage> createMarshaller(final MessageFormat format) {
+        final ProtocolMessageMarshaller<ProtocolMessage> compatibilityMarshaller = compatibilityContext.createMarshaller();
+
+        return (msg, os) -> {
+            if (msg instanceof HeartbeatResponseMessage heartbeatResponse) {
+                heartbeatResponse.setBinaryProtocolVersion(BinaryMessageCodec.SCHEMA_VERSION);
+            }
+
+            if (format == MessageFormat.BINARY && BinaryMessageCodec.isSupported(msg)) {
+                BinaryMessageCodec.encode(msg, os);
+            } else {
+                compatibilityMarshaller.marshal(msg, os);
+            }
+        };
+    }
+
+    @Override
+    public FormatDetectingUnmarshaller createUnmarshaller() {
+        return new FormatDetectingUnmarshaller(compatibilityContext.createUnmarshaller());
+    }
+
+    /**
+     * An unmarshaller that reads messages in either format and records the format of the last message that it read, so that a
+     * response can be written in a format that the sender of the request is able to read.
+     */
+    public static class FormatDetectingUnmarshaller implements ProtocolMessageUnmarshaller<ProtocolMessage> {
+        private final ProtocolMessageUnmarshaller<ProtocolMessage> compatibilityUnmarshaller;
+        private volatile MessageFormat lastMessageFormat = MessageFormat.COMPATIBILITY;
+
+        private FormatDetectingUnmarshaller(final ProtocolMessageUnmarshaller<ProtocolMessage> compatibilityUnmarshaller) {
+            this.compatibilityUnmarshaller = compatibilityUnmarshaller;
+        }
+
+        @Override
+        public ProtocolMessage unmarshal(final InputStream is) throws IOException {
+            final PushbackInputStream in = new PushbackInputStream(is, 1);
+            final int sentinel = in.read();
+            if (sentinel == -1) {
+                throw new EOFException();
+            }
+
+            if ((byte) sentinel == BinaryMessageCodec.MESSAGE_PROTOCOL_START_SENTINEL) {
+                lastMessageFormat = MessageFormat.BINARY;
+                return BinaryMessageCodec.decode(in);
+            }
+
+            lastMessageFormat = MessageFormat.COMPATIBILITY;
+            in.unread(sentinel);
+            return compatibilityUnmarshaller.unmarshal(in);
+        }
+
+        public MessageFormat getLastMessageFormat() {
+            return lastMessageFormat;
+        }
+    }
+}
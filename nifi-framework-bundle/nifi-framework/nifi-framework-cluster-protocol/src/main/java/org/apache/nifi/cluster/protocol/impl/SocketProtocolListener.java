@@ -34,6 +34,7 @@ import org.apache.nifi.cluster.protocol.ProtocolHandler;
 import org.apache.nifi.cluster.protocol.ProtocolListener;
 import org.apache.nifi.cluster.protocol.ProtocolMessageMarshaller;
 import org.apache.nifi.cluster.protocol.ProtocolMessageUnmarshaller;
+import org.apache.nifi.cluster.protocol.binary.BinaryProtocolContext;
 import org.apache.nifi.cluster.protocol.message.ConnectionRequestMessage;
 import org.apache.nifi.cluster.protocol.message.DisconnectMessage;
 import org.apache.nifi.cluster.protocol.message.FlowRequestMessage;
@@ -180,7 +181,7 @@ public class SocketProtocolListener extends SocketListener implements ProtocolLi
                         logger.debug("Sending response for request {}", requestId);
 
                         // marshal message to output stream
-                        final ProtocolMessageMarshaller<ProtocolMessage> marshaller = protocolContext.createMarshaller();
+                        final ProtocolMessageMarshaller<ProtocolMessage> marshaller = createResponseMarshaller(unmarshaller);
                         marshaller.marshal(response, socket.getOutputStream());
                     } catch (final IOException ioe) {
                         throw new ProtocolException("Failed marshalling protocol message in response to message type: " + request.getType() + " due to " + ioe, ioe);
@@ -211,6 +212,18 @@ public class SocketProtocolListener extends SocketListener implements ProtocolLi
         }
     }
 
+    /**
+     * Creates a marshaller that writes the response in the format of the request, so that nodes that do not support the binary protocol
+     * are able to read the response.
+     */
+    private ProtocolMessageMarshaller<ProtocolMessage> createResponseMarshaller(final ProtocolMessageUnmarshaller<ProtocolMessage> requestUnmarshaller) {
+        if (protocolContext instanceof BinaryProtocolContext binaryProtocolContext && requestUnmarshaller instanceof BinaryProtocolContext.FormatDetectingUnmarshaller detectingUnmarshaller) {
+            return binaryProtocolContext.createMarshaller(detectingUnmarshaller.getLastMessageFormat());
+        }
+
+        return protocolContext.createMarshaller();
+    }
+
     private boolean handleTlsError(String msg, Throwable e) {
         final String populatedMessage = msg + e.getLocalizedMessage();
         if (tlsErrorRecentlySeen()) {
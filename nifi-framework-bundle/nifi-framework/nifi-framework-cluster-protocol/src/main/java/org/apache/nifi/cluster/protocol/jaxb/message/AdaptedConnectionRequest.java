@@ -27,6 +27,7 @@ public class AdaptedConnectionRequest {
 
     private NodeIdentifier nodeIdentifier;
     private DataFlow dataFlow;
+    private String flowHash;
 
     public AdaptedConnectionRequest() {
     }
@@ -48,4 +49,12 @@ public class AdaptedConnectionRequest {
     public void setDataFlow(final DataFlow dataFlow) {
         this.dataFlow = dataFlow;
     }
+
+    public String getFlowHash() {
+        return flowHash;
+    }
+
+    public void setFlowHash(final String flowHash) {
+        this.flowHash = flowHash;
+    }
 }
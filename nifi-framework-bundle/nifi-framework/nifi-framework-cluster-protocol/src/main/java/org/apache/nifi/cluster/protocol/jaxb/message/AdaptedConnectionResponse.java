@@ -35,6 +35,8 @@ public class AdaptedConnectionResponse {
     private String instanceId;
     private List<NodeConnectionStatus> nodeStatuses;
     private ComponentRevisionSnapshot componentRevisions;
+    private boolean flowRequired;
+    private boolean flowUnchanged;
 
     public AdaptedConnectionResponse() {
     }
@@ -100,4 +102,20 @@ public class AdaptedConnectionResponse {
     public void setComponentRevisions(ComponentRevisionSnapshot componentRevisions) {
         this.componentRevisions = componentRevisions;
     }
+
+    public boolean isFlowRequired() {
+        return flowRequired;
+    }
+
+    public void setFlowRequired(final boolean flowRequired) {
+        this.flowRequired = flowRequired;
+    }
+
+    public boolean isFlowUnchanged() {
+        return flowUnchanged;
+    }
+
+    public void setFlowUnchanged(final boolean flowUnchanged) {
+        this.flowUnchanged = flowUnchanged;
+    }
 }
@@ -34,6 +34,8 @@ public class ConnectionResponseAdapter extends XmlAdapter<AdaptedConnectionRespo
             aCr.setInstanceId(cr.getInstanceId());
             aCr.setNodeConnectionStatuses(cr.getNodeConnectionStatuses());
             aCr.setComponentRevisions(cr.getComponentRevisions());
+            aCr.setFlowRequired(cr.isFlowRequired());
+            aCr.setFlowUnchanged(cr.isFlowUnchanged());
         }
         return aCr;
     }
@@ -42,11 +44,13 @@ public class ConnectionResponseAdapter extends XmlAdapter<AdaptedConnectionRespo
     public ConnectionResponse unmarshal(final AdaptedConnectionResponse aCr) {
         if (aCr.shouldTryLater()) {
             return new ConnectionResponse(aCr.getTryLaterSeconds(), aCr.getRejectionReason());
+        } else if (aCr.isFlowRequired()) {
+            return ConnectionResponse.createFlowRequiredResponse(aCr.getRejectionReason());
         } else if (aCr.getRejectionReason() != null) {
             return ConnectionResponse.createRejectionResponse(aCr.getRejectionReason());
         } else {
             return new ConnectionResponse(aCr.getNodeIdentifier(), aCr.getDataFlow(),
-                aCr.getInstanceId(), aCr.getNodeConnectionStatuses(), aCr.getComponentRevisions());
+                aCr.getInstanceId(), aCr.getNodeConnectionStatuses(), aCr.getComponentRevisions(), aCr.isFlowUnchanged());
         }
     }
 
@@ -29,6 +29,7 @@ public class HeartbeatResponseMessage extends ProtocolMessage {
     private List<NodeConnectionStatus> updatedNodeStatuses = new ArrayList<>();
     private String flowElectionMessage = null;
     private CommsTimingDetails commsTimingDetails;
+    private Integer binaryProtocolVersion = null;
 
     @Override
     public MessageType getType() {
@@ -58,4 +59,16 @@ public class HeartbeatResponseMessage extends ProtocolMessage {
     public void setCommsTimingDetails(final CommsTimingDetails commsTimingDetails) {
         this.commsTimingDetails = commsTimingDetails;
     }
+
+    /**
+     * @return the newest version of the binary protocol that the Cluster Coordinator is able to read, or <code>null</code>
+     * if the Cluster Coordinator only supports the JAXB protocol
+     */
+    public Integer getBinaryProtocolVersion() {
+        return binaryProtocolVersion;
+    }
+
+    public void setBinaryProtocolVersion(final Integer binaryProtocolVersion) {
+        this.binaryProtocolVersion = binaryProtocolVersion;
+    }
 }
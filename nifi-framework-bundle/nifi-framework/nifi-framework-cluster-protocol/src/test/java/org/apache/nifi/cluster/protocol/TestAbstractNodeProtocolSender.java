@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.protocol;
+
+import org.apache.nifi.cluster.protocol.binary.BinaryProtocolContext;
+import org.apache.nifi.cluster.protocol.binary.BinaryProtocolContext.FormatDetectingUnmarshaller;
+import org.apache.nifi.cluster.protocol.binary.BinaryProtocolContext.MessageFormat;
+import org.apache.nifi.cluster.protocol.impl.SocketProtocolListener;
+import org.apache.nifi.cluster.protocol.jaxb.JaxbProtocolContext;
+import org.apache.nifi.cluster.protocol.jaxb.message.JaxbProtocolUtils;
+import org.apache.nifi.cluster.protocol.message.HeartbeatMessage;
+import org.apache.nifi.cluster.protocol.message.HeartbeatResponseMessage;
+import org.apache.nifi.cluster.protocol.message.ProtocolMessage;
+import org.apache.nifi.io.socket.ServerSocketConfiguration;
+import org.apache.nifi.io.socket.SocketConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TestAbstractNodeProtocolSender {
+
+    private static final int SOCKET_TIMEOUT_MILLISECONDS = 5000;
+
+    private CoordinatorProtocolContext coordinatorContext;
+    private SocketProtocolListener listener;
+    private final List<Heartbeat> receivedHeartbeats = new CopyOnWriteArrayList<>();
+    private AbstractNodeProtocolSender sender;
+    private String address;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        coordinatorContext = new CoordinatorProtocolContext();
+
+        final ServerSocketConfiguration serverConfiguration = new ServerSocketConfiguration();
+        serverConfiguration.setSocketTimeout(SOCKET_TIMEOUT_MILLISECONDS);
+        listener = new SocketProtocolListener(1, 0, serverConfiguration, coordinatorContext);
+        listener.addHandler(new ProtocolHandler() {
+            @Override
+            public ProtocolMessage handle(final ProtocolMessage msg, final Set<String> nodeIdentities) {
+                receivedHeartbeats.add(((HeartbeatMessage) msg).getHeartbeat());
+                return new HeartbeatResponseMessage();
+            }
+
+            @Override
+            public boolean canHandle(final ProtocolMessage msg) {
+                return msg.getType() == ProtocolMessage.MessageType.HEARTBEAT;
+            }
+        });
+        listener.start();
+
+        address = "localhost:" + listener.getPort();
+
+        final SocketConfiguration socketConfiguration = new SocketConfiguration();
+        socketConfiguration.setSocketTimeout(SOCKET_TIMEOUT_MILLISECONDS);
+        final BinaryProtocolContext senderContext = new BinaryProtocolContext(new JaxbProtocolContext<>(JaxbProtocolUtils.JAXB_CONTEXT));
+        sender = new AbstractNodeProtocolSender(socketConfiguration, senderContext) {
+            @Override
+            protected InetSocketAddress getServiceAddress() {
+                return new InetSocketAddress("localhost", listener.getPort());
+            }
+        };
+    }
+
+    @AfterEach
+    public void teardown() throws IOException {
+        if (listener.isRunning()) {
+            listener.stop();
+        }
+    }
+
+    @Test
+    public void testHeartbeatSentInBinaryFormatOnceAdvertised() {
+        final HeartbeatResponseMessage firstResponse = sender.heartbeat(createHeartbeatMessage(), address);
+        assertEquals(BinaryProtocolContext.getSchemaVersion(), firstResponse.getBinaryProtocolVersion());
+
+        sender.heartbeat(createHeartbeatMessage(), address);
+        sender.heartbeat(createHeartbeatMessage(), address);
+        assertEquals(List.of(MessageFormat.COMPATIBILITY, MessageFormat.BINARY, MessageFormat.BINARY), coordinatorContext.getReceivedFormats());
+
+        assertEquals(3, receivedHeartbeats.size());
+        for (final Heartbeat heartbeat : receivedHeartbeats) {
+            assertEquals(7, heartbeat.getHeartbeatPayload().getActiveThreadCount());
+            assertEquals(100L, heartbeat.getHeartbeatPayload().getTotalFlowFileCount());
+        }
+    }
+
+    @Test
+    public void testHeartbeatSentInCompatibilityFormatToOlderCoordinator() {
+        coordinatorContext.setBinarySupported(false);
+
+        final HeartbeatResponseMessage response = sender.heartbeat(createHeartbeatMessage(), address);
+        assertNull(response.getBinaryProtocolVersion());
+
+        sender.heartbeat(createHeartbeatMessage(), address);
+        assertEquals(List.of(MessageFormat.COMPATIBILITY, MessageFormat.COMPATIBILITY), coordinatorContext.getReceivedFormats());
+        assertEquals(2, receivedHeartbeats.size());
+    }
+
+    @Test
+    public void testHeartbeatFallsBackToCompatibilityFormat() {
+        sender.heartbeat(createHeartbeatMessage(), address);
+        sender.heartbeat(createHeartbeatMessage(), address);
+
+        // the address now belongs to a Cluster Coordinator that is unable to read the binary format
+        coordinatorContext.setBinarySupported(false);
+
+        final HeartbeatResponseMessage response = sender.heartbeat(createHeartbeatMessage(), address);
+        assertNull(response.getBinaryProtocolVersion());
+        sender.heartbeat(createHeartbeatMessage(), address);
+
+        assertEquals(List.of(MessageFormat.COMPATIBILITY, MessageFormat.BINARY, MessageFormat.BINARY, MessageFormat.COMPATIBILITY, MessageFormat.COMPATIBILITY),
+            coordinatorContext.getReceivedFormats());
+        assertEquals(4, receivedHeartbeats.size());
+    }
+
+    private HeartbeatMessage createHeartbeatMessage() {
+        final HeartbeatPayload payload = new HeartbeatPayload();
+        payload.setActiveThreadCount(7);
+        payload.setTotalFlowFileCount(100L);
+
+        final NodeIdentifier nodeId = new NodeIdentifier("node-1", "localhost", 8080, "localhost", 8081, "localhost", 8082, 8083, false);
+        final HeartbeatMessage message = new HeartbeatMessage();
+        message.setHeartbeat(new Heartbeat(nodeId, null, payload));
+        return message;
+    }
+
+    /**
+     * Simulates a Cluster Coordinator that either supports the binary protocol or, like an older version, is only able to read the
+     * compatibility format, recording the format of each message that it receives
+     */
+    private static class CoordinatorProtocolContext implements ProtocolContext<ProtocolMessage> {
+        private final BinaryProtocolContext binaryContext = new BinaryProtocolContext(new JaxbProtocolContext<>(JaxbProtocolUtils.JAXB_CONTEXT));
+        private final ProtocolContext<ProtocolMessage> compatibilityContext = new JaxbProtocolContext<>(JaxbProtocolUtils.JAXB_CONTEXT);
+        private final List<MessageFormat> receivedFormats = new CopyOnWriteArrayList<>();
+        private volatile boolean binarySupported = true;
+
+        void setBinarySupported(final boolean binarySupported) {
+            this.binarySupported = binarySupported;
+        }
+
+        List<MessageFormat> getReceivedFormats() {
+            return receivedFormats;
+        }
+
+        @Override
+        public ProtocolMessageMarshaller<ProtocolMessage> createMarshaller() {
+            return binarySupported ? binaryContext.createMarshaller() : compatibilityContext.createMarshaller();
+        }
+
+        @Override
+        public ProtocolMessageUnmarshaller<ProtocolMessage> createUnmarshaller() {
+            final FormatDetectingUnmarshaller unmarshaller = binaryContext.createUnmarshaller();
+
+            return in -> {
+                final ProtocolMessage message = unmarshaller.unmarshal(in);
+                final MessageFormat format = unmarshaller.getLastMessageFormat();
+                receivedFormats.add(format);
+
+                if (format == MessageFormat.BINARY && !binarySupported) {
+                    throw new IOException("Failed reading protocol message due to unexpected sentinel");
+                }
+
+                return message;
+            };
+        }
+    }
+}
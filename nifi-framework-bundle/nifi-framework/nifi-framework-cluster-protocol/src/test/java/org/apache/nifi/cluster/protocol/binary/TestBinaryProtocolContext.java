@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.protocol.binary;
+
+import org.apache.nifi.cluster.coordination.node.DisconnectionCode;
+import org.apache.nifi.cluster.coordination.node.NodeConnectionState;
+import org.apache.nifi.cluster.coordination.node.NodeConnectionStatus;
+import org.apache.nifi.cluster.protocol.Heartbeat;
+import org.apache.nifi.cluster.protocol.HeartbeatPayload;
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.cluster.protocol.binary.BinaryProtocolContext.FormatDetectingUnmarshaller;
+import org.apache.nifi.cluster.protocol.binary.BinaryProtocolContext.MessageFormat;
+import org.apache.nifi.cluster.protocol.jaxb.JaxbProtocolContext;
+import org.apache.nifi.cluster.protocol.jaxb.message.JaxbProtocolUtils;
+import org.apache.nifi.cluster.protocol.message.HeartbeatMessage;
+import org.apache.nifi.cluster.protocol.message.HeartbeatResponseMessage;
+import org.apache.nifi.cluster.protocol.message.PingMessage;
+import org.apache.nifi.cluster.protocol.message.ProtocolMessage;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestBinaryProtocolContext {
+
+    private static final byte JAXB_SENTINEL = 0x5A;
+
+    private final BinaryProtocolContext context = new BinaryProtocolContext(new JaxbProtocolContext<>(JaxbProtocolUtils.JAXB_CONTEXT));
+
+    @Test
+    public void testRoundTripBinaryHeartbeat() throws IOException {
+        final NodeIdentifier nodeId = new NodeIdentifier("id", "localhost", 8000, "localhost", 8001, "localhost", 8002, null, 8003, null, true);
+        final NodeConnectionStatus status = new NodeConnectionStatus(12L, nodeId, NodeConnectionState.CONNECTED, null, null, null, 1234L);
+        final HeartbeatPayload payload = new HeartbeatPayload();
+        payload.setActiveThreadCount(3);
+        payload.setTotalFlowFileCount(1000L);
+        payload.setTotalFlowFileBytes(1_000_000L);
+        payload.setSystemStartTime(5678L);
+        payload.setRevisionUpdateCount(42L);
+        payload.setComponentActiveThreadCount(2);
+        payload.setClusterStatus(List.of(status));
+
+        final HeartbeatMessage message = new HeartbeatMessage();
+        message.setHeartbeat(new Heartbeat(nodeId, status, payload));
+
+        final byte[] binaryBytes = marshal(message, MessageFormat.BINARY);
+        assertEquals(BinaryMessageCodec.MESSAGE_PROTOCOL_START_SENTINEL, binaryBytes[0]);
+        assertTrue(binaryBytes.length < marshal(message, MessageFormat.COMPATIBILITY).length);
+
+        final FormatDetectingUnmarshaller unmarshaller = context.createUnmarshaller();
+        final ProtocolMessage unmarshalled = unmarshaller.unmarshal(new ByteArrayInputStream(binaryBytes));
+        assertEquals(MessageFormat.BINARY, unmarshaller.getLastMessageFormat());
+
+        final Heartbeat heartbeat = assertInstanceOf(HeartbeatMessage.class, unmarshalled).getHeartbeat();
+        assertEquals(nodeId, heartbeat.getNodeIdentifier());
+        assertTrue(nodeId.logicallyEquals(heartbeat.getNodeIdentifier()));
+        assertEquals(status, heartbeat.getConnectionStatus());
+        assertEquals(12L, heartbeat.getConnectionStatus().getUpdateIdentifier());
+        assertEquals(1234L, heartbeat.getConnectionStatus().getConnectionRequestTime());
+        assertNull(heartbeat.getConnectionStatus().getOffloadCode());
+
+        final HeartbeatPayload unmarshalledPayload = heartbeat.getHeartbeatPayload();
+        assertEquals(3, unmarshalledPayload.getActiveThreadCount());
+        assertEquals(1000L, unmarshalledPayload.getTotalFlowFileCount());
+        assertEquals(1_000_000L, unmarshalledPayload.getTotalFlowFileBytes());
+        assertEquals(5678L, unmarshalledPayload.getSystemStartTime());
+        assertEquals(42L, unmarshalledPayload.getRevisionUpdateCount());
+        assertEquals(2, unmarshalledPayload.getComponentActiveThreadCount());
+        assertNull(unmarshalledPayload.getTerminatedThreadCount());
+        assertEquals(List.of(status), unmarshalledPayload.getClusterStatus());
+    }
+
+    @Test
+    public void testCompatibilityHeartbeatCarriesPayload() throws IOException {
+        final NodeIdentifier nodeId = new NodeIdentifier("id", "localhost", 8000, "localhost", 8001, "localhost", 8002, 8003, false);
+        final HeartbeatPayload payload = new HeartbeatPayload();
+        payload.setActiveThreadCount(3);
+        payload.setTotalFlowFileCount(1000L);
+
+        final HeartbeatMessage message = new HeartbeatMessage();
+        message.setHeartbeat(new Heartbeat(nodeId, null, payload));
+
+        final byte[] jaxbBytes = marshal(message, MessageFormat.COMPATIBILITY);
+        final ProtocolMessage unmarshalled = context.createUnmarshaller().unmarshal(new ByteArrayInputStream(jaxbBytes));
+
+        final HeartbeatPayload unmarshalledPayload = assertInstanceOf(HeartbeatMessage.class, unmarshalled).getHeartbeat().getHeartbeatPayload();
+        assertEquals(3, unmarshalledPayload.getActiveThreadCount());
+        assertEquals(1000L, unmarshalledPayload.getTotalFlowFileCount());
+    }
+
+    @Test
+    public void testHeartbeatResponseAdvertisesBinaryProtocol() throws IOException {
+        final NodeIdentifier nodeId = new NodeIdentifier("id", "localhost", 8000, "localhost", 8001, "localhost", 8002, 8003, false);
+        final HeartbeatResponseMessage response = new HeartbeatResponseMessage();
+        response.setUpdatedNodeStatuses(List.of(new NodeConnectionStatus(nodeId, DisconnectionCode.LACK_OF_HEARTBEAT, "No heartbeat")));
+        response.setFlowElectionMessage("Election in progress");
+
+        // The compatibility format is readable by nodes that do not support the binary protocol, and still advertises support for it
+        final byte[] jaxbBytes = marshal(response, MessageFormat.COMPATIBILITY);
+        assertEquals(JAXB_SENTINEL, jaxbBytes[0]);
+
+        final FormatDetectingUnmarshaller unmarshaller = context.createUnmarshaller();
+        final HeartbeatResponseMessage jaxbResponse = assertInstanceOf(HeartbeatResponseMessage.class, unmarshaller.unmarshal(new ByteArrayInputStream(jaxbBytes)));
+        assertEquals(MessageFormat.COMPATIBILITY, unmarshaller.getLastMessageFormat());
+        assertEquals(BinaryProtocolContext.getSchemaVersion(), jaxbResponse.getBinaryProtocolVersion());
+
+        final byte[] binaryBytes = marshal(response, MessageFormat.BINARY);
+        final HeartbeatResponseMessage binaryResponse = assertInstanceOf(HeartbeatResponseMessage.class, unmarshaller.unmarshal(new ByteArrayInputStream(binaryBytes)));
+        assertEquals(MessageFormat.BINARY, unmarshaller.getLastMessageFormat());
+        assertEquals(BinaryProtocolContext.getSchemaVersion(), binaryResponse.getBinaryProtocolVersion());
+        assertEquals("Election in progress", binaryResponse.getFlowElectionMessage());
+        assertEquals(1, binaryResponse.getUpdatedNodeStatuses().size());
+
+        final NodeConnectionStatus status = binaryResponse.getUpdatedNodeStatuses().get(0);
+        assertEquals(NodeConnectionState.DISCONNECTED, status.getState());
+        assertEquals(DisconnectionCode.LACK_OF_HEARTBEAT, status.getDisconnectCode());
+        assertEquals("No heartbeat", status.getReason());
+    }
+
+    @Test
+    public void testUnsupportedMessageTypeUsesCompatibilityFormat() throws IOException {
+        final byte[] bytes = marshal(new PingMessage(), MessageFormat.BINARY);
+        assertEquals(JAXB_SENTINEL, bytes[0]);
+
+        final FormatDetectingUnmarshaller unmarshaller = context.createUnmarshaller();
+        assertInstanceOf(PingMessage.class, unmarshaller.unmarshal(new ByteArrayInputStream(bytes)));
+        assertEquals(MessageFormat.COMPATIBILITY, unmarshaller.getLastMessageFormat());
+    }
+
+    @Test
+    public void testTruncatedBinaryMessage() throws IOException {
+        final NodeIdentifier nodeId = new NodeIdentifier("id", "localhost", 8000, "localhost", 8001, "localhost", 8002, 8003, false);
+        final HeartbeatMessage message = new HeartbeatMessage();
+        message.setHeartbeat(new Heartbeat(nodeId, null, (HeartbeatPayload) null));
+
+        final byte[] bytes = marshal(message, MessageFormat.BINARY);
+        final byte[] truncated = Arrays.copyOf(bytes, bytes.length - 2);
+        assertThrows(IOException.class, () -> context.createUnmarshaller().unmarshal(new ByteArrayInputStream(truncated)));
+    }
+
+    private byte[] marshal(final ProtocolMessage message, final MessageFormat format) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        context.createMarshaller(format).marshal(message, baos);
+        return baos.toByteArray();
+    }
+}
@@ -22,6 +22,7 @@ import org.apache.nifi.cluster.coordination.node.NodeConnectionStatus;
 import org.apache.nifi.cluster.coordination.node.NodeWorkload;
 import org.apache.nifi.cluster.protocol.ComponentRevision;
 import org.apache.nifi.cluster.protocol.ComponentRevisionSnapshot;
+import org.apache.nifi.cluster.protocol.ConnectionRequest;
 import org.apache.nifi.cluster.protocol.ConnectionResponse;
 import org.apache.nifi.cluster.protocol.DataFlow;
 import org.apache.nifi.cluster.protocol.Heartbeat;
@@ -30,6 +31,7 @@ import org.apache.nifi.cluster.protocol.NodeIdentifier;
 import org.apache.nifi.cluster.protocol.StandardDataFlow;
 import org.apache.nifi.cluster.protocol.message.ClusterWorkloadRequestMessage;
 import org.apache.nifi.cluster.protocol.message.ClusterWorkloadResponseMessage;
+import org.apache.nifi.cluster.protocol.message.ConnectionRequestMessage;
 import org.apache.nifi.cluster.protocol.message.ConnectionResponseMessage;
 import org.apache.nifi.cluster.protocol.message.HeartbeatMessage;
 import org.apache.nifi.cluster.protocol.message.NodeConnectionStatusRequestMessage;
@@ -47,7 +49,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.IntStream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestJaxbProtocolUtils {
@@ -87,6 +91,41 @@ public class TestJaxbProtocolUtils {
         assertEquals(revisionSnapshot.getRevisionUpdateCount(), receivedSnapshot.getRevisionUpdateCount());
     }
 
+    @Test
+    public void testRoundTripFlowHashConnectionRequestAndResponse() throws JAXBException {
+        final NodeIdentifier nodeId = new NodeIdentifier("id", "localhost", 8000, "localhost", 8001, "localhost", 8002, 8003, true);
+        final DataFlow dataFlow = new StandardDataFlow(new byte[] {1, 2, 3}, new byte[0], new byte[] {4}, new HashSet<>());
+
+        final ConnectionRequestMessage requestMsg = new ConnectionRequestMessage();
+        requestMsg.setConnectionRequest(ConnectionRequest.createFlowHashRequest(nodeId, dataFlow, "flow-hash"));
+
+        final ConnectionRequest request = ((ConnectionRequestMessage) roundTrip(requestMsg)).getConnectionRequest();
+        assertEquals("flow-hash", request.getFlowHash());
+        assertEquals(0, request.getDataFlow().getFlow().length);
+        assertArrayEquals(new byte[] {4}, request.getDataFlow().getAuthorizerFingerprint());
+
+        final ConnectionResponseMessage flowRequiredMsg = new ConnectionResponseMessage();
+        flowRequiredMsg.setConnectionResponse(ConnectionResponse.createFlowRequiredResponse("Election in progress"));
+        final ConnectionResponse flowRequired = ((ConnectionResponseMessage) roundTrip(flowRequiredMsg)).getConnectionResponse();
+        assertTrue(flowRequired.isFlowRequired());
+        assertFalse(flowRequired.shouldTryLater());
+        assertEquals("Election in progress", flowRequired.getRejectionReason());
+
+        final ConnectionResponseMessage flowUnchangedMsg = new ConnectionResponseMessage();
+        flowUnchangedMsg.setConnectionResponse(new ConnectionResponse(nodeId, request.getDataFlow(), "instance-1",
+            Collections.singletonList(new NodeConnectionStatus(nodeId, DisconnectionCode.NOT_YET_CONNECTED)), new ComponentRevisionSnapshot(), true));
+        final ConnectionResponse flowUnchanged = ((ConnectionResponseMessage) roundTrip(flowUnchangedMsg)).getConnectionResponse();
+        assertTrue(flowUnchanged.isFlowUnchanged());
+        assertFalse(flowUnchanged.isFlowRequired());
+        assertEquals(nodeId, flowUnchanged.getNodeIdentifier());
+    }
+
+    private Object roundTrip(final Object msg) throws JAXBException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        JaxbProtocolUtils.JAXB_CONTEXT.createMarshaller().marshal(msg, baos);
+        return JaxbProtocolUtils.JAXB_CONTEXT.createUnmarshaller().unmarshal(new ByteArrayInputStream(baos.toByteArray()));
+    }
+
     @Test
     public void testRoundTripConnectionStatusRequest() throws JAXBException {
         final ByteArrayOutputStream baos = new ByteArrayOutputStream();
@@ -152,8 +152,7 @@ public class ClusterProtocolHeartbeatMonitor extends AbstractHeartbeatMonitor im
 
         final NodeIdentifier nodeId = heartbeat.getNodeIdentifier();
         final NodeConnectionStatus connectionStatus = heartbeat.getConnectionStatus();
-        final byte[] payloadBytes = heartbeat.getPayload();
-        final HeartbeatPayload payload = HeartbeatPayload.unmarshal(payloadBytes);
+        final HeartbeatPayload payload = heartbeat.getHeartbeatPayload();
         final int activeThreadCount = payload.getActiveThreadCount();
         final int flowFileCount = (int) payload.getTotalFlowFileCount();
         final long flowFileBytes = payload.getTotalFlowFileBytes();
@@ -161,7 +160,8 @@ public class ClusterProtocolHeartbeatMonitor extends AbstractHeartbeatMonitor im
         final long revisionUpdateCount = payload.getRevisionUpdateCount();
 
         final NodeHeartbeat nodeHeartbeat = new StandardNodeHeartbeat(nodeId, System.currentTimeMillis(),
-                connectionStatus, flowFileCount, flowFileBytes, activeThreadCount, systemStartTime, revisionUpdateCount);
+                connectionStatus, flowFileCount, flowFileBytes, activeThreadCount, systemStartTime, revisionUpdateCount,
+                payload.getComponentActiveThreadCount(), payload.getTerminatedThreadCount());
         heartbeatMessages.put(heartbeat.getNodeIdentifier(), nodeHeartbeat);
         logger.debug("Received new heartbeat from {}", nodeId);
 
@@ -33,9 +33,17 @@ public class StandardNodeHeartbeat implements NodeHeartbeat {
     private final int activeThreadCount;
     private final long systemStartTime;
     private final long revisionUpdateCount;
+    private final Integer componentActiveThreadCount;
+    private final Integer terminatedThreadCount;
 
     public StandardNodeHeartbeat(final NodeIdentifier nodeId, final long timestamp, final NodeConnectionStatus connectionStatus,
         final int flowFileCount, final long flowFileBytes, final int activeThreadCount, final long systemStartTime, final long revisionUpdateCount) {
+        this(nodeId, timestamp, connectionStatus, flowFileCount, flowFileBytes, activeThreadCount, systemStartTime, revisionUpdateCount, null, null);
+    }
+
+    public StandardNodeHeartbeat(final NodeIdentifier nodeId, final long timestamp, final NodeConnectionStatus connectionStatus,
+        final int flowFileCount, final long flowFileBytes, final int activeThreadCount, final long systemStartTime, final long revisionUpdateCount,
+        final Integer componentActiveThreadCount, final Integer terminatedThreadCount) {
         this.timestamp = timestamp;
         this.nodeId = nodeId;
         this.connectionStatus = connectionStatus;
@@ -44,6 +52,8 @@ public class StandardNodeHeartbeat implements NodeHeartbeat {
         this.activeThreadCount = activeThreadCount;
         this.systemStartTime = systemStartTime;
         this.revisionUpdateCount = revisionUpdateCount;
+        this.componentActiveThreadCount = componentActiveThreadCount;
+        this.terminatedThreadCount = terminatedThreadCount;
     }
 
     @Override
@@ -86,12 +96,23 @@ public class StandardNodeHeartbeat implements NodeHeartbeat {
         return revisionUpdateCount;
     }
 
+    @Override
+    public Integer getComponentActiveThreadCount() {
+        return componentActiveThreadCount;
+    }
+
+    @Override
+    public Integer getTerminatedThreadCount() {
+        return terminatedThreadCount;
+    }
+
     public static StandardNodeHeartbeat fromHeartbeatMessage(final HeartbeatMessage message, final long timestamp) {
         final Heartbeat heartbeat = message.getHeartbeat();
-        final HeartbeatPayload payload = HeartbeatPayload.unmarshal(heartbeat.getPayload());
+        final HeartbeatPayload payload = heartbeat.getHeartbeatPayload();
 
         return new StandardNodeHeartbeat(heartbeat.getNodeIdentifier(), timestamp, heartbeat.getConnectionStatus(),
             (int) payload.getTotalFlowFileCount(), payload.getTotalFlowFileBytes(),
-            payload.getActiveThreadCount(), payload.getSystemStartTime(), payload.getRevisionUpdateCount());
+            payload.getActiveThreadCount(), payload.getSystemStartTime(), payload.getRevisionUpdateCount(),
+            payload.getComponentActiveThreadCount(), payload.getTerminatedThreadCount());
     }
 }
\ No newline at end of file
@@ -1248,7 +1248,8 @@ public class NodeClusterCoordinator implements ClusterCoordinator, ProtocolHandl
         final NodeIdentifier nodeIdentifier = requestMessage.getConnectionRequest().getProposedNodeIdentifier();
         final NodeIdentifier withNodeIdentities = addNodeIdentities(nodeIdentifier, nodeIdentities);
         final DataFlow dataFlow = requestMessage.getConnectionRequest().getDataFlow();
-        final ConnectionRequest requestWithNodeIdentities = new ConnectionRequest(withNodeIdentities, dataFlow);
+        final String flowHash = requestMessage.getConnectionRequest().getFlowHash();
+        final ConnectionRequest requestWithNodeIdentities = new ConnectionRequest(withNodeIdentities, dataFlow, flowHash);
 
         // Resolve Node identifier.
         registerNodeId(nodeIdentifier);
@@ -1263,6 +1264,13 @@ public class NodeClusterCoordinator implements ClusterCoordinator, ProtocolHandl
         }
 
         if (requireElection) {
+            if (requestWithNodeIdentities.isFlowOmitted() && !flowElection.isElectionComplete()) {
+                logger.info("Received Connection Request from {} that contained only the hash of its flow; requesting its full flow in order to vote on the cluster flow", withNodeIdentities);
+                final ConnectionResponseMessage responseMessage = new ConnectionResponseMessage();
+                responseMessage.setConnectionResponse(ConnectionResponse.createFlowRequiredResponse("Cluster is voting on which Flow is the correct flow for the cluster"));
+                return responseMessage;
+            }
+
             final DataFlow electedDataFlow = flowElection.castVote(dataFlow, withNodeIdentities);
             if (electedDataFlow == null) {
                 logger.info("Received Connection Request from {}; responding with Flow Election In Progress message", withNodeIdentities);
@@ -1318,7 +1326,18 @@ public class NodeClusterCoordinator implements ClusterCoordinator, ProtocolHandl
         updateNodeStatus(status);
 
         final ComponentRevisionSnapshot componentRevisionSnapshot = ComponentRevisionSnapshot.fromRevisionSnapshot(revisionManager.getAllRevisions());
-        final ConnectionResponse response = new ConnectionResponse(resolvedNodeIdentifier, clusterDataFlow, instanceId, getConnectionStatuses(), componentRevisionSnapshot);
+
+        // If the node sent the hash of its flow and that matches the cluster flow, there is no need to send the flow back to the node
+        final boolean flowUnchanged = isFlowUnchanged(request, clusterDataFlow);
+        final DataFlow responseDataFlow;
+        if (flowUnchanged) {
+            logger.info("Flow of {} matches the cluster flow; responding without the flow", resolvedNodeIdentifier);
+            responseDataFlow = new StandardDataFlow(new byte[0], clusterDataFlow.getSnippets(), clusterDataFlow.getAuthorizerFingerprint(), clusterDataFlow.getMissingComponents());
+        } else {
+            responseDataFlow = clusterDataFlow;
+        }
+
+        final ConnectionResponse response = new ConnectionResponse(resolvedNodeIdentifier, responseDataFlow, instanceId, getConnectionStatuses(), componentRevisionSnapshot, flowUnchanged);
 
         final ConnectionResponseMessage responseMessage = new ConnectionResponseMessage();
         responseMessage.setConnectionResponse(response);
@@ -1326,6 +1345,14 @@ public class NodeClusterCoordinator implements ClusterCoordinator, ProtocolHandl
     }
 
 
+    private boolean isFlowUnchanged(final ConnectionRequest request, final DataFlow clusterDataFlow) {
+        if (request.getFlowHash() == null || flowService == null) {
+            return false;
+        }
+
+        return request.getFlowHash().equals(flowService.calculateFlowHash(clusterDataFlow));
+    }
+
     private NodeIdentifier addNodeIdentities(final NodeIdentifier nodeId, final Set<String> nodeIdentities) {
         return new NodeIdentifier(nodeId.getId(), nodeId.getApiAddress(), nodeId.getApiPort(),
                 nodeId.getSocketAddress(), nodeId.getSocketPort(),
@@ -57,7 +57,9 @@ import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -72,6 +74,7 @@ public class TestNodeClusterCoordinator {
     private ClusterCoordinationProtocolSenderListener senderListener;
     private List<NodeConnectionStatus> nodeStatuses;
     private StateManagerProvider stateManagerProvider;
+    private FlowService flowService;
     private final RevisionSnapshot emptyRevisionSnapshot = new RevisionSnapshot(Collections.emptyList(), 0L);
 
     private NiFiProperties createProperties() {
@@ -104,12 +107,76 @@ public class TestNodeClusterCoordinator {
             }
         };
 
-        final FlowService flowService = Mockito.mock(FlowService.class);
+        flowService = Mockito.mock(FlowService.class);
         final StandardDataFlow dataFlow = new StandardDataFlow(new byte[50], new byte[50], new byte[50], new HashSet<>());
         when(flowService.createDataFlow()).thenReturn(dataFlow);
         coordinator.setFlowService(flowService);
     }
 
+    @Test
+    public void testConnectionResponseOmitsFlowWhenFlowHashMatches() throws IOException {
+        final StandardDataFlow clusterDataFlow = new StandardDataFlow("cluster-flow".getBytes(), "snippets".getBytes(), "fingerprint".getBytes(), new HashSet<>());
+        when(flowService.createDataFlowFromController()).thenReturn(clusterDataFlow);
+        when(flowService.calculateFlowHash(clusterDataFlow)).thenReturn("cluster-flow-hash");
+        coordinator.setConnected(true);
+
+        final ConnectionResponse response = requestConnectionWithFlowHash(createNodeId(1), "cluster-flow-hash");
+
+        assertNull(response.getRejectionReason());
+        assertTrue(response.isFlowUnchanged());
+        assertEquals(0, response.getDataFlow().getFlow().length);
+        assertArrayEquals("snippets".getBytes(), response.getDataFlow().getSnippets());
+        assertArrayEquals("fingerprint".getBytes(), response.getDataFlow().getAuthorizerFingerprint());
+    }
+
+    @Test
+    public void testConnectionResponseContainsFlowWhenFlowHashDiffers() throws IOException {
+        final StandardDataFlow clusterDataFlow = new StandardDataFlow("cluster-flow".getBytes(), "snippets".getBytes(), "fingerprint".getBytes(), new HashSet<>());
+        when(flowService.createDataFlowFromController()).thenReturn(clusterDataFlow);
+        when(flowService.calculateFlowHash(clusterDataFlow)).thenReturn("cluster-flow-hash");
+        coordinator.setConnected(true);
+
+        final ConnectionResponse response = requestConnectionWithFlowHash(createNodeId(1), "node-flow-hash");
+
+        assertNull(response.getRejectionReason());
+        assertFalse(response.isFlowUnchanged());
+        assertArrayEquals("cluster-flow".getBytes(), response.getDataFlow().getFlow());
+    }
+
+    @Test
+    public void testFlowRequiredWhenFlowHashSentDuringElection() {
+        final NodeIdentifier nodeId = createNodeId(1);
+        final ConnectionResponse flowRequiredResponse = requestConnectionWithFlowHash(nodeId, "node-flow-hash");
+
+        assertTrue(flowRequiredResponse.isFlowRequired());
+        assertNull(flowRequiredResponse.getDataFlow());
+        assertEquals(DisconnectionCode.NOT_YET_CONNECTED, coordinator.getConnectionStatus(nodeId).getDisconnectCode());
+
+        // The node then sends its full flow, which is counted as its vote
+        final StandardDataFlow nodeDataFlow = new StandardDataFlow("node-flow".getBytes(), new byte[0], new byte[0], new HashSet<>());
+        final ConnectionRequestMessage requestMsg = new ConnectionRequestMessage();
+        requestMsg.setConnectionRequest(new ConnectionRequest(nodeId, nodeDataFlow));
+        final ConnectionResponse response = ((ConnectionResponseMessage) coordinator.handle(requestMsg, Collections.emptySet())).getConnectionResponse();
+
+        assertFalse(response.isFlowRequired());
+        assertFalse(response.isFlowUnchanged());
+        assertArrayEquals("node-flow".getBytes(), response.getDataFlow().getFlow());
+        assertEquals(NodeConnectionState.CONNECTING, coordinator.getConnectionStatus(nodeId).getState());
+    }
+
+    @Test
+    public void testFullFlowWithFlowHashCountedAsVoteDuringElection() {
+        final NodeIdentifier nodeId = createNodeId(1);
+        final StandardDataFlow nodeDataFlow = new StandardDataFlow("node-flow".getBytes(), new byte[0], new byte[0], new HashSet<>());
+        final ConnectionRequestMessage requestMsg = new ConnectionRequestMessage();
+        requestMsg.setConnectionRequest(new ConnectionRequest(nodeId, nodeDataFlow, "node-flow-hash"));
+        final ConnectionResponse response = ((ConnectionResponseMessage) coordinator.handle(requestMsg, Collections.emptySet())).getConnectionResponse();
+
+        assertFalse(response.isFlowRequired());
+        assertArrayEquals("node-flow".getBytes(), response.getDataFlow().getFlow());
+        assertEquals(NodeConnectionState.CONNECTING, coordinator.getConnectionStatus(nodeId).getState());
+    }
+
     @Test
     public void testConnectionResponseIndicatesAllNodes() {
         // Add a disconnected node
@@ -505,6 +572,16 @@ public class TestNodeClusterCoordinator {
         return new NodeIdentifier(String.valueOf(index), "localhost", 8000 + index, "localhost", 9000 + index, "localhost", 10000 + index, 11000 + index, false);
     }
 
+    private ConnectionResponse requestConnectionWithFlowHash(final NodeIdentifier requestedNodeId, final String flowHash) {
+        final StandardDataFlow dataFlow = new StandardDataFlow("node-flow".getBytes(), new byte[0], new byte[0], new HashSet<>());
+        final ConnectionRequestMessage requestMsg = new ConnectionRequestMessage();
+        requestMsg.setConnectionRequest(ConnectionRequest.createFlowHashRequest(requestedNodeId, dataFlow, flowHash));
+
+        final ProtocolMessage protocolResponse = coordinator.handle(requestMsg, Collections.emptySet());
+        assertTrue(protocolResponse instanceof ConnectionResponseMessage);
+        return ((ConnectionResponseMessage) protocolResponse).getConnectionResponse();
+    }
+
     private ProtocolMessage requestConnection(final NodeIdentifier requestedNodeId, final NodeClusterCoordinator coordinator) {
         final ConnectionRequest request = new ConnectionRequest(requestedNodeId, new StandardDataFlow(new byte[0], new byte[0], new byte[0], new HashSet<>()));
         final ConnectionRequestMessage requestMsg = new ConnectionRequestMessage();
@@ -117,6 +117,12 @@ import java.util.stream.Collectors;
  * <p/>
  */
 public class StandardProcessSession implements ProcessSession, ProvenanceEventEnricher {
+    private static final Set<String> NON_INHERITED_ATTRIBUTES = Set.of(
+        CoreAttributes.UUID.key(),
+        CoreAttributes.ALTERNATE_IDENTIFIER.key(),
+        CoreAttributes.DISCARD_REASON.key()
+    );
+
     private static final Set<String> REQUIRED_ATTRIBUTES = Set.of(
         CoreAttributes.UUID.key(),
         CoreAttributes.FILENAME.key(),
@@ -2045,33 +2051,27 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
 
         final String uuid = UUID.randomUUID().toString();
 
-        final Map<String, String> newAttributes = new HashMap<>(3);
-        newAttributes.put(CoreAttributes.FILENAME.key(), uuid);
-        newAttributes.put(CoreAttributes.PATH.key(), DEFAULT_FLOWFILE_PATH);
-        newAttributes.put(CoreAttributes.UUID.key(), uuid);
-
         final StandardFlowFileRecord.Builder fFileBuilder = new StandardFlowFileRecord.Builder().id(context.getNextFlowFileSequence());
 
-        // copy all attributes from parent except for the "special" attributes. Copying the special attributes
+        // inherit all attributes from parent except for the "special" attributes. Copying the special attributes
         // can cause problems -- especially the ALTERNATE_IDENTIFIER, because copying can cause Provenance Events
-        // to be incorrectly created.
-        for (final Map.Entry<String, String> entry : parent.getAttributes().entrySet()) {
-            final String key = entry.getKey();
-            final String value = entry.getValue();
-            if (CoreAttributes.ALTERNATE_IDENTIFIER.key().equals(key)
-                || CoreAttributes.DISCARD_REASON.key().equals(key)
-                || CoreAttributes.UUID.key().equals(key)) {
-                continue;
-            }
-            newAttributes.put(key, value);
+        // to be incorrectly created. The parent's attributes are shared rather than copied, so that a parent with
+        // many children does not result in many copies of the same attributes.
+        fFileBuilder.inheritAttributes(parent, NON_INHERITED_ATTRIBUTES);
+        if (parent.getAttribute(CoreAttributes.FILENAME.key()) == null) {
+            fFileBuilder.addAttribute(CoreAttributes.FILENAME.key(), uuid);
         }
+        if (parent.getAttribute(CoreAttributes.PATH.key()) == null) {
+            fFileBuilder.addAttribute(CoreAttributes.PATH.key(), DEFAULT_FLOWFILE_PATH);
+        }
+        fFileBuilder.addAttribute(CoreAttributes.UUID.key(), uuid);
 
         fFileBuilder.lineageStart(parent.getLineageStartDate(), parent.getLineageStartIndex());
-        fFileBuilder.addAttributes(newAttributes);
 
         final FlowFileRecord fFile = fFileBuilder.build();
         final StandardRepositoryRecord record = new StandardRepositoryRecord((FlowFileQueue) null);
-        record.setWorking(fFile, newAttributes, false);
+        // All attributes of a newly created FlowFile are considered updated, so there is no need to provide them to the record.
+        record.setWorking(fFile, false);
         records.put(fFile.getId(), record);
         createdFlowFiles.add(fFile.getAttribute(CoreAttributes.UUID.key()));
 
@@ -76,26 +76,55 @@ public abstract class AbstractEventAccess implements EventAccess {
     private final StatusAnalyticsEngine statusAnalyticsEngine;
     private final FlowManager flowManager;
     private final FlowFileEventRepository flowFileEventRepository;
+    private final long controllerStatusMaxAgeMillis;
+
+    private final Object controllerStatusLock = new Object();
+    private volatile ControllerStatusSnapshot controllerStatusSnapshot;
 
     public AbstractEventAccess(final ProcessScheduler processScheduler, final StatusAnalyticsEngine analyticsEngine, final FlowManager flowManager,
                                final FlowFileEventRepository flowFileEventRepository) {
+        this(processScheduler, analyticsEngine, flowManager, flowFileEventRepository, 0L);
+    }
+
+    /**
+     * @param controllerStatusMaxAgeMillis the amount of time for which a snapshot of the controller status is shared by callers before a new one is created.
+     *                                     A value of 0 creates a new snapshot for each caller.
+     */
+    public AbstractEventAccess(final ProcessScheduler processScheduler, final StatusAnalyticsEngine analyticsEngine, final FlowManager flowManager,
+                               final FlowFileEventRepository flowFileEventRepository, final long controllerStatusMaxAgeMillis) {
         this.processScheduler = processScheduler;
         this.statusAnalyticsEngine = analyticsEngine;
         this.flowManager = flowManager;
         this.flowFileEventRepository = flowFileEventRepository;
+        this.controllerStatusMaxAgeMillis = controllerStatusMaxAgeMillis;
     }
 
     /**
      * Returns the status of all components in the specified group. This request
-     * is not in the context of a user so the results will be unfiltered.
+     * is not in the context of a user so the results will be unfiltered. If
+     * snapshots of the controller status are shared, the status is taken from
+     * the current snapshot, which must not be modified, unless the group was
+     * created after the snapshot. Otherwise, only the specified group is
+     * calculated.
      *
      * @param groupId group id
-     * @return the component status
+     * @return the component status, or <code>null</code> if the group does not exist
      */
     @Override
     public ProcessGroupStatus getGroupStatus(final String groupId) {
-        final RepositoryStatusReport statusReport = generateRepositoryStatusReport();
         final ProcessGroup group = flowManager.getGroup(groupId);
+        if (group == null) {
+            return null;
+        }
+
+        if (controllerStatusMaxAgeMillis > 0) {
+            final ProcessGroupStatus snapshotStatus = findGroupStatus(getControllerStatusSnapshot().status(), groupId);
+            if (snapshotStatus != null) {
+                return snapshotStatus;
+            }
+        }
+
+        final RepositoryStatusReport statusReport = generateRepositoryStatusReport();
         return getGroupStatus(group, statusReport, authorizable -> true, Integer.MAX_VALUE, 1, true);
     }
 
@@ -676,17 +705,70 @@ public abstract class AbstractEventAccess implements EventAccess {
 
     /**
      * Returns the status of all components in the controller. This request is
-     * not in the context of a user so the results will be unfiltered.
+     * not in the context of a user so the results will be unfiltered. The
+     * status is shared with other callers and must not be modified.
      *
      * @return the component status
      */
     @Override
     public ProcessGroupStatus getControllerStatus() {
-        final String rootGroupId = flowManager.getRootGroupId();
-        final ProcessGroup group = flowManager.getGroup(rootGroupId);
-        final RepositoryStatusReport statusReport = generateRepositoryStatusReport();
+        return getControllerStatusSnapshot().status();
+    }
 
-        return getGroupStatus(group, statusReport, authorizable -> true, Integer.MAX_VALUE, 1, true);
+    /**
+     * Returns the current snapshot of the controller status. A new snapshot is created only if the current one is older than
+     * the configured maximum age, and concurrent callers that find the snapshot stale wait for a single new snapshot to be created.
+     *
+     * @return the current snapshot of the controller status
+     */
+    public ControllerStatusSnapshot getControllerStatusSnapshot() {
+        final ControllerStatusSnapshot snapshot = controllerStatusSnapshot;
+        if (isCurrent(snapshot)) {
+            return snapshot;
+        }
+
+        synchronized (controllerStatusLock) {
+            final ControllerStatusSnapshot latestSnapshot = controllerStatusSnapshot;
+            if (isCurrent(latestSnapshot)) {
+                return latestSnapshot;
+            }
+
+            final long generation = latestSnapshot == null ? 1L : latestSnapshot.generation() + 1;
+            final long timestamp = System.currentTimeMillis();
+            final ProcessGroup rootGroup = flowManager.getGroup(flowManager.getRootGroupId());
+            final ProcessGroupStatus status = getGroupStatus(rootGroup, generateRepositoryStatusReport(), authorizable -> true, Integer.MAX_VALUE, 1, true);
+
+            final ControllerStatusSnapshot createdSnapshot = new ControllerStatusSnapshot(generation, timestamp, status);
+            controllerStatusSnapshot = createdSnapshot;
+            return createdSnapshot;
+        }
+    }
+
+    private boolean isCurrent(final ControllerStatusSnapshot snapshot) {
+        if (snapshot == null || snapshot.status() == null) {
+            return false;
+        }
+
+        final long age = System.currentTimeMillis() - snapshot.timestamp();
+        return age >= 0 && age < controllerStatusMaxAgeMillis;
+    }
+
+    private ProcessGroupStatus findGroupStatus(final ProcessGroupStatus status, final String groupId) {
+        if (status == null) {
+            return null;
+        }
+        if (status.getId().equals(groupId)) {
+            return status;
+        }
+
+        for (final ProcessGroupStatus childStatus : status.getProcessGroupStatus()) {
+            final ProcessGroupStatus found = findGroupStatus(childStatus, groupId);
+            if (found != null) {
+                return found;
+            }
+        }
+
+        return null;
     }
 
     @Override
@@ -0,0 +1,30 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.reporting;
+
+import org.apache.nifi.controller.status.ProcessGroupStatus;
+
+/**
+ * The unfiltered status of the root Process Group at a point in time. A snapshot is shared by every caller that requests the controller
+ * status while it is current, so the status that it holds must not be modified.
+ *
+ * @param generation the generation of the snapshot, which increases by one each time that a new snapshot is created
+ * @param timestamp the time, in milliseconds since the epoch, at which the snapshot was created
+ * @param status the status of the root Process Group
+ */
+public record ControllerStatusSnapshot(long generation, long timestamp, ProcessGroupStatus status) {
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.reporting;
+
+import org.apache.nifi.controller.ProcessScheduler;
+import org.apache.nifi.controller.flow.FlowManager;
+import org.apache.nifi.controller.repository.FlowFileEventRepository;
+import org.apache.nifi.controller.repository.RepositoryStatusReport;
+import org.apache.nifi.controller.status.ProcessGroupStatus;
+import org.apache.nifi.controller.status.analytics.StatusAnalyticsEngine;
+import org.apache.nifi.groups.ProcessGroup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+public class AbstractEventAccessTest {
+    private static final String ROOT_GROUP_ID = "root";
+    private static final String CHILD_GROUP_ID = "child";
+
+    private FlowManager flowManager;
+    private FlowFileEventRepository flowFileEventRepository;
+
+    @BeforeEach
+    public void setup() {
+        final ProcessGroup childGroup = mock(ProcessGroup.class);
+        when(childGroup.getIdentifier()).thenReturn(CHILD_GROUP_ID);
+
+        final ProcessGroup rootGroup = mock(ProcessGroup.class);
+        when(rootGroup.getIdentifier()).thenReturn(ROOT_GROUP_ID);
+        when(rootGroup.getProcessGroups()).thenReturn(Set.of(childGroup));
+
+        flowManager = mock(FlowManager.class);
+        when(flowManager.getRootGroupId()).thenReturn(ROOT_GROUP_ID);
+        when(flowManager.getGroup(ROOT_GROUP_ID)).thenReturn(rootGroup);
+        when(flowManager.getGroup(CHILD_GROUP_ID)).thenReturn(childGroup);
+
+        flowFileEventRepository = mock(FlowFileEventRepository.class);
+        when(flowFileEventRepository.reportTransferEvents(anyLong())).thenAnswer(invocation -> mock(RepositoryStatusReport.class));
+    }
+
+    @Test
+    public void testControllerStatusSharedUntilStale() {
+        final AbstractEventAccess eventAccess = createEventAccess(TimeUnit.HOURS.toMillis(1));
+
+        final ControllerStatusSnapshot snapshot = eventAccess.getControllerStatusSnapshot();
+        assertEquals(1L, snapshot.generation());
+        assertEquals(ROOT_GROUP_ID, snapshot.status().getId());
+
+        assertSame(snapshot.status(), eventAccess.getControllerStatus());
+        assertSame(snapshot, eventAccess.getControllerStatusSnapshot());
+
+        final ProcessGroupStatus childStatus = eventAccess.getGroupStatus(CHILD_GROUP_ID);
+        assertSame(snapshot.status().getProcessGroupStatus().iterator().next(), childStatus);
+        assertSame(snapshot.status(), eventAccess.getGroupStatus(ROOT_GROUP_ID));
+
+        verify(flowFileEventRepository, times(1)).reportTransferEvents(anyLong());
+    }
+
+    @Test
+    public void testControllerStatusCalculatedForEachCallerWithoutMaxAge() {
+        final AbstractEventAccess eventAccess = createEventAccess(0L);
+
+        final ControllerStatusSnapshot firstSnapshot = eventAccess.getControllerStatusSnapshot();
+        final ControllerStatusSnapshot secondSnapshot = eventAccess.getControllerStatusSnapshot();
+
+        assertEquals(1L, firstSnapshot.generation());
+        assertEquals(2L, secondSnapshot.generation());
+        assertNotSame(firstSnapshot.status(), secondSnapshot.status());
+        assertNotSame(secondSnapshot.status(), eventAccess.getControllerStatus());
+    }
+
+    @Test
+    public void testGroupStatusCalculatedForGroupOnlyWithoutMaxAge() {
+        final AbstractEventAccess eventAccess = createEventAccess(0L);
+
+        final ProcessGroupStatus childStatus = eventAccess.getGroupStatus(CHILD_GROUP_ID);
+        assertEquals(CHILD_GROUP_ID, childStatus.getId());
+
+        // Only the requested group is calculated, not the root group that contains it
+        verify(flowManager, never()).getRootGroupId();
+        verify(flowFileEventRepository, times(1)).reportTransferEvents(anyLong());
+    }
+
+    @Test
+    public void testGroupStatusNotReturnedForRemovedGroup() {
+        final AbstractEventAccess eventAccess = createEventAccess(TimeUnit.HOURS.toMillis(1));
+        final ControllerStatusSnapshot snapshot = eventAccess.getControllerStatusSnapshot();
+        assertEquals(1, snapshot.status().getProcessGroupStatus().size());
+
+        when(flowManager.getGroup(CHILD_GROUP_ID)).thenReturn(null);
+
+        assertNull(eventAccess.getGroupStatus(CHILD_GROUP_ID));
+        assertSame(snapshot, eventAccess.getControllerStatusSnapshot());
+    }
+
+    private AbstractEventAccess createEventAccess(final long controllerStatusMaxAgeMillis) {
+        return mock(AbstractEventAccess.class, withSettings()
+                .useConstructor(mock(ProcessScheduler.class), mock(StatusAnalyticsEngine.class), flowManager, flowFileEventRepository, controllerStatusMaxAgeMillis)
+                .defaultAnswer(CALLS_REAL_METHODS));
+    }
+}
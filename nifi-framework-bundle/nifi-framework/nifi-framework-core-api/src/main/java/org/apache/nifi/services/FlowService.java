@@ -108,4 +108,13 @@ public interface FlowService extends LifeCycle {
      */
     DataFlow createDataFlowFromController() throws IOException;
 
+    /**
+     * Calculates a hash of the flow of the given DataFlow. Two flows have the same hash if they are the same, even if their sensitive values
+     * were encrypted separately, so that nodes can determine whether their flows differ without transferring them.
+     *
+     * @param dataFlow the dataflow whose flow should be hashed
+     * @return the hash of the flow
+     */
+    String calculateFlowHash(DataFlow dataFlow);
+
 }
@@ -27,6 +27,8 @@ import org.apache.nifi.controller.repository.SwapContents;
 import org.apache.nifi.controller.repository.SwapManagerInitializationContext;
 import org.apache.nifi.controller.repository.SwapSummary;
 import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.swap.ColumnarSwapDeserializer;
+import org.apache.nifi.controller.swap.ColumnarSwapSerializer;
 import org.apache.nifi.controller.swap.SchemaSwapDeserializer;
 import org.apache.nifi.controller.swap.SchemaSwapSerializer;
 import org.apache.nifi.controller.swap.SimpleSwapDeserializer;
@@ -86,6 +88,7 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
     private static final Logger logger = LoggerFactory.getLogger(FileSystemSwapManager.class);
 
     private final File storageDirectory;
+    private final boolean columnarSerialization;
     private final FieldCache fieldCache = new CaffeineFieldCache(10_000_000);
 
     // effectively final
@@ -100,13 +103,23 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
      */
     public FileSystemSwapManager() {
         storageDirectory = null;
+        columnarSerialization = NiFiProperties.DEFAULT_QUEUE_SWAP_COLUMNAR_ENABLED;
     }
 
     public FileSystemSwapManager(final NiFiProperties nifiProperties) {
-        this(nifiProperties.getFlowFileRepositoryPath());
+        this(nifiProperties.getFlowFileRepositoryPath(), nifiProperties.isQueueSwapColumnarEnabled());
     }
 
     public FileSystemSwapManager(final Path flowFileRepoPath) {
+        this(flowFileRepoPath, NiFiProperties.DEFAULT_QUEUE_SWAP_COLUMNAR_ENABLED);
+    }
+
+    /**
+     * @param flowFileRepoPath the path of the FlowFile Repository, in which the swap directory is created
+     * @param columnarSerialization whether swap files should be written using the {@link ColumnarSwapSerializer} rather than the {@link SchemaSwapSerializer}
+     */
+    public FileSystemSwapManager(final Path flowFileRepoPath, final boolean columnarSerialization) {
+        this.columnarSerialization = columnarSerialization;
         this.storageDirectory = flowFileRepoPath.resolve("swap").toFile();
         if (!storageDirectory.exists() && !storageDirectory.mkdirs()) {
             throw new RuntimeException("Cannot create Swap Storage directory " + storageDirectory.getAbsolutePath());
@@ -143,7 +156,7 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
         final File swapTempFile = new File(swapFile.getParentFile(), swapFile.getName() + ".part");
         final String swapLocation = swapFile.getAbsolutePath();
 
-        final SwapSerializer serializer = new SchemaSwapSerializer();
+        final SwapSerializer serializer = columnarSerialization ? new ColumnarSwapSerializer() : new SchemaSwapSerializer();
         try (final OutputStream os = getOutputStream(swapTempFile);
             final OutputStream out = new BufferedOutputStream(os)) {
             out.write(MAGIC_HEADER);
@@ -169,6 +182,11 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
 
     @Override
     public SwapContents swapIn(final String swapLocation, final FlowFileQueue flowFileQueue) throws IOException {
+        return swapIn(swapLocation, flowFileQueue, null);
+    }
+
+    @Override
+    public SwapContents swapIn(final String swapLocation, final FlowFileQueue flowFileQueue, final SwapContents peekedContents) throws IOException {
         final File swapFile = new File(swapLocation);
 
         final boolean validLocation = flowFileRepository.isValidSwapLocationSuffix(swapFile.getName());
@@ -180,7 +198,7 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
             return new StandardSwapContents(swapSummary, Collections.emptyList());
         }
 
-        final SwapContents swapContents = peek(swapLocation, flowFileQueue);
+        final SwapContents swapContents = peekedContents == null ? peek(swapLocation, flowFileQueue) : peekedContents;
         flowFileRepository.swapFlowFilesIn(swapFile.getAbsolutePath(), swapContents.getFlowFiles(), flowFileQueue);
 
         if (!swapFile.delete()) {
@@ -385,6 +403,9 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
             if (serializationName.equals(SchemaSwapDeserializer.getSerializationName())) {
                 return new SchemaSwapDeserializer(fieldCache);
             }
+            if (serializationName.equals(ColumnarSwapDeserializer.getSerializationName())) {
+                return new ColumnarSwapDeserializer(fieldCache);
+            }
 
             throw new IOException("Cannot find a suitable Deserializer for swap file, written with Serialization Name '" + serializationName + "'");
         } else {
@@ -74,6 +74,7 @@ import org.apache.nifi.controller.queue.clustered.client.StandardLoadBalanceFlow
 import org.apache.nifi.controller.queue.clustered.client.async.nio.NioAsyncLoadBalanceClientFactory;
 import org.apache.nifi.controller.queue.clustered.client.async.nio.NioAsyncLoadBalanceClientRegistry;
 import org.apache.nifi.controller.queue.clustered.client.async.nio.NioAsyncLoadBalanceClientTask;
+import org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceCompressionCodec;
 import org.apache.nifi.controller.queue.clustered.server.ClusterLoadBalanceAuthorizer;
 import org.apache.nifi.controller.queue.clustered.server.ConnectionLoadBalanceServer;
 import org.apache.nifi.controller.queue.clustered.server.LoadBalanceAuthorizer;
@@ -123,6 +124,7 @@ import org.apache.nifi.controller.service.StandardControllerServiceResolver;
 import org.apache.nifi.controller.state.manager.StandardStateManagerProvider;
 import org.apache.nifi.controller.state.server.ZooKeeperStateServer;
 import org.apache.nifi.controller.status.NodeStatus;
+import org.apache.nifi.controller.status.ProcessGroupStatus;
 import org.apache.nifi.controller.status.StorageStatus;
 import org.apache.nifi.controller.status.analytics.CachingConnectionStatusAnalyticsEngine;
 import org.apache.nifi.controller.status.analytics.ConnectionStatusAnalytics;
@@ -664,6 +666,15 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
             snapshotMillis = FormatUtils.getTimeDuration(NiFiProperties.DEFAULT_COMPONENT_STATUS_SNAPSHOT_FREQUENCY, TimeUnit.MILLISECONDS);
         }
 
+        // Determine how long a calculated controller status is shared before it is calculated again
+        final String statusCacheMaxAge = nifiProperties.getProperty(NiFiProperties.COMPONENT_STATUS_CACHE_MAX_AGE, NiFiProperties.DEFAULT_COMPONENT_STATUS_CACHE_MAX_AGE);
+        long statusCacheMaxAgeMillis;
+        try {
+            statusCacheMaxAgeMillis = FormatUtils.getTimeDuration(statusCacheMaxAge, TimeUnit.MILLISECONDS);
+        } catch (final Exception e) {
+            statusCacheMaxAgeMillis = FormatUtils.getTimeDuration(NiFiProperties.DEFAULT_COMPONENT_STATUS_CACHE_MAX_AGE, TimeUnit.MILLISECONDS);
+        }
+
         // Initialize the Embedded ZooKeeper server, if applicable
         if (nifiProperties.isStartEmbeddedZooKeeper() && configuredForClustering) {
             try {
@@ -743,7 +754,7 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
         }
 
         eventAccess = new StandardEventAccess(flowManager, flowFileEventRepository, processScheduler, authorizer, provenanceRepository,
-                auditService, analyticsEngine, flowFileRepository, contentRepository);
+                auditService, analyticsEngine, flowFileRepository, contentRepository, statusCacheMaxAgeMillis);
 
         timerDrivenEngineRef.get().scheduleWithFixedDelay(new Runnable() {
             @Override
@@ -801,13 +812,17 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
             final String timeoutPeriod = nifiProperties.getProperty(NiFiProperties.LOAD_BALANCE_COMMS_TIMEOUT, NiFiProperties.DEFAULT_LOAD_BALANCE_COMMS_TIMEOUT);
             final int timeoutMillis = (int) FormatUtils.getTimeDuration(timeoutPeriod, TimeUnit.MILLISECONDS);
 
+            final boolean virtualThreads = Boolean.parseBoolean(nifiProperties.getProperty(NiFiProperties.LOAD_BALANCE_VIRTUAL_THREADS_ENABLED,
+                    String.valueOf(NiFiProperties.DEFAULT_LOAD_BALANCE_VIRTUAL_THREADS_ENABLED)));
             loadBalanceServer = new ConnectionLoadBalanceServer(loadBalanceAddress.getHostName(), loadBalanceAddress.getPort(), sslContext,
-                    numThreads, loadBalanceProtocol, eventReporter, timeoutMillis);
+                    numThreads, loadBalanceProtocol, eventReporter, timeoutMillis, virtualThreads);
 
 
             final int connectionsPerNode = nifiProperties.getIntegerProperty(NiFiProperties.LOAD_BALANCE_CONNECTIONS_PER_NODE, NiFiProperties.DEFAULT_LOAD_BALANCE_CONNECTIONS_PER_NODE);
+            final String codecName = nifiProperties.getProperty(NiFiProperties.LOAD_BALANCE_COMPRESSION_CODEC, NiFiProperties.DEFAULT_LOAD_BALANCE_COMPRESSION_CODEC);
+            final LoadBalanceCompressionCodec compressionCodec = LoadBalanceCompressionCodec.valueOf(codecName.trim().toUpperCase());
             final NioAsyncLoadBalanceClientFactory asyncClientFactory = new NioAsyncLoadBalanceClientFactory(sslContext, timeoutMillis, new ContentRepositoryFlowFileAccess(contentRepository),
-                    eventReporter, new StandardLoadBalanceFlowFileCodec(), clusterCoordinator);
+                    eventReporter, new StandardLoadBalanceFlowFileCodec(), clusterCoordinator, compressionCodec);
             loadBalanceClientRegistry = new NioAsyncLoadBalanceClientRegistry(asyncClientFactory, connectionsPerNode);
 
             final int loadBalanceClientThreadCount = nifiProperties.getIntegerProperty(NiFiProperties.LOAD_BALANCE_MAX_THREAD_COUNT, NiFiProperties.DEFAULT_LOAD_BALANCE_MAX_THREAD_COUNT);
@@ -2261,10 +2276,11 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
                 if (clusterCoordinator == null) {
                     flowFileQueue = new StandardFlowFileQueue(id, flowFileRepository, provenanceRepository, resourceClaimManager, processScheduler, swapManager,
                             eventReporter, nifiProperties.getQueueSwapThreshold(),
-                            processGroup.getDefaultFlowFileExpiration(), processGroup.getDefaultBackPressureObjectThreshold(), processGroup.getDefaultBackPressureDataSizeThreshold());
+                            processGroup.getDefaultFlowFileExpiration(), processGroup.getDefaultBackPressureObjectThreshold(), processGroup.getDefaultBackPressureDataSizeThreshold(),
+                            nifiProperties.isQueueConcurrentFifoEnabled());
                 } else {
                     flowFileQueue = new SocketLoadBalancedFlowFileQueue(id, processScheduler, flowFileRepository, provenanceRepository, contentRepository, resourceClaimManager,
-                            clusterCoordinator, loadBalanceClientRegistry, swapManager, nifiProperties.getQueueSwapThreshold(), eventReporter);
+                            clusterCoordinator, loadBalanceClientRegistry, swapManager, nifiProperties.getQueueSwapThreshold(), eventReporter, nifiProperties.isQueueConcurrentFifoEnabled());
 
                     flowFileQueue.setFlowFileExpiration(processGroup.getDefaultFlowFileExpiration());
                     flowFileQueue.setBackPressureObjectThreshold(processGroup.getDefaultBackPressureObjectThreshold());
@@ -3234,20 +3250,20 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
 
     HeartbeatMessage createHeartbeatMessage() {
         try {
-            HeartbeatBean bean = heartbeatBeanRef.get();
-            if (bean == null) {
-                bean = new HeartbeatBean(flowManager.getRootGroup(), isPrimary());
-            }
-
             // create heartbeat payload
             final HeartbeatPayload hbPayload = new HeartbeatPayload();
             hbPayload.setSystemStartTime(systemStartTime);
             hbPayload.setActiveThreadCount(getActiveThreadCount());
             hbPayload.setRevisionUpdateCount(revisionManager.getRevisionUpdateCount());
 
-            final QueueSize queueSize = bean.getRootGroup().getQueueSize();
-            hbPayload.setTotalFlowFileCount(queueSize.getObjectCount());
-            hbPayload.setTotalFlowFileBytes(queueSize.getByteCount());
+            // include the counts that make up this node's controller status so that the cluster coordinator is able to
+            // provide the status of the cluster without replicating the request to every node. the counts are taken from
+            // the shared controller status so that each heartbeat does not walk the whole flow again
+            final ProcessGroupStatus controllerStatus = eventAccess.getControllerStatus();
+            hbPayload.setTotalFlowFileCount(controllerStatus.getQueuedCount());
+            hbPayload.setTotalFlowFileBytes(controllerStatus.getQueuedContentSize());
+            hbPayload.setComponentActiveThreadCount(controllerStatus.getActiveThreadCount());
+            hbPayload.setTerminatedThreadCount(controllerStatus.getTerminatedThreadCount());
             hbPayload.setClusterStatus(clusterCoordinator.getConnectionStatuses());
 
             // create heartbeat message
@@ -3257,7 +3273,7 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
                 return null;
             }
 
-            final Heartbeat heartbeat = new Heartbeat(nodeId, connectionStatus, hbPayload.marshal());
+            final Heartbeat heartbeat = new Heartbeat(nodeId, connectionStatus, hbPayload);
             final HeartbeatMessage message = new HeartbeatMessage();
             message.setHeartbeat(heartbeat);
 
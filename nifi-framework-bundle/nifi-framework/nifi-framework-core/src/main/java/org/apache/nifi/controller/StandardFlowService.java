@@ -50,10 +50,10 @@ import org.apache.nifi.components.state.Scope;
 import org.apache.nifi.components.state.StateManager;
 import org.apache.nifi.connectable.Connection;
 import org.apache.nifi.controller.flow.FlowManager;
+import org.apache.nifi.controller.serialization.FlowHashCalculator;
 import org.apache.nifi.controller.serialization.FlowSerializationException;
 import org.apache.nifi.controller.serialization.FlowSynchronizationException;
 import org.apache.nifi.controller.serialization.VersionedFlowSynchronizer;
-import org.apache.nifi.controller.status.ProcessGroupStatus;
 import org.apache.nifi.engine.FlowEngine;
 import org.apache.nifi.events.BulletinFactory;
 import org.apache.nifi.groups.BundleUpdateStrategy;
@@ -65,7 +65,6 @@ import org.apache.nifi.nar.NarClassLoadersHolder;
 import org.apache.nifi.persistence.FlowConfigurationDAO;
 import org.apache.nifi.persistence.StandardFlowConfigurationDAO;
 import org.apache.nifi.reporting.Bulletin;
-import org.apache.nifi.reporting.EventAccess;
 import org.apache.nifi.services.FlowService;
 import org.apache.nifi.stream.io.GZIPOutputStream;
 import org.apache.nifi.util.FormatUtils;
@@ -138,6 +137,11 @@ public class StandardFlowService implements FlowService, ProtocolHandler {
      */
     private NodeIdentifier nodeId;
 
+    /**
+     * the Cluster Coordinator that has most recently shown that it understands connection requests that carry only the hash of the flow
+     */
+    private volatile NodeIdentifier flowHashCoordinator;
+
     // guardedBy rwLock
     private boolean firstControllerInitialization = true;
 
@@ -614,6 +618,11 @@ public class StandardFlowService implements FlowService, ProtocolHandler {
     }
 
 
+    @Override
+    public String calculateFlowHash(final DataFlow dataFlow) {
+        return new FlowHashCalculator(controller.getEncryptor()).calculateHash(dataFlow.getFlow());
+    }
+
     private NodeIdentifier getNodeId() {
         readLock.lock();
         try {
@@ -713,17 +722,18 @@ public class StandardFlowService implements FlowService, ProtocolHandler {
                 connection.getFlowFileQueue().offloadQueue();
             }
 
-            final EventAccess eventAccess = controller.getEventAccess();
-            ProcessGroupStatus controllerStatus;
-
-            // wait for rebalance of flowfiles on all queues
+            // wait for rebalance of flowfiles on all queues. the queues are checked directly because the controller status may be
+            // shared by callers for some time after it is calculated
             while (true) {
-                controllerStatus = eventAccess.getControllerStatus();
-                if (controllerStatus.getQueuedCount() <= 0) {
+                long queuedCount = 0L;
+                for (final Connection connection : connections) {
+                    queuedCount += connection.getFlowFileQueue().size().getObjectCount();
+                }
+                if (queuedCount <= 0) {
                     break;
                 }
 
-                logger.debug("Offloading queues on node {}, remaining queued count: {}", getNodeId(), controllerStatus.getQueuedCount());
+                logger.debug("Offloading queues on node {}, remaining queued count: {}", getNodeId(), queuedCount);
                 Thread.sleep(1000);
             }
 
@@ -810,16 +820,24 @@ public class StandardFlowService implements FlowService, ProtocolHandler {
         }
     }
 
-    private ConnectionResponse connect(final boolean retryOnCommsFailure, final boolean retryIndefinitely, final DataFlow dataFlow) throws ConnectionException {
+    ConnectionResponse connect(final boolean retryOnCommsFailure, final boolean retryIndefinitely, final DataFlow dataFlow) throws ConnectionException {
         readLock.lock();
         try {
             logger.info("Connecting Node: " + nodeId);
 
-            // create connection request message
-            final ConnectionRequest request = new ConnectionRequest(nodeId, dataFlow);
-
+            // create connection request message. The hash of the flow is always sent, so that the Cluster Coordinator sends the cluster flow back
+            // only if the hash differs. The flow itself is omitted only if the Cluster Coordinator has already shown that it understands the hash,
+            // as an older Cluster Coordinator would otherwise treat the omitted flow as an empty flow, including when voting on the cluster flow.
+            // A Cluster Coordinator that receives only the hash requests the full flow if it is needed.
+            final NodeIdentifier coordinatorId = clusterCoordinator == null ? null : clusterCoordinator.getElectedActiveCoordinatorNode();
             final ConnectionRequestMessage requestMsg = new ConnectionRequestMessage();
-            requestMsg.setConnectionRequest(request);
+            if (dataFlow == null) {
+                requestMsg.setConnectionRequest(new ConnectionRequest(nodeId, null));
+            } else if (coordinatorId != null && coordinatorId.equals(flowHashCoordinator)) {
+                requestMsg.setConnectionRequest(ConnectionRequest.createFlowHashRequest(nodeId, dataFlow, calculateFlowHash(dataFlow)));
+            } else {
+                requestMsg.setConnectionRequest(new ConnectionRequest(nodeId, dataFlow, calculateFlowHash(dataFlow)));
+            }
 
             // send connection request to cluster manager
             /*
@@ -853,7 +871,15 @@ public class StandardFlowService implements FlowService, ProtocolHandler {
 
                     response = senderListener.requestConnection(requestMsg, activeCoordinatorParticipant).getConnectionResponse();
 
-                    if (response.shouldTryLater()) {
+                    if (response.isFlowRequired() || response.isFlowUnchanged()) {
+                        // only a Cluster Coordinator that understands the flow hash sends these responses
+                        flowHashCoordinator = coordinatorId;
+                    }
+
+                    if (response.isFlowRequired()) {
+                        logger.info("Cluster Coordinator requested the full flow with explanation: {}. Will send the connection request again with the full flow", response.getRejectionReason());
+                        requestMsg.setConnectionRequest(new ConnectionRequest(nodeId, dataFlow));
+                    } else if (response.shouldTryLater()) {
                         logger.info("Requested by cluster coordinator to retry connection in " + response.getTryLaterSeconds() + " seconds with explanation: " + response.getRejectionReason());
                         try {
                             Thread.sleep(response.getTryLaterSeconds() * 1000);
@@ -869,6 +895,11 @@ public class StandardFlowService implements FlowService, ProtocolHandler {
                         break;
                     } else {
                         logger.info("Received successful response from Cluster Coordinator to Connection Request");
+                        if (response.isFlowUnchanged()) {
+                            logger.info("Local flow matches the cluster flow, so the cluster flow was not transferred");
+                            response = withLocalFlow(response, dataFlow);
+                        }
+
                         // we received a successful connection response from cluster coordinator
                         break;
                     }
@@ -906,7 +937,7 @@ public class StandardFlowService implements FlowService, ProtocolHandler {
             if (response == null) {
                 // if response is null, then either we had IO problems or we were blocked by firewall or we couldn't determine manager's address
                 return response;
-            } else if (response.shouldTryLater()) {
+            } else if (response.shouldTryLater() || response.isFlowRequired()) {
                 // if response indicates we should try later, then coordinator was unable to service our request. Just load local flow and move on.
                 // when the cluster coordinator is able to service requests, this node's heartbeat will trigger the cluster coordinator to reach
                 // out to this node and re-connect to the cluster.
@@ -932,6 +963,17 @@ public class StandardFlowService implements FlowService, ProtocolHandler {
         }
     }
 
+    /**
+     * Creates a copy of a response whose flow was omitted because it matched the local flow, using the local flow along with the snippets,
+     * authorizer fingerprint and missing components from the cluster
+     */
+    private ConnectionResponse withLocalFlow(final ConnectionResponse response, final DataFlow localDataFlow) {
+        final DataFlow clusterDataFlow = response.getDataFlow();
+        final DataFlow dataFlow = new StandardDataFlow(localDataFlow.getFlow(), clusterDataFlow.getSnippets(), clusterDataFlow.getAuthorizerFingerprint(),
+            clusterDataFlow.getMissingComponents());
+        return new ConnectionResponse(response.getNodeIdentifier(), dataFlow, response.getInstanceId(), response.getNodeConnectionStatuses(), response.getComponentRevisions());
+    }
+
     private void loadFromConnectionResponse(final ConnectionResponse response) throws ConnectionException {
         writeLock.lock();
         try {
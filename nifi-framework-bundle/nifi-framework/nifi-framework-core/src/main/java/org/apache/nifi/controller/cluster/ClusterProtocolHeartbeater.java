@@ -74,8 +74,7 @@ public class ClusterProtocolHeartbeater implements Heartbeater {
 
         final HeartbeatResponseMessage responseMessage = protocolSender.heartbeat(heartbeatMessage, heartbeatAddress);
 
-        final byte[] payloadBytes = heartbeatMessage.getHeartbeat().getPayload();
-        final HeartbeatPayload payload = HeartbeatPayload.unmarshal(payloadBytes);
+        final HeartbeatPayload payload = heartbeatMessage.getHeartbeat().getHeartbeatPayload();
         final List<NodeConnectionStatus> nodeStatusList = payload.getClusterStatus();
         final Map<NodeIdentifier, Long> updateIdMap = nodeStatusList.stream().collect(
                 Collectors.toMap(status -> status.getNodeIdentifier(), status -> status.getUpdateIdentifier()));
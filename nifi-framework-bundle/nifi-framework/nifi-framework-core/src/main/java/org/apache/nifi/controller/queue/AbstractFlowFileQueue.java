@@ -24,6 +24,7 @@ import org.apache.nifi.controller.repository.RepositoryRecord;
 import org.apache.nifi.controller.repository.claim.ContentClaim;
 import org.apache.nifi.controller.repository.claim.ResourceClaim;
 import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.status.FlowFileAvailability;
 import org.apache.nifi.flowfile.FlowFile;
 import org.apache.nifi.flowfile.attributes.CoreAttributes;
 import org.apache.nifi.processor.DataUnit;
@@ -73,6 +74,8 @@ public abstract class AbstractFlowFileQueue implements FlowFileQueue {
 
     private LoadBalanceCompression compression = LoadBalanceCompression.DO_NOT_COMPRESS;
 
+    private final Set<Runnable> dataAvailableCallbacks = ConcurrentHashMap.newKeySet();
+
 
     public AbstractFlowFileQueue(final String identifier, final ProcessScheduler scheduler,
             final FlowFileRepository flowFileRepo, final ProvenanceEventRepository provRepo, final ResourceClaimManager resourceClaimManager) {
@@ -88,6 +91,42 @@ public abstract class AbstractFlowFileQueue implements FlowFileQueue {
         return identifier;
     }
 
+    @Override
+    public void notifyWhenDataAvailable(final Runnable callback) {
+        dataAvailableCallbacks.add(callback);
+
+        // FlowFiles may have been added before the callback was registered
+        if (getFlowFileAvailability() != FlowFileAvailability.ACTIVE_QUEUE_EMPTY) {
+            notifyDataAvailable();
+        }
+    }
+
+    @Override
+    public void removeDataAvailableCallback(final Runnable callback) {
+        dataAvailableCallbacks.remove(callback);
+    }
+
+    /**
+     * Runs, and unregisters, any callbacks that are waiting for FlowFiles to be added to the queue. Subclasses must call this method
+     * after FlowFiles are made available to be polled.
+     */
+    protected void notifyDataAvailable() {
+        if (dataAvailableCallbacks.isEmpty()) {
+            return;
+        }
+
+        for (final Runnable callback : dataAvailableCallbacks) {
+            // Only the thread that removes the callback runs it, so that each registration results in a single invocation
+            if (dataAvailableCallbacks.remove(callback)) {
+                try {
+                    callback.run();
+                } catch (final Exception e) {
+                    logger.warn("Failed to notify callback that data is available in {}", this, e);
+                }
+            }
+        }
+    }
+
     protected ProcessScheduler getScheduler() {
         return scheduler;
     }
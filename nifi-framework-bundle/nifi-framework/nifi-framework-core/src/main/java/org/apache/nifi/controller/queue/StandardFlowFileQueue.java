@@ -54,11 +54,19 @@ public class StandardFlowFileQueue extends AbstractFlowFileQueue implements Flow
     public StandardFlowFileQueue(final String identifier, final FlowFileRepository flowFileRepo, final ProvenanceEventRepository provRepo,
                                  final ResourceClaimManager resourceClaimManager, final ProcessScheduler scheduler, final FlowFileSwapManager swapManager, final EventReporter eventReporter,
                                  final int swapThreshold, final String expirationPeriod, final long defaultBackPressureObjectThreshold, final String defaultBackPressureDataSizeThreshold) {
+        this(identifier, flowFileRepo, provRepo, resourceClaimManager, scheduler, swapManager, eventReporter, swapThreshold, expirationPeriod,
+            defaultBackPressureObjectThreshold, defaultBackPressureDataSizeThreshold, false);
+    }
+
+    public StandardFlowFileQueue(final String identifier, final FlowFileRepository flowFileRepo, final ProvenanceEventRepository provRepo,
+                                 final ResourceClaimManager resourceClaimManager, final ProcessScheduler scheduler, final FlowFileSwapManager swapManager, final EventReporter eventReporter,
+                                 final int swapThreshold, final String expirationPeriod, final long defaultBackPressureObjectThreshold, final String defaultBackPressureDataSizeThreshold,
+                                 final boolean concurrentFifo) {
 
         super(identifier, scheduler, flowFileRepo, provRepo, resourceClaimManager);
         super.setFlowFileExpiration(expirationPeriod);
         this.swapManager = swapManager;
-        this.queue = new SwappablePriorityQueue(swapManager, swapThreshold, eventReporter, this, this::drop, null);
+        this.queue = new SwappablePriorityQueue(swapManager, swapThreshold, eventReporter, this, this::drop, null, concurrentFifo);
 
         writeLock = new TimedLock(this.lock.writeLock(), getIdentifier() + " Write Lock", 100);
 
@@ -110,11 +118,13 @@ public class StandardFlowFileQueue extends AbstractFlowFileQueue implements Flow
     @Override
     public void put(final FlowFileRecord file) {
         queue.put(file);
+        notifyDataAvailable();
     }
 
     @Override
     public void putAll(final Collection<FlowFileRecord> files) {
         queue.putAll(files);
+        notifyDataAvailable();
     }
 
 
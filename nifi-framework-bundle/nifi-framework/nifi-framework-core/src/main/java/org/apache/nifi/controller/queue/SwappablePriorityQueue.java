@@ -49,7 +49,18 @@ import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -59,7 +70,15 @@ public class SwappablePriorityQueue {
     private static final int SWAP_RECORD_POLL_SIZE = 10_000;
     private static final int MAX_EXPIRED_RECORDS_PER_ITERATION = 10_000;
 
+    // Swap files are read in the background, ahead of being needed, so that swapping in while holding the write lock does not wait on disk.
+    // Reading a swap file is dominated by I/O, so each read is given its own virtual thread. The number of reads in progress across all
+    // queues is limited, so that a large number of queues draining at once cannot read an unbounded number of swap files onto the heap.
+    private static final int MAX_CONCURRENT_SWAP_PREFETCHES = 4;
+    private static final Semaphore swapPrefetchPermits = new Semaphore(MAX_CONCURRENT_SWAP_PREFETCHES);
+    private static final ExecutorService swapPrefetchExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("Swap Prefetch-", 0).factory());
+
     private final int swapThreshold;
+    private final int swapPrefetchThreshold;
     private final FlowFileSwapManager swapManager;
     private final EventReporter eventReporter;
     private final FlowFileQueue flowFileQueue;
@@ -86,6 +105,19 @@ public class SwappablePriorityQueue {
     private ArrayList<FlowFileRecord> swapQueue;
     private boolean swapMode = false;
     private volatile long topPenaltyExpiration = -1L;
+    private SwapPrefetch swapPrefetch;
+
+    // When concurrent FIFO ordering is enabled and no prioritizers are configured, FlowFiles are offered to and polled from the
+    // 'fifo queue' without obtaining the write lock. This is only done while the queue is not in swap mode and the active queue
+    // holds nothing but penalized FlowFiles; otherwise, callers fall back to the locking code path. FlowFiles in the fifo queue
+    // are included in the active queue size. Penalized FlowFiles that are encountered in the fifo queue are moved to the active queue
+    // so that they are ordered by their penalty expiration. Swapped-in FlowFiles are always placed on the active queue.
+    // Puts that are in progress on the fast path are counted so that code holding the write lock can wait for them to complete
+    // before draining the fifo queue or entering swap mode; see disableFifoFastPath().
+    private final boolean concurrentFifo;
+    private final ConcurrentLinkedQueue<FlowFileRecord> fifoQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger fifoPutsInProgress = new AtomicInteger(0);
+    private volatile boolean fifoFastPath;
 
     // The following members are used to keep metrics in memory for reporting purposes so that we don't have to constantly
     // read these values from swap files on disk.
@@ -94,8 +126,28 @@ public class SwappablePriorityQueue {
 
     public SwappablePriorityQueue(final FlowFileSwapManager swapManager, final int swapThreshold, final EventReporter eventReporter, final FlowFileQueue flowFileQueue,
         final DropFlowFileAction dropAction, final String swapPartitionName) {
+        this(swapManager, swapThreshold, eventReporter, flowFileQueue, dropAction, swapPartitionName, false);
+    }
+
+    /**
+     * Creates a SwappablePriorityQueue
+     *
+     * @param swapManager the swap manager to use for swapping FlowFiles out and in
+     * @param swapThreshold the number of FlowFiles to hold in the active queue before swapping
+     * @param eventReporter the event reporter to use for reporting swap failures
+     * @param flowFileQueue the FlowFile Queue that this queue belongs to
+     * @param dropAction the action to take when FlowFiles are dropped
+     * @param swapPartitionName the name of the swap partition
+     * @param concurrentFifo whether or not FlowFiles should be offered and polled without locking, in approximately first-in-first-out order,
+     *                       while the queue has no prioritizers and nothing is swapped out
+     */
+    public SwappablePriorityQueue(final FlowFileSwapManager swapManager, final int swapThreshold, final EventReporter eventReporter, final FlowFileQueue flowFileQueue,
+        final DropFlowFileAction dropAction, final String swapPartitionName, final boolean concurrentFifo) {
         this.swapManager = swapManager;
         this.swapThreshold = swapThreshold;
+        // Prefetch only once the active queue has drained well below the swap threshold, so that a queue whose active queue stays full does
+        // not hold a swap file's worth of FlowFiles on the heap in addition to the active queue
+        this.swapPrefetchThreshold = Math.min(SWAP_RECORD_POLL_SIZE, swapThreshold / 2);
 
         this.activeQueue = new PriorityQueue<>(20, new QueuePrioritizer(Collections.emptyList()));
         this.swapQueue = new ArrayList<>();
@@ -103,8 +155,11 @@ public class SwappablePriorityQueue {
         this.flowFileQueue = flowFileQueue;
         this.dropAction = dropAction;
         this.swapPartitionName = swapPartitionName;
+        this.concurrentFifo = concurrentFifo;
+        this.fifoFastPath = concurrentFifo;
 
-        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(true);
+        // When the fifo queue is used, the lock is obtained much less often, and favoring throughput over fairness avoids convoys of waiting threads.
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(!concurrentFifo);
         readLock = new TimedLock(lock.readLock(), flowFileQueue.getIdentifier() + " Read Lock", 100);
         writeLock = new TimedLock(lock.writeLock(), flowFileQueue.getIdentifier() + " Write Lock", 100);
     }
@@ -125,7 +180,15 @@ public class SwappablePriorityQueue {
             final PriorityQueue<FlowFileRecord> newQueue = new PriorityQueue<>(Math.max(20, activeQueue.size()), new QueuePrioritizer(newPriorities));
             newQueue.addAll(activeQueue);
             activeQueue = newQueue;
+
+            // Once prioritizers are set, all FlowFiles must be ordered by the prioritizers, so move any FlowFiles from the fifo queue into the active queue.
+            if (!newPriorities.isEmpty()) {
+                drainFifoToActive();
+            }
+
+            updateTopPenaltyExpiration();
         } finally {
+            updateFifoFastPath();
             writeLock.unlock("setPriorities");
         }
     }
@@ -135,7 +198,7 @@ public class SwappablePriorityQueue {
         readLock.lock();
         try {
             final boolean anyPenalized = !activeQueue.isEmpty() && activeQueue.peek().isPenalized();
-            final boolean allPenalized = anyPenalized && activeQueue.stream().anyMatch(FlowFileRecord::isPenalized);
+            final boolean allPenalized = anyPenalized && activeQueue.stream().anyMatch(FlowFileRecord::isPenalized) && fifoQueue.stream().allMatch(FlowFileRecord::isPenalized);
 
             return new StandardLocalQueuePartitionDiagnostics(getFlowFileQueueSize(), anyPenalized, allPenalized);
         } finally {
@@ -146,7 +209,9 @@ public class SwappablePriorityQueue {
     public List<FlowFileRecord> getActiveFlowFiles() {
         readLock.lock();
         try {
-            return new ArrayList<>(activeQueue);
+            final List<FlowFileRecord> activeFlowFiles = new ArrayList<>(activeQueue);
+            activeFlowFiles.addAll(fifoQueue);
+            return activeFlowFiles;
         } finally {
             readLock.unlock("getActiveFlowFiles");
         }
@@ -290,7 +355,8 @@ public class SwappablePriorityQueue {
         // Calling this method when records are polled prevents this condition by migrating FlowFiles from the
         // Swap Queue to the Active Queue. However, we don't do this if there are FlowFiles already swapped out
         // to disk, because we want them to be swapped back in in the same order that they were swapped out.
-        if (!activeQueue.isEmpty()) {
+        if (!activeQueue.isEmpty() || !fifoQueue.isEmpty()) {
+            prefetchSwapFile();
             return;
         }
 
@@ -352,13 +418,90 @@ public class SwappablePriorityQueue {
         }
     }
 
+    /**
+     * Begins reading the next swap file in the background, if there is one, it is not already being read, and the active queue has drained
+     * below the prefetch threshold, so that its contents are available by the time that the active queue is exhausted. If too many swap files
+     * are already being read, the swap file is not prefetched and will be read when it is swapped in.
+     *
+     * This method MUST be called with the writeLock held.
+     */
+    private void prefetchSwapFile() {
+        if (swapLocations.isEmpty() || getFlowFileQueueSize().getActiveCount() >= swapPrefetchThreshold) {
+            return;
+        }
+
+        final String swapLocation = swapLocations.get(0);
+        if (swapPrefetch != null) {
+            if (swapPrefetch.swapLocation().equals(swapLocation)) {
+                return;
+            }
+
+            cancelSwapPrefetch();
+        }
+
+        if (!swapPrefetchPermits.tryAcquire()) {
+            logger.debug("Will not prefetch Swap File {} for {} because {} Swap Files are already being prefetched", swapLocation, this, MAX_CONCURRENT_SWAP_PREFETCHES);
+            return;
+        }
+
+        logger.debug("Prefetching Swap File {} for {}", swapLocation, this);
+        final SwapPrefetchTask task = new SwapPrefetchTask(() -> swapManager.peek(swapLocation, flowFileQueue));
+        try {
+            swapPrefetchExecutor.execute(task);
+        } catch (final RejectedExecutionException e) {
+            task.cancel(false);
+            return;
+        }
+
+        swapPrefetch = new SwapPrefetch(swapLocation, task);
+    }
+
+    /**
+     * Returns the contents of the given swap file, if they were prefetched and the prefetch has completed. The write lock is held, so this method
+     * never waits for a prefetch that is still in progress. If the swap file was not prefetched, has not yet been read, or could not be read,
+     * <code>null</code> is returned so that the caller reads the swap file itself and handles any failure.
+     *
+     * This method MUST be called with the writeLock held.
+     */
+    private SwapContents getPrefetchedContents(final String swapLocation) {
+        final SwapPrefetch prefetch = swapPrefetch;
+        swapPrefetch = null;
+        if (prefetch == null) {
+            return null;
+        }
+
+        if (!prefetch.swapLocation().equals(swapLocation) || !prefetch.contents().isDone()) {
+            logger.debug("Prefetch of Swap File {} for {} has not completed; will read Swap File in order to swap in", prefetch.swapLocation(), this);
+            prefetch.contents().cancel(true);
+            return null;
+        }
+
+        try {
+            return prefetch.contents().get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (final ExecutionException | CancellationException e) {
+            logger.debug("Failed to prefetch Swap File {}; will read Swap File again in order to swap in", swapLocation, e);
+            return null;
+        }
+    }
+
+    private void cancelSwapPrefetch() {
+        if (swapPrefetch != null) {
+            swapPrefetch.contents().cancel(true);
+            swapPrefetch = null;
+        }
+    }
+
     private void swapIn() {
         final String swapLocation = swapLocations.get(0);
         boolean partialContents = false;
         SwapContents swapContents;
         try {
             logger.debug("Attempting to swap in {}; all swap locations = {}", swapLocation, swapLocations);
-            swapContents = swapManager.swapIn(swapLocation, flowFileQueue);
+            final SwapContents prefetchedContents = getPrefetchedContents(swapLocation);
+            swapContents = prefetchedContents == null ? swapManager.swapIn(swapLocation, flowFileQueue) : swapManager.swapIn(swapLocation, flowFileQueue, prefetchedContents);
             swapLocations.remove(0);
             minQueueDateInSwapLocation.remove(swapLocation);
             totalQueueDateInSwapLocation.remove(swapLocation);
@@ -444,7 +587,7 @@ public class SwappablePriorityQueue {
         }
 
         final long expiration = topPenaltyExpiration;
-        if (expiration > 0 && expiration > System.currentTimeMillis()) { // compare against 0 to avoid unnecessary System call
+        if (expiration > 0 && expiration > System.currentTimeMillis() && fifoQueue.isEmpty()) { // compare against 0 to avoid unnecessary System call
             return FlowFileAvailability.HEAD_OF_QUEUE_PENALIZED;
         }
 
@@ -469,21 +612,42 @@ public class SwappablePriorityQueue {
 
 
     public void put(final FlowFileRecord flowFile) {
+        if (fifoFastPath) {
+            fifoPutsInProgress.incrementAndGet();
+            try {
+                // fifoFastPath must be checked again after registering the put; see disableFifoFastPath()
+                if (fifoFastPath && getFlowFileQueueSize().getActiveCount() < swapThreshold) {
+                    incrementActiveQueueSize(1, flowFile.getSize());
+                    fifoQueue.offer(flowFile);
+                    logger.trace("{} put to {}", flowFile, this);
+                    return;
+                }
+            } finally {
+                fifoPutsInProgress.decrementAndGet();
+            }
+        }
+
         writeLock.lock();
         try {
-            if (swapMode || activeQueue.size() >= swapThreshold) {
+            if (swapMode || getFlowFileQueueSize().getActiveCount() >= swapThreshold) {
+                disableFifoFastPath();
                 swapQueue.add(flowFile);
                 incrementSwapQueueSize(1, flowFile.getSize(), 0);
                 swapMode = true;
                 writeSwapFilesIfNecessary();
             } else {
                 incrementActiveQueueSize(1, flowFile.getSize());
-                activeQueue.add(flowFile);
+                if (isFifoOrdering()) {
+                    fifoQueue.offer(flowFile);
+                } else {
+                    activeQueue.add(flowFile);
+                }
             }
 
             updateTopPenaltyExpiration();
             logger.trace("{} put to {}", flowFile, this);
         } finally {
+            updateFifoFastPath();
             writeLock.unlock("put(FlowFileRecord)");
         }
     }
@@ -495,21 +659,42 @@ public class SwappablePriorityQueue {
             bytes += flowFile.getSize();
         }
 
+        if (fifoFastPath) {
+            fifoPutsInProgress.incrementAndGet();
+            try {
+                // fifoFastPath must be checked again after registering the put; see disableFifoFastPath()
+                if (fifoFastPath && getFlowFileQueueSize().getActiveCount() < swapThreshold - numFiles) {
+                    incrementActiveQueueSize(numFiles, bytes);
+                    fifoQueue.addAll(flowFiles);
+                    logger.trace("{} put to {}", flowFiles, this);
+                    return;
+                }
+            } finally {
+                fifoPutsInProgress.decrementAndGet();
+            }
+        }
+
         writeLock.lock();
         try {
-            if (swapMode || activeQueue.size() >= swapThreshold - numFiles) {
+            if (swapMode || getFlowFileQueueSize().getActiveCount() >= swapThreshold - numFiles) {
+                disableFifoFastPath();
                 swapQueue.addAll(flowFiles);
                 incrementSwapQueueSize(numFiles, bytes, 0);
                 swapMode = true;
                 writeSwapFilesIfNecessary();
             } else {
                 incrementActiveQueueSize(numFiles, bytes);
-                activeQueue.addAll(flowFiles);
+                if (isFifoOrdering()) {
+                    fifoQueue.addAll(flowFiles);
+                } else {
+                    activeQueue.addAll(flowFiles);
+                }
             }
 
             updateTopPenaltyExpiration();
             logger.trace("{} put to {}", flowFiles, this);
         } finally {
+            updateFifoFastPath();
             writeLock.unlock("putAll");
         }
     }
@@ -521,6 +706,13 @@ public class SwappablePriorityQueue {
     public FlowFileRecord poll(final Set<FlowFileRecord> expiredRecords, final long expirationMillis, final PollStrategy pollStrategy) {
         FlowFileRecord flowFile;
 
+        if (isFifoFastPathAvailable()) {
+            flowFile = pollFifoQueue(expiredRecords, expirationMillis, pollStrategy);
+            if (flowFile != null || expiredRecords.size() >= MAX_EXPIRED_RECORDS_PER_ITERATION) {
+                return flowFile;
+            }
+        }
+
         // First check if we have any records Pre-Fetched.
         writeLock.lock();
         try {
@@ -532,6 +724,7 @@ public class SwappablePriorityQueue {
             }
 
             updateTopPenaltyExpiration();
+            updateFifoFastPath();
 
             return flowFile;
         } finally {
@@ -546,6 +739,7 @@ public class SwappablePriorityQueue {
 
         migrateSwapToActive();
 
+        int expiredCount = 0;
         long expiredBytes = 0L;
         do {
             flowFile = this.activeQueue.poll();
@@ -553,6 +747,7 @@ public class SwappablePriorityQueue {
             isExpired = isExpired(flowFile, expirationMillis);
             if (isExpired) {
                 expiredRecords.add(flowFile);
+                expiredCount++;
                 expiredBytes += flowFile.getSize();
                 flowFile = null;
 
@@ -566,13 +761,164 @@ public class SwappablePriorityQueue {
             }
         } while (isExpired);
 
-        if (!expiredRecords.isEmpty()) {
-            incrementActiveQueueSize(-expiredRecords.size(), -expiredBytes);
+        if (expiredCount > 0) {
+            incrementActiveQueueSize(-expiredCount, -expiredBytes);
+        }
+
+        if (flowFile == null && !fifoQueue.isEmpty() && expiredRecords.size() < MAX_EXPIRED_RECORDS_PER_ITERATION) {
+            final List<FlowFileRecord> destination = new ArrayList<>(1);
+            drainFifoQueue(destination, 1, expiredRecords, expirationMillis, pollStrategy, MAX_EXPIRED_RECORDS_PER_ITERATION - expiredRecords.size());
+            flowFile = destination.isEmpty() ? null : destination.get(0);
         }
 
         return flowFile;
     }
 
+    /**
+     * Polls a FlowFile from the fifo queue without obtaining the write lock. Expired FlowFiles are removed from the active queue size
+     * and added to the given set, and penalized FlowFiles are moved to the active queue if the poll strategy excludes them.
+     *
+     * @return the FlowFile that was polled, or <code>null</code> if no FlowFile is available from the fifo queue
+     */
+    private FlowFileRecord pollFifoQueue(final Set<FlowFileRecord> expiredRecords, final long expirationMillis, final PollStrategy pollStrategy) {
+        int expiredCount = 0;
+        long expiredBytes = 0L;
+
+        try {
+            FlowFileRecord flowFile;
+            while ((flowFile = fifoQueue.poll()) != null) {
+                if (isExpired(flowFile, expirationMillis)) {
+                    expiredRecords.add(flowFile);
+                    expiredCount++;
+                    expiredBytes += flowFile.getSize();
+
+                    if (expiredRecords.size() >= MAX_EXPIRED_RECORDS_PER_ITERATION) {
+                        return null;
+                    }
+
+                    continue;
+                }
+
+                if (flowFile.isPenalized() && pollStrategy == PollStrategy.UNPENALIZED_FLOWFILES) {
+                    addPenalizedToActive(flowFile);
+                    continue;
+                }
+
+                logger.trace("{} poll() returning {}", this, flowFile);
+                unacknowledge(1, flowFile.getSize());
+                return flowFile;
+            }
+
+            return null;
+        } finally {
+            if (expiredCount > 0) {
+                incrementActiveQueueSize(-expiredCount, -expiredBytes);
+            }
+        }
+    }
+
+    private void addPenalizedToActive(final FlowFileRecord flowFile) {
+        writeLock.lock();
+        try {
+            activeQueue.add(flowFile);
+            updateTopPenaltyExpiration();
+            updateFifoFastPath();
+        } finally {
+            writeLock.unlock("addPenalizedToActive");
+        }
+    }
+
+    /**
+     * Drains FlowFiles from the fifo queue into the given destination. Unlike {@link #drainQueue(Queue, List, int, Set, long, PollStrategy)},
+     * penalized FlowFiles do not end the drain, because the fifo queue is not ordered by penalty expiration; instead, they are moved to the
+     * active queue. This method MUST be called with the write lock held.
+     *
+     * @return the number of bytes added to the destination
+     */
+    private long drainFifoQueue(final List<FlowFileRecord> destination, final int maxResults, final Set<FlowFileRecord> expiredRecords, final long expirationMillis,
+                                final PollStrategy pollStrategy, final int maxExpired) {
+        long drainedBytes = 0L;
+        long expiredBytes = 0L;
+        int expiredCount = 0;
+
+        FlowFileRecord pulled;
+        while (destination.size() < maxResults && expiredCount < maxExpired && (pulled = fifoQueue.poll()) != null) {
+            if (isExpired(pulled, expirationMillis)) {
+                expiredRecords.add(pulled);
+                expiredBytes += pulled.getSize();
+                expiredCount++;
+            } else if (pulled.isPenalized() && pollStrategy == PollStrategy.UNPENALIZED_FLOWFILES) {
+                activeQueue.add(pulled);
+            } else {
+                destination.add(pulled);
+                drainedBytes += pulled.getSize();
+            }
+        }
+
+        if (expiredCount > 0) {
+            incrementActiveQueueSize(-expiredCount, -expiredBytes);
+        }
+
+        return drainedBytes;
+    }
+
+    /**
+     * Moves all FlowFiles from the fifo queue to the active queue. Puts on the fast path are disabled until the next call to
+     * {@link #updateFifoFastPath()} so that no FlowFile is added to the fifo queue after it has been drained.
+     * This method MUST be called with the write lock held.
+     */
+    private void drainFifoToActive() {
+        disableFifoFastPath();
+
+        FlowFileRecord flowFile;
+        while ((flowFile = fifoQueue.poll()) != null) {
+            activeQueue.add(flowFile);
+        }
+    }
+
+    private boolean isFifoOrdering() {
+        return concurrentFifo && priorities.isEmpty();
+    }
+
+    /**
+     * Prevents FlowFiles from being offered to the fifo queue without the write lock and waits for any such puts that are in progress
+     * to complete, so that their FlowFiles are in the fifo queue and included in the queue size. The fast path remains disabled until
+     * {@link #updateFifoFastPath()} is called. This method MUST be called with the write lock held.
+     */
+    private void disableFifoFastPath() {
+        if (!concurrentFifo) {
+            return;
+        }
+
+        fifoFastPath = false;
+        while (fifoPutsInProgress.get() > 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private boolean isFifoFastPathAvailable() {
+        if (!fifoFastPath) {
+            return false;
+        }
+
+        // If the active queue holds a FlowFile whose penalty has expired, it must be polled using the locking code path.
+        final long expiration = topPenaltyExpiration;
+        return expiration <= 0 || expiration > System.currentTimeMillis();
+    }
+
+    /**
+     * Determines whether or not FlowFiles may be offered to and polled from the fifo queue without obtaining the write lock.
+     * This method MUST be called with the write lock held.
+     */
+    private void updateFifoFastPath() {
+        if (!concurrentFifo) {
+            return;
+        }
+
+        final FlowFileRecord top = activeQueue.peek();
+        fifoFastPath = priorities.isEmpty() && !swapMode && swapLocations.isEmpty() && (top == null || top.isPenalized());
+    }
+
     public List<FlowFileRecord> poll(int maxResults, final Set<FlowFileRecord> expiredRecords, final long expirationMillis) {
         return poll(maxResults, expiredRecords, expirationMillis, PollStrategy.UNPENALIZED_FLOWFILES);
     }
@@ -585,6 +931,7 @@ public class SwappablePriorityQueue {
         try {
             doPoll(records, maxResults, expiredRecords, expirationMillis, pollStrategy);
             updateTopPenaltyExpiration();
+            updateFifoFastPath();
         } finally {
             writeLock.unlock("poll(int, Set)");
         }
@@ -610,6 +957,8 @@ public class SwappablePriorityQueue {
 
         writeLock.lock();
         try {
+            // The filter must be able to see FlowFiles in priority order, so move any FlowFiles from the fifo queue into the active queue.
+            drainFifoToActive();
             migrateSwapToActive();
 
             final List<FlowFileRecord> selectedFlowFiles = new ArrayList<>();
@@ -669,6 +1018,7 @@ public class SwappablePriorityQueue {
 
             return selectedFlowFiles;
         } finally {
+            updateFifoFastPath();
             writeLock.unlock("poll(Filter, Set)");
         }
     }
@@ -687,17 +1037,22 @@ public class SwappablePriorityQueue {
     private void doPoll(final List<FlowFileRecord> records, int maxResults, final Set<FlowFileRecord> expiredRecords, final long expirationMillis, final PollStrategy pollStrategy) {
         migrateSwapToActive();
 
-        final long bytesDrained = drainQueue(activeQueue, records, maxResults, expiredRecords, expirationMillis, pollStrategy);
+        long bytesDrained = drainQueue(activeQueue, records, maxResults, expiredRecords, expirationMillis, pollStrategy);
 
         long expiredBytes = 0L;
         for (final FlowFileRecord record : expiredRecords) {
             expiredBytes += record.getSize();
         }
 
-        unacknowledge(records.size(), bytesDrained);
         if (!expiredRecords.isEmpty()) {
             incrementActiveQueueSize(-expiredRecords.size(), -expiredBytes);
         }
+
+        if (records.size() < maxResults && !fifoQueue.isEmpty() && expiredRecords.size() < MAX_EXPIRED_RECORDS_PER_ITERATION) {
+            bytesDrained += drainFifoQueue(records, maxResults, expiredRecords, expirationMillis, pollStrategy, MAX_EXPIRED_RECORDS_PER_ITERATION - expiredRecords.size());
+        }
+
+        unacknowledge(records.size(), bytesDrained);
     }
 
 
@@ -765,6 +1120,12 @@ public class SwappablePriorityQueue {
                     return flowFile;
                 }
             }
+
+            for (final FlowFileRecord flowFile : fifoQueue) {
+                if (flowFileUuid.equals(flowFile.getAttribute(CoreAttributes.UUID.key()))) {
+                    return flowFile;
+                }
+            }
         } finally {
             readLock.unlock("getFlowFile");
         }
@@ -782,6 +1143,7 @@ public class SwappablePriorityQueue {
             logger.debug("For DropFlowFileRequest {}, original size is {}", requestIdentifier, size());
 
             try {
+                drainFifoToActive();
                 final List<FlowFileRecord> activeQueueRecords = new ArrayList<>(activeQueue);
 
                 QueueSize droppedSize;
@@ -831,6 +1193,7 @@ public class SwappablePriorityQueue {
                 incrementSwapQueueSize(-droppedSize.getObjectCount(), -droppedSize.getByteCount(), 0);
                 logger.debug("For DropFlowFileRequest {}, dropped {} from Swap Queue", requestIdentifier, droppedSize);
 
+                cancelSwapPrefetch();
                 final int swapFileCount = swapLocations.size();
                 final Iterator<String> swapLocationItr = swapLocations.iterator();
                 while (swapLocationItr.hasNext()) {
@@ -890,7 +1253,10 @@ public class SwappablePriorityQueue {
                 logger.error("", e);
                 dropRequest.setState(DropFlowFileState.FAILURE, "Failed to drop FlowFiles due to " + e.toString());
             }
+
+            updateTopPenaltyExpiration();
         } finally {
+            updateFifoFastPath();
             writeLock.unlock("Drop FlowFiles");
         }
     }
@@ -972,6 +1338,7 @@ public class SwappablePriorityQueue {
             incrementSwapQueueSize(swapFlowFileCount, swapByteCount, swapLocations.size());
             this.swapLocations.addAll(swapLocations);
             updateTopPenaltyExpiration();
+            updateFifoFastPath();
         } finally {
             writeLock.unlock("Recover Swap Files");
         }
@@ -993,6 +1360,7 @@ public class SwappablePriorityQueue {
         try {
             // We want the oldest timestamp, which will be the min
             long min = getMinLastQueueDate(activeQueue, 0L);
+            min = getMinLastQueueDate(fifoQueue, min);
             min = Long.min(min, getMinLastQueueDate(swapQueue, min));
 
             for (Long minSwapQueueDate: minQueueDateInSwapLocation.values()) {
@@ -1023,6 +1391,10 @@ public class SwappablePriorityQueue {
                 sum += (fromTimestamp - flowFileRecord.getLastQueueDate());
             }
 
+            for (FlowFileRecord flowFileRecord : fifoQueue) {
+                sum += (fromTimestamp - flowFileRecord.getLastQueueDate());
+            }
+
             for (FlowFileRecord flowFileRecord : swapQueue) {
                 sum += (fromTimestamp - flowFileRecord.getLastQueueDate());
             }
@@ -1144,6 +1516,8 @@ public class SwappablePriorityQueue {
             if (!inheritedSwapLocations.isEmpty()) {
                 logger.debug("Inherited the following swap locations: {}", inheritedSwapLocations);
             }
+
+            updateFifoFastPath();
         } finally {
             writeLock.unlock("inheritQueueContents");
         }
@@ -1152,6 +1526,8 @@ public class SwappablePriorityQueue {
     public FlowFileQueueContents packageForRebalance(final String newPartitionName) {
         writeLock.lock();
         try {
+            drainFifoToActive();
+            cancelSwapPrefetch();
             final List<FlowFileRecord> activeRecords = new ArrayList<>(this.activeQueue);
 
             final List<String> updatedSwapLocations = new ArrayList<>(swapLocations.size());
@@ -1167,6 +1543,8 @@ public class SwappablePriorityQueue {
             this.swapLocations.clear();
             this.activeQueue.clear();
 
+            final int activeQueueCount = activeRecords.size();
+            final long activeQueueBytes = activeRecords.stream().mapToLong(FlowFileRecord::getSize).sum();
             final int swapQueueCount = swapQueue.size();
             final long swapQueueBytes = swapQueue.stream().mapToLong(FlowFileRecord::getSize).sum();
             activeRecords.addAll(swapQueue);
@@ -1174,19 +1552,25 @@ public class SwappablePriorityQueue {
 
             this.swapMode = false;
 
+            // Subtract the FlowFiles that were packaged, rather than resetting the active counts to zero, because a FlowFile that was polled
+            // from the fifo queue without the write lock remains in the active count until it is unacknowledged.
             QueueSize swapSize;
             boolean updated;
             do {
                 final FlowFileQueueSize currentSize = getFlowFileQueueSize();
                 swapSize = new QueueSize(currentSize.getSwappedCount() - swapQueueCount, currentSize.getSwappedBytes() - swapQueueBytes);
 
-                final FlowFileQueueSize updatedSize = new FlowFileQueueSize(0, 0, 0, 0, 0, currentSize.getUnacknowledgedCount(), currentSize.getUnacknowledgedBytes());
+                final FlowFileQueueSize updatedSize = new FlowFileQueueSize(currentSize.getActiveCount() - activeQueueCount, currentSize.getActiveBytes() - activeQueueBytes,
+                    0, 0, 0, currentSize.getUnacknowledgedCount(), currentSize.getUnacknowledgedBytes());
                 updated = updateSize(currentSize, updatedSize);
             } while (!updated);
 
+            updateTopPenaltyExpiration();
+
             logger.debug("Cleared {} to package FlowFile for rebalance to {}", this, newPartitionName);
             return new FlowFileQueueContents(activeRecords, updatedSwapLocations, swapSize);
         } finally {
+            updateFifoFastPath();
             writeLock.unlock("packageForRebalance(SwappablePriorityQueue)");
         }
     }
@@ -1195,4 +1579,22 @@ public class SwappablePriorityQueue {
     public String toString() {
         return "SwappablePriorityQueue[queueId=" + flowFileQueue.getIdentifier() + ", partition=" + swapPartitionName + "]";
     }
+
+    private record SwapPrefetch(String swapLocation, Future<SwapContents> contents) {
+    }
+
+    /**
+     * Reads a swap file while holding one of the permits that limit the number of concurrent prefetches. The permit is returned once the read
+     * completes, fails, or is canceled, including if the task is canceled before it begins to run.
+     */
+    private static class SwapPrefetchTask extends FutureTask<SwapContents> {
+        SwapPrefetchTask(final Callable<SwapContents> read) {
+            super(read);
+        }
+
+        @Override
+        protected void done() {
+            swapPrefetchPermits.release();
+        }
+    }
 }
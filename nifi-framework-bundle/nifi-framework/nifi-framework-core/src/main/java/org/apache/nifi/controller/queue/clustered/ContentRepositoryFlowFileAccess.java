@@ -20,6 +20,7 @@ package org.apache.nifi.controller.queue.clustered;
 import org.apache.nifi.controller.repository.ContentNotFoundException;
 import org.apache.nifi.controller.repository.ContentRepository;
 import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.io.ByteBufferInputStream;
 import org.apache.nifi.controller.repository.io.LimitedInputStream;
 import org.apache.nifi.stream.io.StreamUtils;
 
@@ -53,6 +54,17 @@ public class ContentRepositoryFlowFileAccess implements FlowFileContentAccess {
             }
         }
 
+        // If the content is memory-mapped, provide a view of just the FlowFile's bytes, which allows the content to be
+        // written to a channel directly from the mapped buffer, without first being copied to the heap. The content is only
+        // memory-mapped if the content repository's mapped claim cache is enabled, which it is not by default.
+        if (rawIn instanceof ByteBufferInputStream bufferIn) {
+            if (bufferIn.available() < flowFile.getSize()) {
+                throw new EOFException("Expected " + flowFile + " to contain " + flowFile.getSize() + " bytes but the content repository only had " + bufferIn.available() + " bytes for it");
+            }
+
+            return new ByteBufferInputStream(bufferIn.readSlice((int) flowFile.getSize()));
+        }
+
         final InputStream limitedIn = new LimitedInputStream(rawIn, flowFile.getSize());
         // Wrap the Content Repository's InputStream with one that ensures that we are able to consume all of the FlowFile's content or else throws EOFException
         return new FilterInputStream(limitedIn) {
@@ -128,6 +128,13 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
                                            final ProvenanceEventRepository provRepo, final ContentRepository contentRepo, final ResourceClaimManager resourceClaimManager,
                                            final ClusterCoordinator clusterCoordinator, final AsyncLoadBalanceClientRegistry clientRegistry, final FlowFileSwapManager swapManager,
                                            final int swapThreshold, final EventReporter eventReporter) {
+        this(identifier, scheduler, flowFileRepo, provRepo, contentRepo, resourceClaimManager, clusterCoordinator, clientRegistry, swapManager, swapThreshold, eventReporter, false);
+    }
+
+    public SocketLoadBalancedFlowFileQueue(final String identifier, final ProcessScheduler scheduler, final FlowFileRepository flowFileRepo,
+                                           final ProvenanceEventRepository provRepo, final ContentRepository contentRepo, final ResourceClaimManager resourceClaimManager,
+                                           final ClusterCoordinator clusterCoordinator, final AsyncLoadBalanceClientRegistry clientRegistry, final FlowFileSwapManager swapManager,
+                                           final int swapThreshold, final EventReporter eventReporter, final boolean concurrentFifo) {
 
         super(identifier, scheduler, flowFileRepo, provRepo, resourceClaimManager);
         this.eventReporter = eventReporter;
@@ -138,7 +145,7 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
         this.clusterCoordinator = clusterCoordinator;
         this.clientRegistry = clientRegistry;
 
-        localPartition = new SwappablePriorityQueueLocalPartition(swapManager, swapThreshold, eventReporter, this, this::drop);
+        localPartition = new SwappablePriorityQueueLocalPartition(swapManager, swapThreshold, eventReporter, this, this::drop, concurrentFifo);
         rebalancingPartition = new StandardRebalancingPartition(swapManager, swapThreshold, eventReporter, this, this::drop);
 
         // Create a RemoteQueuePartition for each node
@@ -812,6 +819,7 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
     @Override
     public void put(final FlowFileRecord flowFile) {
         putAndGetPartition(flowFile);
+        notifyDataAvailable();
     }
 
 
@@ -871,11 +879,14 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
         } finally {
             partitionReadLock.unlock();
         }
+
+        notifyDataAvailable();
     }
 
     @Override
     public void putAll(final Collection<FlowFileRecord> flowFiles) {
         putAllAndGetPartitions(flowFiles);
+        notifyDataAvailable();
     }
 
     protected Map<QueuePartition, List<FlowFileRecord>> putAllAndGetPartitions(final Collection<FlowFileRecord> flowFiles) {
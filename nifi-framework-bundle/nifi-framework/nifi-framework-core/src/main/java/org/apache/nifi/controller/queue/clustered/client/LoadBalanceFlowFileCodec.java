@@ -17,11 +17,21 @@
 
 package org.apache.nifi.controller.queue.clustered.client;
 
+import org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceAttributeDictionary;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 
 import java.io.IOException;
 import java.io.OutputStream;
 
 public interface LoadBalanceFlowFileCodec {
+    /**
+     * Encodes the FlowFile's attributes and metadata as defined by version 1 of the Load Balance Protocol
+     */
     void encode(FlowFileRecord flowFile, OutputStream out) throws IOException;
+
+    /**
+     * Encodes the FlowFile's attributes and metadata as defined by version 2 of the Load Balance Protocol, writing attribute keys
+     * and values through the given dictionary, which is shared by all FlowFiles that are sent in the same transaction
+     */
+    void encode(FlowFileRecord flowFile, OutputStream out, LoadBalanceAttributeDictionary dictionary) throws IOException;
 }
@@ -17,7 +17,9 @@
 
 package org.apache.nifi.controller.queue.clustered.client;
 
+import org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceAttributeDictionary;
 import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
 
 import java.io.DataOutputStream;
 import java.io.IOException;
@@ -42,6 +44,24 @@ public class StandardLoadBalanceFlowFileCodec implements LoadBalanceFlowFileCode
         out.writeLong(flowFile.getPenaltyExpirationMillis());
     }
 
+    @Override
+    public void encode(final FlowFileRecord flowFile, final OutputStream destination, final LoadBalanceAttributeDictionary dictionary) throws IOException {
+        final DataOutputStream out = new DataOutputStream(destination);
+
+        out.writeInt(flowFile.getAttributes().size());
+        for (final Map.Entry<String, String> entry : flowFile.getAttributes().entrySet()) {
+            final String key = entry.getKey();
+            dictionary.writeString(key, true, out);
+
+            // The UUID is unique to each FlowFile, so adding it to the dictionary would only take space away from values that do repeat
+            dictionary.writeString(entry.getValue(), !CoreAttributes.UUID.key().equals(key), out);
+        }
+
+        out.writeLong(flowFile.getLineageStartDate());
+        out.writeLong(flowFile.getEntryDate());
+        out.writeLong(flowFile.getPenaltyExpirationMillis());
+    }
+
     private void writeString(final String value, final DataOutputStream out) throws IOException {
         final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
         out.writeInt(bytes.length);
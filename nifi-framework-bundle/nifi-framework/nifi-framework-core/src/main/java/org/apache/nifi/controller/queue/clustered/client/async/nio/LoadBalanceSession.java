@@ -21,15 +21,16 @@ import org.apache.nifi.controller.queue.LoadBalanceCompression;
 import org.apache.nifi.controller.queue.clustered.FlowFileContentAccess;
 import org.apache.nifi.controller.queue.clustered.TransactionThreshold;
 import org.apache.nifi.controller.queue.clustered.client.LoadBalanceFlowFileCodec;
+import org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceAttributeDictionary;
+import org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceCompressionCodec;
 import org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants;
 import org.apache.nifi.controller.queue.clustered.server.TransactionAbortedException;
 import org.apache.nifi.controller.repository.ContentNotFoundException;
 import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.io.ByteBufferInputStream;
 import org.apache.nifi.remote.StandardVersionNegotiator;
 import org.apache.nifi.remote.VersionNegotiator;
 import org.apache.nifi.stream.io.ByteCountingOutputStream;
-import org.apache.nifi.stream.io.GZIPOutputStream;
-import org.apache.nifi.stream.io.StreamUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -73,9 +74,10 @@ public class LoadBalanceSession {
     private final String peerDescription;
     private final String connectionId;
     private final TransactionThreshold transactionThreshold;
+    private final LoadBalanceCompressionCodec compressionCodec;
 
-    final VersionNegotiator negotiator = new StandardVersionNegotiator(1);
-    private int protocolVersion = 1;
+    final VersionNegotiator negotiator = new StandardVersionNegotiator(2, 1);
+    private int protocolVersion = 2;
 
     private final Checksum checksum = new CRC32();
 
@@ -85,12 +87,19 @@ public class LoadBalanceSession {
     private final List<FlowFileRecord> flowFilesSent = new ArrayList<>();
     private TransactionPhase phase = TransactionPhase.RECOMMEND_PROTOCOL_VERSION;
     private InputStream flowFileInputStream;
-    private final byte[] byteBuffer = new byte[MAX_DATA_FRAME_SIZE];
+    private ByteBuffer pendingContentFrame;
+    private final ByteBuffer contentFrame = ByteBuffer.allocate(5 + MAX_DATA_FRAME_SIZE);
+    private final LoadBalanceAttributeDictionary attributeDictionary = new LoadBalanceAttributeDictionary();
     private long readTimeout;
     private volatile LoadBalanceSessionState sessionState = LoadBalanceSessionState.ACTIVE;
 
     public LoadBalanceSession(final RegisteredPartition partition, final FlowFileContentAccess contentAccess, final LoadBalanceFlowFileCodec flowFileCodec, final PeerChannel peerChannel,
                               final int timeoutMillis, final TransactionThreshold transactionThreshold) {
+        this(partition, contentAccess, flowFileCodec, peerChannel, timeoutMillis, transactionThreshold, LoadBalanceCompressionCodec.GZIP);
+    }
+
+    public LoadBalanceSession(final RegisteredPartition partition, final FlowFileContentAccess contentAccess, final LoadBalanceFlowFileCodec flowFileCodec, final PeerChannel peerChannel,
+                              final int timeoutMillis, final TransactionThreshold transactionThreshold, final LoadBalanceCompressionCodec compressionCodec) {
         this.partition = partition;
         this.flowFileSupplier = partition.getFlowFileRecordSupplier();
         this.connectionId = partition.getConnectionId();
@@ -104,6 +113,7 @@ public class LoadBalanceSession {
         }
         this.timeoutMillis = timeoutMillis;
         this.transactionThreshold = transactionThreshold;
+        this.compressionCodec = compressionCodec;
     }
 
     public RegisteredPartition getPartition() {
@@ -137,6 +147,16 @@ public class LoadBalanceSession {
                 return bytesWritten > 0;
             }
 
+            // If the Data Frame header has been written and its content is held separately, write the content now.
+            if (pendingContentFrame != null) {
+                logger.trace("Data Frame header has been written. Will write Data Frame content to channel");
+                preparedFrame = channel.prepareForWrite(pendingContentFrame);
+                pendingContentFrame = null;
+
+                final int bytesWritten = channel.write(preparedFrame);
+                return bytesWritten > 0;
+            }
+
             // Check if the phase is one that needs to receive data and if so, call the appropriate method.
             switch (phase) {
                 case RECEIVE_SPACE_RESPONSE:
@@ -288,36 +308,28 @@ public class LoadBalanceSession {
     }
 
     private ByteBuffer getFlowFileContent() throws IOException {
-        // This method is fairly inefficient, copying lots of byte[]. Can do better. But keeping it simple for
-        // now to get this working. Revisit with optimizations later.
         try {
             if (flowFileInputStream == null) {
                 flowFileInputStream = flowFileContentAccess.read(currentFlowFile);
             }
 
-            final int bytesRead = StreamUtils.fillBuffer(flowFileInputStream, byteBuffer, false);
-            if (bytesRead < 1) {
-                // If no data available, close the stream and move on to the next phase, returning a NO_DATA_FRAME buffer.
-                flowFileInputStream.close();
-                flowFileInputStream = null;
-                phase = TransactionPhase.GET_NEXT_FLOWFILE;
-
-                final ByteBuffer buffer = ByteBuffer.allocate(1);
-                buffer.put((byte) LoadBalanceProtocolConstants.NO_DATA_FRAME);
-                buffer.rewind();
-
-                checksum.update(LoadBalanceProtocolConstants.NO_DATA_FRAME);
-
-                logger.debug("Sending NO_DATA_FRAME indicator to Peer {}", peerDescription);
+            final boolean compressContent = partition.getCompression() == LoadBalanceCompression.COMPRESS_ATTRIBUTES_AND_CONTENT;
+            if (!compressContent && flowFileInputStream instanceof ByteBufferInputStream bufferIn) {
+                return getMappedContentFrame(bufferIn);
+            }
 
-                return buffer;
+            // Read the content directly into the frame, after the 5-byte header, so that the frame is not copied again before it is written
+            final byte[] frameArray = contentFrame.array();
+            final int bytesRead = flowFileInputStream.readNBytes(frameArray, 5, MAX_DATA_FRAME_SIZE);
+            if (bytesRead < 1) {
+                return getNoDataFrame();
             }
 
             logger.trace("Sending Data Frame that is {} bytes long to Peer {}", bytesRead, peerDescription);
             final ByteBuffer buffer;
 
-            if (partition.getCompression() == LoadBalanceCompression.COMPRESS_ATTRIBUTES_AND_CONTENT) {
-                final byte[] compressed = compressDataFrame(byteBuffer, bytesRead);
+            if (compressContent) {
+                final byte[] compressed = compressDataFrame(frameArray, 5, bytesRead);
                 final int compressedMaxLen = compressed.length;
 
                 buffer = ByteBuffer.allocate(5 + compressedMaxLen);
@@ -325,31 +337,83 @@ public class LoadBalanceSession {
                 buffer.putInt(compressedMaxLen);
 
                 buffer.put(compressed, 0, compressedMaxLen);
+                checksum.update(buffer.array(), 0, buffer.capacity());
+                buffer.rewind();
             } else {
-                buffer = ByteBuffer.allocate(5 + bytesRead);
+                buffer = contentFrame;
+                buffer.clear();
                 buffer.put((byte) LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS);
                 buffer.putInt(bytesRead);
-
-                buffer.put(byteBuffer, 0, bytesRead);
+                buffer.position(0);
+                buffer.limit(5 + bytesRead);
+                checksum.update(frameArray, 0, 5 + bytesRead);
             }
 
-            final byte[] frameArray = buffer.array();
-            checksum.update(frameArray, 0, frameArray.length);
-
             phase = TransactionPhase.SEND_FLOWFILE_CONTENTS;
-            buffer.rewind();
             return buffer;
         } catch (final ContentNotFoundException cnfe) {
             throw new ContentNotFoundException(currentFlowFile, cnfe.getMissingClaim(), cnfe.getMessage());
         }
     }
 
-    private byte[] compressDataFrame(final byte[] uncompressed, final int byteCount) throws IOException {
+    /**
+     * Prepares a Data Frame whose content is a view of the memory-mapped content rather than a copy of it. The frame's header is returned
+     * and its content is written once the header has been written, so that the content is never copied onto the heap. This benefits small
+     * FlowFiles only: content is memory-mapped only when nifi.content.repository.mapped.claim.cache.size is greater than 0, which it is not
+     * by default, and only if its resource claim is at most twice the max appendable claim size. All other content, including that of any
+     * large FlowFile, is read into the reusable content frame instead.
+     */
+    private ByteBuffer getMappedContentFrame(final ByteBufferInputStream bufferIn) throws IOException {
+        final ByteBuffer content = bufferIn.readSlice(MAX_DATA_FRAME_SIZE);
+        final int contentLength = content.remaining();
+        if (contentLength < 1) {
+            return getNoDataFrame();
+        }
+
+        logger.trace("Sending memory-mapped Data Frame that is {} bytes long to Peer {}", contentLength, peerDescription);
+
+        final ByteBuffer header = ByteBuffer.allocate(5);
+        header.put((byte) LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS);
+        header.putInt(contentLength);
+        checksum.update(header.array(), 0, 5);
+        checksum.update(content.duplicate());
+        header.rewind();
+
+        pendingContentFrame = content;
+        phase = TransactionPhase.SEND_FLOWFILE_CONTENTS;
+        return header;
+    }
+
+    private ByteBuffer getNoDataFrame() throws IOException {
+        // If no data available, close the stream and move on to the next phase, returning a NO_DATA_FRAME buffer.
+        flowFileInputStream.close();
+        flowFileInputStream = null;
+        phase = TransactionPhase.GET_NEXT_FLOWFILE;
+
+        final ByteBuffer buffer = ByteBuffer.allocate(1);
+        buffer.put((byte) LoadBalanceProtocolConstants.NO_DATA_FRAME);
+        buffer.rewind();
+
+        checksum.update(LoadBalanceProtocolConstants.NO_DATA_FRAME);
+
+        logger.debug("Sending NO_DATA_FRAME indicator to Peer {}", peerDescription);
+
+        return buffer;
+    }
+
+    /**
+     * @return the codec to use for compression. Prior to version 2 of the protocol, the codec cannot be negotiated and is always GZIP.
+     */
+    private LoadBalanceCompressionCodec getCompressionCodec() {
+        return protocolVersion < 2 ? LoadBalanceCompressionCodec.GZIP : compressionCodec;
+    }
+
+    private byte[] compressDataFrame(final byte[] uncompressed, final int offset, final int byteCount) throws IOException {
         try (final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-             final OutputStream gzipOut = new GZIPOutputStream(baos, 1)) {
+             final OutputStream compressedOut = getCompressionCodec().compress(baos)) {
 
-            gzipOut.write(uncompressed, 0, byteCount);
-            gzipOut.close();
+            compressedOut.write(uncompressed, offset, byteCount);
+            compressedOut.close();
 
             return baos.toByteArray();
         }
@@ -383,13 +447,13 @@ public class LoadBalanceSession {
         final byte[] flowFileEncoded;
         try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
             if (compressAttributes) {
-                try (final OutputStream gzipOut = new GZIPOutputStream(baos, 1);
-                     final ByteCountingOutputStream out = new ByteCountingOutputStream(gzipOut)) {
+                try (final OutputStream compressedOut = getCompressionCodec().compress(baos);
+                     final ByteCountingOutputStream out = new ByteCountingOutputStream(compressedOut)) {
 
-                    flowFileCodec.encode(currentFlowFile, out);
+                    encodeFlowFile(out);
                 }
             } else {
-                flowFileCodec.encode(currentFlowFile, baos);
+                encodeFlowFile(baos);
             }
 
             flowFileEncoded = baos.toByteArray();
@@ -415,6 +479,14 @@ public class LoadBalanceSession {
     }
 
 
+    private void encodeFlowFile(final OutputStream out) throws IOException {
+        if (protocolVersion < 2) {
+            flowFileCodec.encode(currentFlowFile, out);
+        } else {
+            flowFileCodec.encode(currentFlowFile, out, attributeDictionary);
+        }
+    }
+
     private ByteBuffer recommendProtocolVersion() {
         logger.debug("Recommending to Peer {} that Protocol Version {} be used", peerDescription, protocolVersion);
 
@@ -517,9 +589,14 @@ public class LoadBalanceSession {
     private ByteBuffer getConnectionId() {
         logger.debug("Sending Connection ID {} to Peer {}", connectionId, peerDescription);
 
-        final ByteBuffer buffer = ByteBuffer.allocate(connectionId.length() + 2);
+        // Beginning with version 2, the Connection ID is followed by the id of the codec that will be used for compression
+        final boolean includeCodec = protocolVersion >= 2;
+        final ByteBuffer buffer = ByteBuffer.allocate(connectionId.length() + (includeCodec ? 3 : 2));
         buffer.putShort((short) connectionId.length());
         buffer.put(connectionId.getBytes(StandardCharsets.UTF_8));
+        if (includeCodec) {
+            buffer.put((byte) compressionCodec.getId());
+        }
         buffer.rewind();
 
         final byte[] frameBytes = buffer.array();
@@ -22,6 +22,7 @@ import org.apache.nifi.cluster.protocol.NodeIdentifier;
 import org.apache.nifi.controller.queue.clustered.FlowFileContentAccess;
 import org.apache.nifi.controller.queue.clustered.client.LoadBalanceFlowFileCodec;
 import org.apache.nifi.controller.queue.clustered.client.async.AsyncLoadBalanceClientFactory;
+import org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceCompressionCodec;
 import org.apache.nifi.events.EventReporter;
 
 import javax.net.ssl.SSLContext;
@@ -33,20 +34,28 @@ public class NioAsyncLoadBalanceClientFactory implements AsyncLoadBalanceClientF
     private final EventReporter eventReporter;
     private final LoadBalanceFlowFileCodec flowFileCodec;
     private final ClusterCoordinator clusterCoordinator;
+    private final LoadBalanceCompressionCodec compressionCodec;
 
     public NioAsyncLoadBalanceClientFactory(final SSLContext sslContext, final int timeoutMillis, final FlowFileContentAccess flowFileContentAccess, final EventReporter eventReporter,
                                             final LoadBalanceFlowFileCodec loadBalanceFlowFileCodec, final ClusterCoordinator clusterCoordinator) {
+        this(sslContext, timeoutMillis, flowFileContentAccess, eventReporter, loadBalanceFlowFileCodec, clusterCoordinator, LoadBalanceCompressionCodec.GZIP);
+    }
+
+    public NioAsyncLoadBalanceClientFactory(final SSLContext sslContext, final int timeoutMillis, final FlowFileContentAccess flowFileContentAccess, final EventReporter eventReporter,
+                                            final LoadBalanceFlowFileCodec loadBalanceFlowFileCodec, final ClusterCoordinator clusterCoordinator,
+                                            final LoadBalanceCompressionCodec compressionCodec) {
         this.sslContext = sslContext;
         this.timeoutMillis = timeoutMillis;
         this.flowFileContentAccess = flowFileContentAccess;
         this.eventReporter = eventReporter;
         this.flowFileCodec = loadBalanceFlowFileCodec;
         this.clusterCoordinator = clusterCoordinator;
+        this.compressionCodec = compressionCodec;
     }
 
 
     @Override
     public NioAsyncLoadBalanceClient createClient(final NodeIdentifier nodeIdentifier) {
-        return new NioAsyncLoadBalanceClient(nodeIdentifier, sslContext, timeoutMillis, flowFileContentAccess, flowFileCodec, eventReporter, clusterCoordinator);
+        return new NioAsyncLoadBalanceClient(nodeIdentifier, sslContext, timeoutMillis, flowFileContentAccess, flowFileCodec, eventReporter, clusterCoordinator, compressionCodec);
     }
 }
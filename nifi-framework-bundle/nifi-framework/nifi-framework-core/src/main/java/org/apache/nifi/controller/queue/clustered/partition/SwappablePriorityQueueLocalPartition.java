@@ -53,7 +53,12 @@ public class SwappablePriorityQueueLocalPartition implements LocalQueuePartition
 
     public SwappablePriorityQueueLocalPartition(final FlowFileSwapManager swapManager, final int swapThreshold, final EventReporter eventReporter,
             final FlowFileQueue flowFileQueue, final DropFlowFileAction dropAction) {
-        this.priorityQueue = new SwappablePriorityQueue(swapManager, swapThreshold, eventReporter, flowFileQueue, dropAction, SWAP_PARTITION_NAME);
+        this(swapManager, swapThreshold, eventReporter, flowFileQueue, dropAction, false);
+    }
+
+    public SwappablePriorityQueueLocalPartition(final FlowFileSwapManager swapManager, final int swapThreshold, final EventReporter eventReporter,
+            final FlowFileQueue flowFileQueue, final DropFlowFileAction dropAction, final boolean concurrentFifo) {
+        this.priorityQueue = new SwappablePriorityQueue(swapManager, swapThreshold, eventReporter, flowFileQueue, dropAction, SWAP_PARTITION_NAME, concurrentFifo);
         this.flowFileQueue = flowFileQueue;
         this.description = "SwappablePriorityQueueLocalPartition[queueId=" + flowFileQueue.getIdentifier() + "]";
     }
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.queue.clustered.protocol;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * A dictionary of attribute keys and values that is shared by the sending and receiving side of a single Load Balance transaction,
+ * beginning with version 2 of the Load Balance Protocol. The first time that a string is written, it is written in full and assigned
+ * the next index in the dictionary; each subsequent occurrence of that string is written as its index only. Because both sides populate
+ * the dictionary in the same order, the receiving side is able to resolve each index without the dictionary ever being transmitted.
+ * </p>
+ *
+ * <p>
+ * Each string is preceded by an unsigned variable-length integer: a value of 0 indicates that the length of the string and its UTF-8 bytes
+ * follow, while any other value is the index of a previously seen string, plus one. Strings that are not cacheable, such as values that are
+ * known to be unique, and strings that are encountered after the dictionary has reached its maximum size are never assigned an index.
+ * </p>
+ *
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+public class LoadBalanceAttributeDictionary {
+    static final int MAX_ENTRIES = 4096;
+
+    private static final int LITERAL = 0;
+
+    private final Map<String, Integer> indices = new HashMap<>();
+    private final List<String> entries = new ArrayList<>();
+
+    public void writeString(final String value, final boolean cacheable, final DataOutputStream out) throws IOException {
+        final Integer index = indices.get(value);
+        if (index != null) {
+            writeVarInt(index + 1, out);
+            return;
+        }
+
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(LITERAL, out);
+        writeVarInt(bytes.length, out);
+        out.write(bytes);
+
+        if (cacheable && entries.size() < MAX_ENTRIES) {
+            indices.put(value, entries.size());
+            entries.add(value);
+        }
+    }
+
+    public String readString(final DataInputStream in, final boolean cacheable) throws IOException {
+        final int header = readVarInt(in);
+        if (header != LITERAL) {
+            final int index = header - 1;
+            if (index >= entries.size()) {
+                throw new IOException("Received reference to attribute dictionary entry " + index + " but dictionary contains only " + entries.size() + " entries");
+            }
+
+            return entries.get(index);
+        }
+
+        final int length = readVarInt(in);
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        final String value = new String(bytes, StandardCharsets.UTF_8);
+
+        if (cacheable && entries.size() < MAX_ENTRIES) {
+            indices.put(value, entries.size());
+            entries.add(value);
+        }
+
+        return value;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static void writeVarInt(final int value, final DataOutputStream out) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            out.write((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+
+        out.write(remaining);
+    }
+
+    private static int readVarInt(final DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Encountered End-of-File when reading attribute dictionary reference");
+            }
+
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Attribute dictionary reference is not a valid variable-length integer");
+    }
+}
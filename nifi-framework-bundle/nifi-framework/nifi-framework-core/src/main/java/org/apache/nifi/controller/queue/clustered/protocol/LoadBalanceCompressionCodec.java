@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.queue.clustered.protocol;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorInputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorOutputStream;
+import org.apache.nifi.stream.io.GZIPOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The codec that is used to compress FlowFile attributes and content when a Load-Balanced Connection is configured to use compression.
+ * Version 1 of the Load Balance Protocol always uses GZIP. Beginning with version 2, the sending node indicates which codec it uses
+ * at the start of each transaction, identified by the codec's id.
+ */
+public enum LoadBalanceCompressionCodec {
+    GZIP(1) {
+        @Override
+        public OutputStream compress(final OutputStream out) throws IOException {
+            return new GZIPOutputStream(out, 1);
+        }
+
+        @Override
+        public InputStream decompress(final InputStream in) throws IOException {
+            return new GZIPInputStream(in);
+        }
+    },
+
+    LZ4(2) {
+        @Override
+        public OutputStream compress(final OutputStream out) throws IOException {
+            // Data Frames are never larger than 64 KB, so there is no benefit to allocating the default 4 MB block for each frame.
+            return new FramedLZ4CompressorOutputStream(out, new FramedLZ4CompressorOutputStream.Parameters(FramedLZ4CompressorOutputStream.BlockSize.K64));
+        }
+
+        @Override
+        public InputStream decompress(final InputStream in) throws IOException {
+            return new FramedLZ4CompressorInputStream(in);
+        }
+    },
+
+    ZSTD(3) {
+        @Override
+        public OutputStream compress(final OutputStream out) throws IOException {
+            return new ZstdOutputStream(out, 1);
+        }
+
+        @Override
+        public InputStream decompress(final InputStream in) throws IOException {
+            return new ZstdInputStream(in);
+        }
+    };
+
+    private final int id;
+
+    LoadBalanceCompressionCodec(final int id) {
+        this.id = id;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public abstract OutputStream compress(OutputStream out) throws IOException;
+
+    public abstract InputStream decompress(InputStream in) throws IOException;
+
+    /**
+     * @param id the id of the codec
+     * @return the codec with the given id, or <code>null</code> if no codec has the given id
+     */
+    public static LoadBalanceCompressionCodec fromId(final int id) {
+        for (final LoadBalanceCompressionCodec codec : values()) {
+            if (codec.id == id) {
+                return codec;
+            }
+        }
+
+        return null;
+    }
+}
@@ -41,6 +41,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class ConnectionLoadBalanceServer {
@@ -53,6 +54,7 @@ public class ConnectionLoadBalanceServer {
     private final LoadBalanceProtocol loadBalanceProtocol;
     private final int connectionTimeoutMillis;
     private final EventReporter eventReporter;
+    private final ThreadFactory communicationThreadFactory;
 
     private final List<CommunicateAction> communicationActions = Collections.synchronizedList(new ArrayList<>());
 
@@ -62,12 +64,24 @@ public class ConnectionLoadBalanceServer {
 
     public ConnectionLoadBalanceServer(final String hostname, final int port, final SSLContext sslContext, final int numThreads, final LoadBalanceProtocol loadBalanceProtocol,
                                        final EventReporter eventReporter, final int connectionTimeoutMillis) {
+        this(hostname, port, sslContext, numThreads, loadBalanceProtocol, eventReporter, connectionTimeoutMillis, false);
+    }
+
+    /**
+     * @param virtualThreads if true, each peer connection is serviced by a virtual thread rather than a platform thread. A virtual thread that is blocked
+     *            reading from a slow peer does not occupy an operating system thread, so the number of peer connections that can be serviced is not bounded
+     *            by the number of threads that the system is able to provide.
+     */
+    public ConnectionLoadBalanceServer(final String hostname, final int port, final SSLContext sslContext, final int numThreads, final LoadBalanceProtocol loadBalanceProtocol,
+                                       final EventReporter eventReporter, final int connectionTimeoutMillis, final boolean virtualThreads) {
         this.hostname = hostname;
         this.port = port;
         this.sslContext = sslContext;
         this.loadBalanceProtocol = loadBalanceProtocol;
         this.connectionTimeoutMillis = connectionTimeoutMillis;
         this.eventReporter = eventReporter;
+
+        this.communicationThreadFactory = virtualThreads ? Thread.ofVirtual().factory() : Thread.ofPlatform().factory();
     }
 
     public void start() throws IOException {
@@ -270,7 +284,7 @@ public class ConnectionLoadBalanceServer {
                     final CommunicateAction communicateAction = new CommunicateAction(loadBalanceProtocol, socket, eventReporter);
                     communicationActions.add(communicateAction);
 
-                    final Thread commsThread = new Thread(() -> {
+                    final Thread commsThread = communicationThreadFactory.newThread(() -> {
                         try {
                             communicateAction.run();
                         } finally {
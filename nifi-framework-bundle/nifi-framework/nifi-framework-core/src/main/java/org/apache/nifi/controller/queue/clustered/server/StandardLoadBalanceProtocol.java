@@ -23,6 +23,8 @@ import org.apache.nifi.controller.queue.FlowFileQueue;
 import org.apache.nifi.controller.queue.IllegalClusterStateException;
 import org.apache.nifi.controller.queue.LoadBalanceCompression;
 import org.apache.nifi.controller.queue.LoadBalancedFlowFileQueue;
+import org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceAttributeDictionary;
+import org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceCompressionCodec;
 import org.apache.nifi.controller.repository.ContentRepository;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileRepository;
@@ -66,7 +68,6 @@ import java.util.stream.Collectors;
 import java.util.zip.CRC32;
 import java.util.zip.CheckedInputStream;
 import java.util.zip.Checksum;
-import java.util.zip.GZIPInputStream;
 
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.ABORT_PROTOCOL_NEGOTIATION;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.ABORT_TRANSACTION;
@@ -138,7 +139,7 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
 
 
     protected int negotiateProtocolVersion(final InputStream in, final OutputStream out, final String peerDescription, final String channelDescription) throws IOException {
-        final VersionNegotiator negotiator = new StandardVersionNegotiator(1);
+        final VersionNegotiator negotiator = new StandardVersionNegotiator(2, 1);
 
         for (int i = 0;; i++) {
             final int requestedVersion;
@@ -202,6 +203,27 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
             return;
         }
 
+        // Beginning with version 2, the sender indicates which codec it uses for compression, and the attribute keys and values
+        // are written through a dictionary that lasts for the duration of the transaction.
+        final LoadBalanceCompressionCodec compressionCodec;
+        final LoadBalanceAttributeDictionary attributeDictionary;
+        if (protocolVersion >= 2) {
+            final int codecId = dataIn.read();
+            if (codecId < 0) {
+                throw new EOFException("Expected to receive Compression Codec for Connection with ID " + connectionId + " from Peer " + peerDescription);
+            }
+
+            compressionCodec = LoadBalanceCompressionCodec.fromId(codecId);
+            if (compressionCodec == null) {
+                throw new TransactionAbortedException("Peer " + peerDescription + " requested an unknown Compression Codec with ID " + codecId + " for Connection with ID " + connectionId);
+            }
+
+            attributeDictionary = new LoadBalanceAttributeDictionary();
+        } else {
+            compressionCodec = LoadBalanceCompressionCodec.GZIP;
+            attributeDictionary = null;
+        }
+
         final Connection connection = flowController.getFlowManager().getConnection(connectionId);
         if (connection == null) {
             logger.error("Attempted to receive FlowFiles from Peer {} for Connection with ID {} but no connection exists with that ID", peerDescription, connectionId);
@@ -238,7 +260,7 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
         }
 
         final LoadBalanceCompression compression = connection.getFlowFileQueue().getLoadBalanceCompression();
-        logger.debug("Receiving FlowFiles from Peer {} for Connection {}; Compression = {}", peerDescription, connectionId, compression);
+        logger.debug("Receiving FlowFiles from Peer {} for Connection {}; Compression = {}, Codec = {}", peerDescription, connectionId, compression, compressionCodec);
 
         ContentClaim contentClaim = null;
         final List<RemoteFlowFileRecord> flowFilesReceived = new ArrayList<>();
@@ -253,7 +275,8 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
                         contentClaimOut = contentRepository.write(contentClaim);
                     }
 
-                    final RemoteFlowFileRecord flowFile = receiveFlowFile(dataIn, contentClaimOut, contentClaim, claimOffset, protocolVersion, peerDescription, compression);
+                    final RemoteFlowFileRecord flowFile = receiveFlowFile(dataIn, contentClaimOut, contentClaim, claimOffset, protocolVersion, peerDescription, compression,
+                        compressionCodec, attributeDictionary);
 
                     // The FlowFile's Content Claim will either be null or equal to the provided Content Claim.
                     // Incrementing the FlowFile's content claim will increment the count for the provided Content Claim, if it was
@@ -497,15 +520,17 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
     }
 
     private RemoteFlowFileRecord receiveFlowFile(final DataInputStream dis, final OutputStream out, final ContentClaim contentClaim, final long claimOffset, final int protocolVersion,
-                                                 final String peerDescription, final LoadBalanceCompression compression) throws IOException {
+                                                 final String peerDescription, final LoadBalanceCompression compression, final LoadBalanceCompressionCodec compressionCodec,
+                                                 final LoadBalanceAttributeDictionary attributeDictionary) throws IOException {
         final int metadataLength = dis.readInt();
 
-        DataInputStream metadataIn = new DataInputStream(new LimitingInputStream(dis, metadataLength));
+        final LimitingInputStream limitedMetadataIn = new LimitingInputStream(dis, metadataLength);
+        DataInputStream metadataIn = new DataInputStream(limitedMetadataIn);
         if (compression != LoadBalanceCompression.DO_NOT_COMPRESS) {
-            metadataIn = new DataInputStream(new GZIPInputStream(metadataIn));
+            metadataIn = new DataInputStream(compressionCodec.decompress(metadataIn));
         }
 
-        final Map<String, String> attributes = readAttributes(metadataIn);
+        final Map<String, String> attributes = attributeDictionary == null ? readAttributes(metadataIn) : readAttributes(metadataIn, attributeDictionary);
         final String sourceSystemUuid = attributes.get(CoreAttributes.UUID.key());
 
         logger.debug("Received Attributes {} from Peer {}", attributes, peerDescription);
@@ -514,7 +539,11 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
         final long entryDate = metadataIn.readLong();
         final long penaltyExpirationMillis = metadataIn.readLong();
 
-        final ContentClaimTriple contentClaimTriple = consumeContent(dis, out, contentClaim, claimOffset, peerDescription, compression == LoadBalanceCompression.COMPRESS_ATTRIBUTES_AND_CONTENT);
+        // Some codecs, such as LZ4, do not read the end of the compressed frame until asked for more data than the frame holds
+        limitedMetadataIn.transferTo(OutputStream.nullOutputStream());
+
+        final LoadBalanceCompressionCodec contentCodec = compression == LoadBalanceCompression.COMPRESS_ATTRIBUTES_AND_CONTENT ? compressionCodec : null;
+        final ContentClaimTriple contentClaimTriple = consumeContent(dis, out, contentClaim, claimOffset, peerDescription, contentCodec);
 
         final FlowFileRecord flowFileRecord = new StandardFlowFileRecord.Builder()
             .id(flowFileRepository.getNextFlowFileSequence())
@@ -546,6 +575,20 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
         return attributes;
     }
 
+    private Map<String, String> readAttributes(final DataInputStream in, final LoadBalanceAttributeDictionary dictionary) throws IOException {
+        final int attributeCount = in.readInt();
+        final Map<String, String> attributes = new HashMap<>();
+        for (int i = 0; i < attributeCount; i++) {
+            final String key = dictionary.readString(in, true);
+            final String value = dictionary.readString(in, !CoreAttributes.UUID.key().equals(key));
+
+            logger.trace("Received attribute '{}' = '{}'", key, value);
+            attributes.put(key, value);
+        }
+
+        return attributes;
+    }
+
     private String readLongString(final DataInputStream in) throws IOException {
         final int stringLength = in.readInt();
         final byte[] bytes = new byte[stringLength];
@@ -554,7 +597,7 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
     }
 
     private ContentClaimTriple consumeContent(final DataInputStream in, final OutputStream out, final ContentClaim contentClaim, final long claimOffset,
-                                              final String peerDescription, final boolean compressed) throws IOException {
+                                              final String peerDescription, final LoadBalanceCompressionCodec compressionCodec) throws IOException {
         logger.debug("Consuming content from Peer {}", peerDescription);
 
         int dataFrameIndicator = in.read();
@@ -579,18 +622,35 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
 
         long claimLength = 0;
         while (true) {
-            final InputStream limitedIn = new LimitedInputStream(in, dataFrameLength);
-            final ByteCountingInputStream bcis = new ByteCountingInputStream(limitedIn);
-            final InputStream contentIn = compressed ? new GZIPInputStream(bcis) : bcis;
-            final int decompressedSize = StreamUtils.fillBuffer(contentIn, buffer, false);
+            final int contentSize;
+            if (compressionCodec == null) {
+                // Uncompressed Data Frames are read directly into the buffer, without wrapping the stream for each frame
+                if (dataFrameLength < 0) {
+                    throw new IOException("Received invalid Data Frame Length of " + dataFrameLength + " from Peer " + peerDescription);
+                }
+
+                contentSize = Math.min(dataFrameLength, buffer.length);
+                in.readFully(buffer, 0, contentSize);
+
+                if (contentSize < dataFrameLength) {
+                    throw new EOFException("Expected to receive a Data Frame of length " + dataFrameLength + " bytes but received only " + contentSize + " bytes");
+                }
+            } else {
+                final InputStream limitedIn = new LimitedInputStream(in, dataFrameLength);
+                final ByteCountingInputStream bcis = new ByteCountingInputStream(limitedIn);
+                final InputStream contentIn = compressionCodec.decompress(bcis);
+                contentSize = StreamUtils.fillBuffer(contentIn, buffer, false);
 
-            if (bcis.getBytesRead() < dataFrameLength) {
-                throw new EOFException("Expected to receive a Data Frame of length " + dataFrameLength + " bytes but received only " + bcis.getBytesRead() + " bytes");
+                if (bcis.getBytesRead() < dataFrameLength) {
+                    throw new EOFException("Expected to receive a Data Frame of length " + dataFrameLength + " bytes but received only " + bcis.getBytesRead() + " bytes");
+                }
             }
 
-            out.write(buffer, 0, decompressedSize);
+            // The content is copied from the buffer to the content repository, because the stream that it is read from verifies the
+            // transaction's checksum and the content repository is written only through an OutputStream
+            out.write(buffer, 0, contentSize);
 
-            claimLength += decompressedSize;
+            claimLength += contentSize;
 
             dataFrameIndicator = in.read();
             if (dataFrameIndicator < 0) {
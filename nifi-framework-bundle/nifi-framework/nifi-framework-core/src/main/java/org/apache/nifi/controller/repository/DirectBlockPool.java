@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of fixed-size direct (off-heap) ByteBuffers. Blocks are allocated lazily, the first time that they are needed,
+ * and are recycled once released, so the memory held by the pool grows to the peak amount of content held, up to the configured capacity.
+ */
+class DirectBlockPool {
+    private final int blockSize;
+    private final int maxBlocks;
+    private final Queue<ByteBuffer> freeBlocks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger allocatedBlocks = new AtomicInteger(0);
+    private final AtomicInteger blocksInUse = new AtomicInteger(0);
+
+    DirectBlockPool(final long capacity, final int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive but was " + blockSize);
+        }
+
+        this.blockSize = blockSize;
+        this.maxBlocks = (int) Math.min(Integer.MAX_VALUE, capacity / blockSize);
+    }
+
+    /**
+     * @return a cleared block, or <code>null</code> if all of the pool's capacity is in use
+     */
+    ByteBuffer acquire() {
+        final ByteBuffer free = freeBlocks.poll();
+        if (free != null) {
+            blocksInUse.incrementAndGet();
+            free.clear();
+            return free;
+        }
+
+        while (true) {
+            final int allocated = allocatedBlocks.get();
+            if (allocated >= maxBlocks) {
+                // Another thread may have released a block since we last checked
+                final ByteBuffer released = freeBlocks.poll();
+                if (released != null) {
+                    blocksInUse.incrementAndGet();
+                    released.clear();
+                }
+                return released;
+            }
+
+            if (allocatedBlocks.compareAndSet(allocated, allocated + 1)) {
+                blocksInUse.incrementAndGet();
+                return ByteBuffer.allocateDirect(blockSize);
+            }
+        }
+    }
+
+    void release(final ByteBuffer block) {
+        blocksInUse.decrementAndGet();
+        freeBlocks.offer(block);
+    }
+
+    void release(final Collection<ByteBuffer> blocks) {
+        for (final ByteBuffer block : blocks) {
+            release(block);
+        }
+    }
+
+    int getBlockSize() {
+        return blockSize;
+    }
+
+    long getCapacity() {
+        return (long) maxBlocks * blockSize;
+    }
+
+    long getBytesInUse() {
+        return (long) blocksInUse.get() * blockSize;
+    }
+}
@@ -26,6 +26,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
@@ -63,6 +64,7 @@ import org.apache.nifi.controller.repository.claim.ResourceClaim;
 import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
 import org.apache.nifi.controller.repository.claim.StandardContentClaim;
 import org.apache.nifi.controller.repository.io.ContentClaimOutputStream;
+import org.apache.nifi.controller.repository.io.ByteBufferInputStream;
 import org.apache.nifi.controller.repository.io.LimitedInputStream;
 import org.apache.nifi.engine.FlowEngine;
 import org.apache.nifi.events.EventReporter;
@@ -132,6 +134,9 @@ public class FileSystemRepository implements ContentRepository {
 
     private final NiFiProperties nifiProperties;
 
+    // null if memory-mapped reads are disabled
+    private final MappedResourceClaimCache mappedClaimCache;
+
 
     public FileSystemRepository(final NiFiProperties nifiProperties) throws IOException {
         this.nifiProperties = nifiProperties;
@@ -230,6 +235,16 @@ public class FileSystemRepository implements ContentRepository {
 
         this.alwaysSync = Boolean.parseBoolean(nifiProperties.getProperty("nifi.content.repository.always.sync"));
         LOG.info("Initializing FileSystemRepository with 'Always Sync' set to {}", alwaysSync);
+
+        final int mappedClaimCacheSize = nifiProperties.getIntegerProperty(NiFiProperties.CONTENT_REPOSITORY_MAPPED_CLAIM_CACHE_SIZE, NiFiProperties.DEFAULT_CONTENT_REPOSITORY_MAPPED_CLAIM_CACHE_SIZE);
+        if (mappedClaimCacheSize > 0) {
+            // A Resource Claim may grow beyond the max appendable claim length by the size of the last Content Claim written to it.
+            // Allow for that, but do not map files that hold a single large Content Claim.
+            mappedClaimCache = new MappedResourceClaimCache(mappedClaimCacheSize, maxAppendableClaimLength * 2);
+            LOG.info("Initializing FileSystemRepository with memory-mapped reads for up to {} Resource Claims", mappedClaimCacheSize);
+        } else {
+            mappedClaimCache = null;
+        }
         initializeRepository();
 
         containerCleanupExecutor = new FlowEngine(containers.size(), "Cleanup FileSystemRepository Container", true);
@@ -262,6 +277,10 @@ public class FileSystemRepository implements ContentRepository {
         executor.shutdown();
         containerCleanupExecutor.shutdown();
 
+        if (mappedClaimCache != null) {
+            mappedClaimCache.clear();
+        }
+
         // Close any of the writable claim streams that are currently open.
         // Other threads may be writing to these streams, and that's okay.
         // If that happens, we will simply close the stream, resulting in an
@@ -743,6 +762,10 @@ public class FileSystemRepository implements ContentRepository {
         } catch (final ContentNotFoundException ignored) {
         }
 
+        if (mappedClaimCache != null) {
+            mappedClaimCache.evict(claim);
+        }
+
         // Ensure that we have no writable claim streams for this resource claim
         final ByteCountingOutputStream bcos = writableClaimStreams.remove(claim);
         LOG.debug("Removed Stream {} for {} from writableClaimStreams because Resource Claim was removed", bcos, claim);
@@ -926,6 +949,13 @@ public class FileSystemRepository implements ContentRepository {
             return new ByteArrayInputStream(new byte[0]);
         }
 
+        if (mappedClaimCache != null) {
+            final InputStream mappedStream = readMapped(claim);
+            if (mappedStream != null) {
+                return mappedStream;
+            }
+        }
+
         final InputStream fis = getInputStream(claim);
         if (claim.getOffset() > 0L) {
             try {
@@ -964,6 +994,19 @@ public class FileSystemRepository implements ContentRepository {
         }
     }
 
+    private InputStream readMapped(final ContentClaim claim) {
+        try {
+            final ByteBuffer content = mappedClaimCache.getContent(claim, () -> getPath(claim, true));
+            return content == null ? null : new ByteBufferInputStream(content);
+        } catch (final ContentNotFoundException cnfe) {
+            // Allow the standard read path to report the missing content
+            return null;
+        } catch (final IOException ioe) {
+            LOG.debug("Failed to memory-map Resource Claim for {}; will read from file instead", claim, ioe);
+            return null;
+        }
+    }
+
     private void closeQuietly(final Closeable closeable) {
         if (closeable == null) {
             return;
@@ -1140,6 +1183,10 @@ public class FileSystemRepository implements ContentRepository {
         // we close the stream if there is one. There may be a stream open if create() is called and then
         // claimant count is removed without writing to the claim (or more specifically, without closing the
         // OutputStream that is returned when calling write() ).
+        if (mappedClaimCache != null) {
+            mappedClaimCache.evict(claim);
+        }
+
         final OutputStream out = writableClaimStreams.remove(claim);
         LOG.debug("Removed {} for {} from writableClaimStreams because Resource Claim was archived", out, claim);
 
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Supplier;
+
+/**
+ * A bounded cache of read-only memory mappings of Resource Claim files. Many small Content Claims are packed into each Resource Claim,
+ * so mapping the file once allows each Content Claim to be read as a slice of the mapping, rather than opening the file and skipping
+ * to the Content Claim's offset for every read.
+ * <p>
+ * Only Resource Claims that are no longer writable are mapped, because the contents of such a file do not change. A mapping remains valid
+ * if the file is subsequently archived or deleted; the mapping is released when it is evicted from the cache and garbage collected.
+ * </p>
+ */
+class MappedResourceClaimCache {
+    private final long maxMappedFileSize;
+    private final Cache<ResourceClaim, MappedByteBuffer> mappings;
+
+    /**
+     * @param maxMappedClaims the maximum number of Resource Claims to keep mapped
+     * @param maxMappedFileSize the maximum size of a Resource Claim file that will be mapped; larger files generally hold a single large
+     *                          Content Claim and are read through a stream instead
+     */
+    MappedResourceClaimCache(final int maxMappedClaims, final long maxMappedFileSize) {
+        this.maxMappedFileSize = Math.min(maxMappedFileSize, Integer.MAX_VALUE);
+        this.mappings = Caffeine.newBuilder()
+            .maximumSize(maxMappedClaims)
+            .build();
+    }
+
+    /**
+     * Returns a buffer containing the content of the given Content Claim, or <code>null</code> if the Content Claim cannot be read
+     * from a mapping, in which case the caller should read the claim from the file directly.
+     *
+     * @param claim the Content Claim to read
+     * @param pathSupplier supplies the path of the Resource Claim's file, if the file needs to be mapped
+     * @return a buffer holding exactly the bytes of the Content Claim, or <code>null</code> if the claim cannot be read from a mapping
+     * @throws IOException if unable to map the file
+     */
+    ByteBuffer getContent(final ContentClaim claim, final Supplier<Path> pathSupplier) throws IOException {
+        final ResourceClaim resourceClaim = claim.getResourceClaim();
+        final long length = claim.getLength();
+        if (length < 0 || resourceClaim.isWritable()) {
+            return null;
+        }
+
+        final long end = claim.getOffset() + length;
+        if (end > maxMappedFileSize) {
+            return null;
+        }
+
+        MappedByteBuffer mapping = mappings.getIfPresent(resourceClaim);
+        if (mapping == null || mapping.capacity() < end) {
+            mapping = map(pathSupplier.get());
+            if (mapping == null) {
+                return null;
+            }
+
+            mappings.put(resourceClaim, mapping);
+            if (mapping.capacity() < end) {
+                return null;
+            }
+        }
+
+        return mapping.slice((int) claim.getOffset(), (int) length);
+    }
+
+    private MappedByteBuffer map(final Path path) throws IOException {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > maxMappedFileSize) {
+                return null;
+            }
+
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+        }
+    }
+
+    /**
+     * Removes any mapping of the given Resource Claim, so that the mapping can be released once it is no longer being read
+     *
+     * @param resourceClaim the Resource Claim that is being removed or archived
+     */
+    void evict(final ResourceClaim resourceClaim) {
+        mappings.invalidate(resourceClaim);
+    }
+
+    void clear() {
+        mappings.invalidateAll();
+    }
+}
@@ -0,0 +1,601 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.repository.claim.StandardContentClaim;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.controller.repository.io.ByteBufferInputStream;
+import org.apache.nifi.engine.FlowEngine;
+import org.apache.nifi.processor.DataUnit;
+import org.apache.nifi.stream.io.StreamUtils;
+import org.apache.nifi.util.NiFiProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * A Content Repository that holds all FlowFile content in off-heap memory, in blocks of direct ByteBuffers. Content is not written to disk,
+ * so it <b>will</b> be lost in the event of a restart of NiFi or a failure of the machine. This implementation is intended for flows in which
+ * durability of the data is provided elsewhere and the cost of disk I/O for content is not acceptable.
+ * </p>
+ *
+ * <p>
+ * The amount of memory that may be used is bounded by the {@value #MAX_SIZE_PROPERTY} property. The memory is allocated from the JVM's
+ * direct memory, so the JVM's <code>-XX:MaxDirectMemorySize</code> must be at least as large. When the configured capacity is exhausted,
+ * the behavior is determined by the {@value #OVERFLOW_POLICY_PROPERTY} property: either the write fails, or the content being written is moved
+ * to a {@link FileSystemRepository} that is configured from the same properties as a file-based content repository would be.
+ * </p>
+ */
+public class VolatileContentRepository implements ContentRepository {
+    private static final Logger LOG = LoggerFactory.getLogger(VolatileContentRepository.class);
+
+    public static final String MAX_SIZE_PROPERTY = "nifi.volatile.content.repository.max.size";
+    public static final String BLOCK_SIZE_PROPERTY = "nifi.volatile.content.repository.block.size";
+    public static final String OVERFLOW_POLICY_PROPERTY = "nifi.volatile.content.repository.overflow.policy";
+
+    public static final String DEFAULT_MAX_SIZE = "100 MB";
+    public static final String DEFAULT_BLOCK_SIZE = "32 KB";
+
+    static final String CONTAINER_NAME = "in-memory";
+    private static final String SECTION_NAME = "section";
+
+    /**
+     * Determines what happens when content is written while all of the repository's memory is in use
+     */
+    public enum OverflowPolicy {
+        /**
+         * The write fails with an IOException, so the session that is writing the content is rolled back
+         */
+        FAIL,
+
+        /**
+         * The content being written is moved to a {@link FileSystemRepository}, and the rest of the content is written there
+         */
+        SPILL_TO_DISK
+    }
+
+    private final DirectBlockPool blockPool;
+    private final OverflowPolicy overflowPolicy;
+    private final NiFiProperties nifiProperties;
+    private final ConcurrentMap<ResourceClaim, StoredContent> contents = new ConcurrentHashMap<>();
+    private final AtomicLong idGenerator = new AtomicLong(0L);
+    private final ScheduledExecutorService executor = new FlowEngine(1, "VolatileContentRepository Workers", true);
+
+    private ResourceClaimManager resourceClaimManager;
+    private volatile FileSystemRepository overflowRepository;
+    private volatile ResourceClaimManager overflowClaimManager;
+
+    public VolatileContentRepository(final NiFiProperties nifiProperties) {
+        this.nifiProperties = nifiProperties;
+
+        final long maxSize = DataUnit.parseDataSize(nifiProperties.getProperty(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE), DataUnit.B).longValue();
+        final long blockSize = DataUnit.parseDataSize(nifiProperties.getProperty(BLOCK_SIZE_PROPERTY, DEFAULT_BLOCK_SIZE), DataUnit.B).longValue();
+        if (blockSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Property " + BLOCK_SIZE_PROPERTY + " must not exceed 2 GB");
+        }
+
+        final String overflowPolicyName = nifiProperties.getProperty(OVERFLOW_POLICY_PROPERTY, OverflowPolicy.FAIL.name());
+        try {
+            this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicyName.trim().toUpperCase());
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("Property " + OVERFLOW_POLICY_PROPERTY + " has invalid value [" + overflowPolicyName + "]; must be one of "
+                + List.of(OverflowPolicy.values()), e);
+        }
+
+        this.blockPool = new DirectBlockPool(maxSize, (int) blockSize);
+    }
+
+    @Override
+    public void initialize(final ContentRepositoryContext context) throws IOException {
+        this.resourceClaimManager = context.getResourceClaimManager();
+
+        if (overflowPolicy == OverflowPolicy.SPILL_TO_DISK) {
+            // The overflow repository has its own Resource Claim Manager. Otherwise, it would attempt to destroy the in-memory
+            // Resource Claims that are marked as destructable, and this repository would attempt to destroy those on disk.
+            overflowClaimManager = new StandardResourceClaimManager();
+            overflowRepository = new FileSystemRepository(nifiProperties);
+            overflowRepository.initialize(new StandardContentRepositoryContext(overflowClaimManager, context.getEventReporter()));
+        }
+
+        executor.scheduleWithFixedDelay(new DestroyDestructableClaims(), 100, 100, TimeUnit.MILLISECONDS);
+        LOG.info("Initialized Volatile Content Repository with capacity of {} bytes in blocks of {} bytes and overflow policy {}",
+            blockPool.getCapacity(), blockPool.getBlockSize(), overflowPolicy);
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+
+        if (overflowRepository != null) {
+            overflowRepository.shutdown();
+        }
+
+        contents.clear();
+    }
+
+    @Override
+    public Set<String> getContainerNames() {
+        return Collections.singleton(CONTAINER_NAME);
+    }
+
+    @Override
+    public long getContainerCapacity(final String containerName) {
+        return blockPool.getCapacity();
+    }
+
+    @Override
+    public long getContainerUsableSpace(final String containerName) {
+        return blockPool.getCapacity() - blockPool.getBytesInUse();
+    }
+
+    @Override
+    public String getContainerFileStoreName(final String containerName) {
+        return null;
+    }
+
+    @Override
+    public ContentClaim create(final boolean lossTolerant) {
+        final ResourceClaim resourceClaim = resourceClaimManager.newResourceClaim(CONTAINER_NAME, SECTION_NAME, String.valueOf(idGenerator.getAndIncrement()), lossTolerant, true);
+        resourceClaimManager.incrementClaimantCount(resourceClaim, true);
+
+        final StandardContentClaim contentClaim = new StandardContentClaim(resourceClaim, 0L);
+        contents.put(resourceClaim, new StoredContent());
+        return contentClaim;
+    }
+
+    @Override
+    public int incrementClaimaintCount(final ContentClaim claim) {
+        if (claim == null) {
+            return 0;
+        }
+
+        return resourceClaimManager.incrementClaimantCount(claim.getResourceClaim());
+    }
+
+    @Override
+    public int getClaimantCount(final ContentClaim claim) {
+        if (claim == null) {
+            return 0;
+        }
+
+        return resourceClaimManager.getClaimantCount(claim.getResourceClaim());
+    }
+
+    @Override
+    public int decrementClaimantCount(final ContentClaim claim) {
+        if (claim == null) {
+            return 0;
+        }
+
+        return resourceClaimManager.decrementClaimantCount(claim.getResourceClaim());
+    }
+
+    @Override
+    public boolean remove(final ContentClaim claim) {
+        if (claim == null) {
+            return false;
+        }
+
+        return remove(claim.getResourceClaim());
+    }
+
+    private boolean remove(final ResourceClaim claim) {
+        if (claim == null || claim.isInUse()) {
+            return false;
+        }
+
+        final StoredContent content = contents.remove(claim);
+        if (content == null) {
+            return false;
+        }
+
+        content.destroy();
+        return true;
+    }
+
+    @Override
+    public ContentClaim clone(final ContentClaim original, final boolean lossTolerant) throws IOException {
+        if (original == null) {
+            return null;
+        }
+
+        final ContentClaim clone = create(lossTolerant);
+        try (final InputStream in = read(original);
+             final OutputStream out = write(clone)) {
+            StreamUtils.copy(in, out);
+        }
+
+        return clone;
+    }
+
+    @Override
+    public long importFrom(final Path content, final ContentClaim claim) throws IOException {
+        try (final InputStream in = Files.newInputStream(content, StandardOpenOption.READ)) {
+            return importFrom(in, claim);
+        }
+    }
+
+    @Override
+    public long importFrom(final InputStream content, final ContentClaim claim) throws IOException {
+        try (final OutputStream out = write(claim)) {
+            return StreamUtils.copy(content, out);
+        }
+    }
+
+    @Override
+    public long exportTo(final ContentClaim claim, final Path destination, final boolean append) throws IOException {
+        return exportTo(claim, destination, append, 0L, size(claim));
+    }
+
+    @Override
+    public long exportTo(final ContentClaim claim, final Path destination, final boolean append, final long offset, final long length) throws IOException {
+        final StandardOpenOption[] openOptions = append
+            ? new StandardOpenOption[] {StandardOpenOption.CREATE, StandardOpenOption.APPEND}
+            : new StandardOpenOption[] {StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE};
+
+        try (final OutputStream out = Files.newOutputStream(destination, openOptions)) {
+            return exportTo(claim, out, offset, length);
+        }
+    }
+
+    @Override
+    public long exportTo(final ContentClaim claim, final OutputStream destination) throws IOException {
+        try (final InputStream in = read(claim)) {
+            return StreamUtils.copy(in, destination);
+        }
+    }
+
+    @Override
+    public long exportTo(final ContentClaim claim, final OutputStream destination, final long offset, final long length) throws IOException {
+        if (offset < 0 || offset + length > size(claim)) {
+            throw new IllegalArgumentException("Cannot export " + length + " bytes starting at offset " + offset + " from " + claim + " because its size is " + size(claim));
+        }
+
+        try (final InputStream in = read(claim)) {
+            StreamUtils.skip(in, offset);
+            StreamUtils.copy(in, destination, length);
+        }
+
+        return length;
+    }
+
+    @Override
+    public long size(final ContentClaim claim) {
+        if (claim == null) {
+            return 0L;
+        }
+
+        return Math.max(0L, claim.getLength());
+    }
+
+    @Override
+    public long size(final ResourceClaim claim) throws IOException {
+        return getContent(new StandardContentClaim(claim, 0L)).getLength();
+    }
+
+    @Override
+    public InputStream read(final ContentClaim claim) throws IOException {
+        if (claim == null) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        return getContent(claim).read();
+    }
+
+    @Override
+    public InputStream read(final ResourceClaim claim) throws IOException {
+        if (claim == null) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        return getContent(new StandardContentClaim(claim, 0L)).read();
+    }
+
+    @Override
+    public OutputStream write(final ContentClaim claim) throws IOException {
+        if (!(claim instanceof StandardContentClaim scc) || !CONTAINER_NAME.equals(claim.getResourceClaim().getContainer())) {
+            throw new IllegalArgumentException("Cannot write to " + claim + " because that Content Claim does not belong to this Content Repository");
+        }
+
+        final StoredContent content = getContent(claim);
+        return new StoredContentOutputStream(scc, content);
+    }
+
+    private StoredContent getContent(final ContentClaim claim) {
+        final StoredContent content = contents.get(claim.getResourceClaim());
+        if (content == null) {
+            throw new ContentNotFoundException(claim);
+        }
+
+        return content;
+    }
+
+    @Override
+    public void purge() {
+        for (final StoredContent content : contents.values()) {
+            content.destroy();
+        }
+        contents.clear();
+        resourceClaimManager.purge();
+
+        if (overflowRepository != null) {
+            overflowRepository.purge();
+        }
+    }
+
+    @Override
+    public void cleanup() {
+        if (overflowRepository != null) {
+            overflowRepository.cleanup();
+        }
+    }
+
+    @Override
+    public boolean isAccessible(final ContentClaim contentClaim) {
+        return contentClaim != null && contents.containsKey(contentClaim.getResourceClaim());
+    }
+
+    /**
+     * The content of a single Content Claim. Content is written once, by a single thread, and is only read after it has been written.
+     * Each open InputStream holds a reference to the blocks, so that they are not returned to the pool, and reused for another Content Claim,
+     * until the last reader has been closed, even if the content is destroyed in the meantime.
+     */
+    private class StoredContent {
+        private final List<ByteBuffer> blocks = new ArrayList<>();
+        private volatile long length = 0L;
+        private volatile ContentClaim overflowClaim;
+        private volatile boolean destroyed = false;
+        private int openReaders = 0;
+
+        long getLength() {
+            return length;
+        }
+
+        InputStream read() throws IOException {
+            final ContentClaim overflow = overflowClaim;
+            if (overflow != null) {
+                return overflowRepository.read(overflow);
+            }
+
+            final List<InputStream> streams = new ArrayList<>(blocks.size());
+            synchronized (this) {
+                if (destroyed) {
+                    throw new IOException("Content has already been removed from the Content Repository");
+                }
+
+                for (final ByteBuffer block : blocks) {
+                    streams.add(new ByteBufferInputStream(block.duplicate().flip()));
+                }
+                openReaders++;
+            }
+
+            return new SequenceInputStream(Collections.enumeration(streams)) {
+                private boolean closed = false;
+
+                @Override
+                public void close() throws IOException {
+                    if (closed) {
+                        return;
+                    }
+
+                    closed = true;
+                    try {
+                        super.close();
+                    } finally {
+                        readerClosed();
+                    }
+                }
+            };
+        }
+
+        private synchronized void readerClosed() {
+            openReaders--;
+            if (destroyed && openReaders == 0) {
+                releaseBlocks();
+            }
+        }
+
+        synchronized void destroy() {
+            if (destroyed) {
+                return;
+            }
+
+            destroyed = true;
+            if (openReaders == 0) {
+                releaseBlocks();
+            }
+
+            final ContentClaim overflow = overflowClaim;
+            if (overflow != null && overflowRepository.decrementClaimantCount(overflow) <= 0) {
+                overflowClaimManager.markDestructable(overflow.getResourceClaim());
+            }
+        }
+
+        private void releaseBlocks() {
+            blockPool.release(blocks);
+            blocks.clear();
+        }
+    }
+
+    private class StoredContentOutputStream extends OutputStream {
+        private final StandardContentClaim claim;
+        private final StoredContent content;
+        private ByteBuffer currentBlock;
+        private OutputStream overflowStream;
+        private long bytesWritten = 0L;
+        private boolean closed = false;
+
+        StoredContentOutputStream(final StandardContentClaim claim, final StoredContent content) {
+            this.claim = claim;
+            this.content = content;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            ensureOpen();
+            if (overflowStream == null && (currentBlock == null || !currentBlock.hasRemaining())) {
+                nextBlock();
+            }
+
+            if (overflowStream == null) {
+                currentBlock.put((byte) b);
+            } else {
+                overflowStream.write(b);
+            }
+            bytesWritten++;
+        }
+
+        @Override
+        public void write(final byte[] b, int off, int len) throws IOException {
+            ensureOpen();
+
+            final int total = len;
+            while (len > 0 && overflowStream == null) {
+                if (currentBlock == null || !currentBlock.hasRemaining()) {
+                    nextBlock();
+                    continue;
+                }
+
+                final int toCopy = Math.min(len, currentBlock.remaining());
+                currentBlock.put(b, off, toCopy);
+                off += toCopy;
+                len -= toCopy;
+            }
+
+            if (len > 0) {
+                overflowStream.write(b, off, len);
+            }
+
+            bytesWritten += total;
+        }
+
+        /**
+         * Obtains a new block to write to or, if no memory is available, moves the content that has been written so far to the
+         * overflow repository, after which all further writes go to the overflow repository.
+         */
+        private void nextBlock() throws IOException {
+            final ByteBuffer block = blockPool.acquire();
+            if (block != null) {
+                synchronized (content) {
+                    content.blocks.add(block);
+                }
+                currentBlock = block;
+                return;
+            }
+
+            if (overflowPolicy != OverflowPolicy.SPILL_TO_DISK) {
+                throw new IOException("Unable to write content to " + claim + " because all of the Volatile Content Repository's capacity of "
+                    + blockPool.getCapacity() + " bytes is in use");
+            }
+
+            LOG.debug("Volatile Content Repository is full; moving content of {} to the overflow repository", claim);
+            final ContentClaim overflowClaim = overflowRepository.create(claim.getResourceClaim().isLossTolerant());
+            overflowStream = overflowRepository.write(overflowClaim);
+
+            synchronized (content) {
+                final byte[] buffer = new byte[8192];
+                for (final ByteBuffer written : content.blocks) {
+                    final ByteBuffer toCopy = written.duplicate().flip();
+                    while (toCopy.hasRemaining()) {
+                        final int length = Math.min(buffer.length, toCopy.remaining());
+                        toCopy.get(buffer, 0, length);
+                        overflowStream.write(buffer, 0, length);
+                    }
+                }
+
+                blockPool.release(content.blocks);
+                content.blocks.clear();
+                content.overflowClaim = overflowClaim;
+            }
+            currentBlock = null;
+        }
+
+        private void ensureOpen() throws IOException {
+            if (closed) {
+                throw new IOException("Stream is closed");
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (overflowStream != null) {
+                overflowStream.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            try {
+                if (overflowStream != null) {
+                    overflowStream.close();
+                }
+            } finally {
+                content.length = bytesWritten;
+                claim.setLength(bytesWritten);
+                resourceClaimManager.freeze(claim.getResourceClaim());
+            }
+        }
+    }
+
+    private class DestroyDestructableClaims implements Runnable {
+        @Override
+        public void run() {
+            try {
+                final List<ResourceClaim> toDestroy = new ArrayList<>();
+                while (true) {
+                    toDestroy.clear();
+                    resourceClaimManager.drainDestructableClaims(toDestroy, 10000);
+                    if (toDestroy.isEmpty()) {
+                        return;
+                    }
+
+                    for (final ResourceClaim claim : toDestroy) {
+                        remove(claim);
+                    }
+                }
+            } catch (final Throwable t) {
+                LOG.error("Failed to clean up content claims", t);
+            }
+        }
+    }
+}
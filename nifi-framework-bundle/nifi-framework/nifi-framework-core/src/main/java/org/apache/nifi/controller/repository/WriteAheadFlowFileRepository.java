@@ -98,6 +98,9 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
 
     private final AtomicLong flowFileSequenceGenerator = new AtomicLong(0L);
     private final boolean alwaysSync;
+    private final long groupCommitWindowNanos;
+    private final int maxIncrementalCheckpoints;
+    private final boolean parallelRecovery;
     private final boolean retainOrphanedFlowFiles;
 
     private static final Logger logger = LoggerFactory.getLogger(WriteAheadFlowFileRepository.class);
@@ -147,6 +150,9 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
      */
     public WriteAheadFlowFileRepository() {
         alwaysSync = false;
+        groupCommitWindowNanos = SequentialAccessWriteAheadLog.GROUP_COMMIT_DISABLED;
+        maxIncrementalCheckpoints = 0;
+        parallelRecovery = false;
         checkpointDelayMillis = 0L;
         checkpointExecutor = null;
         walImplementation = null;
@@ -159,6 +165,15 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
         alwaysSync = Boolean.parseBoolean(nifiProperties.getProperty(NiFiProperties.FLOWFILE_REPOSITORY_ALWAYS_SYNC, "false"));
         this.nifiProperties = nifiProperties;
 
+        final String groupCommitWindow = nifiProperties.getProperty(NiFiProperties.FLOWFILE_REPOSITORY_GROUP_COMMIT_WINDOW);
+        if (groupCommitWindow == null || groupCommitWindow.isBlank()) {
+            groupCommitWindowNanos = SequentialAccessWriteAheadLog.GROUP_COMMIT_DISABLED;
+        } else {
+            groupCommitWindowNanos = Math.round(FormatUtils.getPreciseTimeDuration(groupCommitWindow.trim(), TimeUnit.NANOSECONDS));
+        }
+        maxIncrementalCheckpoints = nifiProperties.getIntegerProperty(NiFiProperties.FLOWFILE_REPOSITORY_MAX_INCREMENTAL_CHECKPOINTS, 0);
+        parallelRecovery = Boolean.parseBoolean(nifiProperties.getProperty(NiFiProperties.FLOWFILE_REPOSITORY_PARALLEL_RECOVERY_ENABLED, "false"));
+
         final String orphanedFlowFileProperty = nifiProperties.getProperty(RETAIN_ORPHANED_FLOWFILES);
         retainOrphanedFlowFiles = orphanedFlowFileProperty == null || Boolean.parseBoolean(orphanedFlowFileProperty);
 
@@ -221,7 +236,17 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
         // The specified implementation can be plaintext or encrypted; the only difference is the serde factory
         if (walImplementation.equals(SEQUENTIAL_ACCESS_WAL) || walImplementation.equals(ENCRYPTED_SEQUENTIAL_ACCESS_WAL)) {
             // TODO: May need to instantiate ESAWAL for clarity?
-            wal = new SequentialAccessWriteAheadLog<>(flowFileRepositoryPaths.get(0), serdeFactory, this);
+            wal = new SequentialAccessWriteAheadLog<>(flowFileRepositoryPaths.get(0), serdeFactory, this, groupCommitWindowNanos, TimeUnit.NANOSECONDS, maxIncrementalCheckpoints,
+                parallelRecovery);
+            if (alwaysSync && groupCommitWindowNanos != SequentialAccessWriteAheadLog.GROUP_COMMIT_DISABLED) {
+                logger.info("FlowFile Repository group commit enabled with window of {} nanoseconds", groupCommitWindowNanos);
+            }
+            if (maxIncrementalCheckpoints > 0) {
+                logger.info("FlowFile Repository will write up to {} incremental checkpoints between full checkpoints", maxIncrementalCheckpoints);
+            }
+            if (parallelRecovery) {
+                logger.info("FlowFile Repository will write checkpoints that are recovered in parallel");
+            }
         } else {
             throw new IllegalStateException("Cannot create Write-Ahead Log because the configured property '" + WRITE_AHEAD_LOG_IMPL + "' has an invalid value of '" + walImplementation
                     + "'. Please update nifi.properties to indicate a valid value for this property.");
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An InputStream that reads the remaining bytes of a ByteBuffer. The stream takes ownership of the buffer's position,
+ * so the buffer must not be shared with any other reader; callers should provide a slice or duplicate of a shared buffer.
+ */
+public class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+    private int mark = -1;
+    private boolean closed = false;
+
+    public ByteBufferInputStream(final ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public int read() throws IOException {
+        ensureOpen();
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+
+        return buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        ensureOpen();
+        if (len == 0) {
+            return 0;
+        }
+
+        final int remaining = buffer.remaining();
+        if (remaining == 0) {
+            return -1;
+        }
+
+        final int toRead = Math.min(len, remaining);
+        buffer.get(b, off, toRead);
+        return toRead;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        ensureOpen();
+        if (n <= 0) {
+            return 0L;
+        }
+
+        final int toSkip = (int) Math.min(n, buffer.remaining());
+        buffer.position(buffer.position() + toSkip);
+        return toSkip;
+    }
+
+    /**
+     * Returns a view of up to the given number of the remaining bytes, without copying them, and advances this stream past those bytes
+     *
+     * @param maxLength the maximum number of bytes to return
+     * @return a buffer whose remaining bytes are the next bytes of this stream, which has no bytes remaining if the end of the stream has been reached
+     * @throws IOException if the stream is closed
+     */
+    public ByteBuffer readSlice(final int maxLength) throws IOException {
+        ensureOpen();
+        final int length = Math.min(maxLength, buffer.remaining());
+        final ByteBuffer slice = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return slice;
+    }
+
+    @Override
+    public int available() throws IOException {
+        ensureOpen();
+        return buffer.remaining();
+    }
+
+    @Override
+    public long transferTo(final OutputStream out) throws IOException {
+        ensureOpen();
+        final long transferred = buffer.remaining();
+        if (buffer.hasArray()) {
+            out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            buffer.position(buffer.limit());
+        } else {
+            final byte[] chunk = new byte[(int) Math.min(8192, transferred)];
+            while (buffer.hasRemaining()) {
+                final int length = Math.min(chunk.length, buffer.remaining());
+                buffer.get(chunk, 0, length);
+                out.write(chunk, 0, length);
+            }
+        }
+
+        return transferred;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(final int readlimit) {
+        mark = buffer.position();
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        ensureOpen();
+        if (mark < 0) {
+            throw new IOException("Stream has not been marked");
+        }
+
+        buffer.position(mark);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ByteBufferInputStream[position=" + buffer.position() + ", limit=" + buffer.limit() + "]";
+    }
+}
@@ -17,23 +17,39 @@
 package org.apache.nifi.controller.scheduling;
 
 import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.connectable.Connection;
 import org.apache.nifi.controller.FlowController;
+import org.apache.nifi.controller.ProcessorNode;
 import org.apache.nifi.controller.ReportingTaskNode;
+import org.apache.nifi.controller.queue.FlowFileQueue;
 import org.apache.nifi.controller.tasks.ConnectableTask;
 import org.apache.nifi.controller.tasks.InvocationResult;
 import org.apache.nifi.controller.tasks.ReportingTaskWrapper;
 import org.apache.nifi.engine.FlowEngine;
+import org.apache.nifi.groups.ProcessGroup;
 import org.apache.nifi.util.FormatUtils;
 import org.apache.nifi.util.NiFiProperties;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent {
     private final long noWorkYieldNanos;
+    private final boolean queueNotificationEnabled;
+    private final long maxWaitForDataNanos;
+    private final Set<String> virtualThreadComponentTypes;
+    private final Set<String> virtualThreadProcessGroups;
+    private final FlowEngine virtualThreadEngine;
+
+    // The incoming queues that each scheduled component's tasks are waiting on, so that the callbacks can be unregistered when it is unscheduled
+    private final ConcurrentMap<LifecycleState, List<DataAvailabilityWait>> dataAvailabilityWaits = new ConcurrentHashMap<>();
 
     public TimerDrivenSchedulingAgent(final FlowController flowController, final FlowEngine flowEngine, final RepositoryContextFactory contextFactory,
                                       final NiFiProperties nifiProperties) {
@@ -45,11 +61,62 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
         } catch (final IllegalArgumentException e) {
             throw new RuntimeException("Failed to create SchedulingAgent because the " + NiFiProperties.BORED_YIELD_DURATION + " property is set to an invalid time duration: " + boredYieldDuration);
         }
+
+        queueNotificationEnabled = nifiProperties.isQueueNotificationSchedulingEnabled();
+        final String maxWaitForData = nifiProperties.getQueueNotificationSchedulingMaxWait();
+        try {
+            maxWaitForDataNanos = FormatUtils.getTimeDuration(maxWaitForData, TimeUnit.NANOSECONDS);
+        } catch (final IllegalArgumentException e) {
+            throw new RuntimeException("Failed to create SchedulingAgent because the " + NiFiProperties.QUEUE_NOTIFICATION_SCHEDULING_MAX_WAIT
+                + " property is set to an invalid time duration: " + maxWaitForData);
+        }
+
+        virtualThreadComponentTypes = nifiProperties.getVirtualThreadComponentTypes();
+        virtualThreadProcessGroups = nifiProperties.getVirtualThreadProcessGroups();
+        if (virtualThreadComponentTypes.isEmpty() && virtualThreadProcessGroups.isEmpty()) {
+            virtualThreadEngine = null;
+        } else {
+            // Processors that spend most of their time blocked on I/O run on virtual threads, so that they do not exhaust the
+            // Timer-Driven thread pool. The size of this engine caps the number of such tasks that may run concurrently.
+            final int maxConcurrentTasks = nifiProperties.getVirtualThreadMaxConcurrentTasks();
+            virtualThreadEngine = new FlowEngine(maxConcurrentTasks, "Timer-Driven Virtual Process", true, true);
+            logger.info("Processors of types {} and in Process Groups {} will run on virtual threads with at most {} concurrent tasks",
+                virtualThreadComponentTypes, virtualThreadProcessGroups, maxConcurrentTasks);
+        }
     }
 
     @Override
     public void shutdown() {
         flowEngine.shutdown();
+
+        if (virtualThreadEngine != null) {
+            virtualThreadEngine.shutdown();
+        }
+    }
+
+    /**
+     * Determines which engine should run the tasks of the given component: the virtual thread engine if the component is a Processor
+     * whose type, or whose Process Group or any of its ancestors, has been configured to use virtual threads; otherwise, the Timer-Driven engine.
+     *
+     * @param connectable the component to schedule
+     * @return the engine to run the component's tasks
+     */
+    FlowEngine getEngine(final Connectable connectable) {
+        if (virtualThreadEngine == null || !(connectable instanceof ProcessorNode processorNode)) {
+            return flowEngine;
+        }
+
+        if (virtualThreadComponentTypes.contains(processorNode.getComponentType()) || virtualThreadComponentTypes.contains(processorNode.getCanonicalClassName())) {
+            return virtualThreadEngine;
+        }
+
+        for (ProcessGroup group = processorNode.getProcessGroup(); group != null; group = group.getParent()) {
+            if (virtualThreadProcessGroups.contains(group.getIdentifier())) {
+                return virtualThreadEngine;
+            }
+        }
+
+        return flowEngine;
     }
 
     @Override
@@ -69,15 +136,19 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
     public void doSchedule(final Connectable connectable, final LifecycleState scheduleState) {
         final List<ScheduledFuture<?>> futures = new ArrayList<>();
         final ConnectableTask connectableTask = new ConnectableTask(this, connectable, flowController, contextFactory, scheduleState);
+        final FlowEngine engine = getEngine(connectable);
+        final List<DataAvailabilityWait> waits = new ArrayList<>();
 
         for (int i = 0; i < connectable.getMaxConcurrentTasks(); i++) {
             // Determine the task to run and create it.
             final AtomicReference<ScheduledFuture<?>> futureRef = new AtomicReference<>();
+            final DataAvailabilityWait dataAvailabilityWait = new DataAvailabilityWait();
+            waits.add(dataAvailabilityWait);
 
-            final Runnable trigger = createTrigger(connectableTask, scheduleState, futureRef);
+            final Runnable trigger = createTrigger(connectableTask, scheduleState, futureRef, engine, dataAvailabilityWait);
 
             // Schedule the task to run
-            final ScheduledFuture<?> future = flowEngine.scheduleWithFixedDelay(trigger, 0L,
+            final ScheduledFuture<?> future = engine.scheduleWithFixedDelay(trigger, 0L,
                 connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
 
             // now that we have the future, set the atomic reference so that if the component is yielded we
@@ -89,14 +160,23 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
         }
 
         scheduleState.setFutures(futures);
-        logger.info("Scheduled {} to run with {} threads", connectable, connectable.getMaxConcurrentTasks());
+        if (queueNotificationEnabled) {
+            dataAvailabilityWaits.put(scheduleState, waits);
+        }
+        logger.info("Scheduled {} to run with {} {}threads", connectable, connectable.getMaxConcurrentTasks(), engine == virtualThreadEngine ? "virtual " : "");
     }
 
-    private Runnable createTrigger(final ConnectableTask connectableTask, final LifecycleState scheduleState, final AtomicReference<ScheduledFuture<?>> futureRef) {
+    private Runnable createTrigger(final ConnectableTask connectableTask, final LifecycleState scheduleState, final AtomicReference<ScheduledFuture<?>> futureRef,
+                                   final FlowEngine engine, final DataAvailabilityWait dataAvailabilityWait) {
         final Connectable connectable = connectableTask.getConnectable();
         final Runnable yieldDetectionRunnable = new Runnable() {
+            private final Runnable dataAvailableCallback = this::onDataAvailable;
+
             @Override
             public void run() {
+                // The task may be running because the max wait period elapsed, in which case it is no longer waiting on its queues
+                dataAvailabilityWait.cancel();
+
                 // Call the task. It will return a boolean indicating whether or not we should yield
                 // based on a lack of work for to do for the component.
                 final InvocationResult invocationResult = connectableTask.invoke();
@@ -125,13 +205,15 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
                         synchronized (scheduleState) {
                             if (scheduleState.isScheduled()) {
                                 final long schedulingNanos = connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS);
-                                final ScheduledFuture<?> newFuture = flowEngine.scheduleWithFixedDelay(this, yieldNanos, schedulingNanos, TimeUnit.NANOSECONDS);
+                                final ScheduledFuture<?> newFuture = engine.scheduleWithFixedDelay(this, yieldNanos, schedulingNanos, TimeUnit.NANOSECONDS);
 
                                 scheduleState.replaceFuture(scheduledFuture, newFuture);
                                 futureRef.set(newFuture);
                             }
                         }
                     }
+                } else if (queueNotificationEnabled && invocationResult.isWaitingForData()) {
+                    waitForData();
                 } else if (noWorkYieldNanos > 0L && invocationResult.isYield()) {
                     // Component itself didn't yield but there was no work to do, so the framework will choose
                     // to yield the component automatically for a short period of time.
@@ -146,7 +228,7 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
                     if (scheduledFuture.cancel(false)) {
                         synchronized (scheduleState) {
                             if (scheduleState.isScheduled()) {
-                                final ScheduledFuture<?> newFuture = flowEngine.scheduleWithFixedDelay(this, noWorkYieldNanos,
+                                final ScheduledFuture<?> newFuture = engine.scheduleWithFixedDelay(this, noWorkYieldNanos,
                                     connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
 
                                 scheduleState.replaceFuture(scheduledFuture, newFuture);
@@ -156,6 +238,50 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
                     }
                 }
             }
+
+            /**
+             * Rather than checking again for work after the bored yield duration, reschedules the task to run after the max wait period
+             * and asks each incoming queue to notify the task when a FlowFile is queued, at which point the task is rescheduled to run immediately.
+             */
+            private void waitForData() {
+                // Registering while holding the lock ensures that a component that is being unscheduled is either not registered
+                // or is registered before it is unscheduled, in which case the callbacks are unregistered when it is unscheduled
+                synchronized (scheduleState) {
+                    if (!reschedule(maxWaitForDataNanos)) {
+                        return;
+                    }
+
+                    dataAvailabilityWait.register(connectable.getIncomingConnections(), dataAvailableCallback);
+                }
+            }
+
+            private void onDataAvailable() {
+                // Only the first notification reschedules the task; the callback is unregistered from the other queues
+                if (dataAvailabilityWait.cancel()) {
+                    logger.debug("FlowFiles queued for {}; triggering component", connectable);
+                    reschedule(0L);
+                }
+            }
+
+            private boolean reschedule(final long delayNanos) {
+                final ScheduledFuture<?> scheduledFuture = futureRef.get();
+                if (scheduledFuture == null || !scheduledFuture.cancel(false)) {
+                    return false;
+                }
+
+                synchronized (scheduleState) {
+                    if (!scheduleState.isScheduled()) {
+                        return false;
+                    }
+
+                    final ScheduledFuture<?> newFuture = engine.scheduleWithFixedDelay(this, delayNanos,
+                        connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+
+                    scheduleState.replaceFuture(scheduledFuture, newFuture);
+                    futureRef.set(newFuture);
+                    return true;
+                }
+            }
         };
 
         return yieldDetectionRunnable;
@@ -168,6 +294,11 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
             future.cancel(false);
         }
 
+        final List<DataAvailabilityWait> waits = dataAvailabilityWaits.remove(lifecycleState);
+        if (waits != null) {
+            waits.forEach(DataAvailabilityWait::cancel);
+        }
+
         logger.info("Stopped scheduling {} to run", connectable);
     }
 
@@ -188,4 +319,53 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
     @Override
     public void setMaxThreadCount(final int maxThreads) {
     }
+
+    /**
+     * The incoming queues on which a task has registered a callback while it waits for FlowFiles to be queued. The callback
+     * is unregistered from every queue once the task stops waiting, whether because a FlowFile was queued, because the
+     * max wait period elapsed, or because the component was unscheduled.
+     */
+    static class DataAvailabilityWait {
+        private final AtomicReference<Registration> registration = new AtomicReference<>();
+
+        void register(final Collection<Connection> connections, final Runnable callback) {
+            final List<FlowFileQueue> queues = new ArrayList<>(connections.size());
+            for (final Connection connection : connections) {
+                queues.add(connection.getFlowFileQueue());
+            }
+
+            final Registration newRegistration = new Registration(queues, callback);
+            registration.set(newRegistration);
+            for (final FlowFileQueue queue : queues) {
+                queue.notifyWhenDataAvailable(callback);
+            }
+
+            // A queue may have run the callback while the others were being registered; if so, the wait has already been
+            // cancelled, so remove the callback from the queues that were registered after the cancellation
+            if (registration.get() != newRegistration) {
+                newRegistration.unregister();
+            }
+        }
+
+        /**
+         * @return <code>true</code> if the task was waiting for FlowFiles to be queued, <code>false</code> otherwise
+         */
+        boolean cancel() {
+            final Registration cancelled = registration.getAndSet(null);
+            if (cancelled == null) {
+                return false;
+            }
+
+            cancelled.unregister();
+            return true;
+        }
+
+        private record Registration(List<FlowFileQueue> queues, Runnable callback) {
+            void unregister() {
+                for (final FlowFileQueue queue : queues) {
+                    queue.removeDataAvailableCallback(callback);
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.serialization;
+
+import org.apache.nifi.encrypt.EncryptionException;
+import org.apache.nifi.encrypt.PropertyEncryptor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>
+ * Calculates a hash of a serialized flow so that nodes can determine whether they have the same flow without transferring it.
+ * </p>
+ *
+ * <p>
+ * Sensitive values are encrypted with a random initialization vector each time that a flow is serialized, so the same flow serializes
+ * to different bytes on each node. Encrypted values are therefore decrypted before being hashed. If a value cannot be decrypted, its
+ * encrypted form is hashed instead, which can only cause two equal flows to be considered different.
+ * </p>
+ */
+public class FlowHashCalculator {
+    private static final Pattern ENCRYPTED_VALUE_PATTERN = Pattern.compile(Pattern.quote(FlowSerializer.ENC_PREFIX) + "([0-9a-fA-F]+)" + Pattern.quote(FlowSerializer.ENC_SUFFIX));
+
+    private final PropertyEncryptor encryptor;
+
+    public FlowHashCalculator(final PropertyEncryptor encryptor) {
+        this.encryptor = encryptor;
+    }
+
+    /**
+     * @param flow the serialized flow
+     * @return the hex-encoded SHA-256 hash of the flow, with encrypted values replaced by their decrypted values
+     */
+    public String calculateHash(final byte[] flow) {
+        final MessageDigest digest = createDigest();
+        if (flow == null || flow.length == 0) {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+
+        final String flowText = new String(flow, StandardCharsets.UTF_8);
+        final Matcher matcher = ENCRYPTED_VALUE_PATTERN.matcher(flowText);
+
+        int position = 0;
+        while (matcher.find()) {
+            digest.update(flowText.substring(position, matcher.start()).getBytes(StandardCharsets.UTF_8));
+            digest.update(FlowSerializer.ENC_PREFIX.getBytes(StandardCharsets.UTF_8));
+            digest.update(decrypt(matcher.group(1)).getBytes(StandardCharsets.UTF_8));
+            digest.update(FlowSerializer.ENC_SUFFIX.getBytes(StandardCharsets.UTF_8));
+            position = matcher.end();
+        }
+        digest.update(flowText.substring(position).getBytes(StandardCharsets.UTF_8));
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private String decrypt(final String encrypted) {
+        if (encryptor == null) {
+            return encrypted;
+        }
+
+        try {
+            return encryptor.decrypt(encrypted);
+        } catch (final EncryptionException e) {
+            return encrypted;
+        }
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+}
@@ -24,7 +24,7 @@ import java.util.Set;
 public class ComponentStatusHistory {
 
     private final MetricRollingBuffer snapshots;
-    private ComponentDetails componentDetails;
+    private volatile ComponentDetails componentDetails;
 
     public ComponentStatusHistory(final ComponentDetails details, final int maxCapacity) {
         this.componentDetails = details;
@@ -44,6 +44,21 @@ public class ComponentStatusHistory {
         componentDetails = details;
     }
 
+    /**
+     * Captures the given status of the component without creating a {@link StatusSnapshot}
+     *
+     * @param timestamp the time at which the status was captured
+     * @param status the status of the component
+     * @param statusDescriptors the metrics to capture, whose value functions must accept the given status
+     * @param counters the values of any counters for the component, or <code>null</code> if there are none
+     * @param details the details of the component
+     */
+    public <T> void update(final Date timestamp, final T status, final Set<MetricDescriptor<?>> statusDescriptors, final Map<MetricDescriptor<?>, Long> counters,
+                           final ComponentDetails details) {
+        snapshots.update(timestamp, status, statusDescriptors, counters);
+        componentDetails = details;
+    }
+
     public StatusHistory toStatusHistory(final List<Date> timestamps, final boolean includeCounters, final Set<MetricDescriptor<?>> defaultStatusMetrics) {
         final Date dateGenerated = new Date();
         final Map<String, String> componentDetailsMap = componentDetails.toMap();
@@ -19,16 +19,37 @@ package org.apache.nifi.controller.status.history;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * <p>
+ * A rolling buffer of the metrics of a single component. Rather than holding a {@link StatusSnapshot} for each capture, the buffer holds the
+ * timestamps and the value of each metric in primitive <code>long[]</code> columns, so that capturing the metrics of a component does not require
+ * any allocation once the buffer has grown to its capacity. Snapshots are created only when the history is requested.
+ * </p>
+ *
+ * <p>
+ * The buffer is written by a single thread at a time and may be read concurrently. Readers copy the columns using an optimistic read of a
+ * {@link StampedLock}, so that they neither block nor are blocked by the writer unless the buffer is modified while it is being copied.
+ * </p>
+ */
 public class MetricRollingBuffer {
-    private final int capacity;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int GROWTH_INCREMENT = 64;
 
-    private StatusSnapshot[] snapshots;
-    private int writeIndex = 0;
-    private int readIndex;
-    private boolean readExhausted;
+    private final int capacity;
+    private final StampedLock lock = new StampedLock();
+
+    // All fields below are guarded by the lock
+    private Set<MetricDescriptor<?>> metricDescriptors;
+    private long[] timestamps;
+    private long[][] values; // indexed by metric identifier and then by slot
+    private Map<MetricDescriptor<?>, Long>[] counterValues; // created only if counters are captured
+    private int startIndex = 0;
     private int count = 0;
 
     public MetricRollingBuffer(final int maxCapacity) {
@@ -40,157 +61,276 @@ public class MetricRollingBuffer {
             return;
         }
 
-        if (snapshots == null) {
-            snapshots = new StatusSnapshot[Math.min(capacity, 16)];
+        final Set<MetricDescriptor<?>> snapshotDescriptors = snapshot.getMetricDescriptors();
+        final long stamp = lock.writeLock();
+        try {
+            final int slot = nextSlot(snapshot.withoutCounters().getMetricDescriptors(), snapshot.getTimestamp());
+            for (final MetricDescriptor<?> descriptor : snapshotDescriptors) {
+                if (descriptor.isCounter()) {
+                    setCounterValue(slot, descriptor, snapshot.getStatusMetric(descriptor));
+                } else {
+                    setValue(slot, descriptor, snapshot.getStatusMetric(descriptor));
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
         }
+    }
 
-        if (snapshots[writeIndex] == null) {
-            count++;
+    /**
+     * Captures the value of each of the given metrics for the given status
+     *
+     * @param timestamp the time at which the status was captured
+     * @param status the status of the component
+     * @param statusDescriptors the metrics to capture, whose value functions must accept the given status
+     * @param counters the values of any counters for the component, or <code>null</code> if there are none
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void update(final Date timestamp, final T status, final Set<MetricDescriptor<?>> statusDescriptors, final Map<MetricDescriptor<?>, Long> counters) {
+        final long stamp = lock.writeLock();
+        try {
+            final int slot = nextSlot(statusDescriptors, timestamp);
+            for (final MetricDescriptor<?> descriptor : statusDescriptors) {
+                setValue(slot, descriptor, ((MetricDescriptor<T>) descriptor).getValueFunction().getValue(status));
+            }
+
+            if (counters != null && !counters.isEmpty()) {
+                getCounterValues()[slot] = counters;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
         }
+    }
 
-        snapshots[writeIndex++] = snapshot;
+    private int nextSlot(final Set<MetricDescriptor<?>> descriptors, final Date timestamp) {
+        if (timestamps == null) {
+            metricDescriptors = descriptors;
+            final int initialCapacity = Math.min(capacity, INITIAL_CAPACITY);
+            timestamps = new long[initialCapacity];
+            values = new long[descriptors.size()][initialCapacity];
+        }
 
-        if (writeIndex >= snapshots.length) {
-            if (snapshots.length < capacity) {
-                grow();
+        if (count == timestamps.length) {
+            if (timestamps.length < capacity) {
+                resize(Math.min(capacity, timestamps.length + GROWTH_INCREMENT));
             } else {
-                writeIndex = 0;
+                // The buffer is full, so overwrite the oldest entry
+                startIndex = (startIndex + 1) % timestamps.length;
+                count--;
             }
         }
+
+        final int slot = (startIndex + count) % timestamps.length;
+        timestamps[slot] = timestamp.getTime();
+        for (final long[] column : values) {
+            column[slot] = 0L;
+        }
+        if (counterValues != null) {
+            counterValues[slot] = null;
+        }
+
+        count++;
+        return slot;
     }
 
-    public int size() {
-        return count;
+    private void setValue(final int slot, final MetricDescriptor<?> descriptor, final Long value) {
+        final int metricIdentifier = descriptor.getMetricIdentifier();
+        if (value != null && metricIdentifier < values.length) {
+            values[metricIdentifier][slot] = value;
+        }
     }
 
-    public void expireBefore(final Date date) {
-        if (snapshots == null) {
-            return;
+    private void setCounterValue(final int slot, final MetricDescriptor<?> descriptor, final Long value) {
+        final Map<MetricDescriptor<?>, Long>[] counters = getCounterValues();
+        if (counters[slot] == null) {
+            counters[slot] = new HashMap<>();
         }
+        counters[slot].put(descriptor, value);
+    }
 
-        int readIndex = writeIndex;
-        for (int i = 0; i < snapshots.length; i++) {
-            final StatusSnapshot snapshot = snapshots[readIndex];
-            if (snapshot == null) {
-                readIndex++;
-                if (readIndex >= snapshots.length) {
-                    readIndex = 0;
-                }
+    @SuppressWarnings("unchecked")
+    private Map<MetricDescriptor<?>, Long>[] getCounterValues() {
+        if (counterValues == null) {
+            counterValues = new Map[timestamps.length];
+        }
+        return counterValues;
+    }
 
-                continue;
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        final int size = count;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                return count;
+            } finally {
+                lock.unlockRead(stamp);
             }
+        }
 
-            final Date snapshotTimestamp = snapshot.getTimestamp();
-            if (snapshotTimestamp.after(date)) {
-                break;
+        return size;
+    }
+
+    public void expireBefore(final Date date) {
+        final long expirationTime = date.getTime();
+        final long stamp = lock.writeLock();
+        try {
+            if (timestamps == null) {
+                return;
             }
 
-            snapshots[readIndex] = null;
-            count--;
+            while (count > 0 && timestamps[startIndex] <= expirationTime) {
+                if (counterValues != null) {
+                    counterValues[startIndex] = null;
+                }
 
-            readIndex++;
-            if (readIndex >= snapshots.length) {
-                readIndex = 0;
+                startIndex = (startIndex + 1) % timestamps.length;
+                count--;
             }
-        }
 
-        if (count < snapshots.length / 4 || snapshots.length - count > 128) {
-            // If we're using less than 1/4 of the array or we have at least 128 null entries, compact.
-            compact();
+            if (timestamps.length > INITIAL_CAPACITY && (count < timestamps.length / 4 || timestamps.length - count > 128)) {
+                // If we're using less than 1/4 of the array or we have at least 128 unused entries, compact.
+                resize(Math.max(count + 1, Math.min(capacity, INITIAL_CAPACITY)));
+            }
+        } finally {
+            lock.unlockWrite(stamp);
         }
     }
 
-    private void grow() {
-        final int initialSize = snapshots.length;
-        final int newSize = Math.min(capacity, snapshots.length + 64);
-        final StatusSnapshot[] newArray = new StatusSnapshot[newSize];
-        System.arraycopy(snapshots, 0, newArray, 0, snapshots.length);
-        snapshots = newArray;
-        writeIndex = initialSize;
-    }
-
-    private void compact() {
-        final StatusSnapshot[] newArray = new StatusSnapshot[count + 1];
-        int insertionIndex = 0;
-
-        int readIndex = writeIndex;
-        for (int i = 0; i < snapshots.length; i++) {
-            final StatusSnapshot snapshot = snapshots[readIndex];
-            if (snapshot != null) {
-                newArray[insertionIndex++] = snapshot;
-            }
+    @SuppressWarnings("unchecked")
+    private void resize(final int newLength) {
+        final int length = timestamps.length;
+        final long[] newTimestamps = new long[newLength];
+        copyInOrder(timestamps, length, newTimestamps);
+        final long[][] newValues = new long[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            newValues[i] = new long[newLength];
+            copyInOrder(values[i], length, newValues[i]);
+        }
 
-            readIndex++;
-            if (readIndex >= snapshots.length) {
-                readIndex = 0;
-            }
+        if (counterValues != null) {
+            final Map<MetricDescriptor<?>, Long>[] newCounterValues = new Map[newLength];
+            copyInOrder(counterValues, length, newCounterValues);
+            counterValues = newCounterValues;
         }
 
-        snapshots = newArray;
-        writeIndex = count;
-        count = newArray.length - 1;
+        timestamps = newTimestamps;
+        values = newValues;
+        startIndex = 0;
+    }
+
+    // Copies the live entries of a column, beginning with the oldest, to the start of the destination
+    private void copyInOrder(final Object source, final int length, final Object destination) {
+        final int firstPart = Math.min(count, length - startIndex);
+        System.arraycopy(source, startIndex, destination, 0, firstPart);
+        System.arraycopy(source, 0, destination, firstPart, count - firstPart);
     }
 
     public List<StatusSnapshot> getSnapshots(final List<Date> timestamps, final boolean includeCounters, final Set<MetricDescriptor<?>> defaultStatusMetrics) {
-        if (snapshots == null) {
+        final Columns columns = readColumns(includeCounters);
+        if (columns == null) {
             return Collections.emptyList();
         }
 
-        final List<StatusSnapshot> list = new ArrayList<>(snapshots.length);
-
-        resetRead();
+        final List<StatusSnapshot> list = new ArrayList<>(timestamps.size());
 
+        int row = 0;
         for (final Date timestamp : timestamps) {
-            final StatusSnapshot snapshot = getSnapshotForTimestamp(timestamp);
-            if (snapshot == null) {
-                list.add(new EmptyStatusSnapshot(timestamp, defaultStatusMetrics));
+            final long time = timestamp.getTime();
+            while (row < columns.count() && columns.timestamps()[row] < time) {
+                row++;
+            }
+
+            if (row < columns.count() && columns.timestamps()[row] == time) {
+                list.add(createSnapshot(columns, row, timestamp));
+                row++;
             } else {
-                list.add(includeCounters ? snapshot : snapshot.withoutCounters());
+                list.add(new EmptyStatusSnapshot(timestamp, defaultStatusMetrics));
             }
         }
 
         return list;
     }
 
-    private StatusSnapshot getSnapshotForTimestamp(final Date timestamp) {
-        while (!readExhausted) {
-            final StatusSnapshot snapshot = snapshots[readIndex];
-            if (snapshot == null) {
-                advanceRead();
-                continue;
+    private StatusSnapshot createSnapshot(final Columns columns, final int row, final Date timestamp) {
+        final StandardStatusSnapshot snapshot = new StandardStatusSnapshot(columns.metricDescriptors());
+        snapshot.setTimestamp(timestamp);
+        for (final MetricDescriptor<?> descriptor : columns.metricDescriptors()) {
+            final int metricIdentifier = descriptor.getMetricIdentifier();
+            if (metricIdentifier < columns.values().length) {
+                snapshot.addStatusMetric(descriptor, columns.values()[metricIdentifier][row]);
             }
+        }
 
-            final Date snapshotTimestamp = snapshot.getTimestamp();
-            if (snapshotTimestamp.before(timestamp)) {
-                advanceRead();
-                continue;
-            }
+        if (columns.counterValues() != null && columns.counterValues()[row] != null) {
+            columns.counterValues()[row].forEach(snapshot::addStatusMetric);
+        }
 
-            if (snapshotTimestamp.after(timestamp)) {
-                return null;
-            }
+        return snapshot;
+    }
 
-            advanceRead();
-            return snapshot;
+    /**
+     * Copies the live entries of each column, oldest first. The copy is first attempted without locking; if the buffer is modified
+     * during the copy, it is repeated while holding the read lock.
+     */
+    private Columns readColumns(final boolean includeCounters) {
+        final long optimisticStamp = lock.tryOptimisticRead();
+        if (optimisticStamp != 0L) {
+            try {
+                final Columns columns = copyColumns(includeCounters);
+                if (lock.validate(optimisticStamp)) {
+                    return columns;
+                }
+            } catch (final RuntimeException e) {
+                // The buffer was modified while it was being copied, so the copy may have read inconsistent state. Fall back to the read lock.
+            }
         }
 
-        return null;
+        final long stamp = lock.readLock();
+        try {
+            return copyColumns(includeCounters);
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
 
-    private void resetRead() {
-        readIndex = writeIndex;
-        readExhausted = false;
-    }
+    @SuppressWarnings("unchecked")
+    private Columns copyColumns(final boolean includeCounters) {
+        final long[] currentTimestamps = timestamps;
+        if (currentTimestamps == null) {
+            return null;
+        }
 
-    private void advanceRead() {
-        readIndex++;
+        final long[][] currentValues = values;
+        final Map<MetricDescriptor<?>, Long>[] currentCounterValues = counterValues;
+        final int currentStart = startIndex;
+        final int currentCount = count;
 
-        if (readIndex >= snapshots.length) {
-            readIndex = 0;
+        final long[] copiedTimestamps = copyInOrder(currentTimestamps, currentStart, currentCount);
+        final long[][] copiedValues = new long[currentValues.length][];
+        for (int i = 0; i < currentValues.length; i++) {
+            copiedValues[i] = copyInOrder(currentValues[i], currentStart, currentCount);
         }
 
-        if (readIndex == writeIndex) {
-            readExhausted = true;
+        Map<MetricDescriptor<?>, Long>[] copiedCounterValues = null;
+        if (includeCounters && currentCounterValues != null) {
+            copiedCounterValues = new Map[currentCount];
+            for (int i = 0; i < currentCount; i++) {
+                copiedCounterValues[i] = currentCounterValues[(currentStart + i) % currentCounterValues.length];
+            }
         }
+
+        return new Columns(metricDescriptors, copiedTimestamps, copiedValues, copiedCounterValues, currentCount);
+    }
+
+    private static long[] copyInOrder(final long[] source, final int start, final int length) {
+        final long[] copy = new long[length];
+        final int firstPart = Math.min(length, source.length - start);
+        System.arraycopy(source, start, copy, 0, firstPart);
+        System.arraycopy(source, 0, copy, firstPart, length - firstPart);
+        return copy;
+    }
+
+    private record Columns(Set<MetricDescriptor<?>> metricDescriptors, long[] timestamps, long[][] values, Map<MetricDescriptor<?>, Long>[] counterValues, int count) {
     }
 }
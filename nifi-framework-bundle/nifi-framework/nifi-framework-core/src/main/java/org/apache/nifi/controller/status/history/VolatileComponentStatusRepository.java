@@ -35,6 +35,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -69,7 +70,8 @@ public class VolatileComponentStatusRepository implements StatusHistoryRepositor
     public static final String NUM_DATA_POINTS_PROPERTY = "nifi.components.status.repository.buffer.size";
     public static final int DEFAULT_NUM_DATA_POINTS = 288;   // 1 day worth of 5-minute snapshots
 
-    private final Map<String, ComponentStatusHistory> componentStatusHistories = new HashMap<>();
+    private final Map<String, ComponentStatusHistory> componentStatusHistories = new ConcurrentHashMap<>();
+    private final Map<String, MetricDescriptor<?>> counterDescriptors = new ConcurrentHashMap<>();
 
     // Changed to protected to allow unit testing
     protected final RingBuffer<Date> timestamps;
@@ -95,6 +97,8 @@ public class VolatileComponentStatusRepository implements StatusHistoryRepositor
         nodeStatuses = new RingBuffer<>(numDataPoints);
     }
 
+    // Only the status snapshot task captures status, so capture() is synchronized only to guard against concurrent captures. Status history
+    // requests do not synchronize on the repository; each component's buffer may be read while other components are being captured.
     @Override
     public synchronized void capture(final NodeStatus nodeStatus, final ProcessGroupStatus rootGroupStatus, final List<GarbageCollectionStatus> gcStatus, final Date timestamp) {
         final Date evicted = timestamps.add(timestamp);
@@ -114,28 +118,36 @@ public class VolatileComponentStatusRepository implements StatusHistoryRepositor
     private void capture(final ProcessGroupStatus groupStatus, final Date timestamp) {
         // Capture status for the ProcessGroup
         final ComponentDetails groupDetails = ComponentDetails.forProcessGroup(groupStatus);
-        final StatusSnapshot groupSnapshot = ComponentMetrics.createSnapshot(groupStatus, timestamp);
-        updateStatusHistory(groupSnapshot, groupDetails, timestamp);
+        final ComponentStatusHistory groupHistory = getStatusHistory(groupDetails);
+        if (!ComponentMetrics.isEmpty(groupStatus)) {
+            groupHistory.update(timestamp, groupStatus, DEFAULT_GROUP_METRICS, null, groupDetails);
+        }
 
         // Capture statuses for the Processors
         for (final ProcessorStatus processorStatus : groupStatus.getProcessorStatus()) {
             final ComponentDetails componentDetails = ComponentDetails.forProcessor(processorStatus);
-            final StatusSnapshot snapshot = ComponentMetrics.createSnapshot(processorStatus, timestamp);
-            updateStatusHistory(snapshot, componentDetails, timestamp);
+            final ComponentStatusHistory history = getStatusHistory(componentDetails);
+            if (!ComponentMetrics.isEmpty(processorStatus)) {
+                history.update(timestamp, processorStatus, DEFAULT_PROCESSOR_METRICS, getCounterValues(processorStatus), componentDetails);
+            }
         }
 
         // Capture statuses for the Connections
         for (final ConnectionStatus connectionStatus : groupStatus.getConnectionStatus()) {
             final ComponentDetails componentDetails = ComponentDetails.forConnection(connectionStatus);
-            final StatusSnapshot snapshot = ComponentMetrics.createSnapshot(connectionStatus, timestamp);
-            updateStatusHistory(snapshot, componentDetails, timestamp);
+            final ComponentStatusHistory history = getStatusHistory(componentDetails);
+            if (!ComponentMetrics.isEmpty(connectionStatus)) {
+                history.update(timestamp, connectionStatus, DEFAULT_CONNECTION_METRICS, null, componentDetails);
+            }
         }
 
         // Capture statuses for the RPG's
         for (final RemoteProcessGroupStatus rpgStatus : groupStatus.getRemoteProcessGroupStatus()) {
             final ComponentDetails componentDetails = ComponentDetails.forRemoteProcessGroup(rpgStatus);
-            final StatusSnapshot snapshot = ComponentMetrics.createSnapshot(rpgStatus, timestamp);
-            updateStatusHistory(snapshot, componentDetails, timestamp);
+            final ComponentStatusHistory history = getStatusHistory(componentDetails);
+            if (!ComponentMetrics.isEmpty(rpgStatus)) {
+                history.update(timestamp, rpgStatus, DEFAULT_RPG_METRICS, null, componentDetails);
+            }
         }
 
         // Capture statuses for the child groups
@@ -144,11 +156,21 @@ public class VolatileComponentStatusRepository implements StatusHistoryRepositor
         }
     }
 
+    private ComponentStatusHistory getStatusHistory(final ComponentDetails componentDetails) {
+        return componentStatusHistories.computeIfAbsent(componentDetails.getComponentId(), id -> new ComponentStatusHistory(componentDetails, numDataPoints));
+    }
+
+    private Map<MetricDescriptor<?>, Long> getCounterValues(final ProcessorStatus processorStatus) {
+        final Map<String, Long> counters = processorStatus.getCounters();
+        if (counters == null || counters.isEmpty()) {
+            return null;
+        }
 
-    private void updateStatusHistory(final StatusSnapshot statusSnapshot, final ComponentDetails componentDetails, final Date timestamp) {
-        final String componentId = componentDetails.getComponentId();
-        final ComponentStatusHistory procHistory = componentStatusHistories.computeIfAbsent(componentId, id -> new ComponentStatusHistory(componentDetails, numDataPoints));
-        procHistory.update(statusSnapshot, componentDetails);
+        final Map<MetricDescriptor<?>, Long> counterValues = new HashMap<>();
+        for (final Map.Entry<String, Long> entry : counters.entrySet()) {
+            counterValues.put(counterDescriptors.computeIfAbsent(entry.getKey(), ComponentMetrics::createCounterDescriptor), entry.getValue());
+        }
+        return counterValues;
     }
 
     @Override
@@ -342,7 +364,7 @@ public class VolatileComponentStatusRepository implements StatusHistoryRepositor
     // the calling methods. Although for VolatileComponentStatusRepository the timestamps buffer is
     // rather small it still seemed better that the parameters should be honored rather than
     // silently ignored.
-    private synchronized StatusHistory getStatusHistory(final String componentId,
+    private StatusHistory getStatusHistory(final String componentId,
         final boolean includeCounters, final Set<MetricDescriptor<?>> defaultMetricDescriptors,
         final Date start, final Date end, final int preferredDataPoints) {
         final ComponentStatusHistory history = componentStatusHistories.get(componentId);
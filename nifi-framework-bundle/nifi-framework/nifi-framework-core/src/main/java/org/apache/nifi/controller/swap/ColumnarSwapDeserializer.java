@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.swap;
+
+import com.github.luben.zstd.ZstdInputStream;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.queue.QueueSize;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.StandardFlowFileRecord;
+import org.apache.nifi.controller.repository.SwapContents;
+import org.apache.nifi.controller.repository.SwapSummary;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.repository.claim.StandardContentClaim;
+import org.apache.nifi.repository.schema.FieldCache;
+import org.apache.nifi.repository.schema.NoOpFieldCache;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads swap files that were written by the {@link ColumnarSwapSerializer}.
+ */
+public class ColumnarSwapDeserializer implements SwapDeserializer {
+    private final FieldCache fieldCache;
+
+    public ColumnarSwapDeserializer() {
+        this(new NoOpFieldCache());
+    }
+
+    public ColumnarSwapDeserializer(final FieldCache fieldCache) {
+        this.fieldCache = fieldCache;
+    }
+
+    @Override
+    public SwapContents deserializeFlowFiles(final DataInputStream in, final String swapLocation, final FlowFileQueue queue, final ResourceClaimManager claimManager) throws IOException {
+        final List<ResourceClaim> distinctResourceClaims = new ArrayList<>();
+        final SwapSummary swapSummary = readSwapSummary(in, swapLocation, claimManager, distinctResourceClaims);
+        final int flowFileCount = swapSummary.getQueueSize().getObjectCount();
+
+        final DataInputStream columnIn = new DataInputStream(new BufferedInputStream(new ZstdInputStream(in)));
+        final long[] ids = readLongColumn(columnIn, flowFileCount);
+        final long[] entryDates = readLongColumn(columnIn, flowFileCount);
+        final long[] lineageStartDates = readLongColumn(columnIn, flowFileCount);
+        final long[] lineageStartIndices = readLongColumn(columnIn, flowFileCount);
+        final long[] queueDates = readLongColumn(columnIn, flowFileCount);
+        final long[] queueDateIndices = readLongColumn(columnIn, flowFileCount);
+        final long[] sizes = readLongColumn(columnIn, flowFileCount);
+        final long[] contentClaimOffsets = readLongColumn(columnIn, flowFileCount);
+
+        final int[] resourceClaimIndices = new int[flowFileCount];
+        for (int i = 0; i < flowFileCount; i++) {
+            resourceClaimIndices[i] = (int) readVarLong(columnIn);
+        }
+        final long[] resourceClaimOffsets = readLongColumn(columnIn, flowFileCount);
+        final long[] contentClaimLengths = readLongColumn(columnIn, flowFileCount);
+
+        final int[] attributeCounts = new int[flowFileCount];
+        int totalAttributes = 0;
+        for (int i = 0; i < flowFileCount; i++) {
+            attributeCounts[i] = (int) readVarLong(columnIn);
+            totalAttributes += attributeCounts[i];
+        }
+
+        final String[] keys = new String[totalAttributes];
+        final List<String> keyDictionary = new ArrayList<>();
+        for (int i = 0; i < totalAttributes; i++) {
+            final int keyIndex = (int) readVarLong(columnIn);
+            if (keyIndex == keyDictionary.size()) {
+                keyDictionary.add(fieldCache.cache(readString(columnIn)));
+            } else if (keyIndex < 0 || keyIndex > keyDictionary.size()) {
+                throw new IOException("Swap File " + swapLocation + " references attribute key " + keyIndex + " but only " + keyDictionary.size() + " keys have been defined");
+            }
+
+            keys[i] = keyDictionary.get(keyIndex);
+        }
+
+        final List<FlowFileRecord> flowFiles = new ArrayList<>(flowFileCount);
+        int attributeIndex = 0;
+        for (int i = 0; i < flowFileCount; i++) {
+            final StandardFlowFileRecord.Builder builder = new StandardFlowFileRecord.Builder()
+                .id(ids[i])
+                .entryDate(entryDates[i])
+                .lineageStart(lineageStartDates[i], lineageStartIndices[i])
+                .lastQueued(queueDates[i], queueDateIndices[i])
+                .size(sizes[i]);
+
+            for (int j = 0; j < attributeCounts[i]; j++) {
+                final String value = readString(columnIn);
+                builder.addAttribute(keys[attributeIndex++], value == null ? null : fieldCache.cache(value));
+            }
+
+            final int resourceClaimIndex = resourceClaimIndices[i];
+            if (resourceClaimIndex != ColumnarSwapSerializer.NO_CONTENT_CLAIM) {
+                if (resourceClaimIndex < 0 || resourceClaimIndex >= distinctResourceClaims.size()) {
+                    throw new IOException("Swap File " + swapLocation + " references Resource Claim " + resourceClaimIndex + " but only "
+                        + distinctResourceClaims.size() + " Resource Claims are defined");
+                }
+
+                final StandardContentClaim contentClaim = new StandardContentClaim(distinctResourceClaims.get(resourceClaimIndex), resourceClaimOffsets[i]);
+                contentClaim.setLength(contentClaimLengths[i]);
+                builder.contentClaim(contentClaim);
+                builder.contentClaimOffset(contentClaimOffsets[i]);
+            }
+
+            flowFiles.add(builder.build());
+        }
+
+        return new StandardSwapContents(swapSummary, flowFiles);
+    }
+
+    @Override
+    public SwapSummary getSwapSummary(final DataInputStream in, final String swapLocation, final ResourceClaimManager claimManager) throws IOException {
+        return readSwapSummary(in, swapLocation, claimManager, new ArrayList<>());
+    }
+
+    private SwapSummary readSwapSummary(final DataInputStream in, final String swapLocation, final ResourceClaimManager claimManager,
+                                        final List<ResourceClaim> distinctResourceClaims) throws IOException {
+        final int encodingVersion = in.readInt();
+        if (encodingVersion != ColumnarSwapSerializer.ENCODING_VERSION) {
+            throw new IOException("Cannot read Swap File " + swapLocation + " because it was written with encoding version " + encodingVersion
+                + " but only version " + ColumnarSwapSerializer.ENCODING_VERSION + " is supported");
+        }
+
+        in.readUTF(); // queue identifier
+
+        final int flowFileCount = in.readInt();
+        final long contentSize = in.readLong();
+        final long maxFlowFileId = in.readLong();
+        final long minLastQueueDate = in.readLong();
+        final long totalLastQueueDate = in.readLong();
+
+        final int resourceClaimCount = in.readInt();
+        final List<ResourceClaim> resourceClaims = new ArrayList<>(flowFileCount);
+        for (int i = 0; i < resourceClaimCount; i++) {
+            final String container = in.readUTF();
+            final String section = in.readUTF();
+            final String identifier = in.readUTF();
+            final boolean lossTolerant = in.readBoolean();
+            final int referenceCount = in.readInt();
+
+            // Preserve the existing ResourceClaim, if the Resource Claim Manager already has one, in order to honor its determination of whether or not the claim is writable.
+            ResourceClaim resourceClaim = claimManager.getResourceClaim(container, section, identifier);
+            if (resourceClaim == null) {
+                resourceClaim = claimManager.newResourceClaim(container, section, identifier, lossTolerant, false);
+            }
+
+            distinctResourceClaims.add(resourceClaim);
+            for (int j = 0; j < referenceCount; j++) {
+                resourceClaims.add(resourceClaim);
+            }
+        }
+
+        return new StandardSwapSummary(new QueueSize(flowFileCount, contentSize), maxFlowFileId, resourceClaims, minLastQueueDate, totalLastQueueDate);
+    }
+
+    private long[] readLongColumn(final DataInputStream in, final int count) throws IOException {
+        final long[] values = new long[count];
+        long previous = 0L;
+        for (int i = 0; i < count; i++) {
+            previous += readVarLong(in);
+            values[i] = previous;
+        }
+
+        return values;
+    }
+
+    private long readVarLong(final DataInputStream in) throws IOException {
+        long encoded = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Encountered End-of-File when reading Swap File column");
+            }
+
+            encoded |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (encoded >>> 1) ^ -(encoded & 1);
+            }
+        }
+
+        throw new IOException("Swap File contains an invalid variable-length value");
+    }
+
+    private String readString(final DataInputStream in) throws IOException {
+        final int length = (int) readVarLong(in);
+        if (length == ColumnarSwapSerializer.NULL_STRING_LENGTH) {
+            return null;
+        }
+
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static String getSerializationName() {
+        return ColumnarSwapSerializer.SERIALIZATION_NAME;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.swap;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.stream.io.NonCloseableOutputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * <p>
+ * A {@link SwapSerializer} that writes the FlowFiles being swapped out column by column rather than record by record.
+ * </p>
+ *
+ * <p>
+ * The Swap Summary is written first and is not compressed, so that it can be read without reading any of the FlowFiles.
+ * The distinct Resource Claims are written once, as part of the summary, along with the number of FlowFiles that reference each.
+ * The FlowFiles follow as a single Zstandard-compressed block. Each numeric field is written as its own column, as the variable-length
+ * difference from the value of the previous FlowFile, so that FlowFiles with similar identifiers, sizes, and timestamps take few bytes. Each distinct
+ * attribute key is written once and subsequently referenced by its index, and all attribute values are written consecutively.
+ * </p>
+ */
+public class ColumnarSwapSerializer implements SwapSerializer {
+    static final String SERIALIZATION_NAME = "Columnar Swap Serialization";
+    static final int ENCODING_VERSION = 1;
+
+    static final int NO_CONTENT_CLAIM = -1;
+    static final int NULL_STRING_LENGTH = -1;
+
+    // Favor speed over compression ratio, as swapping out happens while FlowFiles are being queued
+    private static final int COMPRESSION_LEVEL = 1;
+
+    @Override
+    public void serializeFlowFiles(final List<FlowFileRecord> toSwap, final FlowFileQueue queue, final String swapLocation, final OutputStream out) throws IOException {
+        final DataOutputStream dos = new DataOutputStream(out);
+        dos.writeInt(ENCODING_VERSION);
+        dos.writeUTF(queue.getIdentifier());
+
+        long contentSize = 0L;
+        long maxFlowFileId = -1L;
+        long minLastQueueDate = Long.MAX_VALUE;
+        long totalLastQueueDate = 0L;
+        final Map<ResourceClaim, Integer> resourceClaimCounts = new LinkedHashMap<>();
+        for (final FlowFileRecord flowFile : toSwap) {
+            contentSize += flowFile.getSize();
+            maxFlowFileId = Math.max(maxFlowFileId, flowFile.getId());
+            minLastQueueDate = Math.min(minLastQueueDate, flowFile.getLastQueueDate());
+            totalLastQueueDate += flowFile.getLastQueueDate();
+
+            final ContentClaim contentClaim = flowFile.getContentClaim();
+            if (contentClaim != null) {
+                resourceClaimCounts.merge(contentClaim.getResourceClaim(), 1, Integer::sum);
+            }
+        }
+
+        // Swap Summary
+        dos.writeInt(toSwap.size());
+        dos.writeLong(contentSize);
+        dos.writeLong(maxFlowFileId);
+        dos.writeLong(toSwap.isEmpty() ? 0L : minLastQueueDate);
+        dos.writeLong(totalLastQueueDate);
+
+        dos.writeInt(resourceClaimCounts.size());
+        final Map<ResourceClaim, Integer> resourceClaimIndices = new HashMap<>();
+        for (final Map.Entry<ResourceClaim, Integer> entry : resourceClaimCounts.entrySet()) {
+            final ResourceClaim resourceClaim = entry.getKey();
+            dos.writeUTF(resourceClaim.getContainer());
+            dos.writeUTF(resourceClaim.getSection());
+            dos.writeUTF(resourceClaim.getId());
+            dos.writeBoolean(resourceClaim.isLossTolerant());
+            dos.writeInt(entry.getValue());
+
+            resourceClaimIndices.put(resourceClaim, resourceClaimIndices.size());
+        }
+        dos.flush();
+
+        // FlowFile columns. The destination belongs to the caller, so closing the compressed stream must not close it.
+        try (final OutputStream compressedOut = new ZstdOutputStream(new NonCloseableOutputStream(out), COMPRESSION_LEVEL);
+             final DataOutputStream columnOut = new DataOutputStream(new BufferedOutputStream(compressedOut))) {
+            writeColumns(toSwap, resourceClaimIndices, columnOut);
+        }
+
+        out.flush();
+    }
+
+    private void writeColumns(final List<FlowFileRecord> toSwap, final Map<ResourceClaim, Integer> resourceClaimIndices, final DataOutputStream columnOut) throws IOException {
+        writeLongColumn(toSwap, FlowFileRecord::getId, columnOut);
+        writeLongColumn(toSwap, FlowFileRecord::getEntryDate, columnOut);
+        writeLongColumn(toSwap, FlowFileRecord::getLineageStartDate, columnOut);
+        writeLongColumn(toSwap, FlowFileRecord::getLineageStartIndex, columnOut);
+        writeLongColumn(toSwap, FlowFileRecord::getLastQueueDate, columnOut);
+        writeLongColumn(toSwap, FlowFileRecord::getQueueDateIndex, columnOut);
+        writeLongColumn(toSwap, FlowFileRecord::getSize, columnOut);
+        writeLongColumn(toSwap, FlowFileRecord::getContentClaimOffset, columnOut);
+
+        for (final FlowFileRecord flowFile : toSwap) {
+            final ContentClaim contentClaim = flowFile.getContentClaim();
+            writeVarLong(contentClaim == null ? NO_CONTENT_CLAIM : resourceClaimIndices.get(contentClaim.getResourceClaim()), columnOut);
+        }
+        writeLongColumn(toSwap, flowFile -> flowFile.getContentClaim() == null ? 0L : flowFile.getContentClaim().getOffset(), columnOut);
+        writeLongColumn(toSwap, flowFile -> flowFile.getContentClaim() == null ? 0L : flowFile.getContentClaim().getLength(), columnOut);
+
+        writeAttributeColumns(toSwap, columnOut);
+    }
+
+    private void writeLongColumn(final List<FlowFileRecord> flowFiles, final ToLongFunction<FlowFileRecord> field, final DataOutputStream out) throws IOException {
+        long previous = 0L;
+        for (final FlowFileRecord flowFile : flowFiles) {
+            final long value = field.applyAsLong(flowFile);
+            writeVarLong(value - previous, out);
+            previous = value;
+        }
+    }
+
+    private void writeVarLong(final long value, final DataOutputStream out) throws IOException {
+        // Zig-zag encode so that small negative differences are also written in few bytes
+        long remaining = (value << 1) ^ (value >> 63);
+        while ((remaining & ~0x7FL) != 0) {
+            out.write((int) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+
+        out.write((int) remaining);
+    }
+
+    private void writeAttributeColumns(final List<FlowFileRecord> flowFiles, final DataOutputStream out) throws IOException {
+        // Obtain each FlowFile's attributes once so that keys and values are guaranteed to be written in the same order
+        final List<Map<String, String>> attributeMaps = new ArrayList<>(flowFiles.size());
+        for (final FlowFileRecord flowFile : flowFiles) {
+            final Map<String, String> attributes = flowFile.getAttributes();
+            attributeMaps.add(attributes);
+            writeVarLong(attributes.size(), out);
+        }
+
+        // Each distinct key is written in full only the first time that it is encountered
+        final Map<String, Integer> keyIndices = new HashMap<>();
+        for (final Map<String, String> attributes : attributeMaps) {
+            for (final String key : attributes.keySet()) {
+                final Integer index = keyIndices.get(key);
+                if (index == null) {
+                    writeVarLong(keyIndices.size(), out);
+                    writeString(key, out);
+                    keyIndices.put(key, keyIndices.size());
+                } else {
+                    writeVarLong(index, out);
+                }
+            }
+        }
+
+        for (final Map<String, String> attributes : attributeMaps) {
+            for (final String value : attributes.values()) {
+                writeString(value, out);
+            }
+        }
+    }
+
+    private void writeString(final String value, final DataOutputStream out) throws IOException {
+        if (value == null) {
+            writeVarLong(NULL_STRING_LENGTH, out);
+            return;
+        }
+
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length, out);
+        out.write(bytes);
+    }
+
+    @Override
+    public String getSerializationName() {
+        return SERIALIZATION_NAME;
+    }
+}
@@ -39,6 +39,7 @@ import org.apache.nifi.controller.repository.scheduling.ConnectableProcessContex
 import org.apache.nifi.controller.scheduling.LifecycleState;
 import org.apache.nifi.controller.scheduling.RepositoryContextFactory;
 import org.apache.nifi.controller.scheduling.SchedulingAgent;
+import org.apache.nifi.controller.status.FlowFileAvailability;
 import org.apache.nifi.logging.ComponentLog;
 import org.apache.nifi.logging.StandardLoggingContext;
 import org.apache.nifi.nar.NarCloseable;
@@ -157,6 +158,16 @@ public class ConnectableTask {
         return isSourceComponent || Connectables.flowFilesQueued(connectable);
     }
 
+    private boolean isIncomingQueueEmpty() {
+        for (final Connection connection : connectable.getIncomingConnections()) {
+            if (connection.getFlowFileQueue().getFlowFileAvailability() != FlowFileAvailability.ACTIVE_QUEUE_EMPTY) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     private boolean isBackPressureEngaged() {
         return connectable.getIncomingConnections().stream()
             .filter(con -> con.getSource() == connectable)
@@ -185,7 +196,9 @@ public class ConnectableTask {
         // Make sure processor has work to do.
         if (!isWorkToDo()) {
             logger.debug("Yielding {} because it has no work to do", connectable);
-            return InvocationResult.yield("No work to do");
+
+            // If nothing is queued, the component cannot have work to do until a FlowFile is queued for it
+            return isIncomingQueueEmpty() ? InvocationResult.waitForData("No work to do") : InvocationResult.yield("No work to do");
         }
 
         if (numRelationships > 0) {
@@ -22,6 +22,12 @@ public interface InvocationResult {
 
     String getYieldExplanation();
 
+    /**
+     * @return <code>true</code> if the component has no work to do until FlowFiles are added to one of its incoming connections
+     */
+    default boolean isWaitingForData() {
+        return false;
+    }
 
     public static InvocationResult DO_NOT_YIELD = new InvocationResult() {
         @Override
@@ -35,6 +41,25 @@ public interface InvocationResult {
         }
     };
 
+    public static InvocationResult waitForData(final String explanation) {
+        return new InvocationResult() {
+            @Override
+            public boolean isYield() {
+                return true;
+            }
+
+            @Override
+            public String getYieldExplanation() {
+                return explanation;
+            }
+
+            @Override
+            public boolean isWaitingForData() {
+                return true;
+            }
+        };
+    }
+
     public static InvocationResult yield(final String explanation) {
         return new InvocationResult() {
             @Override
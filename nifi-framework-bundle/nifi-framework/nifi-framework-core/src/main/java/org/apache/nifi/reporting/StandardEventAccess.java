@@ -58,8 +58,8 @@ public class StandardEventAccess extends AbstractEventAccess implements UserAwar
 
     public StandardEventAccess(final FlowManager flowManager, final FlowFileEventRepository flowFileEventRepository, final ProcessScheduler processScheduler,
                                final Authorizer authorizer, final ProvenanceRepository provenanceRepository, final AuditService auditService, final StatusAnalyticsEngine statusAnalyticsEngine,
-                               final FlowFileRepository flowFileRepository, final ContentRepository contentRepository) {
-        super(processScheduler, statusAnalyticsEngine, flowManager, flowFileEventRepository);
+                               final FlowFileRepository flowFileRepository, final ContentRepository contentRepository, final long controllerStatusMaxAgeMillis) {
+        super(processScheduler, statusAnalyticsEngine, flowManager, flowFileEventRepository, controllerStatusMaxAgeMillis);
         this.flowFileEventRepository = flowFileEventRepository;
         this.flowManager = flowManager;
         this.authorizer = authorizer;
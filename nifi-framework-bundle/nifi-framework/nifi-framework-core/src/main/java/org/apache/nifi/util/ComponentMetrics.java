@@ -79,19 +79,19 @@ public class ComponentMetrics {
         final Map<String, Long> counters = status.getCounters();
         if (counters != null) {
             for (final Map.Entry<String, Long> entry : counters.entrySet()) {
-                final String counterName = entry.getKey();
-
-                final String label = entry.getKey() + " (5 mins)";
-                final MetricDescriptor<ProcessorStatus> metricDescriptor = new CounterMetricDescriptor<>(entry.getKey(), label, label, MetricDescriptor.Formatter.COUNT,
-                        s -> s.getCounters() == null ? null : s.getCounters().get(counterName));
-
-                snapshot.addStatusMetric(metricDescriptor, entry.getValue());
+                snapshot.addStatusMetric(createCounterDescriptor(entry.getKey()), entry.getValue());
             }
         }
 
         return snapshot;
     }
 
+    public static MetricDescriptor<ProcessorStatus> createCounterDescriptor(final String counterName) {
+        final String label = counterName + " (5 mins)";
+        return new CounterMetricDescriptor<>(counterName, label, label, MetricDescriptor.Formatter.COUNT,
+                s -> s.getCounters() == null ? null : s.getCounters().get(counterName));
+    }
+
     public static boolean isEmpty(final ProcessorStatus status) {
         for (final ProcessorStatusDescriptor descriptor : ProcessorStatusDescriptor.values()) {
             if (descriptor.isVisible()) {
@@ -147,7 +147,7 @@ public class ComponentMetrics {
         return snapshot;
     }
 
-    private static boolean isEmpty(final ProcessGroupStatus status) {
+    public static boolean isEmpty(final ProcessGroupStatus status) {
         for (final ProcessGroupStatusDescriptor descriptor : ProcessGroupStatusDescriptor.values()) {
             final Long value = descriptor.getDescriptor().getValueFunction().getValue(status);
             if (value != null && value > 0) {
@@ -173,7 +173,7 @@ public class ComponentMetrics {
         return snapshot;
     }
 
-    private static boolean isEmpty(final RemoteProcessGroupStatus status) {
+    public static boolean isEmpty(final RemoteProcessGroupStatus status) {
         for (final RemoteProcessGroupStatusDescriptor descriptor : RemoteProcessGroupStatusDescriptor.values()) {
             final Long value = descriptor.getDescriptor().getValueFunction().getValue(status);
             if (value != null && value > 0) {
@@ -17,6 +17,7 @@
 package org.apache.nifi.cluster;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -67,5 +68,19 @@ public class HeartbeatPayloadTest {
 
         assertEquals(activeThreadCount, newPayload.getActiveThreadCount());
         assertEquals(totalFlowFileCount, newPayload.getTotalFlowFileCount());
+        assertNull(newPayload.getComponentActiveThreadCount());
+        assertNull(newPayload.getTerminatedThreadCount());
+    }
+
+    @Test
+    public void testMarshallingControllerStatus() {
+        payload.setComponentActiveThreadCount(activeThreadCount);
+        payload.setTerminatedThreadCount(0);
+
+        HeartbeatPayload.marshal(payload, marshalledBytes);
+        HeartbeatPayload newPayload = HeartbeatPayload.unmarshal(new ByteArrayInputStream(marshalledBytes.toByteArray()));
+
+        assertEquals(activeThreadCount, newPayload.getComponentActiveThreadCount());
+        assertEquals(0, newPayload.getTerminatedThreadCount());
     }
 }
@@ -31,18 +31,24 @@ import org.apache.nifi.controller.swap.StandardSwapSummary;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 public class MockSwapManager implements FlowFileSwapManager {
-    public final Map<String, List<FlowFileRecord>> swappedOut = new HashMap<>();
+    public final Map<String, List<FlowFileRecord>> swappedOut = new ConcurrentHashMap<>();
     public int swapOutCalledCount = 0;
     public int swapInCalledCount = 0;
+    public final AtomicInteger peekCalledCount = new AtomicInteger(0);
+    public final AtomicInteger peekCompletedCount = new AtomicInteger(0);
+    public volatile CountDownLatch peekLatch = null;
+    public int peekedSwapInCalledCount = 0;
 
     public int incompleteSwapFileRecordsToInclude = -1;
 
@@ -118,8 +124,21 @@ public class MockSwapManager implements FlowFileSwapManager {
 
     @Override
     public SwapContents peek(String swapLocation, final FlowFileQueue flowFileQueue) throws IOException {
+        peekCalledCount.incrementAndGet();
+        final CountDownLatch latch = peekLatch;
+        if (latch != null) {
+            try {
+                latch.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting to read " + swapLocation, e);
+            }
+        }
+
         throwIncompleteIfNecessary(swapLocation, false);
-        return new StandardSwapContents(getSwapSummary(swapLocation), swappedOut.get(swapLocation));
+        final SwapContents contents = new StandardSwapContents(getSwapSummary(swapLocation), swappedOut.get(swapLocation));
+        peekCompletedCount.incrementAndGet();
+        return contents;
     }
 
     @Override
@@ -129,6 +148,15 @@ public class MockSwapManager implements FlowFileSwapManager {
         return new StandardSwapContents(getSwapSummary(swapLocation), swappedOut.remove(swapLocation));
     }
 
+    @Override
+    public SwapContents swapIn(final String swapLocation, final FlowFileQueue flowFileQueue, final SwapContents peekedContents) throws IOException {
+        swapInCalledCount++;
+        peekedSwapInCalledCount++;
+        throwIncompleteIfNecessary(swapLocation, true);
+        swappedOut.remove(swapLocation);
+        return peekedContents;
+    }
+
     @Override
     public List<String> recoverSwapLocations(FlowFileQueue flowFileQueue, final String partitionName) throws IOException {
         return swappedOut.keySet().stream()
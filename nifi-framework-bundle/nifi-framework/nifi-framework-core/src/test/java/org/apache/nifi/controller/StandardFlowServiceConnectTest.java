@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller;
+
+import org.apache.nifi.authorization.Authorizer;
+import org.apache.nifi.cluster.coordination.ClusterCoordinator;
+import org.apache.nifi.cluster.protocol.ConnectionRequest;
+import org.apache.nifi.cluster.protocol.ConnectionResponse;
+import org.apache.nifi.cluster.protocol.DataFlow;
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.cluster.protocol.StandardDataFlow;
+import org.apache.nifi.cluster.protocol.impl.NodeProtocolSenderListener;
+import org.apache.nifi.cluster.protocol.message.ConnectionRequestMessage;
+import org.apache.nifi.cluster.protocol.message.ConnectionResponseMessage;
+import org.apache.nifi.components.state.Scope;
+import org.apache.nifi.components.state.StateManager;
+import org.apache.nifi.components.state.StateManagerProvider;
+import org.apache.nifi.components.state.StateMap;
+import org.apache.nifi.controller.leader.election.LeaderElectionManager;
+import org.apache.nifi.controller.serialization.FlowHashCalculator;
+import org.apache.nifi.nar.ExtensionManager;
+import org.apache.nifi.util.NiFiProperties;
+import org.apache.nifi.web.revision.RevisionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StandardFlowServiceConnectTest {
+
+    private static final byte[] LOCAL_FLOW = "{\"rootGroup\":{\"name\":\"local\"}}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CLUSTER_FLOW = "{\"rootGroup\":{\"name\":\"cluster\"}}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CLUSTER_SNIPPETS = "cluster-snippets".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CLUSTER_AUTHORIZER_FINGERPRINT = "cluster-fingerprint".getBytes(StandardCharsets.UTF_8);
+    private static final NodeIdentifier NODE_ID = new NodeIdentifier("node-1", "localhost", 8080, "localhost", 8082, "localhost", 6342, 8083, false);
+    private static final NodeIdentifier COORDINATOR_ID = new NodeIdentifier("node-2", "localhost", 9080, "localhost", 9082, "localhost", 7342, 9083, false);
+
+    @TempDir
+    private Path tempDir;
+
+    private NodeProtocolSenderListener senderListener;
+    private ClusterCoordinator clusterCoordinator;
+    private StandardFlowService flowService;
+    private DataFlow localDataFlow;
+    private final List<ConnectionRequest> sentRequests = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() throws Exception {
+        final NiFiProperties properties = NiFiProperties.createBasicNiFiProperties(null, Map.of(
+            NiFiProperties.FLOW_CONFIGURATION_FILE, tempDir.resolve("flow.json.gz").toString(),
+            NiFiProperties.FLOW_CONTROLLER_GRACEFUL_SHUTDOWN_PERIOD, "10 secs",
+            NiFiProperties.WEB_HTTP_PORT, "8080",
+            NiFiProperties.CLUSTER_IS_NODE, "true",
+            NiFiProperties.CLUSTER_NODE_PROTOCOL_PORT, "8082"));
+
+        final StateMap stateMap = mock(StateMap.class);
+        when(stateMap.get(anyString())).thenReturn(NODE_ID.getId());
+        final StateManager stateManager = mock(StateManager.class);
+        when(stateManager.getState(Scope.LOCAL)).thenReturn(stateMap);
+        final StateManagerProvider stateManagerProvider = mock(StateManagerProvider.class);
+        when(stateManagerProvider.getStateManager(anyString())).thenReturn(stateManager);
+
+        final FlowController controller = mock(FlowController.class);
+        when(controller.getExtensionManager()).thenReturn(mock(ExtensionManager.class));
+        when(controller.getStateManagerProvider()).thenReturn(stateManagerProvider);
+        when(controller.getLeaderElectionManager()).thenReturn(mock(LeaderElectionManager.class));
+
+        senderListener = mock(NodeProtocolSenderListener.class);
+        clusterCoordinator = mock(ClusterCoordinator.class);
+        when(clusterCoordinator.getElectedActiveCoordinatorNode()).thenReturn(COORDINATOR_ID);
+        flowService = StandardFlowService.createClusteredInstance(controller, properties, senderListener, clusterCoordinator,
+            mock(RevisionManager.class), mock(Authorizer.class));
+
+        localDataFlow = new StandardDataFlow(LOCAL_FLOW, new byte[0], new byte[0], Collections.emptySet());
+    }
+
+    @Test
+    public void testConnectSendsFullFlowWithHashToUnknownCoordinator() throws Exception {
+        final DataFlow responseDataFlow = new StandardDataFlow(new byte[0], CLUSTER_SNIPPETS, CLUSTER_AUTHORIZER_FINGERPRINT, Collections.emptySet());
+        respondWith(createSuccessResponse(responseDataFlow, true));
+
+        final ConnectionResponse response = flowService.connect(false, false, localDataFlow);
+
+        assertEquals(1, sentRequests.size());
+        final ConnectionRequest request = sentRequests.getFirst();
+        assertEquals(new FlowHashCalculator(null).calculateHash(LOCAL_FLOW), request.getFlowHash());
+        assertArrayEquals(LOCAL_FLOW, request.getDataFlow().getFlow());
+        assertFalse(request.isFlowOmitted());
+
+        assertNotNull(response);
+        assertFalse(response.isFlowUnchanged());
+        assertArrayEquals(LOCAL_FLOW, response.getDataFlow().getFlow());
+        assertArrayEquals(CLUSTER_SNIPPETS, response.getDataFlow().getSnippets());
+        assertArrayEquals(CLUSTER_AUTHORIZER_FINGERPRINT, response.getDataFlow().getAuthorizerFingerprint());
+    }
+
+    @Test
+    public void testConnectSendsOnlyFlowHashToCoordinatorThatUnderstandsHash() throws Exception {
+        final DataFlow responseDataFlow = new StandardDataFlow(new byte[0], CLUSTER_SNIPPETS, CLUSTER_AUTHORIZER_FINGERPRINT, Collections.emptySet());
+        respondWith(createSuccessResponse(responseDataFlow, true), createSuccessResponse(responseDataFlow, true));
+
+        flowService.connect(false, false, localDataFlow);
+        final ConnectionResponse response = flowService.connect(false, false, localDataFlow);
+
+        assertEquals(2, sentRequests.size());
+        final ConnectionRequest request = sentRequests.get(1);
+        assertEquals(new FlowHashCalculator(null).calculateHash(LOCAL_FLOW), request.getFlowHash());
+        assertEquals(0, request.getDataFlow().getFlow().length);
+        assertTrue(request.isFlowOmitted());
+
+        assertNotNull(response);
+        assertArrayEquals(LOCAL_FLOW, response.getDataFlow().getFlow());
+    }
+
+    @Test
+    public void testConnectSendsFullFlowWhenCoordinatorChanges() throws Exception {
+        final DataFlow responseDataFlow = new StandardDataFlow(new byte[0], CLUSTER_SNIPPETS, CLUSTER_AUTHORIZER_FINGERPRINT, Collections.emptySet());
+        final DataFlow clusterDataFlow = new StandardDataFlow(CLUSTER_FLOW, CLUSTER_SNIPPETS, CLUSTER_AUTHORIZER_FINGERPRINT, Collections.emptySet());
+        respondWith(createSuccessResponse(responseDataFlow, true), createSuccessResponse(clusterDataFlow, false));
+
+        flowService.connect(false, false, localDataFlow);
+
+        final NodeIdentifier newCoordinatorId = new NodeIdentifier("node-3", "localhost", 10080, "localhost", 10082, "localhost", 8342, 10083, false);
+        when(clusterCoordinator.getElectedActiveCoordinatorNode()).thenReturn(newCoordinatorId);
+        final ConnectionResponse response = flowService.connect(false, false, localDataFlow);
+
+        assertEquals(2, sentRequests.size());
+        assertArrayEquals(LOCAL_FLOW, sentRequests.get(1).getDataFlow().getFlow());
+        assertNotNull(response);
+        assertArrayEquals(CLUSTER_FLOW, response.getDataFlow().getFlow());
+    }
+
+    @Test
+    public void testConnectUsesClusterFlowWhenChanged() throws Exception {
+        final DataFlow clusterDataFlow = new StandardDataFlow(CLUSTER_FLOW, CLUSTER_SNIPPETS, CLUSTER_AUTHORIZER_FINGERPRINT, Collections.emptySet());
+        respondWith(createSuccessResponse(clusterDataFlow, false));
+
+        final ConnectionResponse response = flowService.connect(false, false, localDataFlow);
+
+        assertEquals(1, sentRequests.size());
+        assertNotNull(sentRequests.getFirst().getFlowHash());
+        assertNotNull(response);
+        assertArrayEquals(CLUSTER_FLOW, response.getDataFlow().getFlow());
+    }
+
+    @Test
+    public void testConnectResendsFullFlowWhenFlowRequired() throws Exception {
+        final DataFlow responseDataFlow = new StandardDataFlow(new byte[0], CLUSTER_SNIPPETS, CLUSTER_AUTHORIZER_FINGERPRINT, Collections.emptySet());
+        final ConnectionResponseMessage flowRequired = new ConnectionResponseMessage();
+        flowRequired.setConnectionResponse(ConnectionResponse.createFlowRequiredResponse("Cluster is voting on which Flow is the correct flow for the cluster"));
+        final DataFlow clusterDataFlow = new StandardDataFlow(LOCAL_FLOW, CLUSTER_SNIPPETS, CLUSTER_AUTHORIZER_FINGERPRINT, Collections.emptySet());
+        respondWith(createSuccessResponse(responseDataFlow, true), flowRequired, createSuccessResponse(clusterDataFlow, false));
+
+        flowService.connect(false, false, localDataFlow);
+        final ConnectionResponse response = flowService.connect(false, false, localDataFlow);
+
+        assertEquals(3, sentRequests.size());
+        assertTrue(sentRequests.get(1).isFlowOmitted());
+
+        // The node votes with its full flow
+        assertNull(sentRequests.get(2).getFlowHash());
+        assertArrayEquals(LOCAL_FLOW, sentRequests.get(2).getDataFlow().getFlow());
+
+        assertNotNull(response);
+        assertArrayEquals(LOCAL_FLOW, response.getDataFlow().getFlow());
+    }
+
+    private void respondWith(final ConnectionResponseMessage... responses) throws Exception {
+        // The same message is resent with a different request, so record the request at the time that each message is sent
+        final Iterator<ConnectionResponseMessage> responseIterator = List.of(responses).iterator();
+        when(senderListener.requestConnection(any(ConnectionRequestMessage.class), anyBoolean())).thenAnswer(invocation -> {
+            final ConnectionRequestMessage requestMessage = invocation.getArgument(0);
+            sentRequests.add(requestMessage.getConnectionRequest());
+            return responseIterator.next();
+        });
+    }
+
+    private static ConnectionResponseMessage createSuccessResponse(final DataFlow dataFlow, final boolean flowUnchanged) {
+        final ConnectionResponseMessage message = new ConnectionResponseMessage();
+        message.setConnectionResponse(new ConnectionResponse(NODE_ID, dataFlow, "instance-1", Collections.emptyList(), null, flowUnchanged));
+        return message;
+    }
+}
@@ -48,6 +48,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -129,6 +130,35 @@ public class TestStandardFlowFileQueue {
         assertEquals(0L, unackSize.getByteCount());
     }
 
+    @Test
+    public void testNotifyWhenDataAvailable() {
+        final AtomicInteger notifications = new AtomicInteger(0);
+        final Runnable callback = notifications::incrementAndGet;
+
+        // Registering the same callback twice results in a single notification
+        queue.notifyWhenDataAvailable(callback);
+        queue.notifyWhenDataAvailable(callback);
+        assertEquals(0, notifications.get());
+
+        queue.put(new MockFlowFileRecord());
+        assertEquals(1, notifications.get());
+
+        // The callback is unregistered once it has been run
+        queue.put(new MockFlowFileRecord());
+        assertEquals(1, notifications.get());
+
+        // The callback is run immediately if FlowFiles are already queued
+        queue.notifyWhenDataAvailable(callback);
+        assertEquals(2, notifications.get());
+
+        queue.poll(new HashSet<>());
+        queue.poll(new HashSet<>());
+        queue.notifyWhenDataAvailable(callback);
+        queue.removeDataAvailableCallback(callback);
+        queue.putAll(List.of(new MockFlowFileRecord(), new MockFlowFileRecord()));
+        assertEquals(2, notifications.get());
+    }
+
     @Test
     public void testBackPressure() {
         queue.setBackPressureObjectThreshold(10);
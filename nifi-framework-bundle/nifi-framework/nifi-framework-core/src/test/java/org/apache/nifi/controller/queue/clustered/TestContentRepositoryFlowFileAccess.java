@@ -26,6 +26,7 @@ import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
 import org.apache.nifi.controller.repository.claim.StandardContentClaim;
 import org.apache.nifi.controller.repository.claim.StandardResourceClaim;
 import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.controller.repository.io.ByteBufferInputStream;
 import org.apache.nifi.stream.io.StreamUtils;
 import org.junit.jupiter.api.Test;
 
@@ -33,9 +34,11 @@ import java.io.ByteArrayInputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.mock;
@@ -71,6 +74,35 @@ public class TestContentRepositoryFlowFileAccess {
         assertArrayEquals("hello".getBytes(), buffer);
     }
 
+    @Test
+    public void testMappedContentProvidedAsSlice() throws IOException {
+        final ContentRepository contentRepo = mock(ContentRepository.class);
+
+        final ResourceClaimManager claimManager = new StandardResourceClaimManager();
+        final ResourceClaim resourceClaim = new StandardResourceClaim(claimManager, "container", "section", "id", false);
+        final ContentClaim contentClaim = new StandardContentClaim(resourceClaim, 0L);
+
+        final FlowFileRecord flowFile = mock(FlowFileRecord.class);
+        when(flowFile.getContentClaim()).thenReturn(contentClaim);
+        when(flowFile.getContentClaimOffset()).thenReturn(6L);
+        when(flowFile.getSize()).thenReturn(5L);
+
+        final ByteBuffer mapped = ByteBuffer.allocateDirect(16);
+        mapped.put("hello world, bye".getBytes());
+        mapped.flip();
+        when(contentRepo.read(contentClaim)).thenReturn(new ByteBufferInputStream(mapped));
+
+        final ContentRepositoryFlowFileAccess flowAccess = new ContentRepositoryFlowFileAccess(contentRepo);
+
+        final InputStream repoStream = flowAccess.read(flowFile);
+        assertInstanceOf(ByteBufferInputStream.class, repoStream);
+
+        final ByteBuffer slice = ((ByteBufferInputStream) repoStream).readSlice(1024);
+        final byte[] buffer = new byte[slice.remaining()];
+        slice.get(buffer);
+        assertArrayEquals("world".getBytes(), buffer);
+        assertEquals(-1, repoStream.read());
+    }
 
     @Test
     public void testContentNotFoundPropagated() throws IOException {
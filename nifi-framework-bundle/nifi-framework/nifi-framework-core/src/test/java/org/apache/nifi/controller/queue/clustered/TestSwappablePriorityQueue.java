@@ -22,6 +22,7 @@ import org.apache.nifi.controller.MockSwapManager;
 import org.apache.nifi.controller.queue.DropFlowFileAction;
 import org.apache.nifi.controller.queue.DropFlowFileRequest;
 import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.queue.FlowFileQueueContents;
 import org.apache.nifi.controller.queue.PollStrategy;
 import org.apache.nifi.controller.queue.QueueSize;
 import org.apache.nifi.controller.queue.SwappablePriorityQueue;
@@ -36,12 +37,18 @@ import org.junit.jupiter.api.Timeout;
 import org.mockito.Mockito;
 
 import java.io.IOException;
+import java.util.AbstractCollection;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -522,6 +529,87 @@ public class TestSwappablePriorityQueue {
         queue.poll(exp, 500000);
     }
 
+    @Test
+    public void testSwapInUsesPrefetchedSwapFile() throws InterruptedException {
+        for (int i = 1; i <= 20000; i++) {
+            queue.put(new MockFlowFileRecord());
+        }
+
+        assertEquals(1, swapManager.swappedOut.size());
+
+        final Set<FlowFileRecord> exp = new HashSet<>();
+        for (int i = 0; i < 10000; i++) {
+            assertNotNull(queue.poll(exp, 500000));
+        }
+
+        // Polling from the active queue begins reading the swap file in the background, before the active queue is exhausted
+        assertEquals(0, swapManager.swapInCalledCount);
+        waitForPrefetchToComplete();
+
+        assertNotNull(queue.poll(exp, 500000));
+        assertEquals(1, swapManager.swapInCalledCount);
+        assertEquals(1, swapManager.peekedSwapInCalledCount);
+        assertEquals(1, swapManager.peekCalledCount.get());
+        assertEquals(9999, queue.getQueueDiagnostics().getActiveQueueSize().getObjectCount());
+        assertTrue(swapManager.swappedOut.isEmpty());
+    }
+
+    @Test
+    public void testSwapFileNotPrefetchedWhileActiveQueueIsFull() throws InterruptedException {
+        for (int i = 1; i <= 20000; i++) {
+            queue.put(new MockFlowFileRecord());
+        }
+
+        // The swap file is not read until the active queue has drained below half of the swap threshold
+        final Set<FlowFileRecord> exp = new HashSet<>();
+        for (int i = 0; i < 5001; i++) {
+            assertNotNull(queue.poll(exp, 500000));
+        }
+        Thread.sleep(100L);
+        assertEquals(0, swapManager.peekCalledCount.get());
+
+        assertNotNull(queue.poll(exp, 500000));
+        waitForPrefetchToComplete();
+        assertEquals(1, swapManager.peekCalledCount.get());
+    }
+
+    @Test
+    @Timeout(10)
+    public void testSwapInDoesNotWaitForPrefetch() throws InterruptedException {
+        swapManager.peekLatch = new CountDownLatch(1);
+        for (int i = 1; i <= 20000; i++) {
+            queue.put(new MockFlowFileRecord());
+        }
+
+        final Set<FlowFileRecord> exp = new HashSet<>();
+        for (int i = 0; i < 10000; i++) {
+            assertNotNull(queue.poll(exp, 500000));
+        }
+
+        while (swapManager.peekCalledCount.get() == 0) {
+            Thread.sleep(10L);
+        }
+
+        // The prefetch is blocked, so the swap file is read while swapping in rather than waiting for the prefetch while holding the lock
+        try {
+            assertNotNull(queue.poll(exp, 500000));
+            assertEquals(1, swapManager.swapInCalledCount);
+            assertEquals(0, swapManager.peekedSwapInCalledCount);
+            assertEquals(9999, queue.getQueueDiagnostics().getActiveQueueSize().getObjectCount());
+        } finally {
+            swapManager.peekLatch.countDown();
+        }
+    }
+
+    private void waitForPrefetchToComplete() throws InterruptedException {
+        while (swapManager.peekCompletedCount.get() == 0) {
+            Thread.sleep(10L);
+        }
+
+        // Allow the prefetch task to publish the contents that it read
+        Thread.sleep(50L);
+    }
+
     @Test
     public void testSwapInWhenThresholdIsLessThanSwapSize() {
         // create a queue where the swap threshold is less than 10k
@@ -769,4 +857,217 @@ public class TestSwappablePriorityQueue {
         assertEquals(totalNow - totalQueueDate, queue.getTotalQueuedDuration(now));
         assertEquals(minQueueDate, queue.getMinLastQueueDate());
     }
+
+    @Test
+    public void testConcurrentFifoOrderingAndSize() {
+        queue = new SwappablePriorityQueue(swapManager, 10000, eventReporter, flowFileQueue, dropAction, "local", true);
+
+        for (int i = 0; i < 100; i++) {
+            queue.put(new MockFlowFileRecord(Map.of("i", String.valueOf(i)), 10L));
+        }
+
+        assertEquals(100, queue.size().getObjectCount());
+        assertEquals(1000L, queue.size().getByteCount());
+        assertEquals(100, queue.getActiveFlowFiles().size());
+        assertFalse(queue.isEmpty());
+
+        final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        final List<FlowFileRecord> polled = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            final FlowFileRecord flowFile = queue.poll(expiredRecords, 0L);
+            assertEquals(String.valueOf(i), flowFile.getAttribute("i"));
+            polled.add(flowFile);
+        }
+
+        final List<FlowFileRecord> batch = queue.poll(100, expiredRecords, 0L);
+        assertEquals(50, batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            assertEquals(String.valueOf(i + 50), batch.get(i).getAttribute("i"));
+        }
+        polled.addAll(batch);
+
+        assertTrue(expiredRecords.isEmpty());
+        assertEquals(0, queue.getQueueDiagnostics().getActiveQueueSize().getObjectCount());
+        assertEquals(100, queue.getFlowFileQueueSize().getUnacknowledgedCount());
+
+        queue.acknowledge(polled);
+        assertTrue(queue.isEmpty());
+        assertEquals(0L, queue.size().getByteCount());
+    }
+
+    @Test
+    public void testConcurrentFifoSkipsPenalizedFlowFiles() {
+        queue = new SwappablePriorityQueue(swapManager, 10000, eventReporter, flowFileQueue, dropAction, "local", true);
+
+        final MockFlowFileRecord penalized = new MockFlowFileRecord(Map.of("i", "0"), 0L);
+        penalized.setPenaltyExpiration(System.currentTimeMillis() + 60_000L);
+        queue.put(penalized);
+        queue.put(new MockFlowFileRecord(Map.of("i", "1"), 0L));
+
+        final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        final FlowFileRecord polled = queue.poll(expiredRecords, 0L);
+        assertEquals("1", polled.getAttribute("i"));
+        assertNull(queue.poll(expiredRecords, 0L));
+        assertEquals(1, queue.getQueueDiagnostics().getActiveQueueSize().getObjectCount());
+
+        penalized.setPenaltyExpiration(0L);
+        assertSame(penalized, queue.poll(expiredRecords, 0L));
+        assertEquals(0, queue.getQueueDiagnostics().getActiveQueueSize().getObjectCount());
+    }
+
+    @Test
+    public void testConcurrentFifoExpiresFlowFiles() throws InterruptedException {
+        queue = new SwappablePriorityQueue(swapManager, 10000, eventReporter, flowFileQueue, dropAction, "local", true);
+
+        for (int i = 0; i < 10; i++) {
+            queue.put(new MockFlowFileRecord(Map.of("i", String.valueOf(i)), 10L));
+        }
+
+        Thread.sleep(10L);
+
+        final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        assertNull(queue.poll(expiredRecords, 1L));
+        assertEquals(10, expiredRecords.size());
+        assertTrue(queue.isEmpty());
+        assertEquals(0L, queue.size().getByteCount());
+    }
+
+    @Test
+    public void testConcurrentFifoWithSwapping() {
+        queue = new SwappablePriorityQueue(swapManager, 1000, eventReporter, flowFileQueue, dropAction, "local", true);
+
+        final int flowFileCount = 12000;
+        for (int i = 0; i < flowFileCount; i++) {
+            queue.put(new MockFlowFileRecord(Map.of("i", String.valueOf(i)), 1L));
+        }
+
+        assertEquals(flowFileCount, queue.size().getObjectCount());
+        assertEquals(1, swapManager.swapOutCalledCount);
+
+        final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        int polledCount = 0;
+        FlowFileRecord flowFile;
+        while ((flowFile = queue.poll(expiredRecords, 0L)) != null) {
+            queue.acknowledge(flowFile);
+            polledCount++;
+        }
+
+        assertEquals(flowFileCount, polledCount);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testConcurrentFifoHonorsPrioritizersOnceSet() {
+        queue = new SwappablePriorityQueue(swapManager, 10000, eventReporter, flowFileQueue, dropAction, "local", true);
+
+        for (int i = 0; i < 10; i++) {
+            queue.put(new MockFlowFileRecord(Map.of("i", String.valueOf(i)), 0L));
+        }
+
+        final FlowFilePrioritizer descendingPrioritizer = (o1, o2) -> Integer.compare(Integer.parseInt(o2.getAttribute("i")), Integer.parseInt(o1.getAttribute("i")));
+        queue.setPriorities(Collections.singletonList(descendingPrioritizer));
+
+        final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        for (int i = 9; i >= 0; i--) {
+            assertEquals(String.valueOf(i), queue.poll(expiredRecords, 0L).getAttribute("i"));
+        }
+    }
+
+    @Test
+    @Timeout(30)
+    public void testConcurrentFifoMultipleThreads() throws InterruptedException {
+        queue = new SwappablePriorityQueue(swapManager, 10000, eventReporter, flowFileQueue, dropAction, "local", true);
+
+        final int threadCount = 4;
+        final int flowFilesPerThread = 25_000;
+        final List<Thread> threads = new ArrayList<>();
+        final AtomicInteger polledCount = new AtomicInteger();
+
+        for (int t = 0; t < threadCount; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < flowFilesPerThread; i++) {
+                    queue.put(new MockFlowFileRecord(1L));
+                }
+            }));
+
+            threads.add(new Thread(() -> {
+                final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+                while (polledCount.get() < threadCount * flowFilesPerThread) {
+                    final FlowFileRecord flowFile = queue.poll(expiredRecords, 0L);
+                    if (flowFile != null) {
+                        queue.acknowledge(flowFile);
+                        polledCount.incrementAndGet();
+                    }
+                }
+            }));
+        }
+
+        threads.forEach(Thread::start);
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(threadCount * flowFilesPerThread, polledCount.get());
+        assertTrue(queue.isEmpty());
+        assertEquals(0L, queue.size().getByteCount());
+    }
+
+    @Test
+    @Timeout(30)
+    public void testConcurrentFifoPutDuringRebalance() throws InterruptedException {
+        queue = new SwappablePriorityQueue(swapManager, 10000, eventReporter, flowFileQueue, dropAction, "local", true);
+        queue.put(new MockFlowFileRecord(1L));
+
+        // The collection blocks on its second iteration, which is when the FlowFiles are added to the queue after the queue size is updated.
+        final CountDownLatch putInProgress = new CountDownLatch(1);
+        final CountDownLatch releasePut = new CountDownLatch(1);
+        final List<FlowFileRecord> flowFiles = List.of(new MockFlowFileRecord(1L), new MockFlowFileRecord(1L));
+        final Collection<FlowFileRecord> blockingFlowFiles = new AbstractCollection<>() {
+            private final AtomicInteger iterations = new AtomicInteger();
+
+            @Override
+            public Iterator<FlowFileRecord> iterator() {
+                if (iterations.incrementAndGet() == 2) {
+                    putInProgress.countDown();
+                    try {
+                        releasePut.await();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return flowFiles.iterator();
+            }
+
+            @Override
+            public int size() {
+                return flowFiles.size();
+            }
+        };
+
+        final Thread putThread = new Thread(() -> queue.putAll(blockingFlowFiles));
+        putThread.start();
+        assertTrue(putInProgress.await(10, TimeUnit.SECONDS));
+
+        final List<FlowFileQueueContents> packaged = new ArrayList<>();
+        final Thread rebalanceThread = new Thread(() -> packaged.add(queue.packageForRebalance("other")));
+        rebalanceThread.start();
+
+        Thread.sleep(100L);
+        releasePut.countDown();
+        putThread.join();
+        rebalanceThread.join();
+
+        // The rebalance must either include the FlowFiles that were being put or leave them, and their size, in the queue.
+        final int packagedCount = packaged.get(0).getActiveFlowFiles().size();
+        assertEquals(3 - packagedCount, queue.size().getObjectCount());
+        assertEquals(3L - packagedCount, queue.size().getByteCount());
+        assertEquals(3 - packagedCount, queue.getActiveFlowFiles().size());
+
+        final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        final List<FlowFileRecord> polled = queue.poll(10, expiredRecords, 0L);
+        assertEquals(3 - packagedCount, polled.size());
+        queue.acknowledge(polled);
+        assertTrue(queue.isEmpty());
+        assertEquals(0L, queue.size().getByteCount());
+    }
 }
@@ -23,8 +23,10 @@ import org.apache.nifi.controller.queue.clustered.FlowFileContentAccess;
 import org.apache.nifi.controller.queue.clustered.SimpleLimitThreshold;
 import org.apache.nifi.controller.queue.clustered.client.StandardLoadBalanceFlowFileCodec;
 import org.apache.nifi.controller.queue.clustered.client.async.TransactionFailureCallback;
+import org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceCompressionCodec;
 import org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants;
 import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.io.ByteBufferInputStream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -38,6 +40,7 @@ import java.io.InputStream;
 import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -137,18 +140,21 @@ public class TestLoadBalanceSession {
 
         final Checksum expectedChecksum = new CRC32();
         final ByteArrayOutputStream expectedOut = new ByteArrayOutputStream();
-        expectedOut.write(1); // Protocol Version
+        expectedOut.write(2); // Protocol Version
 
         final DataOutputStream expectedDos = new DataOutputStream(new CheckedOutputStream(expectedOut, expectedChecksum));
         expectedDos.writeUTF("unit-test-connection");
+        expectedDos.write(LoadBalanceCompressionCodec.GZIP.getId());
 
         expectedDos.write(LoadBalanceProtocolConstants.CHECK_SPACE);
         expectedDos.write(LoadBalanceProtocolConstants.MORE_FLOWFILES);
-        expectedDos.writeInt(76); // metadata length
+        expectedDos.writeInt(36 + flowFile1.getAttribute("uuid").length()); // metadata length
         expectedDos.writeInt(1); // 1 attribute
-        expectedDos.writeInt(4); // length of attribute
+        expectedDos.write(0); // attribute key not yet in dictionary
+        expectedDos.write(4); // length of attribute key
         expectedDos.write("uuid".getBytes());
-        expectedDos.writeInt(flowFile1.getAttribute("uuid").length());
+        expectedDos.write(0); // uuid value is never added to dictionary
+        expectedDos.write(flowFile1.getAttribute("uuid").length());
         expectedDos.write(flowFile1.getAttribute("uuid").getBytes());
         expectedDos.writeLong(flowFile1.getLineageStartDate()); // lineage start date
         expectedDos.writeLong(flowFile1.getEntryDate()); // entry date
@@ -159,11 +165,11 @@ public class TestLoadBalanceSession {
         expectedDos.write(LoadBalanceProtocolConstants.NO_DATA_FRAME);
 
         expectedDos.write(LoadBalanceProtocolConstants.MORE_FLOWFILES);
-        expectedDos.writeInt(76); // metadata length
+        expectedDos.writeInt(31 + flowFile2.getAttribute("uuid").length()); // metadata length
         expectedDos.writeInt(1); // 1 attribute
-        expectedDos.writeInt(4); // length of attribute
-        expectedDos.write("uuid".getBytes());
-        expectedDos.writeInt(flowFile2.getAttribute("uuid").length());
+        expectedDos.write(1); // attribute key is entry 0 in dictionary
+        expectedDos.write(0); // uuid value is never added to dictionary
+        expectedDos.write(flowFile2.getAttribute("uuid").length());
         expectedDos.write(flowFile2.getAttribute("uuid").getBytes());
         expectedDos.writeLong(flowFile2.getLineageStartDate()); // lineage start date
         expectedDos.writeLong(flowFile2.getEntryDate()); // entry date
@@ -198,12 +204,31 @@ public class TestLoadBalanceSession {
             content[i] = 'A';
         }
 
+        verifyLargeContentSent(content, new ByteArrayInputStream(content));
+    }
+
+    @Test
+    @Timeout(10)
+    public void testLargeMappedContent() throws InterruptedException, IOException {
+        final byte[] content = new byte[66000];
+        for (int i = 0; i < 66000; i++) {
+            content[i] = (byte) i;
+        }
+
+        final ByteBuffer mapped = ByteBuffer.allocateDirect(content.length);
+        mapped.put(content);
+        mapped.flip();
+
+        verifyLargeContentSent(content, new ByteBufferInputStream(mapped));
+    }
+
+    private void verifyLargeContentSent(final byte[] content, final InputStream contentIn) throws InterruptedException, IOException {
         final Queue<FlowFileRecord> flowFiles = new LinkedList<>();
         final FlowFileRecord flowFile1 = new MockFlowFileRecord(content.length);
         flowFiles.offer(flowFile1);
 
         final Map<FlowFileRecord, InputStream> contentMap = new HashMap<>();
-        contentMap.put(flowFile1, new ByteArrayInputStream(content));
+        contentMap.put(flowFile1, contentIn);
 
         final FlowFileContentAccess contentAccess = contentMap::get;
 
@@ -226,19 +251,22 @@ public class TestLoadBalanceSession {
 
         final Checksum expectedChecksum = new CRC32();
         final ByteArrayOutputStream expectedOut = new ByteArrayOutputStream();
-        expectedOut.write(1); // Protocol Version
+        expectedOut.write(2); // Protocol Version
 
         final DataOutputStream expectedDos = new DataOutputStream(new CheckedOutputStream(expectedOut, expectedChecksum));
 
         expectedDos.writeUTF("unit-test-connection");
+        expectedDos.write(LoadBalanceCompressionCodec.GZIP.getId());
 
         expectedDos.write(LoadBalanceProtocolConstants.CHECK_SPACE);
         expectedDos.write(LoadBalanceProtocolConstants.MORE_FLOWFILES);
-        expectedDos.writeInt(76); // metadata length
+        expectedDos.writeInt(36 + flowFile1.getAttribute("uuid").length()); // metadata length
         expectedDos.writeInt(1); // 1 attribute
-        expectedDos.writeInt(4); // length of attribute
+        expectedDos.write(0); // attribute key not yet in dictionary
+        expectedDos.write(4); // length of attribute key
         expectedDos.write("uuid".getBytes());
-        expectedDos.writeInt(flowFile1.getAttribute("uuid").length());
+        expectedDos.write(0); // uuid value is never added to dictionary
+        expectedDos.write(flowFile1.getAttribute("uuid").length());
         expectedDos.write(flowFile1.getAttribute("uuid").getBytes());
         expectedDos.writeLong(flowFile1.getLineageStartDate()); // lineage start date
         expectedDos.writeLong(flowFile1.getEntryDate()); // entry date
@@ -37,8 +37,11 @@ import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -99,6 +102,43 @@ class ConnectionLoadBalanceServerTest {
         }
     }
 
+    @Test
+    void testVirtualThreadPerConnection() throws Exception {
+        assertReceivedOnVirtualThread(true);
+    }
+
+    @Test
+    void testPlatformThreadPerConnection() throws Exception {
+        assertReceivedOnVirtualThread(false);
+    }
+
+    private void assertReceivedOnVirtualThread(final boolean virtualThreads) throws Exception {
+        final CompletableFuture<Boolean> receivedOnVirtualThread = new CompletableFuture<>();
+        final LoadBalanceProtocol loadBalanceProtocol = (socket, in, out) -> {
+            receivedOnVirtualThread.complete(Thread.currentThread().isVirtual());
+            socket.close();
+        };
+
+        final ConnectionLoadBalanceServer server = new ConnectionLoadBalanceServer(LOCALHOST, 0, null, SERVER_THREADS, loadBalanceProtocol, eventReporter,
+                SOCKET_TIMEOUT_MILLIS, virtualThreads);
+
+        try {
+            server.start();
+
+            try (final Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress(LOCALHOST, server.getPort()), SOCKET_TIMEOUT_MILLIS);
+                final boolean virtual = receivedOnVirtualThread.get(SOCKET_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (virtualThreads) {
+                    assertTrue(virtual);
+                } else {
+                    assertFalse(virtual);
+                }
+            }
+        } finally {
+            server.stop();
+        }
+    }
+
     private SSLSocket assertSocketConnected(final Socket socket, final int port) throws IOException {
         assertInstanceOf(SSLSocket.class, socket);
 
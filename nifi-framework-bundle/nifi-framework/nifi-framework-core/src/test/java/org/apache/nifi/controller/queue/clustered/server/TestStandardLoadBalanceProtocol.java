@@ -19,10 +19,15 @@ package org.apache.nifi.controller.queue.clustered.server;
 
 import org.apache.nifi.connectable.Connection;
 import org.apache.nifi.controller.FlowController;
+import org.apache.nifi.controller.MockFlowFileRecord;
 import org.apache.nifi.controller.flow.FlowManager;
 import org.apache.nifi.controller.queue.IllegalClusterStateException;
 import org.apache.nifi.controller.queue.LoadBalanceCompression;
 import org.apache.nifi.controller.queue.LoadBalancedFlowFileQueue;
+import org.apache.nifi.controller.queue.clustered.client.LoadBalanceFlowFileCodec;
+import org.apache.nifi.controller.queue.clustered.client.StandardLoadBalanceFlowFileCodec;
+import org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceAttributeDictionary;
+import org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceCompressionCodec;
 import org.apache.nifi.controller.repository.ContentRepository;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileRepository;
@@ -38,6 +43,7 @@ import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.EOFException;
@@ -45,6 +51,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -71,6 +78,7 @@ import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalancePro
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.SPACE_AVAILABLE;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyCollection;
@@ -603,6 +611,87 @@ public class TestStandardLoadBalanceProtocol {
         Mockito.verify(flowFileQueue, times(1)).receiveFromPeer(anyCollection());
     }
 
+    @Test
+    public void testLz4CompressionWithAttributeDictionary() throws IOException {
+        verifyCompressedTransaction(LoadBalanceCompressionCodec.LZ4);
+    }
+
+    @Test
+    public void testZstdCompressionWithAttributeDictionary() throws IOException {
+        verifyCompressedTransaction(LoadBalanceCompressionCodec.ZSTD);
+    }
+
+    @Test
+    public void testGzipCompressionWithAttributeDictionary() throws IOException {
+        verifyCompressedTransaction(LoadBalanceCompressionCodec.GZIP);
+    }
+
+    private void verifyCompressedTransaction(final LoadBalanceCompressionCodec compressionCodec) throws IOException {
+        when(flowFileQueue.getLoadBalanceCompression()).thenReturn(LoadBalanceCompression.COMPRESS_ATTRIBUTES_AND_CONTENT);
+        final StandardLoadBalanceProtocol protocol = new StandardLoadBalanceProtocol(flowFileRepo, contentRepo, provenanceRepo, flowController, ALWAYS_AUTHORIZED);
+
+        final ByteArrayOutputStream clientOutput = new ByteArrayOutputStream();
+        final Checksum checksum = new CRC32();
+        final DataOutputStream dos = new DataOutputStream(new CheckedOutputStream(clientOutput, checksum));
+        dos.writeUTF("unit-test-connection-id");
+        dos.write(compressionCodec.getId());
+        dos.write(CHECK_SPACE);
+
+        final LoadBalanceFlowFileCodec flowFileCodec = new StandardLoadBalanceFlowFileCodec();
+        final LoadBalanceAttributeDictionary dictionary = new LoadBalanceAttributeDictionary();
+        for (int i = 0; i < 3; i++) {
+            final Map<String, String> attributes = new HashMap<>();
+            attributes.put("uuid", "unit-test-id-" + i);
+            attributes.put("mime.type", "text/plain");
+            attributes.put("index", String.valueOf(i));
+
+            final ByteArrayOutputStream metadata = new ByteArrayOutputStream();
+            try (final OutputStream compressedOut = compressionCodec.compress(metadata)) {
+                flowFileCodec.encode(new MockFlowFileRecord(attributes, 6), compressedOut, dictionary);
+            }
+
+            final ByteArrayOutputStream content = new ByteArrayOutputStream();
+            try (final OutputStream compressedOut = compressionCodec.compress(content)) {
+                compressedOut.write(("hello" + i).getBytes(StandardCharsets.UTF_8));
+            }
+
+            dos.write(MORE_FLOWFILES);
+            dos.writeInt(metadata.size());
+            metadata.writeTo(dos);
+            dos.write(DATA_FRAME_FOLLOWS);
+            dos.writeInt(content.size());
+            content.writeTo(dos);
+            dos.write(NO_DATA_FRAME);
+        }
+
+        // 3 keys and 4 distinct values; the uuid values are never added
+        assertEquals(7, dictionary.size());
+
+        dos.write(NO_MORE_FLOWFILES);
+        dos.writeLong(checksum.getValue());
+        dos.write(COMPLETE_TRANSACTION);
+
+        final ByteArrayOutputStream serverOutput = new ByteArrayOutputStream();
+        protocol.receiveFlowFiles(new ByteArrayInputStream(clientOutput.toByteArray()), serverOutput, "Unit Test", 2);
+
+        final byte[] serverResponse = serverOutput.toByteArray();
+        assertEquals(3, serverResponse.length);
+        assertEquals(SPACE_AVAILABLE, serverResponse[0]);
+        assertEquals(CONFIRM_CHECKSUM, serverResponse[1]);
+        assertEquals(CONFIRM_COMPLETE_TRANSACTION, serverResponse[2]);
+
+        assertEquals(1, claimContents.size());
+        assertArrayEquals("hello0hello1hello2".getBytes(StandardCharsets.UTF_8), claimContents.values().iterator().next());
+
+        assertEquals(3, flowFileQueueReceiveRecords.size());
+        for (int i = 0; i < 3; i++) {
+            final FlowFileRecord received = flowFileQueueReceiveRecords.get(i);
+            assertEquals("text/plain", received.getAttribute("mime.type"));
+            assertEquals(String.valueOf(i), received.getAttribute("index"));
+            assertNotEquals("unit-test-id-" + i, received.getAttribute("uuid"));
+        }
+    }
+
     private void writeAttributes(final Map<String, String> attributes, final DataOutputStream dos) throws IOException {
         try (final ByteArrayOutputStream baos = new ByteArrayOutputStream();
              final DataOutputStream out = new DataOutputStream(baos)) {
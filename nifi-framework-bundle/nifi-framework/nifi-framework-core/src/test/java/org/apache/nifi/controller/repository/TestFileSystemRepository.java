@@ -44,6 +44,7 @@ import org.apache.nifi.controller.repository.claim.ResourceClaim;
 import org.apache.nifi.controller.repository.claim.StandardContentClaim;
 import org.apache.nifi.controller.repository.claim.StandardResourceClaim;
 import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.controller.repository.io.ByteBufferInputStream;
 import org.apache.nifi.controller.repository.util.DiskUtils;
 import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.processor.DataUnit;
@@ -60,6 +61,7 @@ import org.junit.jupiter.api.condition.OS;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -654,6 +656,40 @@ public class TestFileSystemRepository {
         }
     }
 
+    @Test
+    public void testReadMemoryMapped() throws IOException {
+        final Map<String, String> overrides = new HashMap<>();
+        overrides.put(NiFiProperties.MAX_APPENDABLE_CLAIM_SIZE, "1 KB");
+        overrides.put(NiFiProperties.CONTENT_REPOSITORY_MAPPED_CLAIM_CACHE_SIZE, "10");
+        recreateRepositoryWithPropertyOverrides(overrides);
+
+        final List<ContentClaim> claims = new ArrayList<>();
+        final List<byte[]> contents = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            final byte[] data = ("Content Claim number " + i + " ").repeat(5).getBytes(StandardCharsets.UTF_8);
+            final ContentClaim claim = repository.create(false);
+            try (final OutputStream out = repository.write(claim)) {
+                out.write(data);
+            }
+
+            claims.add(claim);
+            contents.add(data);
+        }
+
+        // The first Resource Claim has been filled, so it is no longer writable and its Content Claims are read from a mapping.
+        final ContentClaim firstClaim = claims.get(0);
+        assertFalse(firstClaim.getResourceClaim().isWritable());
+        try (final InputStream in = repository.read(firstClaim)) {
+            assertInstanceOf(ByteBufferInputStream.class, in);
+        }
+
+        for (int i = 0; i < claims.size(); i++) {
+            try (final InputStream in = repository.read(claims.get(i))) {
+                assertArrayEquals(contents.get(i), in.readAllBytes());
+            }
+        }
+    }
+
     private boolean isWindowsEnvironment() {
         return System.getProperty("os.name").toLowerCase().startsWith("windows");
     }
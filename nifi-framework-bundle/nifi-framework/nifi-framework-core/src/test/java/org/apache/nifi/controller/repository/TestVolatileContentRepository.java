@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.controller.repository.util.DiskUtils;
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.util.NiFiProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestVolatileContentRepository {
+    private final File rootFile = new File("target/content_repository");
+    private VolatileContentRepository repository;
+    private StandardResourceClaimManager claimManager;
+
+    @AfterEach
+    public void shutdown() {
+        if (repository != null) {
+            repository.shutdown();
+        }
+    }
+
+    private void createRepository(final String maxSize, final String blockSize, final VolatileContentRepository.OverflowPolicy overflowPolicy) throws IOException {
+        if (rootFile.exists()) {
+            DiskUtils.deleteRecursively(rootFile);
+        }
+
+        final Map<String, String> additionalProperties = new HashMap<>();
+        additionalProperties.put(VolatileContentRepository.MAX_SIZE_PROPERTY, maxSize);
+        additionalProperties.put(VolatileContentRepository.BLOCK_SIZE_PROPERTY, blockSize);
+        additionalProperties.put(VolatileContentRepository.OVERFLOW_POLICY_PROPERTY, overflowPolicy.name());
+        final NiFiProperties nifiProperties = NiFiProperties.createBasicNiFiProperties(
+            TestVolatileContentRepository.class.getResource("/conf/nifi.properties").getFile(), additionalProperties);
+
+        repository = new VolatileContentRepository(nifiProperties);
+        claimManager = new StandardResourceClaimManager();
+        repository.initialize(new StandardContentRepositoryContext(claimManager, EventReporter.NO_OP));
+    }
+
+    @Test
+    public void testWriteAndReadAcrossBlocks() throws IOException {
+        createRepository("1 MB", "1 KB", VolatileContentRepository.OverflowPolicy.FAIL);
+
+        final byte[] data = new byte[10_000];
+        new Random(1L).nextBytes(data);
+
+        final ContentClaim claim = repository.create(false);
+        try (final OutputStream out = repository.write(claim)) {
+            out.write(data, 0, 100);
+            out.write(data[100]);
+            out.write(data, 101, data.length - 101);
+        }
+
+        assertEquals(data.length, claim.getLength());
+        assertEquals(data.length, repository.size(claim));
+        assertTrue(repository.isAccessible(claim));
+        assertArrayEquals(data, readFully(claim));
+
+        final ByteArrayOutputStream partial = new ByteArrayOutputStream();
+        repository.exportTo(claim, partial, 5000L, 3000L);
+        assertArrayEquals(Arrays.copyOfRange(data, 5000, 8000), partial.toByteArray());
+
+        final ContentClaim clone = repository.clone(claim, false);
+        assertArrayEquals(data, readFully(clone));
+    }
+
+    @Test
+    public void testRemoveReleasesMemory() throws IOException {
+        createRepository("16 KB", "1 KB", VolatileContentRepository.OverflowPolicy.FAIL);
+        final long capacity = repository.getContainerUsableSpace(VolatileContentRepository.CONTAINER_NAME);
+
+        final ContentClaim claim = repository.create(false);
+        try (final OutputStream out = repository.write(claim)) {
+            out.write(new byte[4096]);
+        }
+        assertEquals(capacity - 4096, repository.getContainerUsableSpace(VolatileContentRepository.CONTAINER_NAME));
+
+        // Claim cannot be removed while it is referenced by a FlowFile
+        assertFalse(repository.remove(claim));
+        assertEquals(0, repository.decrementClaimantCount(claim));
+        assertTrue(repository.remove(claim));
+
+        assertFalse(repository.isAccessible(claim));
+        assertEquals(capacity, repository.getContainerUsableSpace(VolatileContentRepository.CONTAINER_NAME));
+        assertThrows(ContentNotFoundException.class, () -> repository.read(claim));
+    }
+
+    @Test
+    public void testOpenStreamKeepsContentAfterRemove() throws IOException {
+        createRepository("4 KB", "1 KB", VolatileContentRepository.OverflowPolicy.FAIL);
+        final long capacity = repository.getContainerUsableSpace(VolatileContentRepository.CONTAINER_NAME);
+
+        final byte[] original = new byte[2048];
+        Arrays.fill(original, (byte) 'A');
+        final ContentClaim claim = repository.create(false);
+        try (final OutputStream out = repository.write(claim)) {
+            out.write(original);
+        }
+
+        try (final InputStream in = repository.read(claim)) {
+            assertEquals('A', in.read());
+
+            repository.decrementClaimantCount(claim);
+            assertTrue(repository.remove(claim));
+
+            // The blocks of the removed claim must not be handed out to another claim while the stream is open
+            final byte[] other = new byte[2048];
+            Arrays.fill(other, (byte) 'B');
+            final ContentClaim otherClaim = repository.create(false);
+            try (final OutputStream out = repository.write(otherClaim)) {
+                out.write(other);
+            }
+            assertArrayEquals(other, readFully(otherClaim));
+
+            final byte[] remaining = in.readAllBytes();
+            assertArrayEquals(Arrays.copyOfRange(original, 1, original.length), remaining);
+            assertEquals(capacity - 4096, repository.getContainerUsableSpace(VolatileContentRepository.CONTAINER_NAME));
+        }
+
+        // Closing the last stream releases the blocks of the removed claim
+        assertEquals(capacity - 2048, repository.getContainerUsableSpace(VolatileContentRepository.CONTAINER_NAME));
+    }
+
+    @Test
+    public void testFailWhenFull() throws IOException {
+        createRepository("4 KB", "1 KB", VolatileContentRepository.OverflowPolicy.FAIL);
+
+        final ContentClaim claim = repository.create(false);
+        try (final OutputStream out = repository.write(claim)) {
+            assertThrows(IOException.class, () -> out.write(new byte[5000]));
+        }
+    }
+
+    @Test
+    public void testSpillToDiskWhenFull() throws IOException {
+        createRepository("4 KB", "1 KB", VolatileContentRepository.OverflowPolicy.SPILL_TO_DISK);
+
+        final ContentClaim inMemory = repository.create(false);
+        try (final OutputStream out = repository.write(inMemory)) {
+            out.write("in memory".getBytes(StandardCharsets.UTF_8));
+        }
+
+        final byte[] data = new byte[10_000];
+        new Random(2L).nextBytes(data);
+        final ContentClaim spilled = repository.create(false);
+        try (final OutputStream out = repository.write(spilled)) {
+            for (int i = 0; i < data.length; i += 500) {
+                out.write(data, i, 500);
+            }
+        }
+
+        assertEquals(data.length, repository.size(spilled));
+        assertArrayEquals(data, readFully(spilled));
+        assertEquals("in memory", new String(readFully(inMemory), StandardCharsets.UTF_8));
+
+        // The memory used before spilling should have been released
+        final long usableSpace = repository.getContainerUsableSpace(VolatileContentRepository.CONTAINER_NAME);
+        assertEquals(repository.getContainerCapacity(VolatileContentRepository.CONTAINER_NAME) - 1024, usableSpace);
+
+        repository.decrementClaimantCount(spilled);
+        assertTrue(repository.remove(spilled));
+        assertFalse(repository.isAccessible(spilled));
+    }
+
+    private byte[] readFully(final ContentClaim claim) throws IOException {
+        try (final InputStream in = repository.read(claim)) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.scheduling;
+
+import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.connectable.Connection;
+import org.apache.nifi.controller.FlowController;
+import org.apache.nifi.controller.ProcessorNode;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.tasks.ConnectableTask;
+import org.apache.nifi.controller.tasks.InvocationResult;
+import org.apache.nifi.engine.FlowEngine;
+import org.apache.nifi.groups.ProcessGroup;
+import org.apache.nifi.util.NiFiProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockedConstruction;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockConstruction;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TimerDrivenSchedulingAgentTest {
+
+    private static final long MAX_WAIT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    @Mock
+    private FlowController flowController;
+
+    @Mock
+    private FlowEngine flowEngine;
+
+    @Mock
+    private RepositoryContextFactory repositoryContextFactory;
+
+    @Mock
+    private Connectable connectable;
+
+    @Mock
+    private FlowFileQueue firstQueue;
+
+    @Mock
+    private FlowFileQueue secondQueue;
+
+    private MockedConstruction<ConnectableTask> connectableTasks;
+
+    private TimerDrivenSchedulingAgent schedulingAgent;
+
+    private LifecycleState lifecycleState;
+
+    @BeforeEach
+    void setSchedulingAgent() {
+        final NiFiProperties properties = NiFiProperties.createBasicNiFiProperties(null, Map.of(
+            NiFiProperties.QUEUE_NOTIFICATION_SCHEDULING_ENABLED, "true",
+            NiFiProperties.QUEUE_NOTIFICATION_SCHEDULING_MAX_WAIT, "5 secs"));
+        schedulingAgent = new TimerDrivenSchedulingAgent(flowController, flowEngine, repositoryContextFactory, properties);
+        lifecycleState = new LifecycleState("component-id");
+    }
+
+    @AfterEach
+    void closeConnectableTasks() {
+        if (connectableTasks != null) {
+            connectableTasks.close();
+        }
+    }
+
+    @Test
+    void testCallbackUnregisteredFromAllQueuesWhenDataAvailable() {
+        final Runnable trigger = scheduleWaitingForData(InvocationResult.waitForData("No FlowFiles"));
+        trigger.run();
+
+        verify(flowEngine).scheduleWithFixedDelay(eq(trigger), eq(MAX_WAIT_NANOS), anyLong(), eq(TimeUnit.NANOSECONDS));
+        final Runnable callback = getRegisteredCallback(firstQueue);
+        verify(secondQueue).notifyWhenDataAvailable(callback);
+
+        // A FlowFile is queued in the first queue, which unregisters the callback from that queue before running it
+        callback.run();
+
+        verify(secondQueue).removeDataAvailableCallback(callback);
+        verify(firstQueue).removeDataAvailableCallback(callback);
+        verify(flowEngine, times(2)).scheduleWithFixedDelay(eq(trigger), eq(0L), anyLong(), eq(TimeUnit.NANOSECONDS));
+
+        // Only the first notification reschedules the task
+        callback.run();
+        verify(flowEngine, times(2)).scheduleWithFixedDelay(eq(trigger), eq(0L), anyLong(), eq(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    void testCallbackUnregisteredFromAllQueuesWhenMaxWaitElapsed() {
+        final Runnable trigger = scheduleWaitingForData(InvocationResult.waitForData("No FlowFiles"), InvocationResult.DO_NOT_YIELD);
+        trigger.run();
+
+        final Runnable callback = getRegisteredCallback(firstQueue);
+        verify(firstQueue, never()).removeDataAvailableCallback(callback);
+
+        // No FlowFile was queued within the max wait period, so the task runs again on its schedule
+        trigger.run();
+
+        verify(firstQueue).removeDataAvailableCallback(callback);
+        verify(secondQueue).removeDataAvailableCallback(callback);
+    }
+
+    @Test
+    void testCallbackUnregisteredFromAllQueuesWhenUnscheduled() {
+        final Runnable trigger = scheduleWaitingForData(InvocationResult.waitForData("No FlowFiles"));
+        trigger.run();
+
+        final Runnable callback = getRegisteredCallback(firstQueue);
+
+        schedulingAgent.unschedule(connectable, lifecycleState);
+
+        verify(firstQueue).removeDataAvailableCallback(callback);
+        verify(secondQueue).removeDataAvailableCallback(callback);
+
+        // A FlowFile queued after the component was unscheduled does not schedule it again
+        callback.run();
+        verify(flowEngine).scheduleWithFixedDelay(eq(trigger), eq(0L), anyLong(), eq(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    void testCallbackNotRegisteredWhenUnscheduled() {
+        final Runnable trigger = scheduleWaitingForData(InvocationResult.waitForData("No FlowFiles"));
+
+        // The component is stopped while its task is running
+        lifecycleState.setScheduled(false);
+        trigger.run();
+
+        verify(firstQueue, never()).notifyWhenDataAvailable(any());
+        verify(secondQueue, never()).notifyWhenDataAvailable(any());
+    }
+
+    @Test
+    void testGetEngineWithoutVirtualThreadsConfigured() {
+        final ProcessorNode processorNode = mock(ProcessorNode.class);
+
+        assertSame(flowEngine, schedulingAgent.getEngine(processorNode));
+    }
+
+    @Test
+    void testGetEngineForConfiguredComponentType() {
+        final TimerDrivenSchedulingAgent virtualThreadAgent = createVirtualThreadAgent(Map.of(
+            NiFiProperties.VIRTUAL_THREAD_COMPONENT_TYPES, "InvokeHTTP, org.apache.nifi.processors.standard.FetchSFTP"));
+
+        try {
+            final ProcessorNode simpleNameMatch = mock(ProcessorNode.class);
+            when(simpleNameMatch.getComponentType()).thenReturn("InvokeHTTP");
+
+            final ProcessorNode canonicalNameMatch = mock(ProcessorNode.class);
+            when(canonicalNameMatch.getComponentType()).thenReturn("FetchSFTP");
+            when(canonicalNameMatch.getCanonicalClassName()).thenReturn("org.apache.nifi.processors.standard.FetchSFTP");
+
+            final ProcessorNode otherType = mock(ProcessorNode.class);
+            when(otherType.getComponentType()).thenReturn("UpdateAttribute");
+            when(otherType.getCanonicalClassName()).thenReturn("org.apache.nifi.processors.attributes.UpdateAttribute");
+
+            final FlowEngine virtualThreadEngine = virtualThreadAgent.getEngine(simpleNameMatch);
+            assertNotNull(virtualThreadEngine);
+            assertNotSame(flowEngine, virtualThreadEngine);
+            assertSame(virtualThreadEngine, virtualThreadAgent.getEngine(canonicalNameMatch));
+            assertSame(flowEngine, virtualThreadAgent.getEngine(otherType));
+        } finally {
+            virtualThreadAgent.shutdown();
+        }
+    }
+
+    @Test
+    void testGetEngineForConfiguredProcessGroup() {
+        final TimerDrivenSchedulingAgent virtualThreadAgent = createVirtualThreadAgent(Map.of(
+            NiFiProperties.VIRTUAL_THREAD_PROCESS_GROUPS, "configured-group"));
+
+        try {
+            final ProcessGroup configuredGroup = mock(ProcessGroup.class);
+            when(configuredGroup.getIdentifier()).thenReturn("configured-group");
+            final ProcessGroup childGroup = mock(ProcessGroup.class);
+            when(childGroup.getIdentifier()).thenReturn("child-group");
+            when(childGroup.getParent()).thenReturn(configuredGroup);
+            final ProcessGroup otherGroup = mock(ProcessGroup.class);
+            when(otherGroup.getIdentifier()).thenReturn("other-group");
+
+            final ProcessorNode descendant = mock(ProcessorNode.class);
+            when(descendant.getComponentType()).thenReturn("InvokeHTTP");
+            when(descendant.getProcessGroup()).thenReturn(childGroup);
+
+            final ProcessorNode outside = mock(ProcessorNode.class);
+            when(outside.getComponentType()).thenReturn("InvokeHTTP");
+            when(outside.getProcessGroup()).thenReturn(otherGroup);
+
+            assertNotSame(flowEngine, virtualThreadAgent.getEngine(descendant));
+            assertSame(flowEngine, virtualThreadAgent.getEngine(outside));
+
+            // Only Processors run on virtual threads
+            assertSame(flowEngine, virtualThreadAgent.getEngine(connectable));
+        } finally {
+            virtualThreadAgent.shutdown();
+        }
+    }
+
+    private TimerDrivenSchedulingAgent createVirtualThreadAgent(final Map<String, String> additionalProperties) {
+        final NiFiProperties properties = NiFiProperties.createBasicNiFiProperties(null, additionalProperties);
+        return new TimerDrivenSchedulingAgent(flowController, flowEngine, repositoryContextFactory, properties);
+    }
+
+    private Runnable scheduleWaitingForData(final InvocationResult firstResult, final InvocationResult... subsequentResults) {
+        connectableTasks = mockConstruction(ConnectableTask.class, (task, context) -> {
+            when(task.getConnectable()).thenReturn(connectable);
+            when(task.invoke()).thenReturn(firstResult, subsequentResults);
+        });
+
+        final List<Connection> incomingConnections = List.of(createConnection(firstQueue), createConnection(secondQueue));
+        when(connectable.getMaxConcurrentTasks()).thenReturn(1);
+        lenient().when(connectable.getIncomingConnections()).thenReturn(incomingConnections);
+
+        final ScheduledFuture<?> future = mock(ScheduledFuture.class);
+        when(future.cancel(false)).thenReturn(true);
+        when(flowEngine.scheduleWithFixedDelay(any(), anyLong(), anyLong(), any())).thenAnswer(invocation -> future);
+
+        schedulingAgent.schedule(connectable, lifecycleState);
+
+        final ArgumentCaptor<Runnable> triggerCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(flowEngine).scheduleWithFixedDelay(triggerCaptor.capture(), eq(0L), anyLong(), eq(TimeUnit.NANOSECONDS));
+        return triggerCaptor.getValue();
+    }
+
+    private Runnable getRegisteredCallback(final FlowFileQueue queue) {
+        final ArgumentCaptor<Runnable> callbackCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(queue).notifyWhenDataAvailable(callbackCaptor.capture());
+        final Runnable callback = callbackCaptor.getValue();
+        assertNotNull(callback);
+        return callback;
+    }
+
+    private static Connection createConnection(final FlowFileQueue queue) {
+        final Connection connection = mock(Connection.class);
+        lenient().when(connection.getFlowFileQueue()).thenReturn(queue);
+        return connection;
+    }
+}
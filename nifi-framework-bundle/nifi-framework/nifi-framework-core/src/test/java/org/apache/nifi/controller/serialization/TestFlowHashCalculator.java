@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.serialization;
+
+import org.apache.nifi.encrypt.EncryptionException;
+import org.apache.nifi.encrypt.PropertyEncryptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestFlowHashCalculator {
+
+    private FlowHashCalculator calculator;
+
+    @BeforeEach
+    public void setup() {
+        final PropertyEncryptor encryptor = mock(PropertyEncryptor.class);
+        when(encryptor.decrypt("0a0b")).thenReturn("secret");
+        when(encryptor.decrypt("0c0d")).thenReturn("secret");
+        when(encryptor.decrypt("0e0f")).thenReturn("other secret");
+        when(encryptor.decrypt("ffff")).thenThrow(new EncryptionException("Unable to decrypt"));
+
+        calculator = new FlowHashCalculator(encryptor);
+    }
+
+    @Test
+    public void testSameValuesEncryptedDifferently() {
+        assertEquals(hash("{\"password\":\"enc{0a0b}\",\"name\":\"a\"}"), hash("{\"password\":\"enc{0c0d}\",\"name\":\"a\"}"));
+        assertNotEquals(hash("{\"password\":\"enc{0a0b}\",\"name\":\"a\"}"), hash("{\"password\":\"enc{0a0b}\",\"name\":\"b\"}"));
+    }
+
+    @Test
+    public void testDifferentSensitiveValues() {
+        assertNotEquals(hash("{\"password\":\"enc{0a0b}\"}"), hash("{\"password\":\"enc{0e0f}\"}"));
+    }
+
+    @Test
+    public void testUndecryptableValuesAreHashedAsEncrypted() {
+        assertEquals(hash("{\"password\":\"enc{ffff}\"}"), hash("{\"password\":\"enc{ffff}\"}"));
+        assertNotEquals(hash("{\"password\":\"enc{ffff}\"}"), hash("{\"password\":\"enc{0a0b}\"}"));
+        assertEquals(hash(""), calculator.calculateHash(null));
+    }
+
+    private String hash(final String flow) {
+        return calculator.calculateHash(flow.getBytes(StandardCharsets.UTF_8));
+    }
+}
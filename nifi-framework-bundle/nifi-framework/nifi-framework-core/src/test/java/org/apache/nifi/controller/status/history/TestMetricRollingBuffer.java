@@ -16,18 +16,24 @@
  */
 package org.apache.nifi.controller.status.history;
 
+import org.apache.nifi.controller.status.ProcessorStatus;
+import org.apache.nifi.util.ComponentMetrics;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestMetricRollingBuffer {
     private static final Set<MetricDescriptor<?>> PROCESSOR_METRICS = Arrays.stream(ProcessorStatusDescriptor.values())
@@ -124,4 +130,92 @@ public class TestMetricRollingBuffer {
             assertEquals(Long.valueOf(i), snapshot.getStatusMetric(ProcessorStatusDescriptor.BYTES_WRITTEN.getDescriptor()));
         }
     }
+
+    @Test
+    public void testUpdateFromStatus() {
+        final MetricRollingBuffer buffer = new MetricRollingBuffer(10);
+        final long startTime = System.currentTimeMillis();
+        final List<Date> timestamps = new ArrayList<>();
+
+        final MetricDescriptor<?> counterDescriptor = ComponentMetrics.createCounterDescriptor("records");
+        for (int i = 0; i < 15; i++) {
+            final ProcessorStatus status = new ProcessorStatus();
+            status.setBytesWritten(i);
+            final Date timestamp = new Date(startTime + i * 1000);
+            timestamps.add(timestamp);
+
+            buffer.update(timestamp, status, PROCESSOR_METRICS, Map.of(counterDescriptor, (long) i * 2));
+        }
+
+        assertEquals(10, buffer.size());
+
+        final List<StatusSnapshot> snapshots = buffer.getSnapshots(timestamps, true, PROCESSOR_METRICS);
+        assertEquals(15, snapshots.size());
+        for (int i = 0; i < 5; i++) {
+            assertInstanceOf(EmptyStatusSnapshot.class, snapshots.get(i));
+        }
+        for (int i = 5; i < 15; i++) {
+            final StatusSnapshot snapshot = snapshots.get(i);
+            assertEquals(timestamps.get(i), snapshot.getTimestamp());
+            assertEquals(Long.valueOf(i), snapshot.getStatusMetric(ProcessorStatusDescriptor.BYTES_WRITTEN.getDescriptor()));
+            assertEquals(Long.valueOf(i * 2L), snapshot.getStatusMetric(counterDescriptor));
+        }
+
+        final List<StatusSnapshot> withoutCounters = buffer.getSnapshots(timestamps.subList(14, 15), false, PROCESSOR_METRICS);
+        assertFalse(withoutCounters.get(0).getMetricDescriptors().contains(counterDescriptor));
+    }
+
+    @Test
+    public void testConcurrentReadsAndWrites() throws InterruptedException {
+        final int bufferCapacity = 100;
+        final MetricRollingBuffer buffer = new MetricRollingBuffer(bufferCapacity);
+        final int iterations = 10_000;
+        final long startTime = System.currentTimeMillis();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        final Thread writer = new Thread(() -> {
+            for (int i = 0; i < iterations; i++) {
+                final ProcessorStatus status = new ProcessorStatus();
+                status.setBytesWritten(i);
+                status.setBytesRead(i);
+                buffer.update(new Date(startTime + i), status, PROCESSOR_METRICS, null);
+
+                if (i % 50 == 0) {
+                    buffer.expireBefore(new Date(startTime + i - bufferCapacity / 2));
+                }
+            }
+        });
+
+        final Thread reader = new Thread(() -> {
+            final List<Date> timestamps = new ArrayList<>();
+            for (int i = 0; i < iterations; i++) {
+                timestamps.add(new Date(startTime + i));
+            }
+
+            try {
+                while (writer.isAlive()) {
+                    for (final StatusSnapshot snapshot : buffer.getSnapshots(timestamps, true, PROCESSOR_METRICS)) {
+                        if (snapshot instanceof EmptyStatusSnapshot) {
+                            continue;
+                        }
+
+                        // Each snapshot must be consistent with the capture that produced it
+                        final long expected = snapshot.getTimestamp().getTime() - startTime;
+                        assertEquals(Long.valueOf(expected), snapshot.getStatusMetric(ProcessorStatusDescriptor.BYTES_WRITTEN.getDescriptor()));
+                        assertEquals(Long.valueOf(expected), snapshot.getStatusMetric(ProcessorStatusDescriptor.BYTES_READ.getDescriptor()));
+                    }
+                }
+            } catch (final Throwable t) {
+                failure.set(t);
+            }
+        });
+
+        writer.start();
+        reader.start();
+        writer.join();
+        reader.join();
+
+        assertNull(failure.get());
+        assertTrue(buffer.size() <= bufferCapacity);
+    }
 }
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.swap;
+
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.SwapContents;
+import org.apache.nifi.controller.repository.SwapSummary;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.flowfile.FlowFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestColumnarSwapSerializerDeserializer {
+    private static final String SWAP_LOCATION = "target/testColumnarRoundTrip.swap";
+
+    private ResourceClaimManager resourceClaimManager;
+    private FlowFileQueue flowFileQueue;
+
+    @BeforeEach
+    public void setup() {
+        MockFlowFile.resetIdGenerator();
+        resourceClaimManager = new StandardResourceClaimManager();
+        flowFileQueue = Mockito.mock(FlowFileQueue.class);
+        Mockito.when(flowFileQueue.getIdentifier()).thenReturn("87bb99fe-412c-49f6-a441-d1b0af4e20b4");
+    }
+
+    @Test
+    public void testRoundTripSerializeDeserializeSummary() throws IOException {
+        final List<FlowFileRecord> toSwap = new ArrayList<>(10000);
+        final Map<String, String> attrs = new HashMap<>();
+        long size = 0L;
+        final ContentClaim firstClaim = MockFlowFile.createContentClaim("id", resourceClaimManager);
+        for (int i = 0; i < 10000; i++) {
+            attrs.put("i", String.valueOf(i));
+            final FlowFileRecord ff = i < 2 ? new MockFlowFile(attrs, i, firstClaim) : new MockFlowFile(attrs, i, resourceClaimManager);
+            toSwap.add(ff);
+            size += i;
+        }
+
+        final byte[] serialized = serialize(toSwap);
+
+        final SwapSummary swapSummary;
+        try (final DataInputStream dis = new DataInputStream(new ByteArrayInputStream(serialized))) {
+            swapSummary = new ColumnarSwapDeserializer().getSwapSummary(dis, SWAP_LOCATION, resourceClaimManager);
+        }
+
+        assertEquals(10000, swapSummary.getQueueSize().getObjectCount());
+        assertEquals(size, swapSummary.getQueueSize().getByteCount());
+        assertEquals(9999, swapSummary.getMaxFlowFileId().intValue());
+
+        final List<ResourceClaim> resourceClaims = swapSummary.getResourceClaims();
+        assertEquals(10000, resourceClaims.size());
+        assertFalse(resourceClaims.stream().anyMatch(claim -> claim == null));
+        assertEquals(2, resourceClaims.stream().filter(claim -> claim.getId().equals("id")).count());
+
+        final Set<ResourceClaim> uniqueClaims = new HashSet<>(resourceClaims);
+        assertEquals(9999, uniqueClaims.size());
+
+        assertEquals((Long) toSwap.stream().mapToLong(FlowFile::getLastQueueDate).sum(), swapSummary.getTotalLastQueueDate());
+        assertEquals((Long) toSwap.stream().mapToLong(FlowFile::getLastQueueDate).min().getAsLong(), swapSummary.getMinLastQueueDate());
+    }
+
+    @Test
+    public void testRoundTripSerializeDeserializeFullSwapFile() throws IOException {
+        final ContentClaim sharedClaim = MockFlowFile.createContentClaim("shared", resourceClaimManager);
+
+        final List<FlowFileRecord> toSwap = new ArrayList<>(10000);
+        long size = 0L;
+        for (int i = 0; i < 10000; i++) {
+            final Map<String, String> attrs = new HashMap<>();
+            attrs.put("i", String.valueOf(i));
+            attrs.put("filename", "file-" + i + ".txt");
+            if (i % 2 == 0) {
+                attrs.put("even", "true");
+            }
+
+            final ContentClaim contentClaim = i % 3 == 0 ? null : sharedClaim;
+            toSwap.add(new MockFlowFile(attrs, i, contentClaim));
+            size += i;
+        }
+
+        final byte[] serialized = serialize(toSwap);
+
+        final SwapContents contents;
+        try (final DataInputStream dis = new DataInputStream(new ByteArrayInputStream(serialized))) {
+            contents = new ColumnarSwapDeserializer().deserializeFlowFiles(dis, SWAP_LOCATION, flowFileQueue, resourceClaimManager);
+        }
+
+        final SwapSummary swapSummary = contents.getSummary();
+        assertEquals(10000, swapSummary.getQueueSize().getObjectCount());
+        assertEquals(size, swapSummary.getQueueSize().getByteCount());
+        assertEquals(9999, swapSummary.getMaxFlowFileId().intValue());
+        assertEquals(6666, swapSummary.getResourceClaims().size());
+
+        assertEquals(10000, contents.getFlowFiles().size());
+
+        int counter = 0;
+        for (final FlowFileRecord flowFile : contents.getFlowFiles()) {
+            final int i = counter;
+            final FlowFileRecord original = toSwap.get(counter++);
+
+            assertEquals(original.getId(), flowFile.getId());
+            assertEquals(original.getEntryDate(), flowFile.getEntryDate());
+            assertEquals(original.getLastQueueDate(), flowFile.getLastQueueDate());
+            assertEquals(i, flowFile.getSize());
+            assertEquals(original.getAttributes(), flowFile.getAttributes());
+
+            if (i % 3 == 0) {
+                assertNull(flowFile.getContentClaim());
+            } else {
+                assertSame(sharedClaim.getResourceClaim(), flowFile.getContentClaim().getResourceClaim());
+                assertEquals(sharedClaim.getOffset(), flowFile.getContentClaim().getOffset());
+                assertEquals(original.getContentClaimOffset(), flowFile.getContentClaimOffset());
+            }
+        }
+    }
+
+    @Test
+    public void testSmallerThanSchemaSwapFile() throws IOException {
+        final List<FlowFileRecord> toSwap = new ArrayList<>(10000);
+        for (int i = 0; i < 10000; i++) {
+            final Map<String, String> attrs = new HashMap<>();
+            attrs.put("filename", "file-" + i + ".txt");
+            attrs.put("path", "./");
+            attrs.put("mime.type", "application/json");
+            toSwap.add(new MockFlowFile(attrs, i, resourceClaimManager));
+        }
+
+        final ByteArrayOutputStream schemaOut = new ByteArrayOutputStream();
+        new SchemaSwapSerializer().serializeFlowFiles(toSwap, flowFileQueue, SWAP_LOCATION, schemaOut);
+
+        final byte[] columnar = serialize(toSwap);
+        assertTrue(columnar.length < schemaOut.size(), "Expected columnar swap file of " + columnar.length
+            + " bytes to be smaller than schema swap file of " + schemaOut.size() + " bytes");
+    }
+
+    private byte[] serialize(final List<FlowFileRecord> toSwap) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new ColumnarSwapSerializer().serializeFlowFiles(toSwap, flowFileQueue, SWAP_LOCATION, baos);
+        return baos.toByteArray();
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * <p>
+ * An immutable Map of FlowFile attributes that consists of a base Map, which may be shared with many other FlowFiles, and a small
+ * Map of updates that are applied on top of it. An update whose value is <code>null</code> indicates that the attribute has been removed.
+ * This allows FlowFiles that are derived from one another, such as the children of a split, or the successive versions of a FlowFile as
+ * its attributes are updated, to share the bulk of their attributes rather than each holding a full copy.
+ * </p>
+ *
+ * <p>
+ * The base Map is never itself a LayeredAttributeMap, so a lookup requires at most two hash lookups. When the updates become large relative to
+ * the base Map, the layers are collapsed into a single HashMap.
+ * </p>
+ *
+ * <b>Immutable - Thread Safe</b>
+ */
+final class LayeredAttributeMap extends AbstractMap<String, String> {
+    // Below this size, the overhead of a second Map outweighs what is saved by sharing the base Map
+    private static final int MIN_SHARED_SIZE = 8;
+    private static final int MAX_UPDATES = 16;
+
+    private final Map<String, String> base;
+    private final Map<String, String> updates;
+    private final int size;
+    private Set<Entry<String, String>> entrySet;
+
+    private LayeredAttributeMap(final Map<String, String> base, final Map<String, String> updates, final int size) {
+        this.base = base;
+        this.updates = updates;
+        this.size = size;
+    }
+
+    /**
+     * Creates a Map of attributes that reflects the given base Map with the given updates applied. The given base Map must not be modified
+     * after this method is called. The given updates are copied.
+     *
+     * @param base the attributes to update
+     * @param updates the attributes to add or replace, with a <code>null</code> value for any attribute to remove
+     * @return an immutable view of the updated attributes
+     */
+    static Map<String, String> of(final Map<String, String> base, final Map<String, String> updates) {
+        Map<String, String> sharedBase = base;
+        final Map<String, String> combinedUpdates;
+        if (base instanceof LayeredAttributeMap layered) {
+            sharedBase = layered.base;
+            combinedUpdates = new HashMap<>(layered.updates);
+            combinedUpdates.putAll(updates);
+        } else {
+            combinedUpdates = new HashMap<>(updates);
+        }
+
+        if (combinedUpdates.isEmpty()) {
+            return sharedBase;
+        }
+
+        if (sharedBase.size() < MIN_SHARED_SIZE || combinedUpdates.size() > MAX_UPDATES || combinedUpdates.size() * 2 > sharedBase.size()) {
+            return flatten(sharedBase, combinedUpdates);
+        }
+
+        int size = sharedBase.size();
+        for (final Map.Entry<String, String> entry : combinedUpdates.entrySet()) {
+            final boolean inBase = sharedBase.containsKey(entry.getKey());
+            if (entry.getValue() == null) {
+                if (inBase) {
+                    size--;
+                }
+            } else if (!inBase) {
+                size++;
+            }
+        }
+
+        return new LayeredAttributeMap(sharedBase, combinedUpdates, size);
+    }
+
+    private static Map<String, String> flatten(final Map<String, String> base, final Map<String, String> updates) {
+        final Map<String, String> flattened = new HashMap<>(base);
+        for (final Map.Entry<String, String> entry : updates.entrySet()) {
+            if (entry.getValue() == null) {
+                flattened.remove(entry.getKey());
+            } else {
+                flattened.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        return flattened;
+    }
+
+    @Override
+    public String get(final Object key) {
+        final String updated = updates.get(key);
+        if (updated != null) {
+            return updated;
+        }
+
+        if (updates.containsKey(key)) {
+            return null;
+        }
+
+        return base.get(key);
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    return new LayeredIterator();
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+
+        return entrySet;
+    }
+
+    /**
+     * Iterates over the added or replaced attributes, followed by the attributes of the base Map that have not been replaced or removed.
+     */
+    private class LayeredIterator implements Iterator<Entry<String, String>> {
+        private final Iterator<Entry<String, String>> updateIterator = updates.entrySet().iterator();
+        private final Iterator<Entry<String, String>> baseIterator = base.entrySet().iterator();
+        private Entry<String, String> next = advance();
+
+        private Entry<String, String> advance() {
+            while (updateIterator.hasNext()) {
+                final Entry<String, String> entry = updateIterator.next();
+                if (entry.getValue() != null) {
+                    return new SimpleImmutableEntry<>(entry);
+                }
+            }
+
+            while (baseIterator.hasNext()) {
+                final Entry<String, String> entry = baseIterator.next();
+                if (!updates.containsKey(entry.getKey())) {
+                    return new SimpleImmutableEntry<>(entry);
+                }
+            }
+
+            return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<String, String> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+
+            final Entry<String, String> current = next;
+            next = advance();
+            return current;
+        }
+    }
+}
@@ -56,7 +56,7 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
 
     private StandardFlowFileRecord(final Builder builder) {
         this.id = builder.bId;
-        this.attributes = builder.bAttributes == null ? Collections.emptyMap() : builder.bAttributes;
+        this.attributes = builder.buildAttributes();
         this.entryDate = builder.bEntryDate;
         this.lineageStartDate = builder.bLineageStartDate;
         this.lineageStartIndex = builder.bLineageStartIndex;
@@ -184,6 +184,9 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
         private long bQueueDateIndex = 0L;
         private Map<String, String> bAttributes;
         private boolean bAttributesCopied = false;
+        // Updates to apply to bAttributes when it has not been copied, so that the new FlowFile is able to share the original's attributes.
+        // A null value indicates that the attribute has been removed.
+        private Map<String, String> bAttributeUpdates;
 
         public Builder id(final long id) {
             bId = id;
@@ -220,20 +223,76 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
             } else if (!bAttributesCopied) {
                 bAttributes = new HashMap<>(bAttributes);
                 bAttributesCopied = true;
+
+                if (bAttributeUpdates != null) {
+                    for (final Map.Entry<String, String> entry : bAttributeUpdates.entrySet()) {
+                        if (entry.getValue() == null) {
+                            bAttributes.remove(entry.getKey());
+                        } else {
+                            bAttributes.put(entry.getKey(), entry.getValue());
+                        }
+                    }
+
+                    bAttributeUpdates = null;
+                }
             }
 
             return bAttributes;
         }
 
+        private Map<String, String> initializeAttributeUpdates() {
+            if (bAttributeUpdates == null) {
+                bAttributeUpdates = new HashMap<>();
+            }
+
+            return bAttributeUpdates;
+        }
+
+        private void putAttribute(final String key, final String value) {
+            if (bAttributes == null || bAttributesCopied) {
+                initializeAttributes().put(key, value);
+            } else {
+                initializeAttributeUpdates().put(key, value);
+            }
+        }
+
+        private void removeAttribute(final String key) {
+            if (bAttributes == null) {
+                return;
+            }
+
+            if (bAttributesCopied) {
+                bAttributes.remove(key);
+            } else if (bAttributes.containsKey(key)) {
+                initializeAttributeUpdates().put(key, null);
+            } else if (bAttributeUpdates != null) {
+                bAttributeUpdates.remove(key);
+            }
+        }
+
+        private Map<String, String> buildAttributes() {
+            if (bAttributes == null) {
+                return Collections.emptyMap();
+            }
+
+            if (bAttributesCopied || bAttributeUpdates == null) {
+                return bAttributes;
+            }
+
+            return LayeredAttributeMap.of(bAttributes, bAttributeUpdates);
+        }
+
         public Builder addAttribute(final String key, final String value) {
             if (key != null && value != null) {
-                initializeAttributes().put(FlowFile.KeyValidator.validateKey(key), value);
+                putAttribute(FlowFile.KeyValidator.validateKey(key), value);
             }
             return this;
         }
 
         public Builder addAttributes(final Map<String, String> attributes) {
-            final Map<String, String> initializedAttributes = initializeAttributes();
+            if (bAttributes == null) {
+                initializeAttributes();
+            }
 
             if (null != attributes) {
                 for (final String key : attributes.keySet()) {
@@ -243,7 +302,7 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
                     final String key = entry.getKey();
                     final String value = entry.getValue();
                     if (key != null && value != null) {
-                        initializedAttributes.put(key, value);
+                        putAttribute(key, value);
                     }
                 }
             }
@@ -257,7 +316,7 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
                         continue;
                     }
 
-                    initializeAttributes().remove(key);
+                    removeAttribute(key);
                 }
             }
             return this;
@@ -270,7 +329,7 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
                         continue;
                     }
 
-                    initializeAttributes().remove(key);
+                    removeAttribute(key);
                 }
             }
             return this;
@@ -294,6 +353,40 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
             return this;
         }
 
+        /**
+         * Adds the attributes of the given parent FlowFile, other than those that identify the parent itself. If the parent is a
+         * StandardFlowFileRecord, its attributes are shared with the new FlowFile rather than copied, so that many children of the
+         * same parent do not each hold a full copy of the parent's attributes.
+         *
+         * @param parent the FlowFile whose attributes should be inherited
+         * @param excludedKeys the keys of any attributes that should not be inherited
+         * @return this Builder
+         */
+        public Builder inheritAttributes(final FlowFile parent, final Set<String> excludedKeys) {
+            if (parent == null) {
+                return this;
+            }
+
+            if (bAttributes == null && parent instanceof StandardFlowFileRecord) {
+                bAttributes = ((StandardFlowFileRecord) parent).attributes;
+                bAttributesCopied = false;
+                bAttributeUpdates = null;
+
+                for (final String key : excludedKeys) {
+                    removeAttribute(key);
+                }
+            } else {
+                final Map<String, String> initializedAttributes = initializeAttributes();
+                for (final Map.Entry<String, String> entry : parent.getAttributes().entrySet()) {
+                    if (!excludedKeys.contains(entry.getKey())) {
+                        initializedAttributes.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+
+            return this;
+        }
+
         public Builder contentClaim(final ContentClaim claim) {
             this.bClaim = claim;
             return this;
@@ -328,6 +421,7 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
             // UnmodifiableMap, though, so that Processors cannot directly modify that Map.
             bAttributes = specFlowFile instanceof StandardFlowFileRecord ? ((StandardFlowFileRecord) specFlowFile).attributes : specFlowFile.getAttributes();
             bAttributesCopied = false;
+            bAttributeUpdates = null;
             bClaim = specFlowFile.getContentClaim();
             bClaimOffset = specFlowFile.getContentClaimOffset();
             bLastQueueDate = specFlowFile.getLastQueueDate();
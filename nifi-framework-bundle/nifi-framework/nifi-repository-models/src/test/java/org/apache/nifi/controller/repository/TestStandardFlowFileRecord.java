@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestStandardFlowFileRecord {
+
+    @Test
+    public void testUpdatedAttributesDoNotAffectOriginal() {
+        final FlowFileRecord original = createFlowFile(20);
+
+        final FlowFileRecord updated = new StandardFlowFileRecord.Builder()
+            .fromFlowFile(original)
+            .addAttribute("attr-0", "updated")
+            .addAttribute("new", "value")
+            .removeAttributes("attr-1")
+            .build();
+
+        assertEquals("value-0", original.getAttribute("attr-0"));
+        assertEquals("value-1", original.getAttribute("attr-1"));
+        assertNull(original.getAttribute("new"));
+        assertEquals(21, original.getAttributes().size());
+
+        final Map<String, String> expected = new HashMap<>(original.getAttributes());
+        expected.put("attr-0", "updated");
+        expected.put("new", "value");
+        expected.remove("attr-1");
+
+        assertEquals(expected, updated.getAttributes());
+        assertEquals(expected.size(), updated.getAttributes().size());
+        assertEquals("updated", updated.getAttribute("attr-0"));
+        assertNull(updated.getAttribute("attr-1"));
+        assertFalse(updated.getAttributes().containsKey("attr-1"));
+    }
+
+    @Test
+    public void testSuccessiveUpdates() {
+        FlowFileRecord flowFile = createFlowFile(20);
+        final Map<String, String> expected = new HashMap<>(flowFile.getAttributes());
+
+        for (int i = 0; i < 50; i++) {
+            final String key = "attr-" + (i % 25);
+            if (i % 3 == 0) {
+                flowFile = new StandardFlowFileRecord.Builder().fromFlowFile(flowFile).removeAttributes(key).build();
+                expected.remove(key);
+            } else {
+                flowFile = new StandardFlowFileRecord.Builder().fromFlowFile(flowFile).addAttribute(key, "iteration-" + i).build();
+                expected.put(key, "iteration-" + i);
+            }
+
+            assertEquals(expected, flowFile.getAttributes());
+            assertEquals(expected.size(), flowFile.getAttributes().size());
+        }
+    }
+
+    @Test
+    public void testInheritAttributes() {
+        final FlowFileRecord parent = new StandardFlowFileRecord.Builder()
+            .fromFlowFile(createFlowFile(20))
+            .addAttribute(CoreAttributes.ALTERNATE_IDENTIFIER.key(), "alternate")
+            .build();
+
+        final FlowFileRecord child = new StandardFlowFileRecord.Builder()
+            .id(2L)
+            .inheritAttributes(parent, Set.of(CoreAttributes.UUID.key(), CoreAttributes.ALTERNATE_IDENTIFIER.key()))
+            .addAttribute(CoreAttributes.UUID.key(), "child-uuid")
+            .build();
+
+        final Map<String, String> expected = new HashMap<>(parent.getAttributes());
+        expected.remove(CoreAttributes.ALTERNATE_IDENTIFIER.key());
+        expected.put(CoreAttributes.UUID.key(), "child-uuid");
+
+        assertEquals(expected, child.getAttributes());
+        assertEquals("parent-uuid", parent.getAttribute(CoreAttributes.UUID.key()));
+        assertEquals("alternate", parent.getAttribute(CoreAttributes.ALTERNATE_IDENTIFIER.key()));
+    }
+
+    @Test
+    public void testRemoveAttributesByPattern() {
+        final FlowFileRecord original = createFlowFile(20);
+        final FlowFileRecord updated = new StandardFlowFileRecord.Builder()
+            .fromFlowFile(original)
+            .addAttribute("attr-100", "value")
+            .removeAttributes(Pattern.compile("attr-1.*"))
+            .build();
+
+        for (final String key : updated.getAttributes().keySet()) {
+            assertFalse(key.startsWith("attr-1"));
+        }
+        assertTrue(updated.getAttributes().containsKey("attr-2"));
+        assertEquals(21, original.getAttributes().size());
+    }
+
+    @Test
+    public void testAttributesUnmodifiable() {
+        final FlowFileRecord updated = new StandardFlowFileRecord.Builder()
+            .fromFlowFile(createFlowFile(20))
+            .addAttribute("new", "value")
+            .build();
+
+        assertThrows(UnsupportedOperationException.class, () -> updated.getAttributes().put("other", "value"));
+        assertThrows(UnsupportedOperationException.class, () -> updated.getAttributes().entrySet().iterator().next().setValue("value"));
+    }
+
+    private FlowFileRecord createFlowFile(final int attributeCount) {
+        final StandardFlowFileRecord.Builder builder = new StandardFlowFileRecord.Builder()
+            .id(1L)
+            .addAttribute(CoreAttributes.UUID.key(), "parent-uuid");
+
+        for (int i = 0; i < attributeCount; i++) {
+            builder.addAttribute("attr-" + i, "value-" + i);
+        }
+
+        return builder.build();
+    }
+}
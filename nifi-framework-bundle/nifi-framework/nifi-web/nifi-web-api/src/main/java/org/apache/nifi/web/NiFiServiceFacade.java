@@ -145,6 +145,7 @@ import org.apache.nifi.web.api.entity.VersionedFlowSnapshotMetadataEntity;
 import org.apache.nifi.web.api.entity.VersionedReportingTaskImportResponseEntity;
 import org.apache.nifi.web.api.request.FlowMetricsRegistry;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
@@ -415,6 +416,14 @@ public interface NiFiServiceFacade {
      */
     ControllerStatusDTO getControllerStatus();
 
+    /**
+     * Returns the controller status of the cluster, as determined from the most recent heartbeat of each connected node. The status
+     * is only available on the active Cluster Coordinator, and only if every connected node has recently reported its controller status.
+     *
+     * @return the controller status of the cluster, or <code>null</code> if it cannot be determined without replicating the request
+     */
+    ControllerStatusDTO getClusterControllerStatus();
+
     /**
      * Updates the specified counter by setting its value to 0.
      *
@@ -1013,6 +1022,17 @@ public interface NiFiServiceFacade {
      */
     ProcessGroupFlowEntity getProcessGroupFlow(String groupId, boolean uiOnly);
 
+    /**
+     * Provides the flow to the specified writer. Unlike {@link #getProcessGroupFlow(String, boolean)}, the components of the flow are
+     * created as the writer consumes them, so that a large flow can be written without holding all of its components in memory.
+     *
+     * @param groupId group
+     * @param uiOnly whether or not the entity should be populated only with UI-related fields
+     * @param writer the writer of the flow
+     * @throws IOException if the writer is unable to write the flow
+     */
+    void streamProcessGroupFlow(String groupId, boolean uiOnly, ProcessGroupFlowWriter writer) throws IOException;
+
     /**
      * Returns the breadcrumbs for the specified group.
      *
@@ -132,6 +132,12 @@ public class NiFiServiceFacadeLock {
         return proceedWithReadLock(proceedingJoinPoint);
     }
 
+    @Around("within(org.apache.nifi.web.NiFiServiceFacade+) && "
+            + "execution(* stream*(..))")
+    public Object streamLock(ProceedingJoinPoint proceedingJoinPoint) throws Throwable {
+        return proceedWithReadLock(proceedingJoinPoint);
+    }
+
     @Around("within(org.apache.nifi.web.NiFiServiceFacade+) && "
         + "execution(* verify*(..))")
     public Object verifyLock(ProceedingJoinPoint proceedingJoinPoint) throws Throwable {
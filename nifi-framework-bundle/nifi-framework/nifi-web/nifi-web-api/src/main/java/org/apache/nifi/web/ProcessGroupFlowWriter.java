@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.web;
+
+import org.apache.nifi.web.api.dto.FlowEntities;
+import org.apache.nifi.web.api.entity.ProcessGroupFlowEntity;
+
+import java.io.IOException;
+
+/**
+ * Writes the flow of a Process Group as it is provided by {@link NiFiServiceFacade#streamProcessGroupFlow(String, boolean, ProcessGroupFlowWriter)}.
+ */
+@FunctionalInterface
+public interface ProcessGroupFlowWriter {
+
+    /**
+     * Writes the flow of a Process Group.
+     *
+     * @param processGroupFlow the Process Group flow, whose flow is not populated
+     * @param flow the components of the flow, which are created as they are consumed
+     * @throws IOException if unable to write the flow
+     */
+    void write(ProcessGroupFlowEntity processGroupFlow, FlowEntities flow) throws IOException;
+}
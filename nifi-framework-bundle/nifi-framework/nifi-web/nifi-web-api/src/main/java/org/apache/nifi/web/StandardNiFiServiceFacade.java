@@ -55,6 +55,7 @@ import org.apache.nifi.cluster.coordination.node.NodeConnectionState;
 import org.apache.nifi.cluster.coordination.node.NodeConnectionStatus;
 import org.apache.nifi.cluster.coordination.node.OffloadCode;
 import org.apache.nifi.cluster.event.NodeEvent;
+import org.apache.nifi.cluster.manager.StatusMerger;
 import org.apache.nifi.cluster.manager.exception.IllegalNodeDeletionException;
 import org.apache.nifi.cluster.manager.exception.UnknownNodeException;
 import org.apache.nifi.cluster.protocol.NodeIdentifier;
@@ -183,6 +184,7 @@ import org.apache.nifi.reporting.ComponentType;
 import org.apache.nifi.reporting.VerifiableReportingTask;
 import org.apache.nifi.util.BundleUtils;
 import org.apache.nifi.util.FlowDifferenceFilters;
+import org.apache.nifi.util.FormatUtils;
 import org.apache.nifi.util.NiFiProperties;
 import org.apache.nifi.util.StringUtils;
 import org.apache.nifi.validation.RuleViolation;
@@ -3679,6 +3681,50 @@ public class StandardNiFiServiceFacade implements NiFiServiceFacade {
         return controllerFacade.getControllerStatus();
     }
 
+    @Override
+    public ControllerStatusDTO getClusterControllerStatus() {
+        if (clusterCoordinator == null || heartbeatMonitor == null || !clusterCoordinator.isActiveClusterCoordinator()) {
+            return null;
+        }
+
+        // a heartbeat may be in flight for up to one heartbeat interval, so allow for one missed heartbeat before
+        // considering the reported status to be too old to be used
+        final long heartbeatIntervalMillis = FormatUtils.getTimeDuration(properties.getClusterProtocolHeartbeatInterval(), TimeUnit.MILLISECONDS);
+        final long oldestTimestamp = System.currentTimeMillis() - (heartbeatIntervalMillis * 2);
+
+        final NodeIdentifier localNodeId = clusterCoordinator.getLocalNodeIdentifier();
+        final Set<NodeIdentifier> connectedNodeIds = clusterCoordinator.getNodeIdentifiers(NodeConnectionState.CONNECTED);
+        if (localNodeId == null || !connectedNodeIds.contains(localNodeId)) {
+            return null;
+        }
+
+        final List<ControllerStatusDTO> nodeStatuses = new ArrayList<>(connectedNodeIds.size());
+        for (final NodeIdentifier nodeId : connectedNodeIds) {
+            if (nodeId.equals(localNodeId)) {
+                continue;
+            }
+
+            final NodeHeartbeat heartbeat = heartbeatMonitor.getLatestHeartbeat(nodeId);
+            if (heartbeat == null || heartbeat.getTimestamp() < oldestTimestamp
+                    || heartbeat.getComponentActiveThreadCount() == null || heartbeat.getTerminatedThreadCount() == null) {
+                return null;
+            }
+
+            final ControllerStatusDTO nodeStatus = new ControllerStatusDTO();
+            nodeStatus.setActiveThreadCount(heartbeat.getComponentActiveThreadCount());
+            nodeStatus.setTerminatedThreadCount(heartbeat.getTerminatedThreadCount());
+            nodeStatus.setFlowFilesQueued(heartbeat.getFlowFileCount());
+            nodeStatus.setBytesQueued(heartbeat.getFlowFileBytes());
+            nodeStatuses.add(nodeStatus);
+        }
+
+        // the component counts are the same on every node, so the local status is used for them, and the thread and queue
+        // counts of the other nodes are added to it, as is done when merging the responses of a replicated request
+        final ControllerStatusDTO clusterStatus = controllerFacade.getControllerStatus();
+        nodeStatuses.forEach(nodeStatus -> StatusMerger.merge(clusterStatus, nodeStatus));
+        return clusterStatus;
+    }
+
     @Override
     public ComponentStateDTO getProcessorState(final String processorId) {
         final StateMap clusterState = isClustered() ? processorDAO.getState(processorId, Scope.CLUSTER) : null;
@@ -4822,6 +4868,17 @@ public class StandardNiFiServiceFacade implements NiFiServiceFacade {
         return entityFactory.createProcessGroupFlowEntity(dtoFactory.createProcessGroupFlowDto(processGroup, groupStatus, revisionManager, this::getProcessGroupBulletins, uiOnly), permissions);
     }
 
+    @Override
+    public void streamProcessGroupFlow(final String groupId, final boolean uiOnly, final ProcessGroupFlowWriter writer) throws IOException {
+        final ProcessGroup processGroup = processGroupDAO.getProcessGroup(groupId);
+
+        // as in getProcessGroupFlow, a status depth of one is sufficient
+        final ProcessGroupStatus groupStatus = controllerFacade.getProcessGroupStatus(groupId, 1);
+        final PermissionsDTO permissions = dtoFactory.createPermissionsDto(processGroup);
+        final ProcessGroupFlowEntity entity = entityFactory.createProcessGroupFlowEntity(dtoFactory.createProcessGroupFlowDto(processGroup), permissions);
+        writer.write(entity, dtoFactory.createFlowEntities(processGroup, groupStatus, revisionManager, this::getProcessGroupBulletins, uiOnly));
+    }
+
     @Override
     public FlowBreadcrumbEntity getProcessGroupBreadcrumbs(final String groupId) {
         final ProcessGroup processGroup = processGroupDAO.getProcessGroup(groupId);
@@ -6309,6 +6366,10 @@ public class StandardNiFiServiceFacade implements NiFiServiceFacade {
         PrometheusMetricsUtil.createStorageUsageMetrics(nifiMetricsRegistry, flowFileRepositoryUsage, contentRepositoryUsage, provenanceRepositoryUsage,
                 instanceId, ROOT_PROCESS_GROUP, rootPGName, rootPGId, "");
 
+        // Add the provenance events discarded by sampling, which are otherwise only reported in the logs
+        PrometheusMetricsUtil.createDiscardedProvenanceEventMetrics(nifiMetricsRegistry, controllerFacade.getDiscardedProvenanceEventCounts(),
+                instanceId, ROOT_PROCESS_GROUP, rootPGName, rootPGId, "");
+
         //Add total task duration for root to the NiFi metrics registry
         // The latest aggregated status history is the last element in the list so we need the last element only
         final StatusHistoryEntity rootGPStatusHistory = getProcessGroupStatusHistory(rootPGId);
@@ -26,6 +26,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.apache.commons.io.output.ByteArrayOutputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.nifi.authorization.Authorizer;
 import org.apache.nifi.authorization.RequestAction;
@@ -62,12 +63,12 @@ import org.apache.nifi.web.api.dto.ClusterDTO;
 import org.apache.nifi.web.api.dto.ClusterSummaryDTO;
 import org.apache.nifi.web.api.dto.ComponentDifferenceDTO;
 import org.apache.nifi.web.api.dto.DifferenceDTO;
+import org.apache.nifi.web.api.dto.FlowEntities;
 import org.apache.nifi.web.api.dto.NodeDTO;
 import org.apache.nifi.web.api.dto.ProcessGroupDTO;
 import org.apache.nifi.web.api.dto.RevisionDTO;
 import org.apache.nifi.web.api.dto.action.HistoryDTO;
 import org.apache.nifi.web.api.dto.action.HistoryQueryDTO;
-import org.apache.nifi.web.api.dto.flow.FlowDTO;
 import org.apache.nifi.web.api.dto.flow.ProcessGroupFlowDTO;
 import org.apache.nifi.web.api.dto.search.NodeSearchResultDTO;
 import org.apache.nifi.web.api.dto.search.SearchResultsDTO;
@@ -147,8 +148,11 @@ import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.StreamingOutput;
+import org.apache.nifi.web.util.ObjectMapperResolver;
 import org.apache.nifi.web.util.PaginationHelper;
+import org.apache.nifi.web.util.ProcessGroupFlowJsonWriter;
 
+import java.io.IOException;
 import java.text.Collator;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
@@ -184,6 +188,8 @@ public class FlowResource extends ApplicationResource {
     private static final String VERSIONED_REPORTING_TASK_SNAPSHOT_FILENAME_PATTERN = "VersionedReportingTaskSnapshot-%s.json";
     private static final String VERSIONED_REPORTING_TASK_SNAPSHOT_DATE_FORMAT = "yyyyMMddHHmmss";
 
+    private static final ProcessGroupFlowJsonWriter PROCESS_GROUP_FLOW_WRITER = new ProcessGroupFlowJsonWriter(new ObjectMapperResolver().getContext(ProcessGroupFlowEntity.class));
+
     private NiFiServiceFacade serviceFacade;
     private Authorizer authorizer;
 
@@ -204,42 +210,26 @@ public class FlowResource extends ApplicationResource {
     }
 
     /**
-     * Populates the remaining fields in the specified process group.
-     *
-     * @param flow group
+     * Populates the remaining content of the components of the specified flow as they are created.
      */
-    private void populateRemainingFlowContent(ProcessGroupFlowDTO flow) {
-        FlowDTO flowStructure = flow.getFlow();
-
-        // populate the remaining fields for the processors, connections, process group refs, remote process groups, and labels if appropriate
-        if (flowStructure != null) {
-            populateRemainingFlowStructure(flowStructure);
-        }
-
-        // set the process group uri
-        flow.setUri(generateResourceUri("flow", "process-groups", flow.getId()));
-    }
-
-    /**
-     * Populates the remaining content of the specified snippet.
-     */
-    private void populateRemainingFlowStructure(FlowDTO flowStructure) {
-        processorResource.populateRemainingProcessorEntitiesContent(flowStructure.getProcessors());
-        connectionResource.populateRemainingConnectionEntitiesContent(flowStructure.getConnections());
-        inputPortResource.populateRemainingInputPortEntitiesContent(flowStructure.getInputPorts());
-        outputPortResource.populateRemainingOutputPortEntitiesContent(flowStructure.getOutputPorts());
-        remoteProcessGroupResource.populateRemainingRemoteProcessGroupEntitiesContent(flowStructure.getRemoteProcessGroups());
-        funnelResource.populateRemainingFunnelEntitiesContent(flowStructure.getFunnels());
-        labelResource.populateRemainingLabelEntitiesContent(flowStructure.getLabels());
-        processGroupResource.populateRemainingProcessGroupEntitiesContent(flowStructure.getProcessGroups());
-
-        // go through each process group child and populate its uri
-        for (final ProcessGroupEntity processGroupEntity : flowStructure.getProcessGroups()) {
-            final ProcessGroupDTO processGroup = processGroupEntity.getComponent();
-            if (processGroup != null) {
-                processGroup.setContents(null);
-            }
-        }
+    private FlowEntities populateRemainingFlowEntities(final FlowEntities flow) {
+        return new FlowEntities(
+                flow.processGroups().map(processGroupEntity -> {
+                    processGroupResource.populateRemainingProcessGroupEntityContent(processGroupEntity);
+
+                    final ProcessGroupDTO processGroup = processGroupEntity.getComponent();
+                    if (processGroup != null) {
+                        processGroup.setContents(null);
+                    }
+                    return processGroupEntity;
+                }),
+                flow.remoteProcessGroups().map(remoteProcessGroupResource::populateRemainingRemoteProcessGroupEntityContent),
+                flow.processors().map(processorResource::populateRemainingProcessorEntityContent),
+                flow.inputPorts().map(inputPortResource::populateRemainingInputPortEntityContent),
+                flow.outputPorts().map(outputPortResource::populateRemainingOutputPortEntityContent),
+                flow.connections().map(connectionResource::populateRemainingConnectionEntityContent),
+                flow.labels().map(labelResource::populateRemainingLabelEntityContent),
+                flow.funnels().map(funnelResource::populateRemainingFunnelEntityContent));
     }
 
     /**
@@ -387,18 +377,28 @@ public class FlowResource extends ApplicationResource {
                     description = "The process group id."
             )
             @PathParam("id") final String groupId,
-            @QueryParam("uiOnly") @DefaultValue("false") final boolean uiOnly) {
+            @QueryParam("uiOnly") @DefaultValue("false") final boolean uiOnly) throws IOException {
 
         authorizeFlow();
 
         if (isReplicateRequest()) {
+            // the responses of the nodes are deserialized into full entities in order to be merged, so the streaming below
+            // reduces the memory used by each node to produce its response but not the memory used here to merge them
             return replicate(HttpMethod.GET);
         }
 
-        // get this process group flow
-        final ProcessGroupFlowEntity entity = serviceFacade.getProcessGroupFlow(groupId, uiOnly);
-        populateRemainingFlowContent(entity.getProcessGroupFlow());
-        return generateOkResponse(entity).build();
+        // get this process group flow, serializing each component as it is created rather than holding every component entity of a
+        // large flow in memory. the serialized flow is still buffered in full so that the flow is not locked while the response is sent
+        // to a slow client, so a request holds the JSON of the flow rather than both the entities and the JSON
+        final ByteArrayOutputStream flowJson = new ByteArrayOutputStream();
+        serviceFacade.streamProcessGroupFlow(groupId, uiOnly, (entity, flow) -> {
+            final ProcessGroupFlowDTO processGroupFlow = entity.getProcessGroupFlow();
+            processGroupFlow.setUri(generateResourceUri("flow", "process-groups", processGroupFlow.getId()));
+            PROCESS_GROUP_FLOW_WRITER.write(entity, populateRemainingFlowEntities(flow), flowJson);
+        });
+
+        final StreamingOutput response = flowJson::writeTo;
+        return generateOkResponse(response).build();
     }
 
     @GET
@@ -1230,12 +1230,17 @@ public class FlowResource extends ApplicationResource {
 
         authorizeFlow();
 
+        final ControllerStatusDTO controllerStatus;
         if (isReplicateRequest()) {
-            return replicate(HttpMethod.GET);
+            // the cluster coordinator is able to provide the status from the heartbeats of the nodes, in which case there is no need to replicate
+            controllerStatus = serviceFacade.getClusterControllerStatus();
+            if (controllerStatus == null) {
+                return replicate(HttpMethod.GET);
+            }
+        } else {
+            controllerStatus = serviceFacade.getControllerStatus();
         }
 
-        final ControllerStatusDTO controllerStatus = serviceFacade.getControllerStatus();
-
         // create the response entity
         final ControllerStatusEntity entity = new ControllerStatusEntity();
         entity.setControllerStatus(controllerStatus);
@@ -2622,6 +2627,9 @@ public class FlowResource extends ApplicationResource {
         }
 
         if (isReplicateRequest()) {
+            // unlike the controller status, the status of a process group is not reported in heartbeats because its size grows
+            // with the flow, so it is always obtained by replicating the request and merging the responses of the nodes
+
             // determine where this request should be sent
             if (clusterNodeId == null) {
                 final NodeResponse nodeResponse = replicateNodeResponse(HttpMethod.GET);
@@ -229,9 +229,12 @@ import org.apache.nifi.web.api.entity.AffectedComponentEntity;
 import org.apache.nifi.web.api.entity.AllowableValueEntity;
 import org.apache.nifi.web.api.entity.BulletinEntity;
 import org.apache.nifi.web.api.entity.ComponentReferenceEntity;
+import org.apache.nifi.web.api.entity.ConnectionEntity;
 import org.apache.nifi.web.api.entity.ConnectionStatusSnapshotEntity;
 import org.apache.nifi.web.api.entity.ControllerServiceEntity;
 import org.apache.nifi.web.api.entity.FlowBreadcrumbEntity;
+import org.apache.nifi.web.api.entity.FunnelEntity;
+import org.apache.nifi.web.api.entity.LabelEntity;
 import org.apache.nifi.web.api.entity.ParameterContextReferenceEntity;
 import org.apache.nifi.web.api.entity.ParameterEntity;
 import org.apache.nifi.web.api.entity.ParameterGroupConfigurationEntity;
@@ -276,6 +279,7 @@ import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public final class DtoFactory {
 
@@ -2429,11 +2433,22 @@ public final class DtoFactory {
    public ProcessGroupFlowDTO createProcessGroupFlowDto(final ProcessGroup group, final ProcessGroupStatus groupStatus, final RevisionManager revisionManager,
                                                         final Function<ProcessGroup, List<BulletinEntity>> getProcessGroupBulletins, final boolean uiOnly) {
 
+       final ProcessGroupFlowDTO dto = createProcessGroupFlowDto(group);
+       dto.setFlow(createFlowDto(group, groupStatus, revisionManager, getProcessGroupBulletins, uiOnly));
+       return dto;
+   }
+
+   /**
+    * Creates a ProcessGroupFlowDTO for the specified group without its flow, so that the components of the group can be provided separately.
+    *
+    * @param group group
+    * @return dto
+    */
+   public ProcessGroupFlowDTO createProcessGroupFlowDto(final ProcessGroup group) {
        final ProcessGroupFlowDTO dto = new ProcessGroupFlowDTO();
        dto.setId(group.getIdentifier());
        dto.setLastRefreshed(new Date());
        dto.setBreadcrumb(createBreadcrumbEntity(group));
-       dto.setFlow(createFlowDto(group, groupStatus, revisionManager, getProcessGroupBulletins, uiOnly));
 
        final ProcessGroup parent = group.getParent();
        if (parent != null) {
@@ -2584,10 +2599,34 @@ public final class DtoFactory {
 
    public FlowDTO createFlowDto(final ProcessGroup group, final ProcessGroupStatus groupStatus, final RevisionManager revisionManager,
                                 final Function<ProcessGroup, List<BulletinEntity>> getProcessGroupBulletins, final boolean uiOnly) {
+       final FlowEntities entities = createFlowEntities(group, groupStatus, revisionManager, getProcessGroupBulletins, uiOnly);
+
        final FlowDTO dto = new FlowDTO();
+       entities.processors().forEach(dto.getProcessors()::add);
+       entities.connections().forEach(dto.getConnections()::add);
+       entities.labels().forEach(dto.getLabels()::add);
+       entities.funnels().forEach(dto.getFunnels()::add);
+       entities.processGroups().forEach(dto.getProcessGroups()::add);
+       entities.remoteProcessGroups().forEach(dto.getRemoteProcessGroups()::add);
+       entities.inputPorts().forEach(dto.getInputPorts()::add);
+       entities.outputPorts().forEach(dto.getOutputPorts()::add);
+       return dto;
+   }
 
+   /**
+    * Creates the entities for the components of the specified Process Group. Each entity is created as its stream is consumed.
+    *
+    * @param group group
+    * @param groupStatus status of the group, including the status of its components
+    * @param revisionManager revision manager
+    * @param getProcessGroupBulletins function that provides the bulletins of a child group
+    * @param uiOnly whether only the fields needed by the UI should be populated
+    * @return the entities of the components of the group
+    */
+   public FlowEntities createFlowEntities(final ProcessGroup group, final ProcessGroupStatus groupStatus, final RevisionManager revisionManager,
+                                          final Function<ProcessGroup, List<BulletinEntity>> getProcessGroupBulletins, final boolean uiOnly) {
        final Map<String, ProcessorStatus> processorStatuses = groupStatus.getProcessorStatus().stream().collect(Collectors.toMap(ProcessorStatus::getId, status -> status));
-       for (final ProcessorNode procNode : group.getProcessors()) {
+       final Stream<ProcessorEntity> processors = group.getProcessors().stream().map(procNode -> {
            final RevisionDTO revision = createRevisionDTO(revisionManager.getRevision(procNode.getIdentifier()));
            final PermissionsDTO permissions = createPermissionsDto(procNode);
            final PermissionsDTO operatePermissions = createPermissionsDto(new OperationAuthorizable(procNode));
@@ -2595,42 +2634,42 @@ public final class DtoFactory {
            final ProcessorStatusDTO statusDto = processorStatus == null ? null : createProcessorStatusDto(processorStatus);
            final List<BulletinDTO> bulletins = createBulletinDtos(bulletinRepository.findBulletinsForSource(procNode.getIdentifier()));
            final List<BulletinEntity> bulletinEntities = bulletins.stream().map(bulletin -> entityFactory.createBulletinEntity(bulletin, permissions.getCanRead())).collect(Collectors.toList());
-           dto.getProcessors().add(entityFactory.createProcessorEntity(createProcessorDto(procNode, uiOnly), revision, permissions, operatePermissions, statusDto, bulletinEntities));
-       }
+           return entityFactory.createProcessorEntity(createProcessorDto(procNode, uiOnly), revision, permissions, operatePermissions, statusDto, bulletinEntities);
+       });
 
        final Map<String, ConnectionStatus> connectionStatuses = groupStatus.getConnectionStatus().stream().collect(Collectors.toMap(ConnectionStatus::getId, status -> status));
-       for (final Connection connNode : group.getConnections()) {
+       final Stream<ConnectionEntity> connections = group.getConnections().stream().map(connNode -> {
            final RevisionDTO revision = createRevisionDTO(revisionManager.getRevision(connNode.getIdentifier()));
            final PermissionsDTO permissions = createPermissionsDto(connNode);
            final ConnectionStatus connectionStatus = connectionStatuses.get(connNode.getIdentifier());
            final ConnectionStatusDTO statusDto = connectionStatus == null ? null : createConnectionStatusDto(connectionStatus);
-           dto.getConnections().add(entityFactory.createConnectionEntity(createConnectionDto(connNode), revision, permissions, statusDto));
-       }
+           return entityFactory.createConnectionEntity(createConnectionDto(connNode), revision, permissions, statusDto);
+       });
 
-       for (final Label label : group.getLabels()) {
+       final Stream<LabelEntity> labels = group.getLabels().stream().map(label -> {
            final RevisionDTO revision = createRevisionDTO(revisionManager.getRevision(label.getIdentifier()));
            final PermissionsDTO permissions = createPermissionsDto(label);
-           dto.getLabels().add(entityFactory.createLabelEntity(createLabelDto(label), revision, permissions));
-       }
+           return entityFactory.createLabelEntity(createLabelDto(label), revision, permissions);
+       });
 
-       for (final Funnel funnel : group.getFunnels()) {
+       final Stream<FunnelEntity> funnels = group.getFunnels().stream().map(funnel -> {
            final RevisionDTO revision = createRevisionDTO(revisionManager.getRevision(funnel.getIdentifier()));
            final PermissionsDTO permissions = createPermissionsDto(funnel);
-           dto.getFunnels().add(entityFactory.createFunnelEntity(createFunnelDto(funnel), revision, permissions));
-       }
+           return entityFactory.createFunnelEntity(createFunnelDto(funnel), revision, permissions);
+       });
 
        final Map<String, ProcessGroupStatus> groupStatuses = groupStatus.getProcessGroupStatus().stream().collect(Collectors.toMap(ProcessGroupStatus::getId, status -> status));
-       for (final ProcessGroup childGroup : group.getProcessGroups()) {
+       final Stream<ProcessGroupEntity> processGroups = group.getProcessGroups().stream().map(childGroup -> {
            final RevisionDTO revision = createRevisionDTO(revisionManager.getRevision(childGroup.getIdentifier()));
            final PermissionsDTO permissions = createPermissionsDto(childGroup);
            final ProcessGroupStatus childGroupStatus = groupStatuses.get(childGroup.getIdentifier());
            final ProcessGroupStatusDTO statusDto = childGroupStatus == null ? null : createConciseProcessGroupStatusDto(childGroupStatus);
            final List<BulletinEntity> bulletins = getProcessGroupBulletins.apply(childGroup);
-           dto.getProcessGroups().add(entityFactory.createProcessGroupEntity(createProcessGroupDto(childGroup), revision, permissions, statusDto, bulletins));
-       }
+           return entityFactory.createProcessGroupEntity(createProcessGroupDto(childGroup), revision, permissions, statusDto, bulletins);
+       });
 
        final Map<String, RemoteProcessGroupStatus> rpgStatuses = groupStatus.getRemoteProcessGroupStatus().stream().collect(Collectors.toMap(RemoteProcessGroupStatus::getId, status -> status));
-       for (final RemoteProcessGroup rpg : group.getRemoteProcessGroups()) {
+       final Stream<RemoteProcessGroupEntity> remoteProcessGroups = group.getRemoteProcessGroups().stream().map(rpg -> {
            final RevisionDTO revision = createRevisionDTO(revisionManager.getRevision(rpg.getIdentifier()));
            final PermissionsDTO permissions = createPermissionsDto(rpg);
            final PermissionsDTO operatePermissions = createPermissionsDto(new OperationAuthorizable(rpg));
@@ -2638,34 +2677,27 @@ public final class DtoFactory {
            final RemoteProcessGroupStatusDTO statusDto = rpgStatus == null ? null : createRemoteProcessGroupStatusDto(rpg, rpgStatus);
            final List<BulletinDTO> bulletins = createBulletinDtos(bulletinRepository.findBulletinsForSource(rpg.getIdentifier()));
            final List<BulletinEntity> bulletinEntities = bulletins.stream().map(bulletin -> entityFactory.createBulletinEntity(bulletin, permissions.getCanRead())).collect(Collectors.toList());
-           dto.getRemoteProcessGroups().add(entityFactory.createRemoteProcessGroupEntity(createRemoteProcessGroupDto(rpg), revision, permissions, operatePermissions, statusDto, bulletinEntities));
-       }
+           return entityFactory.createRemoteProcessGroupEntity(createRemoteProcessGroupDto(rpg), revision, permissions, operatePermissions, statusDto, bulletinEntities);
+       });
 
        final Map<String, PortStatus> inputPortStatuses = groupStatus.getInputPortStatus().stream().collect(Collectors.toMap(PortStatus::getId, status -> status));
-       for (final Port inputPort : group.getInputPorts()) {
-           final RevisionDTO revision = createRevisionDTO(revisionManager.getRevision(inputPort.getIdentifier()));
-           final PermissionsDTO permissions = createPermissionsDto(inputPort);
-           final PermissionsDTO operatePermissions = createPermissionsDto(new OperationAuthorizable(inputPort));
-           final PortStatus portStatus = inputPortStatuses.get(inputPort.getIdentifier());
-           final PortStatusDTO statusDto = portStatus == null ? null : createPortStatusDto(portStatus);
-           final List<BulletinDTO> bulletins = createBulletinDtos(bulletinRepository.findBulletinsForSource(inputPort.getIdentifier()));
-           final List<BulletinEntity> bulletinEntities = bulletins.stream().map(bulletin -> entityFactory.createBulletinEntity(bulletin, permissions.getCanRead())).collect(Collectors.toList());
-           dto.getInputPorts().add(entityFactory.createPortEntity(createPortDto(inputPort), revision, permissions, operatePermissions, statusDto, bulletinEntities));
-       }
+       final Stream<PortEntity> inputPorts = group.getInputPorts().stream().map(inputPort -> createPortEntity(inputPort, inputPortStatuses, revisionManager));
 
        final Map<String, PortStatus> outputPortStatuses = groupStatus.getOutputPortStatus().stream().collect(Collectors.toMap(PortStatus::getId, status -> status));
-       for (final Port outputPort : group.getOutputPorts()) {
-           final RevisionDTO revision = createRevisionDTO(revisionManager.getRevision(outputPort.getIdentifier()));
-           final PermissionsDTO permissions = createPermissionsDto(outputPort);
-           final PermissionsDTO operatePermissions = createPermissionsDto(new OperationAuthorizable(outputPort));
-           final PortStatus portStatus = outputPortStatuses.get(outputPort.getIdentifier());
-           final PortStatusDTO statusDto = portStatus == null ? null : createPortStatusDto(portStatus);
-           final List<BulletinDTO> bulletins = createBulletinDtos(bulletinRepository.findBulletinsForSource(outputPort.getIdentifier()));
-           final List<BulletinEntity> bulletinEntities = bulletins.stream().map(bulletin -> entityFactory.createBulletinEntity(bulletin, permissions.getCanRead())).collect(Collectors.toList());
-           dto.getOutputPorts().add(entityFactory.createPortEntity(createPortDto(outputPort), revision, permissions, operatePermissions, statusDto, bulletinEntities));
-       }
+       final Stream<PortEntity> outputPorts = group.getOutputPorts().stream().map(outputPort -> createPortEntity(outputPort, outputPortStatuses, revisionManager));
 
-       return dto;
+       return new FlowEntities(processGroups, remoteProcessGroups, processors, inputPorts, outputPorts, connections, labels, funnels);
+   }
+
+   private PortEntity createPortEntity(final Port port, final Map<String, PortStatus> portStatuses, final RevisionManager revisionManager) {
+       final RevisionDTO revision = createRevisionDTO(revisionManager.getRevision(port.getIdentifier()));
+       final PermissionsDTO permissions = createPermissionsDto(port);
+       final PermissionsDTO operatePermissions = createPermissionsDto(new OperationAuthorizable(port));
+       final PortStatus portStatus = portStatuses.get(port.getIdentifier());
+       final PortStatusDTO statusDto = portStatus == null ? null : createPortStatusDto(portStatus);
+       final List<BulletinDTO> bulletins = createBulletinDtos(bulletinRepository.findBulletinsForSource(port.getIdentifier()));
+       final List<BulletinEntity> bulletinEntities = bulletins.stream().map(bulletin -> entityFactory.createBulletinEntity(bulletin, permissions.getCanRead())).collect(Collectors.toList());
+       return entityFactory.createPortEntity(createPortDto(port), revision, permissions, operatePermissions, statusDto, bulletinEntities);
    }
 
    /**
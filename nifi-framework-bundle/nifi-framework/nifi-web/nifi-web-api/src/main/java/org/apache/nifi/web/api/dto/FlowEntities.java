@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.web.api.dto;
+
+import org.apache.nifi.web.api.entity.ConnectionEntity;
+import org.apache.nifi.web.api.entity.FunnelEntity;
+import org.apache.nifi.web.api.entity.LabelEntity;
+import org.apache.nifi.web.api.entity.PortEntity;
+import org.apache.nifi.web.api.entity.ProcessGroupEntity;
+import org.apache.nifi.web.api.entity.ProcessorEntity;
+import org.apache.nifi.web.api.entity.RemoteProcessGroupEntity;
+
+import java.util.stream.Stream;
+
+/**
+ * The components of a Process Group's flow. Each entity is created only as its stream is consumed, so the entities can be written
+ * one at a time without holding the entire flow in memory. Each stream may be consumed only once.
+ *
+ * @param processGroups Child Process Groups
+ * @param remoteProcessGroups Remote Process Groups
+ * @param processors Processors
+ * @param inputPorts Input Ports
+ * @param outputPorts Output Ports
+ * @param connections Connections
+ * @param labels Labels
+ * @param funnels Funnels
+ */
+public record FlowEntities(
+        Stream<ProcessGroupEntity> processGroups,
+        Stream<RemoteProcessGroupEntity> remoteProcessGroups,
+        Stream<ProcessorEntity> processors,
+        Stream<PortEntity> inputPorts,
+        Stream<PortEntity> outputPorts,
+        Stream<ConnectionEntity> connections,
+        Stream<LabelEntity> labels,
+        Stream<FunnelEntity> funnels
+) {
+}
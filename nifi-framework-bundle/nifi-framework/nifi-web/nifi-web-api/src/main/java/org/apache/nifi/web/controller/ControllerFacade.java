@@ -80,6 +80,7 @@ import org.apache.nifi.parameter.ParameterProvider;
 import org.apache.nifi.processor.Processor;
 import org.apache.nifi.processor.Relationship;
 import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
 import org.apache.nifi.provenance.ProvenanceRepository;
 import org.apache.nifi.provenance.SearchableFields;
 import org.apache.nifi.provenance.lineage.ComputeLineageSubmission;
@@ -1746,6 +1747,14 @@ public class ControllerFacade implements Authorizable {
         return flowController.getEventAccess().getProvenanceRepositoryStorageUsage();
     }
 
+    /**
+     * Returns the number of provenance events of each type that the provenance repository has discarded instead of storing
+     * @return the number of discarded events of each type
+     */
+    public Map<ProvenanceEventType, Long> getDiscardedProvenanceEventCounts() {
+        return flowController.getProvenanceRepository().getDiscardedEventCounts();
+    }
+
     /**
      * Returns the storage usage of all content repositories
      * @return the map of all the storage usage
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.web.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.nifi.web.api.dto.FlowEntities;
+import org.apache.nifi.web.api.entity.ProcessGroupFlowEntity;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Writes a Process Group flow as JSON, writing each component of the flow as it is created rather than serializing a fully populated
+ * {@link ProcessGroupFlowEntity}. The JSON that is written is the same as the JSON of the equivalent fully populated entity.
+ */
+public class ProcessGroupFlowJsonWriter {
+    private static final String PROCESS_GROUP_FLOW_FIELD = "processGroupFlow";
+    private static final String FLOW_FIELD = "flow";
+
+    private final ObjectMapper objectMapper;
+
+    public ProcessGroupFlowJsonWriter(final ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes the given Process Group flow to the given stream.
+     *
+     * @param processGroupFlow the Process Group flow, whose flow is not populated
+     * @param flow the components of the flow
+     * @param out the stream to write to
+     * @throws IOException if unable to write to the stream
+     */
+    public void write(final ProcessGroupFlowEntity processGroupFlow, final FlowEntities flow, final OutputStream out) throws IOException {
+        // everything except for the components is small, so it is serialized up front in order to honor the same annotations as the rest of the entity
+        final ObjectNode entityNode = objectMapper.valueToTree(processGroupFlow);
+
+        try (final JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            for (final Map.Entry<String, JsonNode> field : entityNode.properties()) {
+                generator.writeFieldName(field.getKey());
+                if (PROCESS_GROUP_FLOW_FIELD.equals(field.getKey()) && field.getValue().isObject()) {
+                    writeProcessGroupFlow(generator, (ObjectNode) field.getValue(), flow);
+                } else {
+                    generator.writeTree(field.getValue());
+                }
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    private void writeProcessGroupFlow(final JsonGenerator generator, final ObjectNode processGroupFlowNode, final FlowEntities flow) throws IOException {
+        generator.writeStartObject();
+        for (final Map.Entry<String, JsonNode> field : processGroupFlowNode.properties()) {
+            generator.writeFieldName(field.getKey());
+            generator.writeTree(field.getValue());
+        }
+
+        generator.writeObjectFieldStart(FLOW_FIELD);
+        writeEntities(generator, "processGroups", flow.processGroups());
+        writeEntities(generator, "remoteProcessGroups", flow.remoteProcessGroups());
+        writeEntities(generator, "processors", flow.processors());
+        writeEntities(generator, "inputPorts", flow.inputPorts());
+        writeEntities(generator, "outputPorts", flow.outputPorts());
+        writeEntities(generator, "connections", flow.connections());
+        writeEntities(generator, "labels", flow.labels());
+        writeEntities(generator, "funnels", flow.funnels());
+        generator.writeEndObject();
+
+        generator.writeEndObject();
+    }
+
+    private void writeEntities(final JsonGenerator generator, final String fieldName, final Stream<?> entities) throws IOException {
+        generator.writeArrayFieldStart(fieldName);
+        try (entities) {
+            final Iterator<?> iterator = entities.iterator();
+            while (iterator.hasNext()) {
+                generator.writeObject(iterator.next());
+            }
+        }
+        generator.writeEndArray();
+    }
+}
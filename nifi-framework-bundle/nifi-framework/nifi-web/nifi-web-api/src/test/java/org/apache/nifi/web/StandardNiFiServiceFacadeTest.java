@@ -35,6 +35,14 @@ import org.apache.nifi.authorization.resource.ResourceFactory;
 import org.apache.nifi.authorization.resource.ResourceType;
 import org.apache.nifi.authorization.user.NiFiUserDetails;
 import org.apache.nifi.authorization.user.StandardNiFiUser.Builder;
+import org.apache.nifi.cluster.coordination.ClusterCoordinator;
+import org.apache.nifi.cluster.coordination.heartbeat.HeartbeatMonitor;
+import org.apache.nifi.cluster.coordination.heartbeat.NodeHeartbeat;
+import org.apache.nifi.cluster.coordination.heartbeat.StandardNodeHeartbeat;
+import org.apache.nifi.cluster.coordination.node.NodeConnectionState;
+import org.apache.nifi.cluster.coordination.node.NodeConnectionStatus;
+import org.apache.nifi.cluster.manager.StatusMerger;
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
 import org.apache.nifi.controller.FlowController;
 import org.apache.nifi.controller.flow.FlowManager;
 import org.apache.nifi.controller.service.ControllerServiceNode;
@@ -62,6 +70,7 @@ import org.apache.nifi.reporting.Bulletin;
 import org.apache.nifi.reporting.BulletinFactory;
 import org.apache.nifi.reporting.ComponentType;
 import org.apache.nifi.util.MockBulletinRepository;
+import org.apache.nifi.util.NiFiProperties;
 import org.apache.nifi.validation.RuleViolation;
 import org.apache.nifi.validation.RuleViolationsManager;
 import org.apache.nifi.web.api.dto.DtoFactory;
@@ -70,6 +79,7 @@ import org.apache.nifi.web.api.dto.ProcessGroupDTO;
 import org.apache.nifi.web.api.dto.RemoteProcessGroupDTO;
 import org.apache.nifi.web.api.dto.action.HistoryDTO;
 import org.apache.nifi.web.api.dto.action.HistoryQueryDTO;
+import org.apache.nifi.web.api.dto.status.ControllerStatusDTO;
 import org.apache.nifi.web.api.dto.status.StatusHistoryDTO;
 import org.apache.nifi.web.api.entity.ActionEntity;
 import org.apache.nifi.web.api.entity.ProcessGroupEntity;
@@ -156,6 +166,11 @@ public class StandardNiFiServiceFacadeTest {
     private static final String BULLETIN_MESSAGE_2 = "Error2";
     private static final String PATH_TO_GROUP_1 = "Path1";
     private static final String PATH_TO_GROUP_2 = "Path2";
+
+    private static final NodeIdentifier LOCAL_NODE_ID = new NodeIdentifier("node-1", "host-1", 8080, "host-1", 19998, null, null, null, false);
+    private static final NodeIdentifier REMOTE_NODE_ID_1 = new NodeIdentifier("node-2", "host-2", 8080, "host-2", 19998, null, null, null, false);
+    private static final NodeIdentifier REMOTE_NODE_ID_2 = new NodeIdentifier("node-3", "host-3", 8080, "host-3", 19998, null, null, null, false);
+    private static final int LOCAL_RUNNING_COUNT = 5;
     private static final String RANDOM_GROUP_ID = "randomGroupId";
 
     private StandardNiFiServiceFacade serviceFacade;
@@ -986,4 +1001,98 @@ public class StandardNiFiServiceFacadeTest {
 
         assertEquals(service.getInstanceIdentifier(), reportingTask.getProperties().get(serviceDescriptor.getName()));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetClusterControllerStatusMergesNodeHeartbeats() {
+        final long now = System.currentTimeMillis();
+        final Map<NodeIdentifier, NodeHeartbeat> heartbeats = new HashMap<>();
+        heartbeats.put(REMOTE_NODE_ID_1, createHeartbeat(REMOTE_NODE_ID_1, now, 3, 1, 20, 200L));
+        heartbeats.put(REMOTE_NODE_ID_2, createHeartbeat(REMOTE_NODE_ID_2, now, 4, 0, 30, 300L));
+
+        final StandardNiFiServiceFacade clusterServiceFacade = createClusterStatusServiceFacade(true, heartbeats);
+        final ControllerStatusDTO clusterStatus = clusterServiceFacade.getClusterControllerStatus();
+
+        assertNotNull(clusterStatus);
+        assertEquals(9, clusterStatus.getActiveThreadCount());
+        assertEquals(1, clusterStatus.getTerminatedThreadCount());
+        assertEquals(60, clusterStatus.getFlowFilesQueued());
+        assertEquals(600L, clusterStatus.getBytesQueued());
+        assertEquals(StatusMerger.prettyPrint(60, 600L), clusterStatus.getQueued());
+        assertEquals(LOCAL_RUNNING_COUNT, clusterStatus.getRunningCount());
+    }
+
+    @Test
+    public void testGetClusterControllerStatusNotCoordinator() {
+        final long now = System.currentTimeMillis();
+        final Map<NodeIdentifier, NodeHeartbeat> heartbeats = new HashMap<>();
+        heartbeats.put(REMOTE_NODE_ID_1, createHeartbeat(REMOTE_NODE_ID_1, now, 3, 1, 20, 200L));
+        heartbeats.put(REMOTE_NODE_ID_2, createHeartbeat(REMOTE_NODE_ID_2, now, 4, 0, 30, 300L));
+
+        final StandardNiFiServiceFacade clusterServiceFacade = createClusterStatusServiceFacade(false, heartbeats);
+
+        // the request must be forwarded to the cluster coordinator, which is the only node that receives heartbeats
+        assertNull(clusterServiceFacade.getClusterControllerStatus());
+    }
+
+    @Test
+    public void testGetClusterControllerStatusStaleHeartbeat() {
+        final long now = System.currentTimeMillis();
+        final Map<NodeIdentifier, NodeHeartbeat> heartbeats = new HashMap<>();
+        heartbeats.put(REMOTE_NODE_ID_1, createHeartbeat(REMOTE_NODE_ID_1, now, 3, 1, 20, 200L));
+        heartbeats.put(REMOTE_NODE_ID_2, createHeartbeat(REMOTE_NODE_ID_2, now - 60_000L, 4, 0, 30, 300L));
+
+        final StandardNiFiServiceFacade clusterServiceFacade = createClusterStatusServiceFacade(true, heartbeats);
+        assertNull(clusterServiceFacade.getClusterControllerStatus());
+    }
+
+    @Test
+    public void testGetClusterControllerStatusHeartbeatWithoutControllerStatus() {
+        final long now = System.currentTimeMillis();
+        final Map<NodeIdentifier, NodeHeartbeat> heartbeats = new HashMap<>();
+        heartbeats.put(REMOTE_NODE_ID_1, createHeartbeat(REMOTE_NODE_ID_1, now, 3, 1, 20, 200L));
+
+        // a node running a version that does not report its controller status in its heartbeats
+        heartbeats.put(REMOTE_NODE_ID_2, new StandardNodeHeartbeat(REMOTE_NODE_ID_2, now, new NodeConnectionStatus(REMOTE_NODE_ID_2, NodeConnectionState.CONNECTED),
+            30, 300L, 4, now, 0L));
+
+        final StandardNiFiServiceFacade clusterServiceFacade = createClusterStatusServiceFacade(true, heartbeats);
+        assertNull(clusterServiceFacade.getClusterControllerStatus());
+    }
+
+    private StandardNiFiServiceFacade createClusterStatusServiceFacade(final boolean activeCoordinator, final Map<NodeIdentifier, NodeHeartbeat> heartbeats) {
+        final Set<NodeIdentifier> connectedNodeIds = new HashSet<>(heartbeats.keySet());
+        connectedNodeIds.add(LOCAL_NODE_ID);
+
+        final ClusterCoordinator clusterCoordinator = mock(ClusterCoordinator.class);
+        when(clusterCoordinator.isActiveClusterCoordinator()).thenReturn(activeCoordinator);
+        when(clusterCoordinator.getLocalNodeIdentifier()).thenReturn(LOCAL_NODE_ID);
+        when(clusterCoordinator.getNodeIdentifiers(NodeConnectionState.CONNECTED)).thenReturn(connectedNodeIds);
+
+        final HeartbeatMonitor heartbeatMonitor = mock(HeartbeatMonitor.class);
+        when(heartbeatMonitor.getLatestHeartbeat(any(NodeIdentifier.class))).then(invocation -> heartbeats.get(invocation.<NodeIdentifier>getArgument(0)));
+
+        final ControllerStatusDTO localStatus = new ControllerStatusDTO();
+        localStatus.setActiveThreadCount(2);
+        localStatus.setTerminatedThreadCount(0);
+        localStatus.setFlowFilesQueued(10);
+        localStatus.setBytesQueued(100L);
+        localStatus.setRunningCount(LOCAL_RUNNING_COUNT);
+
+        final ControllerFacade controllerFacade = mock(ControllerFacade.class);
+        when(controllerFacade.getControllerStatus()).thenReturn(localStatus);
+
+        final StandardNiFiServiceFacade clusterServiceFacade = new StandardNiFiServiceFacade();
+        clusterServiceFacade.setClusterCoordinator(clusterCoordinator);
+        clusterServiceFacade.setHeartbeatMonitor(heartbeatMonitor);
+        clusterServiceFacade.setControllerFacade(controllerFacade);
+        clusterServiceFacade.setProperties(NiFiProperties.createBasicNiFiProperties(null,
+            Collections.singletonMap(NiFiProperties.CLUSTER_PROTOCOL_HEARTBEAT_INTERVAL, "5 sec")));
+        return clusterServiceFacade;
+    }
+
+    private NodeHeartbeat createHeartbeat(final NodeIdentifier nodeId, final long timestamp, final int activeThreadCount, final int terminatedThreadCount,
+                                          final int flowFileCount, final long flowFileBytes) {
+        return new StandardNodeHeartbeat(nodeId, timestamp, new NodeConnectionStatus(nodeId, NodeConnectionState.CONNECTED), flowFileCount, flowFileBytes,
+            activeThreadCount + 10, timestamp, 0L, activeThreadCount, terminatedThreadCount);
+    }
+}
@@ -38,6 +38,8 @@ import org.apache.nifi.web.NiFiServiceFacade;
 import org.apache.nifi.web.ResourceNotFoundException;
 import org.apache.nifi.web.api.dto.ComponentDifferenceDTO;
 import org.apache.nifi.web.api.dto.DifferenceDTO;
+import org.apache.nifi.web.api.dto.status.ControllerStatusDTO;
+import org.apache.nifi.web.api.entity.ControllerStatusEntity;
 import org.apache.nifi.web.api.entity.FlowComparisonEntity;
 import org.apache.nifi.web.api.request.FlowMetricsProducer;
 import org.junit.jupiter.api.Test;
@@ -46,6 +48,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import jakarta.ws.rs.HttpMethod;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.StreamingOutput;
@@ -66,12 +69,16 @@ import java.util.stream.Collectors;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -391,6 +398,35 @@ public class TestFlowResource {
         assertEquals(createDifference("Position Changed", "Position was changed"), differences.get(0));
     }
 
+    @Test
+    public void testGetControllerStatusFromHeartbeats() throws InterruptedException {
+        final FlowResource flowResource = spy(resource);
+        doReturn(true).when(flowResource).isReplicateRequest();
+
+        final ControllerStatusDTO clusterStatus = new ControllerStatusDTO();
+        when(serviceFacade.getClusterControllerStatus()).thenReturn(clusterStatus);
+
+        final Response response = flowResource.getControllerStatus();
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertSame(clusterStatus, ((ControllerStatusEntity) response.getEntity()).getControllerStatus());
+        verify(flowResource, never()).replicate(anyString());
+        verify(serviceFacade, never()).getControllerStatus();
+    }
+
+    @Test
+    public void testGetControllerStatusReplicatedWithoutHeartbeats() throws InterruptedException {
+        final FlowResource flowResource = spy(resource);
+        doReturn(true).when(flowResource).isReplicateRequest();
+
+        // the status is not available from heartbeats, such as on a node other than the coordinator, so the request is
+        // replicated, which forwards it to the coordinator when received by another node
+        final Response replicatedResponse = Response.ok().build();
+        doReturn(replicatedResponse).when(flowResource).replicate(HttpMethod.GET);
+
+        assertSame(replicatedResponse, flowResource.getControllerStatus());
+        verify(serviceFacade, never()).getControllerStatus();
+    }
+
     private void setUpGetVersionDifference() {
         final FlowVersionLocation baseLocation = new FlowVersionLocation(SAMPLE_BRANCH_ID_A, SAMPLE_BUCKET_ID_A, SAMPLE_FLOW_ID_A, "1");
         final FlowVersionLocation comparedLocation = new FlowVersionLocation(SAMPLE_BRANCH_ID_B, SAMPLE_BUCKET_ID_B, SAMPLE_FLOW_ID_B, "2");
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.web.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.nifi.web.api.dto.FlowEntities;
+import org.apache.nifi.web.api.dto.LabelDTO;
+import org.apache.nifi.web.api.dto.PermissionsDTO;
+import org.apache.nifi.web.api.dto.ProcessorDTO;
+import org.apache.nifi.web.api.dto.RevisionDTO;
+import org.apache.nifi.web.api.dto.flow.FlowBreadcrumbDTO;
+import org.apache.nifi.web.api.dto.flow.FlowDTO;
+import org.apache.nifi.web.api.dto.flow.ProcessGroupFlowDTO;
+import org.apache.nifi.web.api.entity.FlowBreadcrumbEntity;
+import org.apache.nifi.web.api.entity.LabelEntity;
+import org.apache.nifi.web.api.entity.ProcessGroupFlowEntity;
+import org.apache.nifi.web.api.entity.ProcessorEntity;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProcessGroupFlowJsonWriterTest {
+
+    private static final String GROUP_ID = "group-id";
+
+    private final ObjectMapper objectMapper = new ObjectMapperResolver().getContext(ProcessGroupFlowEntity.class);
+
+    @Test
+    void testWriteMatchesEntity() throws IOException {
+        final List<ProcessorEntity> processors = List.of(createProcessorEntity("processor-1"), createProcessorEntity("processor-2"));
+        final LabelEntity label = new LabelEntity();
+        label.setId("label");
+        label.setComponent(new LabelDTO());
+        label.getComponent().setLabel("A label");
+
+        final FlowDTO flow = new FlowDTO();
+        flow.getProcessors().addAll(processors);
+        flow.getLabels().add(label);
+
+        final ProcessGroupFlowEntity entity = createProcessGroupFlowEntity();
+        entity.getProcessGroupFlow().setFlow(flow);
+        final String expected = objectMapper.writeValueAsString(entity);
+
+        final FlowEntities flowEntities = new FlowEntities(Stream.empty(), Stream.empty(), processors.stream(), Stream.empty(), Stream.empty(),
+                Stream.empty(), Stream.of(label), Stream.empty());
+        entity.getProcessGroupFlow().setFlow(null);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ProcessGroupFlowJsonWriter(objectMapper).write(entity, flowEntities, out);
+
+        assertEquals(objectMapper.readTree(expected), objectMapper.readTree(out.toByteArray()));
+    }
+
+    private ProcessGroupFlowEntity createProcessGroupFlowEntity() {
+        final FlowBreadcrumbDTO breadcrumb = new FlowBreadcrumbDTO();
+        breadcrumb.setId(GROUP_ID);
+        breadcrumb.setName("Group");
+        final FlowBreadcrumbEntity breadcrumbEntity = new FlowBreadcrumbEntity();
+        breadcrumbEntity.setId(GROUP_ID);
+        breadcrumbEntity.setBreadcrumb(breadcrumb);
+
+        final ProcessGroupFlowDTO processGroupFlow = new ProcessGroupFlowDTO();
+        processGroupFlow.setId(GROUP_ID);
+        processGroupFlow.setUri("https://localhost/nifi-api/flow/process-groups/" + GROUP_ID);
+        processGroupFlow.setLastRefreshed(new Date());
+        processGroupFlow.setBreadcrumb(breadcrumbEntity);
+
+        final ProcessGroupFlowEntity entity = new ProcessGroupFlowEntity();
+        entity.setPermissions(createPermissions());
+        entity.setProcessGroupFlow(processGroupFlow);
+        return entity;
+    }
+
+    private ProcessorEntity createProcessorEntity(final String id) {
+        final ProcessorDTO processor = new ProcessorDTO();
+        processor.setId(id);
+        processor.setName(id);
+
+        final RevisionDTO revision = new RevisionDTO();
+        revision.setVersion(1L);
+
+        final ProcessorEntity entity = new ProcessorEntity();
+        entity.setId(id);
+        entity.setRevision(revision);
+        entity.setPermissions(createPermissions());
+        entity.setComponent(processor);
+        return entity;
+    }
+
+    private PermissionsDTO createPermissions() {
+        final PermissionsDTO permissions = new PermissionsDTO();
+        permissions.setCanRead(true);
+        permissions.setCanWrite(false);
+        return permissions;
+    }
+}